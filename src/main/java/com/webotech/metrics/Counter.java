@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A monotonic counter that is striped across cells (using a {@link LongAdder}) so that threads on different cores that increment it do
+ * not contend.
+ */
+public final class Counter implements Metric {
+
+  private final String name;
+  private final String help;
+  private final LongAdder count;
+
+  Counter(String name, String help) {
+    this.name = name;
+    this.help = help;
+    count = new LongAdder();
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public String getHelp() {
+    return help;
+  }
+
+  public void increment() {
+    count.increment();
+  }
+
+  /**
+   * Adds n, which must not be negative.
+   */
+  public void add(long n) {
+    if (n < 0) {
+      throw new IllegalArgumentException("Counter " + name + " cannot be decreased by " + n);
+    }
+    count.add(n);
+  }
+
+  /**
+   * @return the count, it is not an atomic snapshot when the counter is being incremented concurrently
+   */
+  public long get() {
+    return count.sum();
+  }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.metrics;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * A value that is sampled from a supplier each time it is read, so recording it costs nothing.
+ */
+public final class Gauge implements Metric {
+
+  private final String name;
+  private final String help;
+  private final DoubleSupplier supplier;
+
+  Gauge(String name, String help, DoubleSupplier supplier) {
+    this.name = name;
+    this.help = help;
+    this.supplier = supplier;
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public String getHelp() {
+    return help;
+  }
+
+  public double get() {
+    return supplier.getAsDouble();
+  }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.metrics;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A histogram of non-negative long values (typically latencies in nanos) with log-linear buckets, in the style of HdrHistogram. Values
+ * below 32 have a bucket each, above that each power of 2 is split into 32 linear buckets so a value is known to within 1/32 (about 3%)
+ * of itself, across the whole range of long with a fixed 1888 buckets. Negative values are recorded as 0.
+ * <p>
+ * Recording is lock free and does not allocate, it is two atomic adds into a stripe of bucket counts and its sum. Like {@link
+ * java.util.concurrent.atomic.LongAdder}, the stripe is picked by a per-thread probe that starts at a random value and moves the thread to
+ * another stripe when its add to the sum fails because another thread is adding to the same stripe, so threads spread out across the
+ * stripes when they contend rather than sharing one because their ids collide. Stripes are created the first time a thread records into
+ * them. {@link #snapshot()} sums the stripes into a cumulative {@link HistogramSnapshot}, the interval between two snapshots is given by
+ * {@link HistogramSnapshot#minus(HistogramSnapshot)}.
+ * <p>
+ * A snapshot is not a point in time view, recording carries on while it is taken. Each stripe's sum is read before its counts, so the sum
+ * of a snapshot can lag its counts by the values recorded while it is being taken but it never leads them, and of two recordings made
+ * while it is being taken the later one may be in it without the earlier one. As counts and sums only grow, each recording is counted in
+ * exactly one interval but its value may only be in the sum of the next interval. A snapshot taken while nothing records is exact.
+ */
+public final class Histogram implements Metric {
+
+  static final int SUB_BUCKET_BITS = 5;
+  static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+  private static final int SUM_INDEX = BUCKET_COUNT;
+  private static final int MAX_STRIPES = 32;
+  private static final ThreadLocal<int[]> probe = ThreadLocal.withInitial(
+      () -> new int[]{ThreadLocalRandom.current().nextInt() | 1});
+  private final String name;
+  private final String help;
+  private final AtomicReferenceArray<AtomicLongArray> stripes;
+  private final int stripeMask;
+
+  Histogram(String name, String help) {
+    this.name = name;
+    this.help = help;
+    int processors = Math.min(Runtime.getRuntime().availableProcessors(), MAX_STRIPES);
+    int stripeCount = Integer.highestOneBit(processors) == processors ? processors
+        : Integer.highestOneBit(processors) << 1;
+    stripes = new AtomicReferenceArray<>(stripeCount);
+    stripeMask = stripeCount - 1;
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public String getHelp() {
+    return help;
+  }
+
+  public void record(long value) {
+    int[] threadProbe = probe.get();
+    AtomicLongArray stripe = stripe(threadProbe[0]);
+    stripe.getAndIncrement(bucketIndex(value));
+    long addend = Math.max(0, value);
+    long sum = stripe.get(SUM_INDEX);
+    if (!stripe.compareAndSet(SUM_INDEX, sum, sum + addend)) {
+      // Contended, move this thread to another stripe for its next recording
+      threadProbe[0] = advanceProbe(threadProbe[0]);
+      stripe.getAndAdd(SUM_INDEX, addend);
+    }
+  }
+
+  /**
+   * Records the nanos elapsed since startNanos, which is a value from {@link System#nanoTime()}.
+   */
+  public void recordNanosSince(long startNanos) {
+    record(System.nanoTime() - startNanos);
+  }
+
+  /**
+   * @return the cumulative counts of the values that have been recorded, values recorded while it is being taken may be missing and its sum
+   * may lag its counts (see the class javadoc)
+   */
+  public HistogramSnapshot snapshot() {
+    long[] counts = new long[BUCKET_COUNT];
+    long sum = 0;
+    for (int i = 0; i < stripes.length(); i++) {
+      AtomicLongArray stripe = stripes.get(i);
+      if (stripe != null) {
+        sum += stripe.get(SUM_INDEX);
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+          counts[bucket] += stripe.get(bucket);
+        }
+      }
+    }
+    return new HistogramSnapshot(counts, sum);
+  }
+
+  private AtomicLongArray stripe(int threadProbe) {
+    int index = threadProbe & stripeMask;
+    AtomicLongArray stripe = stripes.get(index);
+    if (stripe == null) {
+      stripes.compareAndSet(index, null, new AtomicLongArray(BUCKET_COUNT + 1));
+      stripe = stripes.get(index);
+    }
+    return stripe;
+  }
+
+  /**
+   * @return the next value of a probe, using the same xorshift as {@link java.util.concurrent.ThreadLocalRandom}
+   */
+  private static int advanceProbe(int threadProbe) {
+    int next = threadProbe;
+    next ^= next << 13;
+    next ^= next >>> 17;
+    next ^= next << 5;
+    return next;
+  }
+
+  static int bucketIndex(long value) {
+    if (value < SUB_BUCKET_COUNT) {
+      return value < 0 ? 0 : (int) value;
+    }
+    int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+    return ((shift + 1) << SUB_BUCKET_BITS) + (int) (value >>> shift) - SUB_BUCKET_COUNT;
+  }
+
+  static long lowestValue(int bucketIndex) {
+    if (bucketIndex < SUB_BUCKET_COUNT) {
+      return bucketIndex;
+    }
+    int shift = (bucketIndex >> SUB_BUCKET_BITS) - 1;
+    return (long) ((bucketIndex & (SUB_BUCKET_COUNT - 1)) + SUB_BUCKET_COUNT) << shift;
+  }
+
+  static long highestValue(int bucketIndex) {
+    if (bucketIndex < SUB_BUCKET_COUNT) {
+      return bucketIndex;
+    }
+    int shift = (bucketIndex >> SUB_BUCKET_BITS) - 1;
+    return lowestValue(bucketIndex) + (1L << shift) - 1;
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.metrics;
+
+/**
+ * An immutable copy of the bucket counts of a {@link Histogram}, either cumulative (from {@link Histogram#snapshot()}) or for an interval
+ * (from {@link #minus(HistogramSnapshot)}). Values are reported with the precision of their bucket, the percentiles and the max are the
+ * highest value in their bucket and the min is the lowest value in its bucket.
+ */
+public final class HistogramSnapshot {
+
+  private final long[] counts;
+  private final long count;
+  private final long sum;
+
+  HistogramSnapshot(long[] counts, long sum) {
+    this.counts = counts;
+    this.sum = sum;
+    long total = 0;
+    for (long bucketCount : counts) {
+      total += bucketCount;
+    }
+    count = total;
+  }
+
+  /**
+   * @return the number of values that were recorded
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * @return the sum of the values that were recorded
+   */
+  public long getSum() {
+    return sum;
+  }
+
+  /**
+   * @return the mean of the values that were recorded, 0 if there are none
+   */
+  public double getMean() {
+    return count == 0 ? 0 : (double) sum / count;
+  }
+
+  /**
+   * @param percentile in the range [0, 100]
+   * @return the value that percentile of the recorded values are less than or equal to, 0 if there are none
+   */
+  public long getValueAtPercentile(double percentile) {
+    if (count == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(Math.min(percentile, 100) / 100 * count));
+    long cumulativeCount = 0;
+    for (int bucket = 0; bucket < counts.length; bucket++) {
+      cumulativeCount += counts[bucket];
+      if (cumulativeCount >= rank) {
+        return Histogram.highestValue(bucket);
+      }
+    }
+    return Histogram.highestValue(counts.length - 1);
+  }
+
+  /**
+   * @return the number of recorded values that are less than or equal to value, a value is counted if the highest value of its bucket is
+   * less than or equal to value, so it is exact when value is the highest value of a bucket, e.g. one less than a power of 2
+   */
+  public long getCountAtOrBelow(long value) {
+    long countAtOrBelow = 0;
+    for (int bucket = 0; bucket < counts.length && Histogram.highestValue(bucket) <= value;
+        bucket++) {
+      countAtOrBelow += counts[bucket];
+    }
+    return countAtOrBelow;
+  }
+
+  /**
+   * @return the lowest value that was recorded, 0 if there are none
+   */
+  public long getMin() {
+    for (int bucket = 0; bucket < counts.length; bucket++) {
+      if (counts[bucket] > 0) {
+        return Histogram.lowestValue(bucket);
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * @return the highest value that was recorded, 0 if there are none
+   */
+  public long getMax() {
+    return getValueAtPercentile(100);
+  }
+
+  /**
+   * @return the values that were recorded after previous was taken, previous has to be an earlier snapshot of the same {@link Histogram}
+   */
+  public HistogramSnapshot minus(HistogramSnapshot previous) {
+    long[] intervalCounts = new long[counts.length];
+    for (int bucket = 0; bucket < counts.length; bucket++) {
+      intervalCounts[bucket] = counts[bucket] - previous.counts[bucket];
+    }
+    return new HistogramSnapshot(intervalCounts, sum - previous.sum);
+  }
+}
@@ -0,0 +1,21 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.metrics;
+
+/**
+ * A named metric that is created by a {@link MetricRegistry}.
+ */
+public sealed interface Metric permits Counter, Gauge, Histogram {
+
+  /**
+   * @return the name of the metric, which is a valid Prometheus metric name
+   */
+  String getName();
+
+  /**
+   * @return a description of what is measured
+   */
+  String getHelp();
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.metrics;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * A registry of the {@link Metric}s of an app, it is typically accessed using
+ * {@link com.webotech.util.ServiceUtil.WithMetrics#getMetricRegistry()} and the metrics are rendered by the
+ * {@link com.webotech.service.AdminSubsystem}. Names have to be valid Prometheus metric names.
+ * <p>
+ * Looking up a metric by name is intended to happen once, when a component is created, after which the {@link Counter}s and
+ * {@link Histogram}s are recorded into without locking or allocating. Getting a counter or histogram that already exists returns it, so
+ * components can share them.
+ */
+public class MetricRegistry {
+
+  private static final Pattern metricNamePattern = Pattern.compile("[a-zA-Z_:][a-zA-Z0-9_:]*");
+  private final Map<String, Metric> metrics;
+
+  public MetricRegistry() {
+    metrics = new ConcurrentSkipListMap<>();
+  }
+
+  /**
+   * @return the {@link Counter} with name, it is created if it does not exist
+   */
+  public Counter counter(String name, String help) {
+    return getOrCreate(name, Counter.class, () -> new Counter(name, help));
+  }
+
+  /**
+   * @return the {@link Histogram} with name, it is created if it does not exist
+   */
+  public Histogram histogram(String name, String help) {
+    return getOrCreate(name, Histogram.class, () -> new Histogram(name, help));
+  }
+
+  /**
+   * Registers a {@link Gauge} that is sampled using supplier each time it is read.
+   *
+   * @return the {@link Gauge}
+   */
+  public Gauge gauge(String name, String help, DoubleSupplier supplier) {
+    validateName(name);
+    Gauge gauge = new Gauge(name, help, supplier);
+    if (metrics.putIfAbsent(name, gauge) != null) {
+      throw new IllegalArgumentException(
+          "A metric named [" + name + "] has already been registered");
+    }
+    return gauge;
+  }
+
+  /**
+   * @return the {@link Metric} with name or null if there is none
+   */
+  public Metric getMetric(String name) {
+    return metrics.get(name);
+  }
+
+  /**
+   * @return the {@link Metric}s ordered by name
+   */
+  public Collection<Metric> getMetrics() {
+    return Collections.unmodifiableCollection(metrics.values());
+  }
+
+  /**
+   * @return the values of all the metrics, taken as close together in time as possible
+   */
+  public MetricsSnapshot snapshot() {
+    Map<String, Long> counters = new LinkedHashMap<>();
+    Map<String, Double> gauges = new LinkedHashMap<>();
+    Map<String, HistogramSnapshot> histograms = new LinkedHashMap<>();
+    long nanoTime = System.nanoTime();
+    for (Metric metric : metrics.values()) {
+      if (metric instanceof Counter counter) {
+        counters.put(counter.getName(), counter.get());
+      } else if (metric instanceof Gauge gauge) {
+        gauges.put(gauge.getName(), gauge.get());
+      } else if (metric instanceof Histogram histogram) {
+        histograms.put(histogram.getName(), histogram.snapshot());
+      }
+    }
+    return new MetricsSnapshot(nanoTime, Collections.unmodifiableMap(counters),
+        Collections.unmodifiableMap(gauges), Collections.unmodifiableMap(histograms));
+  }
+
+  private <M extends Metric> M getOrCreate(String name, Class<M> type, Supplier<M> factory) {
+    validateName(name);
+    Metric metric = metrics.computeIfAbsent(name, n -> factory.get());
+    if (!type.isInstance(metric)) {
+      throw new IllegalArgumentException(
+          "A metric named [" + name + "] has already been registered as a "
+              + metric.getClass().getSimpleName());
+    }
+    return type.cast(metric);
+  }
+
+  private static void validateName(String name) {
+    if (!metricNamePattern.matcher(name).matches()) {
+      throw new IllegalArgumentException("[" + name + "] is not a valid metric name");
+    }
+  }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The values of all the metrics in a {@link MetricRegistry} at one point in time, see {@link MetricRegistry#snapshot()}. Counters and
+ * histograms are cumulative, use {@link #intervalSince(MetricsSnapshot)} to get what happened between two snapshots.
+ *
+ * @param nanoTime   the {@link System#nanoTime()} when the snapshot was taken
+ * @param counters   the count of each counter
+ * @param gauges     the value of each gauge
+ * @param histograms the snapshot of each histogram
+ */
+public record MetricsSnapshot(long nanoTime, Map<String, Long> counters,
+                              Map<String, Double> gauges,
+                              Map<String, HistogramSnapshot> histograms) {
+
+  /**
+   * @return the counts and histograms of this snapshot minus those of previous, with the gauges of this snapshot. Metrics that were
+   * registered after previous was taken have all of their values.
+   */
+  public MetricsSnapshot intervalSince(MetricsSnapshot previous) {
+    Map<String, Long> intervalCounters = new LinkedHashMap<>();
+    counters.forEach((name, count) -> intervalCounters.put(name,
+        count - previous.counters.getOrDefault(name, 0L)));
+    Map<String, HistogramSnapshot> intervalHistograms = new LinkedHashMap<>();
+    histograms.forEach((name, histogram) -> {
+      HistogramSnapshot previousHistogram = previous.histograms.get(name);
+      intervalHistograms.put(name,
+          previousHistogram == null ? histogram : histogram.minus(previousHistogram));
+    });
+    return new MetricsSnapshot(nanoTime, intervalCounters, gauges, intervalHistograms);
+  }
+}
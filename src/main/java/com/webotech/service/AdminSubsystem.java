@@ -0,0 +1,548 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.webotech.metrics.Counter;
+import com.webotech.metrics.Gauge;
+import com.webotech.metrics.Histogram;
+import com.webotech.metrics.HistogramSnapshot;
+import com.webotech.metrics.Metric;
+import com.webotech.metrics.MetricRegistry;
+import com.webotech.service.ExecutorSubsystem.ManagedExecutor;
+import com.webotech.service.support.ExecutorRegistry;
+import com.webotech.service.support.ExecutorRegistry.ExecutorStats;
+import com.webotech.service.support.JitMonitor;
+import com.webotech.service.support.NativeMemoryMonitor.NativeMemoryStats;
+import com.webotech.service.support.ProcSampler;
+import com.webotech.service.support.StallWatchdog;
+import com.webotech.statemachine.service.api.AppContext;
+import com.webotech.statemachine.service.api.Subsystem;
+import com.webotech.util.PropertyUtil;
+import com.webotech.util.ServiceUtil;
+import com.webotech.util.ServiceUtil.LazySubsystem;
+import com.webotech.util.ServiceUtil.WithExecutors;
+import com.webotech.util.ServiceUtil.WithMetrics;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.function.DoubleSupplier;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * An optional {@link Subsystem} that embeds an HTTP server (from the JDK's <i>com.sun.net.httpserver</i> package) so that a live app can
+ * be scraped, it has these endpoints:
+ * <ul>
+ * <li>/metrics - JVM (including memory outside the heap and the JIT), process (from the {@link ProcSampler}), executor (including
+ * executors in the {@link ExecutorRegistry}), thread stall, {@link LazySubsystem}, registered gauge and {@link MetricRegistry} (when the
+ * {@link AppContext} implements {@link WithMetrics}) metrics in the Prometheus text format</li>
+ * <li>/config - the loaded properties with sensitive values redacted in the same way as when they are logged by the
+ * {@link PropSubsystem}</li>
+ * <li>/support - the {@link SupportSubsystem#supportData}</li>
+ * </ul>
+ * Requests are served by virtual threads (see {@link ExecutorSubsystem#newVirtualThreadPerTaskExecutor(String)}). Nothing is sampled
+ * unless a request is being served so the app is not affected when nobody is scraping, and metrics are rendered into buffers that are
+ * reused between requests. Gauges are registered using {@link #registerGauge(String, String, DoubleSupplier)}, they are held in the
+ * {@link MetricRegistry} of the app when it starts (so a name can only be used by one metric) and in a registry of its own otherwise.
+ * Histograms in the {@link MetricRegistry} are rendered as Prometheus histograms with cumulative buckets at powers of 2 (which are bucket
+ * boundaries of a {@link Histogram}, so the counts are exact), quantiles over an interval can be calculated from them with
+ * {@code histogram_quantile}.
+ * <p>
+ * By default, the properties are equivalent to using
+ * <pre>
+ * com.webotech.service.AdminSubsystem.port=8090
+ * com.webotech.service.AdminSubsystem.bindAddress=127.0.0.1
+ * </pre>
+ * The endpoints are only reachable from the local host unless binding to all interfaces is opted into with
+ * {@code com.webotech.service.AdminSubsystem.bindAddress=0.0.0.0}.
+ */
+public class AdminSubsystem<C extends AppContext<?>> implements Subsystem<C> {
+
+  private static final Logger logger = LogManager.getLogger(AdminSubsystem.class);
+  /**
+   * Property key with expected integer value for the port that the HTTP server listens on, 0 means that an ephemeral port is used. By
+   * default it is 8090.
+   */
+  public static final String PROP_KEY_PORT = "com.webotech.service.AdminSubsystem.port";
+  /**
+   * Property key with expected value of the address that the HTTP server binds to. By default it is 127.0.0.1 (loopback only), binding to
+   * all interfaces is an explicit opt-in using 0.0.0.0 since the endpoints are not authenticated.
+   */
+  public static final String PROP_KEY_BIND_ADDRESS = "com.webotech.service.AdminSubsystem.bindAddress";
+  // Values below 32 have a bucket each in a Histogram, so the first upper bound that is rendered is 31
+  private static final int HISTOGRAM_MIN_BOUND_BITS = 5;
+  private static final String TEXT_CONTENT_TYPE = "text/plain; charset=utf-8";
+  private static final String METRICS_CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+  private final MetricsRenderer metricsRenderer;
+  private volatile MetricRegistry metricRegistry;
+  private HttpServer httpServer;
+  private ExecutorService executor;
+
+  public AdminSubsystem() {
+    metricsRenderer = new MetricsRenderer();
+    metricRegistry = new MetricRegistry();
+  }
+
+  /**
+   * Registers a gauge that is sampled using supplier each time /metrics is scraped, name has to be a valid Prometheus metric name that is
+   * not used by another metric, see {@link MetricRegistry#gauge(String, String, DoubleSupplier)}.
+   */
+  public AdminSubsystem<C> registerGauge(String name, String help, DoubleSupplier supplier) {
+    metricRegistry.gauge(name, help, supplier);
+    return this;
+  }
+
+  @Override
+  public void start(C appContext) {
+    if (appContext instanceof WithMetrics withMetrics
+        && withMetrics.getMetricRegistry() != metricRegistry) {
+      MetricRegistry appMetricRegistry = withMetrics.getMetricRegistry();
+      for (Metric metric : metricRegistry.getMetrics()) {
+        if (metric instanceof Gauge gauge) {
+          appMetricRegistry.gauge(gauge.getName(), gauge.getHelp(), gauge::get);
+        }
+      }
+      metricRegistry = appMetricRegistry;
+    }
+    int port = PropertyUtil.getPropertyAsInt(PROP_KEY_PORT, 8090);
+    String bindAddress = PropertyUtil.getProperty(PROP_KEY_BIND_ADDRESS, "127.0.0.1");
+    try {
+      httpServer = HttpServer.create(new InetSocketAddress(bindAddress, port), 0);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    executor = ExecutorSubsystem.newVirtualThreadPerTaskExecutor("admin");
+    httpServer.setExecutor(executor);
+    httpServer.createContext("/metrics", exchange -> handle(exchange,
+        () -> metricsRenderer.render(appContext, exchange)));
+    httpServer.createContext("/config", exchange -> handle(exchange,
+        () -> send(exchange, TEXT_CONTENT_TYPE, toText(PropSubsystem.getRedactedProps()))));
+    httpServer.createContext("/support", exchange -> handle(exchange,
+        () -> send(exchange, TEXT_CONTENT_TYPE, SupportSubsystem.supportData.toString())));
+    httpServer.start();
+    logger.info("Admin endpoints /metrics, /config and /support are available on {}:{}",
+        bindAddress, getPort());
+  }
+
+  /**
+   * @return the port that the HTTP server is listening on
+   */
+  public int getPort() {
+    return httpServer.getAddress().getPort();
+  }
+
+  /**
+   * @return the address that the HTTP server is bound to
+   */
+  public InetSocketAddress getAddress() {
+    return httpServer.getAddress();
+  }
+
+  @Override
+  public void stop(C appContext) {
+    if (httpServer != null) {
+      logger.info("Stopping admin endpoints");
+      httpServer.stop(0);
+      executor.shutdownNow();
+      httpServer = null;
+    }
+  }
+
+  private static void handle(HttpExchange exchange, IoRunnable response) throws IOException {
+    try {
+      if ("GET".equals(exchange.getRequestMethod())) {
+        response.run();
+      } else {
+        exchange.getResponseHeaders().set("Allow", "GET");
+        exchange.sendResponseHeaders(405, -1);
+      }
+    } catch (IOException | RuntimeException e) {
+      logger.warn("Failed to serve {}", exchange.getRequestURI(), e);
+      throw e;
+    } finally {
+      exchange.close();
+    }
+  }
+
+  private static void send(HttpExchange exchange, String contentType, String body)
+      throws IOException {
+    byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", contentType);
+    exchange.sendResponseHeaders(200, bytes.length);
+    try (OutputStream responseBody = exchange.getResponseBody()) {
+      responseBody.write(bytes);
+    }
+  }
+
+  private static String toText(Map<String, String> map) {
+    StringBuilder sb = new StringBuilder();
+    map.forEach((key, value) -> sb.append(key).append('=').append(value).append('\n'));
+    return sb.toString();
+  }
+
+  private interface IoRunnable {
+
+    void run() throws IOException;
+  }
+
+  /**
+   * Renders metrics in the Prometheus text format, the text and the bytes that are sent are held in buffers that are reused for each
+   * scrape and the text is encoded as UTF-8 by a reused encoder. Scrapes are infrequent so they are serialized rather than allocating
+   * buffers per request.
+   */
+  private final class MetricsRenderer {
+
+    private final MemoryMXBean memoryMxBean;
+    private final ThreadMXBean threadMxBean;
+    private final List<GarbageCollectorMXBean> gcMxBeans;
+    private final StringBuilder text;
+    private final CharsetEncoder encoder;
+    private byte[] bytes;
+    private ByteBuffer byteBuffer;
+
+    private MetricsRenderer() {
+      memoryMxBean = ManagementFactory.getMemoryMXBean();
+      threadMxBean = ManagementFactory.getThreadMXBean();
+      gcMxBeans = ManagementFactory.getGarbageCollectorMXBeans();
+      text = new StringBuilder(8192);
+      encoder = StandardCharsets.UTF_8.newEncoder().onMalformedInput(CodingErrorAction.REPLACE)
+          .onUnmappableCharacter(CodingErrorAction.REPLACE);
+      bytes = new byte[8192];
+      byteBuffer = ByteBuffer.wrap(bytes);
+    }
+
+    synchronized void render(AppContext<?> appContext, HttpExchange exchange) throws IOException {
+      text.setLength(0);
+      header("process_uptime_seconds", "The uptime of the JVM", "gauge");
+      sample("process_uptime_seconds", null, null)
+          .append(ManagementFactory.getRuntimeMXBean().getUptime() / 1000.0).append('\n');
+      renderMemory(memoryMxBean.getHeapMemoryUsage(), memoryMxBean.getNonHeapMemoryUsage());
+      header("jvm_threads_live", "The number of live threads", "gauge");
+      sample("jvm_threads_live", null, null).append(threadMxBean.getThreadCount()).append('\n');
+      header("jvm_threads_daemon", "The number of live daemon threads", "gauge");
+      sample("jvm_threads_daemon", null, null).append(threadMxBean.getDaemonThreadCount())
+          .append('\n');
+      header("jvm_gc_collections_total", "The number of garbage collections", "counter");
+      for (GarbageCollectorMXBean gcMxBean : gcMxBeans) {
+        sample("jvm_gc_collections_total", "gc", gcMxBean.getName())
+            .append(gcMxBean.getCollectionCount()).append('\n');
+      }
+      header("jvm_gc_collection_seconds_total", "The time spent in garbage collections", "counter");
+      for (GarbageCollectorMXBean gcMxBean : gcMxBeans) {
+        sample("jvm_gc_collection_seconds_total", "gc", gcMxBean.getName())
+            .append(gcMxBean.getCollectionTime() / 1000.0).append('\n');
+      }
+      renderProc(SupportSubsystem.getProcSampler());
+      renderNativeMemory(SupportSubsystem.getNativeMemoryMonitor().getStats());
+      renderJit(SupportSubsystem.getJitMonitor());
+      StallWatchdog stallWatchdog = SupportSubsystem.getStallWatchdog();
+      header("support_stalled_threads", "The number of watched threads that are stalled", "gauge");
+      sample("support_stalled_threads", null, null).append(stallWatchdog.getStalledThreadCount())
+          .append('\n');
+      header("support_stalls_total", "The number of stalls detected in watched threads", "counter");
+      sample("support_stalls_total", null, null).append(stallWatchdog.getStallCount()).append('\n');
+      renderExecutors(appContext instanceof WithExecutors withExecutors
+              ? withExecutors.getManagedExecutors() : Map.of(),
+          SupportSubsystem.getExecutorRegistry().getExecutorStats());
+      renderLazySubsystems(ServiceUtil.getLazySubsystems(appContext));
+      renderMetricRegistry(appContext instanceof WithMetrics withMetrics
+          ? withMetrics.getMetricRegistry() : metricRegistry);
+      int length = encode();
+      exchange.getResponseHeaders().set("Content-Type", METRICS_CONTENT_TYPE);
+      exchange.sendResponseHeaders(200, length);
+      try (OutputStream responseBody = exchange.getResponseBody()) {
+        responseBody.write(bytes, 0, length);
+      }
+    }
+
+    /**
+     * Renders counters and gauges as they are and histograms as Prometheus histograms, the buckets are cumulative with an upper bound of
+     * one less than each power of 2 (a bucket boundary of a {@link Histogram}) up to the first one that holds every recorded value.
+     */
+    private void renderMetricRegistry(MetricRegistry metricRegistry) {
+      for (Metric metric : metricRegistry.getMetrics()) {
+        String name = metric.getName();
+        if (metric instanceof Counter counter) {
+          header(name, metric.getHelp(), "counter");
+          sample(name, null, null).append(counter.get()).append('\n');
+        } else if (metric instanceof Gauge gauge) {
+          header(name, metric.getHelp(), "gauge");
+          appendDouble(sample(name, null, null), gauge.get());
+        } else if (metric instanceof Histogram histogram) {
+          HistogramSnapshot snapshot = histogram.snapshot();
+          header(name, metric.getHelp(), "histogram");
+          long count = snapshot.getCount();
+          long countAtOrBelow = -1;
+          for (int bits = HISTOGRAM_MIN_BOUND_BITS; bits < Long.SIZE - 1 && countAtOrBelow < count;
+              bits++) {
+            long upperBound = (1L << bits) - 1;
+            countAtOrBelow = snapshot.getCountAtOrBelow(upperBound);
+            text.append(name).append("_bucket{le=\"").append(upperBound).append("\"} ")
+                .append(countAtOrBelow).append('\n');
+          }
+          text.append(name).append("_bucket{le=\"+Inf\"} ").append(count).append('\n');
+          text.append(name).append("_sum ").append(snapshot.getSum()).append('\n');
+          text.append(name).append("_count ").append(snapshot.getCount()).append('\n');
+        }
+      }
+    }
+
+    private void renderLazySubsystems(List<LazySubsystem<?, ?>> lazySubsystems) {
+      if (lazySubsystems.isEmpty()) {
+        return;
+      }
+      header("lazy_subsystem_started", "1 if the lazy Subsystem has been started, otherwise 0",
+          "gauge");
+      for (LazySubsystem<?, ?> lazySubsystem : lazySubsystems) {
+        sample("lazy_subsystem_started", "subsystem", lazySubsystem.getName())
+            .append(lazySubsystem.isStarted() ? 1 : 0).append('\n');
+      }
+      header("lazy_subsystem_first_access_timestamp_seconds",
+          "When the lazy Subsystem was first accessed, since the epoch", "gauge");
+      for (LazySubsystem<?, ?> lazySubsystem : lazySubsystems) {
+        Instant startedAt = lazySubsystem.getStartedAt();
+        if (startedAt != null) {
+          sample("lazy_subsystem_first_access_timestamp_seconds", "subsystem",
+              lazySubsystem.getName()).append(startedAt.toEpochMilli() / 1000.0).append('\n');
+        }
+      }
+      header("lazy_subsystem_start_seconds", "How long the lazy Subsystem took to start", "gauge");
+      for (LazySubsystem<?, ?> lazySubsystem : lazySubsystems) {
+        Duration startDuration = lazySubsystem.getStartDuration();
+        if (startDuration != null) {
+          sample("lazy_subsystem_start_seconds", "subsystem", lazySubsystem.getName())
+              .append(startDuration.toNanos() / 1e9).append('\n');
+        }
+      }
+    }
+
+    private void renderProc(ProcSampler procSampler) {
+      if (procSampler.getRssBytes() < 0) {
+        return;
+      }
+      header("process_resident_memory_bytes", "The resident set size of the process", "gauge");
+      sample("process_resident_memory_bytes", null, null).append(procSampler.getRssBytes())
+          .append('\n');
+      header("process_open_fds", "The number of open file descriptors", "gauge");
+      sample("process_open_fds", null, null).append(procSampler.getFdCount()).append('\n');
+      header("process_max_fds", "The limit of open file descriptors", "gauge");
+      sample("process_max_fds", null, null).append(procSampler.getFdLimit()).append('\n');
+      header("process_involuntary_context_switches_total",
+          "The number of involuntary context switches of all threads", "counter");
+      sample("process_involuntary_context_switches_total", null, null)
+          .append(procSampler.getInvoluntaryContextSwitches()).append('\n');
+      header("process_major_page_faults_total", "The number of major page faults", "counter");
+      sample("process_major_page_faults_total", null, null).append(procSampler.getMajorFaults())
+          .append('\n');
+    }
+
+    private void renderNativeMemory(List<NativeMemoryStats> nativeMemoryStats) {
+      if (nativeMemoryStats.isEmpty()) {
+        return;
+      }
+      header("jvm_native_memory_used_bytes", "The memory used outside the heap", "gauge");
+      for (NativeMemoryStats stats : nativeMemoryStats) {
+        sample("jvm_native_memory_used_bytes", "area", stats.name()).append(stats.usedBytes())
+            .append('\n');
+      }
+      header("jvm_native_memory_limit_bytes", "The limit of the memory used outside the heap",
+          "gauge");
+      for (NativeMemoryStats stats : nativeMemoryStats) {
+        if (stats.limitBytes() > 0) {
+          sample("jvm_native_memory_limit_bytes", "area", stats.name()).append(stats.limitBytes())
+              .append('\n');
+        }
+      }
+    }
+
+    private void renderJit(JitMonitor jitMonitor) {
+      if (jitMonitor.getTotalCompilationTimeMillis() >= 0) {
+        header("jvm_jit_compilation_seconds_total", "The time spent compiling by the JIT",
+            "counter");
+        sample("jvm_jit_compilation_seconds_total", null, null)
+            .append(jitMonitor.getTotalCompilationTimeMillis() / 1000.0).append('\n');
+      }
+      header("jvm_jit_compilation_enabled", "1 if the JIT is compiling, otherwise 0", "gauge");
+      sample("jvm_jit_compilation_enabled", null, null)
+          .append(jitMonitor.isCompilationEnabled() ? 1 : 0).append('\n');
+      if (jitMonitor.getCodeCacheUsedBytes() >= 0) {
+        header("jvm_code_cache_used_bytes", "The bytes used by the code cache", "gauge");
+        sample("jvm_code_cache_used_bytes", null, null).append(jitMonitor.getCodeCacheUsedBytes())
+            .append('\n');
+        header("jvm_code_cache_max_bytes", "The maximum bytes of the code cache", "gauge");
+        sample("jvm_code_cache_max_bytes", null, null).append(jitMonitor.getCodeCacheMaxBytes())
+            .append('\n');
+      }
+      if (jitMonitor.getCodeCacheFullCount() >= 0) {
+        header("jvm_code_cache_full_total", "The number of times the code cache has been full",
+            "counter");
+        sample("jvm_code_cache_full_total", null, null).append(jitMonitor.getCodeCacheFullCount())
+            .append('\n');
+      }
+    }
+
+    private void renderMemory(MemoryUsage heap, MemoryUsage nonHeap) {
+      header("jvm_memory_used_bytes", "The used memory", "gauge");
+      sample("jvm_memory_used_bytes", "area", "heap").append(heap.getUsed()).append('\n');
+      sample("jvm_memory_used_bytes", "area", "nonheap").append(nonHeap.getUsed()).append('\n');
+      header("jvm_memory_committed_bytes", "The committed memory", "gauge");
+      sample("jvm_memory_committed_bytes", "area", "heap").append(heap.getCommitted())
+          .append('\n');
+      sample("jvm_memory_committed_bytes", "area", "nonheap").append(nonHeap.getCommitted())
+          .append('\n');
+    }
+
+    /**
+     * Renders the managed executors and any other executors registered with the {@link ExecutorRegistry}, the rates and saturation are
+     * only known for registered executors.
+     */
+    private void renderExecutors(Map<String, ManagedExecutor> managedExecutors,
+        List<ExecutorStats> executorStats) {
+      if (managedExecutors.isEmpty() && executorStats.isEmpty()) {
+        return;
+      }
+      header("executor_queue_depth", "The number of tasks waiting to be executed", "gauge");
+      for (ManagedExecutor managedExecutor : managedExecutors.values()) {
+        sample("executor_queue_depth", "executor", managedExecutor.getName())
+            .append(managedExecutor.getQueueDepth()).append('\n');
+      }
+      for (ExecutorStats stats : executorStats) {
+        if (!managedExecutors.containsKey(stats.name())) {
+          sample("executor_queue_depth", "executor", stats.name()).append(stats.queueDepth())
+              .append('\n');
+        }
+      }
+      header("executor_active_threads", "The approximate number of threads executing tasks",
+          "gauge");
+      for (ManagedExecutor managedExecutor : managedExecutors.values()) {
+        sample("executor_active_threads", "executor", managedExecutor.getName())
+            .append(managedExecutor.getActiveCount()).append('\n');
+      }
+      for (ExecutorStats stats : executorStats) {
+        if (!managedExecutors.containsKey(stats.name())) {
+          sample("executor_active_threads", "executor", stats.name()).append(stats.activeThreads())
+              .append('\n');
+        }
+      }
+      header("executor_rejected_total", "The number of rejected tasks", "counter");
+      for (ManagedExecutor managedExecutor : managedExecutors.values()) {
+        sample("executor_rejected_total", "executor", managedExecutor.getName())
+            .append(managedExecutor.getRejectedCount()).append('\n');
+      }
+      for (ExecutorStats stats : executorStats) {
+        if (!managedExecutors.containsKey(stats.name())) {
+          sample("executor_rejected_total", "executor", stats.name()).append(stats.rejectedCount())
+              .append('\n');
+        }
+      }
+      if (executorStats.isEmpty()) {
+        return;
+      }
+      header("executor_completed_tasks_per_second",
+          "The rate that tasks completed in the last sample period", "gauge");
+      for (ExecutorStats stats : executorStats) {
+        if (stats.completedTasksPerSecond() >= 0) {
+          appendDouble(sample("executor_completed_tasks_per_second", "executor", stats.name()),
+              stats.completedTasksPerSecond());
+        }
+      }
+      header("executor_saturated", "1 if the executor was saturated in the last sample period",
+          "gauge");
+      for (ExecutorStats stats : executorStats) {
+        sample("executor_saturated", "executor", stats.name()).append(stats.isSaturated() ? 1 : 0)
+            .append('\n');
+      }
+    }
+
+    private void header(String name, String help, String type) {
+      text.append("# HELP ").append(name).append(' ');
+      for (int i = 0; i < help.length(); i++) {
+        char c = help.charAt(i);
+        if (c == '\\') {
+          text.append("\\\\");
+        } else if (c == '\n') {
+          text.append("\\n");
+        } else {
+          text.append(c);
+        }
+      }
+      text.append('\n');
+      text.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private StringBuilder sample(String name, String labelName, String labelValue) {
+      text.append(name);
+      if (labelName != null) {
+        text.append('{').append(labelName).append("=\"");
+        for (int i = 0; i < labelValue.length(); i++) {
+          char c = labelValue.charAt(i);
+          if (c == '\n') {
+            text.append("\\n");
+          } else {
+            if (c == '\\' || c == '"') {
+              text.append('\\');
+            }
+            text.append(c);
+          }
+        }
+        text.append("\"}");
+      }
+      return text.append(' ');
+    }
+
+    /**
+     * Appends a sample value that may not be finite, Prometheus expects +Inf, -Inf and NaN rather than how Java renders them.
+     */
+    private void appendDouble(StringBuilder sb, double value) {
+      if (Double.isNaN(value)) {
+        sb.append("NaN");
+      } else if (value == Double.POSITIVE_INFINITY) {
+        sb.append("+Inf");
+      } else if (value == Double.NEGATIVE_INFINITY) {
+        sb.append("-Inf");
+      } else {
+        sb.append(value);
+      }
+      sb.append('\n');
+    }
+
+    /**
+     * Encodes the text as UTF-8 into the reused byte buffer, growing it first if it could not hold the longest encoding of the text.
+     * Unpaired surrogates (e.g. in a label value) are replaced.
+     *
+     * @return the number of bytes the text was encoded into
+     */
+    private int encode() {
+      int maxLength = (int) Math.ceil(text.length() * (double) encoder.maxBytesPerChar());
+      if (bytes.length < maxLength) {
+        bytes = new byte[Math.max(maxLength, bytes.length * 2)];
+        byteBuffer = ByteBuffer.wrap(bytes);
+      }
+      byteBuffer.clear();
+      encoder.reset();
+      encoder.encode(CharBuffer.wrap(text), byteBuffer, true);
+      encoder.flush(byteBuffer);
+      return byteBuffer.position();
+    }
+  }
+}
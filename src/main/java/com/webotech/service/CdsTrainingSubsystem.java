@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+import com.webotech.statemachine.service.api.AppContext;
+import com.webotech.statemachine.service.api.AppService;
+import com.webotech.statemachine.service.api.Subsystem;
+import com.webotech.statemachine.util.Threads;
+import com.webotech.util.ArgUtil;
+import com.webotech.util.PropertyUtil;
+import com.webotech.util.ServiceUtil.WithAppService;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A {@link Subsystem} that turns a run of an app into a training run for Application Class Data Sharing (AppCDS). Class loading and
+ * linking is a big part of how long it takes a JVM to start, a CDS archive of the classes loaded by a training run means that subsequent
+ * runs can map them from the archive instead. Only standard JDK flags are needed.
+ * <p>
+ * Training mode is switched on with the command line argument <i>cdsTraining=true</i> or with the
+ * {@link CdsTrainingSubsystem#PROP_KEY_ENABLE} property, in which case {@link com.webotech.util.ServiceUtil.Equip} adds a
+ * {@link CdsTrainingSubsystem} after all the other {@link Subsystem}s so that it starts last. Once the app has started, it waits for
+ * {@link CdsTrainingSubsystem#PROP_KEY_TRAINING_DURATION_ISO8601} (which gives any warm-up workload time to run), then it produces the
+ * archive and stops the app cleanly using {@link WithAppService}. The archive is produced in one of these ways:
+ * <ul>
+ * <li>if the JVM was started with <i>-XX:ArchiveClassesAtExit=app.jsa</i> it is written by the JVM when it exits</li>
+ * <li>if the JVM was started with <i>-XX:+RecordDynamicDumpInfo</i> it is dumped to
+ * {@link CdsTrainingSubsystem#PROP_KEY_ARCHIVE_FILE} before the app stops</li>
+ * </ul>
+ * otherwise a warning is logged that explains which flag to use. A normal run uses the archive when the JVM is started with
+ * <i>-XX:SharedArchiveFile=app.jsa</i>.
+ * <pre>
+ *   java -XX:ArchiveClassesAtExit=app.jsa -cp app.jar MyApp config=config.properties cdsTraining=true
+ *   java -XX:SharedArchiveFile=app.jsa -cp app.jar MyApp config=config.properties
+ * </pre>
+ * By default, the properties are equivalent to using
+ * <pre>
+ * com.webotech.service.CdsTrainingSubsystem.enable=false
+ * com.webotech.service.CdsTrainingSubsystem.archiveFile=&lt;app name&gt;.jsa
+ * com.webotech.service.CdsTrainingSubsystem.trainingDurationIso8601=PT0S
+ * </pre>
+ */
+public class CdsTrainingSubsystem<C extends AppContext<?>> implements Subsystem<C> {
+
+  private static final Logger logger = LogManager.getLogger(CdsTrainingSubsystem.class);
+  /**
+   * The command line argument key that switches on training mode, for example <i>cdsTraining=true</i>.
+   */
+  public static final String CDS_TRAINING_ARG = "cdsTraining";
+  /**
+   * Property key with expected value of true|false to control if the app runs in training mode. By default it is false.
+   */
+  public static final String PROP_KEY_ENABLE = "com.webotech.service.CdsTrainingSubsystem.enable";
+  /**
+   * Property key with expected value of the file that the archive is dumped to when the JVM was started with
+   * <i>-XX:+RecordDynamicDumpInfo</i>. By default it is the app name with a .jsa extension.
+   */
+  public static final String PROP_KEY_ARCHIVE_FILE = "com.webotech.service.CdsTrainingSubsystem.archiveFile";
+  /**
+   * Property key with expected value of an ISO 8601 formatted time period that the app keeps running for after it has started and
+   * before the archive is produced. By default it is 0 seconds.
+   */
+  public static final String PROP_KEY_TRAINING_DURATION_ISO8601 = "com.webotech.service.CdsTrainingSubsystem.trainingDurationIso8601";
+  private static final String ARCHIVE_CLASSES_AT_EXIT = "ArchiveClassesAtExit";
+  private static final String RECORD_DYNAMIC_DUMP_INFO = "RecordDynamicDumpInfo";
+  private final AtomicReference<Thread> trainingThreadRef;
+
+  public CdsTrainingSubsystem() {
+    trainingThreadRef = new AtomicReference<>();
+  }
+
+  /**
+   * @return true if training mode has been switched on using initArgs or the {@link CdsTrainingSubsystem#PROP_KEY_ENABLE} property
+   */
+  public static boolean isTrainingRun(String[] initArgs) {
+    return Boolean.parseBoolean(ArgUtil.getArgValue(initArgs, CDS_TRAINING_ARG))
+        || PropertyUtil.getPropertyAsBoolean(PROP_KEY_ENABLE, false);
+  }
+
+  @Override
+  public void start(C appContext) {
+    Duration trainingDuration = Duration.parse(
+        PropertyUtil.getProperty(PROP_KEY_TRAINING_DURATION_ISO8601, "PT0S"));
+    String archiveFile = PropertyUtil.getProperty(PROP_KEY_ARCHIVE_FILE,
+        appContext.getAppName() + ".jsa");
+    logger.info("{} is a CDS training run, it will stop in {} millis", appContext.getAppName(),
+        trainingDuration.toMillis());
+    Thread trainingThread = Threads.newNamedDaemonThreadFactory("cds-training",
+        (t, e) -> logger.error("Uncaught exception in thread {}", t, e)).newThread(() -> {
+      try {
+        Thread.sleep(trainingDuration.toMillis());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      produceArchive(archiveFile);
+      // Training is over, if the AppService stops the app on one of its own threads then stop must not interrupt this one
+      trainingThreadRef.set(null);
+      stopApp(appContext);
+    });
+    trainingThreadRef.set(trainingThread);
+    trainingThread.start();
+  }
+
+  @Override
+  public void stop(C appContext) {
+    Thread trainingThread = trainingThreadRef.getAndSet(null);
+    if (trainingThread != null && trainingThread != Thread.currentThread()) {
+      trainingThread.interrupt();
+    }
+  }
+
+  private static void produceArchive(String archiveFile) {
+    HotSpotDiagnosticMXBean hotSpotDiagnostic = ManagementFactory.getPlatformMXBean(
+        HotSpotDiagnosticMXBean.class);
+    String archiveClassesAtExit = vmOption(hotSpotDiagnostic, ARCHIVE_CLASSES_AT_EXIT);
+    if (archiveClassesAtExit != null && !archiveClassesAtExit.isEmpty()) {
+      logger.info("The JVM will write the CDS archive {} when it exits, use it with -XX:SharedArchiveFile={}",
+          archiveClassesAtExit, archiveClassesAtExit);
+    } else if (Boolean.parseBoolean(vmOption(hotSpotDiagnostic, RECORD_DYNAMIC_DUMP_INFO))) {
+      try {
+        ManagementFactory.getPlatformMBeanServer()
+            .invoke(new ObjectName("com.sun.management:type=DiagnosticCommand"), "vmCds",
+                new Object[]{new String[]{"dynamic_dump", archiveFile}},
+                new String[]{String[].class.getName()});
+        logger.info("Dumped CDS archive {}, use it with -XX:SharedArchiveFile={}", archiveFile,
+            archiveFile);
+      } catch (JMException e) {
+        logger.error("Failed to dump CDS archive {}", archiveFile, e);
+      }
+    } else {
+      logger.warn("No CDS archive will be produced, start the training run with -XX:ArchiveClassesAtExit=<file>"
+          + " or -XX:+RecordDynamicDumpInfo");
+    }
+  }
+
+  private static String vmOption(HotSpotDiagnosticMXBean hotSpotDiagnostic, String name) {
+    try {
+      return hotSpotDiagnostic.getVMOption(name).getValue();
+    } catch (IllegalArgumentException e) {
+      // The option does not exist in the running JVM
+      return null;
+    }
+  }
+
+  private static void stopApp(AppContext<?> appContext) {
+    if (appContext instanceof WithAppService<?> withAppService) {
+      AppService<?> appService = withAppService.getAppService();
+      if (appService != null) {
+        logger.info("CDS training run complete, stopping {}", appContext.getAppName());
+        appService.stop();
+        return;
+      }
+    }
+    logger.warn("CDS training run complete but {} has no reference to its AppService, it needs to be stopped externally",
+        appContext.getAppName());
+  }
+}
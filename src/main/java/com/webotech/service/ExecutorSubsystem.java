@@ -0,0 +1,303 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service;
+
+import com.webotech.service.support.ExecutorRegistry;
+import com.webotech.service.support.Monitors;
+import com.webotech.statemachine.service.api.AppContext;
+import com.webotech.statemachine.service.api.Subsystem;
+import com.webotech.util.PropertyUtil;
+import com.webotech.util.ServiceUtil.ShutdownCoordinator;
+import com.webotech.util.ServiceUtil.WithExecutors;
+import com.webotech.util.ServiceUtil.WithShutdownCoordinator;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A {@link Subsystem} that creates named executors which are shared throughout an app, instead of each part of the app creating its own
+ * threads. The executors are defined using properties, for example
+ * <pre>
+ * com.webotech.service.ExecutorSubsystem.executors=io,compute,ingest,requests
+ * com.webotech.service.ExecutorSubsystem.io.type=virtual
+ * com.webotech.service.ExecutorSubsystem.compute.type=forkjoin
+ * com.webotech.service.ExecutorSubsystem.ingest.type=bounded
+ * com.webotech.service.ExecutorSubsystem.ingest.threadCount=4
+ * com.webotech.service.ExecutorSubsystem.ingest.queueCapacity=10000
+ * com.webotech.service.ExecutorSubsystem.requests.type=platform
+ * </pre>
+ * These are the types of executor:
+ * <ul>
+ * <li>platform - a fixed number of platform threads with an unbounded queue</li>
+ * <li>bounded - a fixed number of platform threads with a bounded queue, tasks are rejected when the queue is full</li>
+ * <li>forkjoin - a {@link ForkJoinPool} with a fixed parallelism</li>
+ * <li>virtual - a new virtual thread per task, if virtual threads are not available in the running JVM a cached pool of platform
+ * threads is used instead</li>
+ * </ul>
+ * The thread count of an executor defaults to the number of available processors and the queue capacity of a bounded executor defaults to
+ * 1000. When the {@link AppContext} implements {@link WithExecutors} (like
+ * {@link com.webotech.util.ServiceUtil.BasicAppContext}) the executors are made available through it, otherwise they can be accessed
+ * using {@link #getManagedExecutors()}.
+ * <p>
+ * Each executor is wrapped in a {@link ManagedExecutor} which publishes its queue depth, active thread count and number of rejected tasks.
+ * Platform and fork join executors are also registered with the {@link ExecutorRegistry} (see {@link Monitors#getExecutorRegistry()}) which
+ * detects when they are saturated. The platform threads of the executors are made by thread factories (see
+ * {@link Monitors#newThreadFactory(String)}) that are tracked by the {@link com.webotech.service.support.ThreadLeakDetector} so their
+ * creation sites can be recorded. When the {@link ExecutorSubsystem} stops, all the executors are shut down in the reverse order to which
+ * they were created so that they drain in parallel. Each has {@link ExecutorSubsystem#PROP_KEY_TERMINATION_TIMEOUT_ISO8601} to terminate
+ * (by default 5 seconds), or less if the stop budget from the {@link ShutdownCoordinator} runs out first, before it is forcibly shut down.
+ * An executor that is forcibly shut down because the stop budget ran out is reported to the {@link ShutdownCoordinator} as having overrun.
+ */
+public class ExecutorSubsystem<C extends AppContext<?>> implements Subsystem<C>,
+    WithShutdownCoordinator {
+
+  private static final Logger logger = LogManager.getLogger(ExecutorSubsystem.class);
+  private static final String PROP_KEY_PREFIX = "com.webotech.service.ExecutorSubsystem.";
+  /**
+   * Property key with expected CSV value containing the names of the executors to create. By default no executors are created.
+   */
+  public static final String PROP_KEY_EXECUTORS = PROP_KEY_PREFIX + "executors";
+  /**
+   * Property key with expected value of an ISO 8601 formatted time period used to define the timeout for each executor to terminate when
+   * the {@link ExecutorSubsystem} stops. By default it is set to 5 seconds.
+   */
+  public static final String PROP_KEY_TERMINATION_TIMEOUT_ISO8601 =
+      PROP_KEY_PREFIX + "terminationTimeoutIso8601";
+  private static final String TYPE_SUFFIX = ".type";
+  private static final String THREAD_COUNT_SUFFIX = ".threadCount";
+  private static final String QUEUE_CAPACITY_SUFFIX = ".queueCapacity";
+  private static final int DEFAULT_QUEUE_CAPACITY = 1000;
+  private final Map<String, ManagedExecutor> managedExecutors;
+  private volatile ShutdownCoordinator shutdownCoordinator;
+
+  public ExecutorSubsystem() {
+    managedExecutors = Collections.synchronizedMap(new LinkedHashMap<>());
+    shutdownCoordinator = new ShutdownCoordinator();
+  }
+
+  @Override
+  public void setShutdownCoordinator(ShutdownCoordinator shutdownCoordinator) {
+    this.shutdownCoordinator = shutdownCoordinator;
+  }
+
+  @Override
+  public ShutdownCoordinator getShutdownCoordinator() {
+    return shutdownCoordinator;
+  }
+
+  @Override
+  public void start(C appContext) {
+    for (String name : PropertyUtil.getPropertyAsList(PROP_KEY_EXECUTORS, List.of())) {
+      ExecutorType type = ExecutorType.valueOf(
+          PropertyUtil.getProperty(PROP_KEY_PREFIX + name + TYPE_SUFFIX, "platform")
+              .toUpperCase(Locale.ROOT));
+      int threadCount = PropertyUtil.getPropertyAsInt(PROP_KEY_PREFIX + name + THREAD_COUNT_SUFFIX,
+          Runtime.getRuntime().availableProcessors());
+      int queueCapacity = PropertyUtil.getPropertyAsInt(
+          PROP_KEY_PREFIX + name + QUEUE_CAPACITY_SUFFIX, DEFAULT_QUEUE_CAPACITY);
+      ManagedExecutor managedExecutor = new ManagedExecutor(name, type, threadCount, queueCapacity);
+      managedExecutors.put(name, managedExecutor);
+      if (type != ExecutorType.VIRTUAL) {
+        Monitors.getExecutorRegistry().register(name, managedExecutor.getExecutorService());
+      }
+      logger.info("Created executor {}", managedExecutor);
+    }
+    if (appContext instanceof WithExecutors withExecutors) {
+      withExecutors.setManagedExecutors(getManagedExecutors());
+    }
+  }
+
+  /**
+   * @return the {@link ManagedExecutor}s keyed by name in the order they were created
+   */
+  public Map<String, ManagedExecutor> getManagedExecutors() {
+    synchronized (managedExecutors) {
+      return Collections.unmodifiableMap(new LinkedHashMap<>(managedExecutors));
+    }
+  }
+
+  @Override
+  public void stop(C appContext) {
+    Duration timeout = Duration.parse(
+        PropertyUtil.getProperty(PROP_KEY_TERMINATION_TIMEOUT_ISO8601, "PT5S"));
+    Duration budget = shutdownCoordinator.nextStageBudget();
+    long budgetDeadlineNanos = System.nanoTime() + budget.toNanos();
+    List<ManagedExecutor> executors = new ArrayList<>(getManagedExecutors().values());
+    Collections.reverse(executors);
+    for (ManagedExecutor managedExecutor : executors) {
+      logger.info("Shutting down executor {}", managedExecutor);
+      Monitors.getExecutorRegistry().deregister(managedExecutor.getName());
+      managedExecutor.getExecutorService().shutdown();
+    }
+    for (ManagedExecutor managedExecutor : executors) {
+      Duration budgetLeft = Duration.ofNanos(Math.max(0, budgetDeadlineNanos - System.nanoTime()));
+      boolean isWithinBudget = budgetLeft.compareTo(timeout) < 0;
+      if (!managedExecutor.awaitTermination(isWithinBudget ? budgetLeft : timeout)
+          && isWithinBudget) {
+        shutdownCoordinator.recordOverrun("executor " + managedExecutor.getName(), budget);
+      }
+    }
+    managedExecutors.clear();
+    if (appContext instanceof WithExecutors withExecutors) {
+      withExecutors.setManagedExecutors(Map.of());
+    }
+  }
+
+  /**
+   * @return an {@link ExecutorService} that starts a new virtual thread named with threadNamePrefix for each task, if virtual threads are
+   * not available in the running JVM then a cached pool of daemon platform threads is returned instead. Either way the threads are
+   * tracked by the {@link com.webotech.service.support.ThreadLeakDetector}.
+   */
+  public static ExecutorService newVirtualThreadPerTaskExecutor(String threadNamePrefix) {
+    try {
+      Class<?> ofVirtual = Class.forName("java.lang.Thread$Builder$OfVirtual");
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      builder = ofVirtual.getMethod("name", String.class, long.class)
+          .invoke(builder, threadNamePrefix + "-", 0L);
+      ThreadFactory threadFactory = (ThreadFactory) Class.forName("java.lang.Thread$Builder")
+          .getMethod("factory").invoke(builder);
+      return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor",
+          ThreadFactory.class).invoke(null, Monitors.getThreadLeakDetector().track(threadFactory));
+    } catch (ClassNotFoundException | NoSuchMethodException e) {
+      logger.warn(
+          "Virtual threads are not available in Java {}, {} will use a cached pool of platform threads",
+          Runtime.version(), threadNamePrefix);
+      return Executors.newCachedThreadPool(Monitors.newThreadFactory(threadNamePrefix));
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * The types of executor that an {@link ExecutorSubsystem} can create.
+   */
+  public enum ExecutorType {
+    PLATFORM, BOUNDED, FORKJOIN, VIRTUAL
+  }
+
+  /**
+   * An {@link ExecutorService} created by the {@link ExecutorSubsystem} along with metrics about how it is being used.
+   */
+  public static class ManagedExecutor {
+
+    private final String name;
+    private final ExecutorType type;
+    private final ExecutorService executorService;
+    private final LongAdder rejectedCount;
+
+    ManagedExecutor(String name, ExecutorType type, int threadCount, int queueCapacity) {
+      this.name = name;
+      this.type = type;
+      rejectedCount = new LongAdder();
+      executorService = switch (type) {
+        case PLATFORM -> newThreadPoolExecutor(threadCount, new LinkedBlockingQueue<>());
+        case BOUNDED -> newThreadPoolExecutor(threadCount, new ArrayBlockingQueue<>(queueCapacity));
+        case FORKJOIN -> new ForkJoinPool(threadCount, pool -> {
+          ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(
+              pool);
+          thread.setName(name + "-" + thread.getPoolIndex());
+          Monitors.getThreadLeakDetector().recordCreationSite(thread);
+          return thread;
+        }, (t, e) -> logger.error("Uncaught exception in thread {}", t, e), false);
+        case VIRTUAL -> newVirtualThreadPerTaskExecutor(name);
+      };
+    }
+
+    private ThreadPoolExecutor newThreadPoolExecutor(int threadCount,
+        BlockingQueue<Runnable> queue) {
+      RejectedExecutionHandler abortPolicy = new ThreadPoolExecutor.AbortPolicy();
+      return new ThreadPoolExecutor(threadCount, threadCount, 0L, TimeUnit.MILLISECONDS, queue,
+          Monitors.newThreadFactory(name), (r, executor) -> {
+        rejectedCount.increment();
+        abortPolicy.rejectedExecution(r, executor);
+      });
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public ExecutorType getType() {
+      return type;
+    }
+
+    public ExecutorService getExecutorService() {
+      return executorService;
+    }
+
+    /**
+     * @return the number of tasks waiting to be executed, this is always 0 for a virtual executor since it does not queue tasks
+     */
+    public long getQueueDepth() {
+      if (executorService instanceof ThreadPoolExecutor threadPoolExecutor) {
+        return threadPoolExecutor.getQueue().size();
+      }
+      if (executorService instanceof ForkJoinPool forkJoinPool) {
+        return forkJoinPool.getQueuedSubmissionCount() + forkJoinPool.getQueuedTaskCount();
+      }
+      return 0;
+    }
+
+    /**
+     * @return the approximate number of threads that are executing tasks or -1 if it is not known (as is the case for a virtual executor)
+     */
+    public int getActiveCount() {
+      if (executorService instanceof ThreadPoolExecutor threadPoolExecutor) {
+        return threadPoolExecutor.getActiveCount();
+      }
+      if (executorService instanceof ForkJoinPool forkJoinPool) {
+        return forkJoinPool.getActiveThreadCount();
+      }
+      return -1;
+    }
+
+    /**
+     * @return the number of tasks that have been rejected
+     */
+    public long getRejectedCount() {
+      return rejectedCount.sum();
+    }
+
+    boolean awaitTermination(Duration timeout) {
+      try {
+        if (!executorService.awaitTermination(timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+          logger.warn("Executor {} timed out before terminating, it will be forcibly shut down", name);
+          executorService.shutdownNow();
+          return false;
+        }
+        return true;
+      } catch (InterruptedException e) {
+        executorService.shutdownNow();
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException(e);
+      }
+    }
+
+    @Override
+    public String toString() {
+      return name + " [type=" + type.name().toLowerCase(Locale.ROOT) + ", queueDepth="
+          + getQueueDepth() + ", activeCount=" + getActiveCount() + ", rejectedCount="
+          + getRejectedCount() + "]";
+    }
+  }
+}
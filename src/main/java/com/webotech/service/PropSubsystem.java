@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2024-2025 Paul Mackinlay <paul.mackinlay@gmail.com>
+ * Copyright (c) 2024-2026 Paul Mackinlay <paul.mackinlay@gmail.com>
  */
 
 package com.webotech.service;
@@ -139,19 +139,28 @@ public class PropSubsystem<C extends AppContext<?>> implements Subsystem<C> {
   }
 
   private static void logProps() {
-    Map<String, String> loadedProps = new TreeMap<>(PropertyUtil.getPropertiesAsMap());
-    logger.info("{} properties loaded", loadedProps.size());
+    logger.info("{} properties loaded", PropertyUtil.getPropertiesAsMap().size());
     if (PropertyUtil.getPropertyAsBoolean(PROP_KEY_LOG_PROP_VALUES_AFTER_LOAD, true)) {
-      List<String> keyExcludes = PropertyUtil.getPropertyAsList(
-          PROP_KEY_EXCLUDE_PROP_LOG_FOR_KEYS_CONTAINING_CSV, defaultExclList);
-      for (Entry<String, String> entry : loadedProps.entrySet()) {
-        String key = entry.getKey();
-        String value = cleanValue(keyExcludes, entry);
-        logger.info("{}={}", key, value);
+      for (Entry<String, String> entry : getRedactedProps().entrySet()) {
+        logger.info("{}={}", entry.getKey(), entry.getValue());
       }
     }
   }
 
+  /**
+   * @return the loaded properties sorted by key, where values are replaced with *** for keys that are excluded using
+   * {@link PropSubsystem#PROP_KEY_EXCLUDE_PROP_LOG_FOR_KEYS_CONTAINING_CSV}
+   */
+  public static Map<String, String> getRedactedProps() {
+    List<String> keyExcludes = PropertyUtil.getPropertyAsList(
+        PROP_KEY_EXCLUDE_PROP_LOG_FOR_KEYS_CONTAINING_CSV, defaultExclList);
+    Map<String, String> redactedProps = new TreeMap<>();
+    for (Entry<String, String> entry : PropertyUtil.getPropertiesAsMap().entrySet()) {
+      redactedProps.put(entry.getKey(), cleanValue(keyExcludes, entry));
+    }
+    return redactedProps;
+  }
+
   private static String cleanValue(List<String> keyExcludes, Entry<String, String> entry) {
     String key = entry.getKey();
     for (String exclude : keyExcludes) {
@@ -0,0 +1,313 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service;
+
+import com.webotech.statemachine.service.api.AppContext;
+import com.webotech.statemachine.service.api.Subsystem;
+import com.webotech.statemachine.util.Threads;
+import com.webotech.util.PropertyUtil;
+import com.webotech.util.ServiceUtil.ShutdownCoordinator;
+import com.webotech.util.ServiceUtil.WithShutdownCoordinator;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A {@link Subsystem} that is made up of other {@link Subsystem}s which declare dependencies on each other, together they form a directed
+ * acyclic graph. When it starts, each {@link Subsystem} is started as soon as all of its dependencies have started, this means that
+ * independent {@link Subsystem}s start concurrently. When it stops, each started {@link Subsystem} is stopped as soon as all the
+ * {@link Subsystem}s that depend on it have stopped, i.e. in reverse topological order. {@link Subsystem}s are stopped in waves, those in
+ * the same wave are independent of each other and are stopped in parallel within a budget provided by the {@link ShutdownCoordinator}.
+ * <p>
+ * A dependency has to be added before any {@link Subsystem} that depends on it, so a cycle can never be declared and the order in which
+ * {@link Subsystem}s are added is always a valid sequential start order.
+ * <pre>
+ *   SubsystemGraph&lt;BasicAppContext&gt; graph = new SubsystemGraph&lt;BasicAppContext&gt;()
+ *       .add(cache)
+ *       .add(connectionPool)
+ *       .add(cacheWarmer, cache, connectionPool);
+ * </pre>
+ * If a {@link Subsystem} fails to start then the {@link Subsystem}s that depend on it (directly or transitively) are not started, any
+ * independent {@link Subsystem}s are allowed to finish starting, then the {@link Subsystem}s that did start are stopped in reverse order
+ * and an {@link IllegalStateException} is thrown that describes the failures. If starting times out then the {@link Subsystem}s that have
+ * not started yet are abandoned (their threads are interrupted) and any that still finish starting stop themselves straight away. A
+ * {@link Subsystem} that fails to stop (or overruns its budget) is logged, it does not prevent its dependencies from being stopped, so a
+ * {@link Subsystem} that overruns may still be stopping when its dependencies are stopped.
+ * <p>
+ * These properties control how the graph is started:
+ * <ul>
+ * <li>{@link SubsystemGraph#PROP_KEY_THREAD_COUNT}</li>
+ * <li>{@link SubsystemGraph#PROP_KEY_START_TIMEOUT_ISO8601}</li>
+ * </ul>
+ * By default, the properties are equivalent to using
+ * <pre>
+ * com.webotech.service.SubsystemGraph.threadCount=&lt;number of Subsystems in the graph&gt;
+ * com.webotech.service.SubsystemGraph.startTimeoutIso8601=PT5M
+ * </pre>
+ */
+public class SubsystemGraph<C extends AppContext<?>> implements Subsystem<C>,
+    WithShutdownCoordinator {
+
+  private static final Logger logger = LogManager.getLogger(SubsystemGraph.class);
+  /**
+   * Property key with expected integer value for the number of threads used to start {@link Subsystem}s concurrently. By default it is
+   * the number of {@link Subsystem}s in the graph since starting them is typically I/O bound.
+   */
+  public static final String PROP_KEY_THREAD_COUNT = "com.webotech.service.SubsystemGraph.threadCount";
+  /**
+   * Property key with expected value of an ISO 8601 formatted time period used to define the timeout for starting all the
+   * {@link Subsystem}s in the graph. By default it is set to 5 minutes.
+   */
+  public static final String PROP_KEY_START_TIMEOUT_ISO8601 = "com.webotech.service.SubsystemGraph.startTimeoutIso8601";
+  private final Map<Subsystem<C>, List<Subsystem<C>>> dependencies;
+  private final Set<Subsystem<C>> started;
+  private volatile ShutdownCoordinator shutdownCoordinator;
+  private volatile boolean isStartAbandoned;
+
+  public SubsystemGraph() {
+    dependencies = new LinkedHashMap<>();
+    started = ConcurrentHashMap.newKeySet();
+    shutdownCoordinator = new ShutdownCoordinator();
+  }
+
+  @Override
+  public void setShutdownCoordinator(ShutdownCoordinator shutdownCoordinator) {
+    this.shutdownCoordinator = shutdownCoordinator;
+  }
+
+  @Override
+  public ShutdownCoordinator getShutdownCoordinator() {
+    return shutdownCoordinator;
+  }
+
+  /**
+   * @return the number of waves that the {@link Subsystem}s are stopped in, a stop budget is claimed for each
+   */
+  @Override
+  public int getStopStageCount() {
+    return getStopWaveCount();
+  }
+
+  /**
+   * Adds subsystem to the graph, it will only be started after all the dependsOn {@link Subsystem}s have started. Each of dependsOn must
+   * have already been added.
+   */
+  @SafeVarargs
+  public final SubsystemGraph<C> add(Subsystem<C> subsystem, Subsystem<C>... dependsOn) {
+    if (dependencies.containsKey(subsystem)) {
+      throw new IllegalArgumentException(
+          "[" + name(subsystem) + "] has already been added to the " + SubsystemGraph.class.getSimpleName());
+    }
+    List<Subsystem<C>> subsystemDependencies = new ArrayList<>();
+    for (Subsystem<C> dependency : dependsOn) {
+      if (!dependencies.containsKey(dependency)) {
+        throw new IllegalArgumentException(
+            "[" + name(subsystem) + "] depends on [" + name(dependency) + "] which needs to be added first");
+      }
+      subsystemDependencies.add(dependency);
+    }
+    dependencies.put(subsystem, List.copyOf(subsystemDependencies));
+    return this;
+  }
+
+  /**
+   * @return all the {@link Subsystem}s in the graph in the order they were added, which is a valid sequential start order
+   */
+  public List<Subsystem<C>> getSubsystems() {
+    return List.copyOf(dependencies.keySet());
+  }
+
+  /**
+   * @return the {@link Subsystem}s that subsystem directly depends on
+   */
+  public List<Subsystem<C>> getDependencies(Subsystem<C> subsystem) {
+    List<Subsystem<C>> subsystemDependencies = dependencies.get(subsystem);
+    if (subsystemDependencies == null) {
+      throw new IllegalArgumentException(
+          "[" + name(subsystem) + "] is not in the " + SubsystemGraph.class.getSimpleName());
+    }
+    return subsystemDependencies;
+  }
+
+  @Override
+  public void start(C appContext) {
+    logger.info("Starting {} Subsystems concurrently:{}", dependencies.size(), this);
+    Duration timeout = Duration.parse(
+        PropertyUtil.getProperty(PROP_KEY_START_TIMEOUT_ISO8601, "PT5M"));
+    Map<Subsystem<C>, Throwable> failures = new ConcurrentHashMap<>();
+    Map<Subsystem<C>, CompletableFuture<Void>> futures = new HashMap<>();
+    ExecutorService executor = newExecutor();
+    isStartAbandoned = false;
+    try {
+      for (Entry<Subsystem<C>, List<Subsystem<C>>> entry : dependencies.entrySet()) {
+        Subsystem<C> subsystem = entry.getKey();
+        futures.put(subsystem, CompletableFuture.allOf(toFutures(entry.getValue(), futures))
+            .thenRunAsync(() -> {
+              try {
+                subsystem.start(appContext);
+                started.add(subsystem);
+              } catch (RuntimeException e) {
+                failures.put(subsystem, e);
+                throw e;
+              }
+              if (isStartAbandoned) {
+                logger.warn("[{}] finished starting after the graph timed out", name(subsystem));
+                stopStartedInReverseOrder(appContext);
+              }
+            }, executor));
+      }
+      await(futures.values(), timeout);
+    } catch (TimeoutException e) {
+      // A start that is still in flight stops its Subsystem itself if it completes after this
+      isStartAbandoned = true;
+      executor.shutdownNow();
+      stopStartedInReverseOrder(appContext);
+      List<String> notStarted = futures.entrySet().stream().filter(f -> !f.getValue().isDone())
+          .map(f -> name(f.getKey())).toList();
+      throw new IllegalStateException(
+          "Timed out after " + timeout + " waiting for these Subsystems to start " + notStarted, e);
+    } catch (ExecutionException e) {
+      stopStartedInReverseOrder(appContext);
+      IllegalStateException exception = new IllegalStateException(
+          "These Subsystems failed to start " + failures.keySet().stream().map(SubsystemGraph::name)
+              .toList() + ", Subsystems that depend on them were not started");
+      failures.values().forEach(exception::addSuppressed);
+      throw exception;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Override
+  public void stop(C appContext) {
+    List<List<Subsystem<C>>> waves = stopWaves();
+    for (int i = 0; i < waves.size(); i++) {
+      List<Subsystem<C>> wave = waves.get(i);
+      Map<String, Runnable> stopLogic = new LinkedHashMap<>();
+      for (Subsystem<C> subsystem : wave) {
+        if (started.contains(subsystem)) {
+          String key = name(subsystem);
+          for (int n = 2; stopLogic.containsKey(key); n++) {
+            key = name(subsystem) + "#" + n;
+          }
+          stopLogic.put(key, () -> stopStarted(subsystem, appContext));
+        }
+      }
+      Duration budget = shutdownCoordinator.nextStageBudget(waves.size() - i);
+      if (!stopLogic.isEmpty()) {
+        shutdownCoordinator.stopInParallel(stopLogic, budget);
+      }
+    }
+    started.clear();
+  }
+
+  /**
+   * @return the number of waves that the {@link Subsystem}s in the graph are stopped in, all the {@link Subsystem}s in a wave are stopped
+   * in parallel
+   */
+  public int getStopWaveCount() {
+    return stopWaves().size();
+  }
+
+  /**
+   * A {@link Subsystem} is in wave 0 if nothing depends on it, otherwise it is in the wave after the last of its dependents.
+   */
+  private List<List<Subsystem<C>>> stopWaves() {
+    List<Subsystem<C>> reverseOrder = new ArrayList<>(dependencies.keySet());
+    Collections.reverse(reverseOrder);
+    Map<Subsystem<C>, Integer> waveIndexes = new HashMap<>();
+    List<List<Subsystem<C>>> waves = new ArrayList<>();
+    for (Subsystem<C> subsystem : reverseOrder) {
+      int waveIndex = dependents(subsystem).stream().mapToInt(d -> waveIndexes.get(d) + 1).max()
+          .orElse(0);
+      waveIndexes.put(subsystem, waveIndex);
+      if (waves.size() == waveIndex) {
+        waves.add(new ArrayList<>());
+      }
+      waves.get(waveIndex).add(subsystem);
+    }
+    return waves;
+  }
+
+  /**
+   * Stops the {@link Subsystem}s that have started, one at a time in the reverse of the order they were added, so that a graph that fails
+   * to start does not leave anything running.
+   */
+  private void stopStartedInReverseOrder(C appContext) {
+    List<Subsystem<C>> reverseOrder = new ArrayList<>(dependencies.keySet());
+    Collections.reverse(reverseOrder);
+    for (Subsystem<C> subsystem : reverseOrder) {
+      try {
+        stopStarted(subsystem, appContext);
+      } catch (RuntimeException e) {
+        logger.error("Failed to stop [{}] after the graph failed to start", name(subsystem), e);
+      }
+    }
+  }
+
+  private void stopStarted(Subsystem<C> subsystem, C appContext) {
+    if (started.remove(subsystem)) {
+      subsystem.stop(appContext);
+    }
+  }
+
+  private List<Subsystem<C>> dependents(Subsystem<C> subsystem) {
+    return dependencies.entrySet().stream().filter(e -> e.getValue().contains(subsystem))
+        .map(Entry::getKey).toList();
+  }
+
+  private CompletableFuture<?>[] toFutures(List<Subsystem<C>> subsystems,
+      Map<Subsystem<C>, CompletableFuture<Void>> futures) {
+    return subsystems.stream().map(futures::get).toArray(CompletableFuture[]::new);
+  }
+
+  private ExecutorService newExecutor() {
+    int threadCount = PropertyUtil.getPropertyAsInt(PROP_KEY_THREAD_COUNT,
+        Math.max(1, dependencies.size()));
+    return Executors.newFixedThreadPool(threadCount, Threads.newNamedDaemonThreadFactory("subsystem-start",
+        (t, e) -> logger.error("Uncaught exception in thread {}", t, e)));
+  }
+
+  private static void await(Iterable<CompletableFuture<Void>> futures, Duration timeout)
+      throws TimeoutException, ExecutionException {
+    List<CompletableFuture<Void>> all = new ArrayList<>();
+    futures.forEach(all::add);
+    try {
+      CompletableFuture.allOf(all.toArray(CompletableFuture[]::new))
+          .get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static String name(Subsystem<?> subsystem) {
+    return subsystem.getClass().getName();
+  }
+
+  @Override
+  public String toString() {
+    return dependencies.entrySet().stream().map(e -> e.getValue().isEmpty() ? name(e.getKey())
+            : name(e.getKey()) + " depends on " + e.getValue().stream().map(SubsystemGraph::name)
+                .toList())
+        .collect(Collectors.joining("\n\t", "\n\t", ""));
+  }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2024 Paul Mackinlay <paul.mackinlay@gmail.com>
+ * Copyright (c) 2024-2026 Paul Mackinlay <paul.mackinlay@gmail.com>
  */
 
 package com.webotech.service;
@@ -8,24 +8,59 @@ import static com.webotech.service.data.SupportData.AVAILABLE_PROCESSOR_COUNT;
 import static com.webotech.service.data.SupportData.CL_ARGS;
 import static com.webotech.service.data.SupportData.HOSTNAME;
 import static com.webotech.service.data.SupportData.IP_ADDRESS;
+import static com.webotech.service.data.SupportData.IP_ADDRESSES;
 import static com.webotech.service.data.SupportData.MEMORY_B;
 import static com.webotech.service.data.SupportData.MEMORY_GI_B;
 import static com.webotech.service.data.SupportData.MEMORY_KI_B;
 import static com.webotech.service.data.SupportData.OS_ARCHITECTURE;
 import static com.webotech.service.data.SupportData.USER;
 
+import com.webotech.service.data.CgroupLimits;
+import com.webotech.service.data.LiveSupportData;
 import com.webotech.service.data.SupportData;
+import com.webotech.service.support.ContentionMonitor;
 import com.webotech.service.support.DeadlockDetector;
+import com.webotech.service.support.ExecutorRegistry;
+import com.webotech.service.support.GcMonitor;
+import com.webotech.service.support.HostDiscovery;
+import com.webotech.service.support.Incidents;
+import com.webotech.service.support.JfrRecorder;
+import com.webotech.service.support.JitMonitor;
+import com.webotech.service.support.Journal;
+import com.webotech.service.support.JournalReader;
+import com.webotech.service.support.JournalRecordType;
+import com.webotech.service.support.LiveSupportSampler;
+import com.webotech.service.support.Monitors;
+import com.webotech.service.support.NativeMemoryMonitor;
+import com.webotech.service.support.ProcSampler;
+import com.webotech.service.support.ResourceAdvisor;
+import com.webotech.service.support.StackSampler;
+import com.webotech.service.support.StallWatchdog;
+import com.webotech.service.support.StarvationDetector;
+import com.webotech.service.support.ThreadLeakDetector;
+import com.webotech.service.support.ThreadTopMonitor;
 import com.webotech.statemachine.service.api.AppContext;
 import com.webotech.statemachine.service.api.Subsystem;
 import com.webotech.util.PropertyUtil;
+import com.webotech.util.ServiceUtil.ShutdownCoordinator;
+import com.webotech.util.ServiceUtil.WithMetrics;
+import com.webotech.util.ServiceUtil.WithShutdownCoordinator;
 import java.lang.ProcessHandle.Info;
+import java.lang.management.ManagementFactory;
 import java.net.InetAddress;
-import java.net.UnknownHostException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -33,38 +68,277 @@ import org.apache.logging.log4j.Logger;
  * A {@link Subsystem} that helps with 3rd line support by logging important information about the app. This should be among the first
  * subsystems that is used (but after the {@link PropSubsystem}) so that support information is available in the logs as early as possible.
  * <p>
- * {@link SupportSubsystem#supportData} is logged by default, this contains information about the host, the process and the JVM. Sometimes
- * to diagnose an issue with a process it is important to understand the context in which it is running, this will provide that context. It
- * can be disabled using the {@link SupportSubsystem#PROP_KEY_ENABLE_SUPPORT_DATA_LOGGING} property.
+ * {@link SupportSubsystem#supportData} is logged by default, this contains information about the host, the process, the JVM and the
+ * container (the cgroup CPU and memory limits). Sometimes to diagnose an issue with a process it is important to understand the context in
+ * which it is running, this will provide that context. It can be disabled using the
+ * {@link SupportSubsystem#PROP_KEY_ENABLE_SUPPORT_DATA_LOGGING} property. The {@link ResourceAdvisor} (see
+ * {@link SupportSubsystem#getResourceAdvisor()}) uses the same limits to recommend pool sizes and memory budgets.
+ * <p>
+ * Discovering the host does not use DNS, so it never blocks startup, the hostname is read from the kernel and the IP addresses are those of
+ * the local network interfaces. When support data is logged the local host is also resolved using DNS asynchronously (see
+ * {@link HostDiscovery}), the result is logged when it is resolved or a warning is logged if it is not resolved within the timeout set by
+ * {@link SupportSubsystem#PROP_KEY_RESOLVE_LOCAL_HOST_TIMEOUT_ISO8601}.
  * <p>
  * Deadlock detection is started by default where a dedicated thread checks for deadlocks within the process at a fixed period of 60
- * seconds. If any are found the details of the locked threads are logged. These properties can be used to control if it is enabled and
+ * seconds. If any are found the details of the locked threads are logged after each check and the deadlock is reported once to
+ * {@link Incidents}. These properties can be used to control if it is enabled and
  * various other aspects of how it works:
  * <ul>
  * <li>{@link SupportSubsystem#PROP_KEY_ENABLE_DEADLOCK_DETECTION}</li>
  * <li>{@link SupportSubsystem#PROP_KEY_DEADLOCK_DETECTION_PERIOD_ISO8601}</li>
  * <li>{@link SupportSubsystem#PROP_KEY_STOP_DEADLOCK_DETECTION_TIMEOUT_ISO8601}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_ENABLE_ADAPTIVE_DEADLOCK_DETECTION}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_DEADLOCK_DETECTION_MIN_PERIOD_ISO8601}</li>
  * </ul>
  * Threading issues are the trickiest kind of issue to understand, a deadlock is the only type that
- * can be reliably detected. This {@link Subsystem} does it programmatically, the alternative is to
+ * can be detected with certainty. This {@link Subsystem} does it programmatically, the alternative is to
  * guess a deadlock has a happened and then grab a thread dump or use visual tool
- * to confirm.
+ * to confirm. Stalls and starvation (see below) are detected using thresholds instead.
+ * <p>
+ * In adaptive mode a cheap pre-check decides if a full scan for deadlocks is needed and the period between checks backs off from the min
+ * period to the deadlock detection period until a new deadlock is found, each deadlock is only logged once. See {@link DeadlockDetector}.
+ * <p>
+ * A thread can also get stuck without being deadlocked, e.g. in a long GC, a slow I/O call or a spin loop. Threads that an app registers
+ * with the {@link StallWatchdog} (see {@link SupportSubsystem#getStallWatchdog()}) are checked for stalls every second by default, the
+ * stack of a stalled thread is logged. These properties control stall detection:
+ * <ul>
+ * <li>{@link SupportSubsystem#PROP_KEY_ENABLE_STALL_DETECTION}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_STALL_THRESHOLD_ISO8601}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_STALL_CHECK_PERIOD_ISO8601}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_STALL_LOG_INTERVAL_ISO8601}</li>
+ * </ul>
+ * <p>
+ * Optionally, the {@link StarvationDetector} finds threads that have been waiting for the same lock for a long time (e.g. because of a
+ * lock convoy or starvation) and logs them along with the stack of the thread that owns the lock. These properties control it:
+ * <ul>
+ * <li>{@link SupportSubsystem#PROP_KEY_ENABLE_STARVATION_DETECTION}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_STARVATION_THRESHOLD_ISO8601}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_STARVATION_CHECK_PERIOD_ISO8601}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_STARVATION_LOG_INTERVAL_ISO8601}</li>
+ * </ul>
+ * <p>
+ * The {@link ThreadLeakDetector} is enabled by default, it tracks the trend of the live thread count and logs a warning when it grows
+ * faster than a maximum rate. Optionally, it records where the threads made by the {@link ExecutorSubsystem} (or any thread factory that
+ * is tracked using {@link SupportSubsystem#getThreadLeakDetector()}) are created, so the warning groups the live threads by creation site.
+ * These properties control it:
+ * <ul>
+ * <li>{@link SupportSubsystem#PROP_KEY_ENABLE_THREAD_LEAK_DETECTION}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_THREAD_LEAK_CHECK_PERIOD_ISO8601}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_THREAD_LEAK_WINDOW_ISO8601}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_THREAD_LEAK_MAX_GROWTH_PER_MINUTE}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_THREAD_LEAK_LOG_INTERVAL_ISO8601}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_ENABLE_THREAD_CREATION_TRACKING}</li>
+ * </ul>
+ * <p>
+ * Executors that are registered with the {@link ExecutorRegistry} (see {@link SupportSubsystem#getExecutorRegistry()}), which include the
+ * ones created by the {@link ExecutorSubsystem} and the ones used by the {@link SupportSubsystem}, are sampled to record their queue depth,
+ * active threads, completed task rate and rejections, a warning is logged when an executor becomes saturated. These properties control
+ * executor monitoring:
+ * <ul>
+ * <li>{@link SupportSubsystem#PROP_KEY_ENABLE_EXECUTOR_MONITORING}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_EXECUTOR_SAMPLE_PERIOD_ISO8601}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_EXECUTOR_QUEUE_DEPTH_THRESHOLD}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_EXECUTOR_UTILISATION_THRESHOLD_PERCENT}</li>
+ * </ul>
+ * <p>
+ * The live tier of the support data ({@link SupportData#getLive()}), e.g. memory usage, CPU load, thread counts and safepoints, is
+ * sampled by the {@link LiveSupportSampler} into a preallocated structure so reading it does not allocate, and it can be logged
+ * periodically. These properties control it:
+ * <ul>
+ * <li>{@link SupportSubsystem#PROP_KEY_ENABLE_LIVE_SUPPORT_DATA}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_LIVE_SUPPORT_DATA_PERIOD_ISO8601}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_ENABLE_LIVE_SUPPORT_DATA_LOGGING}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_LIVE_SUPPORT_DATA_LOG_INTERVAL_ISO8601}</li>
+ * </ul>
+ * <p>
+ * On Linux the {@link ProcSampler} samples the OS level health of the process from /proc (RSS, file descriptors, context switches and
+ * page faults) and logs a warning when a threshold is crossed, a threshold that is not positive is disabled. Each sample reads the files
+ * that are kept open, the file descriptors and threads are only scanned once per scan period. These properties control it:
+ * <ul>
+ * <li>{@link SupportSubsystem#PROP_KEY_ENABLE_PROC_SAMPLING}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_PROC_SAMPLE_PERIOD_ISO8601}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_PROC_SCAN_PERIOD_ISO8601}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_PROC_FD_USAGE_THRESHOLD_PERCENT}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_PROC_RSS_THRESHOLD_MI_B}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_PROC_INVOLUNTARY_CONTEXT_SWITCH_THRESHOLD_PER_SECOND}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_PROC_MAJOR_FAULT_THRESHOLD_PER_SECOND}</li>
+ * </ul>
+ * <p>
+ * The {@link NativeMemoryMonitor} samples the memory used outside the heap (direct and mapped buffer pools, metaspace and the code cache)
+ * to track its growth and it logs a warning when an area approaches its limit. If the JVM is started with
+ * {@code -XX:NativeMemoryTracking=summary} the NMT summary can also be sampled. These properties control it:
+ * <ul>
+ * <li>{@link SupportSubsystem#PROP_KEY_ENABLE_NATIVE_MEMORY_MONITORING}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_NATIVE_MEMORY_SAMPLE_PERIOD_ISO8601}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_NATIVE_MEMORY_WINDOW_ISO8601}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_NATIVE_MEMORY_USAGE_THRESHOLD_PERCENT}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_ENABLE_NMT_SUMMARY}</li>
+ * </ul>
+ * <p>
+ * The {@link JitMonitor} samples the total compilation time of the JIT and the usage of the code cache, it logs a warning when the code
+ * cache has been full, when JIT compilation is disabled and during a compilation storm. These properties control it:
+ * <ul>
+ * <li>{@link SupportSubsystem#PROP_KEY_ENABLE_JIT_MONITORING}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_JIT_SAMPLE_PERIOD_ISO8601}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_JIT_COMPILATION_THRESHOLD_PERCENT}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_JIT_WARMUP_GRACE_ISO8601}</li>
+ * </ul>
+ * <p>
+ * Optionally, the {@link ContentionMonitor} samples all threads to find the most contended locks (monitors and j.u.c. locks) which are
+ * logged periodically. These properties control contention monitoring:
+ * <ul>
+ * <li>{@link SupportSubsystem#PROP_KEY_ENABLE_CONTENTION_MONITORING}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_CONTENTION_SAMPLE_PERIOD_ISO8601}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_CONTENTION_WINDOW_ISO8601}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_CONTENTION_TOP_N}</li>
+ * </ul>
+ * <p>
+ * Optionally, the {@link StackSampler} samples the stacks of runnable threads and writes them in collapsed stack format to rolling files
+ * that can be turned into flame graphs. Sampling is kept within a CPU budget and can be switched on and off at runtime using
+ * {@link SupportSubsystem#getStackSampler()}. These properties control stack sampling:
+ * <ul>
+ * <li>{@link SupportSubsystem#PROP_KEY_ENABLE_STACK_SAMPLING}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_STACK_SAMPLE_PERIOD_ISO8601}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_STACK_SAMPLE_FLUSH_PERIOD_ISO8601}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_STACK_SAMPLE_DIR}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_STACK_SAMPLE_MAX_FILES}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_STACK_SAMPLE_CPU_BUDGET_PERCENT}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_STACK_SAMPLE_MAX_DEPTH}</li>
+ * </ul>
+ * <p>
+ * The {@link GcMonitor} is enabled by default, it listens for GC notifications and records pause durations for each collector along with
+ * the heap occupancy after GC, allocation rate, promotion rate and GC overhead (see {@link SupportSubsystem#getGcMonitor()}). A warning is
+ * logged when a pause or the GC overhead exceeds its SLO. These properties control GC monitoring:
+ * <ul>
+ * <li>{@link SupportSubsystem#PROP_KEY_ENABLE_GC_MONITORING}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_GC_WINDOW_ISO8601}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_GC_PAUSE_SLO_ISO8601}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_GC_OVERHEAD_SLO_PERCENT}</li>
+ * </ul>
+ * <p>
+ * Optionally, the {@link ThreadTopMonitor} periodically logs the threads that used the most CPU and allocated the most bytes since the
+ * previous sample (see {@link SupportSubsystem#getThreadTopMonitor()}). These properties control it:
+ * <ul>
+ * <li>{@link SupportSubsystem#PROP_KEY_ENABLE_THREAD_TOP_MONITORING}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_THREAD_TOP_PERIOD_ISO8601}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_THREAD_TOP_N}</li>
+ * </ul>
+ * <p>
+ * Optionally, the {@link JfrRecorder} runs a continuous JFR recording that is bounded by age and size and is dumped to a file when an
+ * incident (a deadlock, a stall, a GC SLO breach or one reported by the app) is reported to {@link Incidents}. It can also be dumped on
+ * demand using {@link SupportSubsystem#getJfrRecorder()}. These properties control it:
+ * <ul>
+ * <li>{@link SupportSubsystem#PROP_KEY_ENABLE_JFR_RECORDING}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_JFR_MAX_AGE_ISO8601}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_JFR_MAX_SIZE_MI_B}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_JFR_DUMP_DIR}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_JFR_MIN_DUMP_INTERVAL_ISO8601}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_JFR_SETTINGS}</li>
+ * </ul>
+ * <p>
+ * The {@link Journal} writes compact binary records of the process's diagnostics (its start and stop, the properties, incidents like
+ * deadlocks and stalls, GC pauses and, when the {@link AppContext} implements {@link WithMetrics}, snapshots of its metrics) to a
+ * memory-mapped ring file that survives the process dying, it is decoded using {@link JournalReader}. Other components can write to it
+ * using {@link SupportSubsystem#getJournal()}. These properties control it:
+ * <ul>
+ * <li>{@link SupportSubsystem#PROP_KEY_ENABLE_JOURNAL}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_JOURNAL_FILE}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_JOURNAL_SIZE_MI_B}</li>
+ * <li>{@link SupportSubsystem#PROP_KEY_JOURNAL_METRICS_PERIOD_ISO8601}</li>
+ * </ul>
+ * Monitors like the {@link StallWatchdog}, {@link StarvationDetector}, {@link ThreadLeakDetector}, {@link ExecutorRegistry},
+ * {@link LiveSupportSampler}, {@link ProcSampler}, {@link NativeMemoryMonitor}, {@link JitMonitor}, {@link ContentionMonitor},
+ * {@link StackSampler}, {@link GcMonitor} and {@link ThreadTopMonitor} share a single daemon thread, which is also used to write metrics
+ * to the {@link Journal}. The {@link JfrRecorder} dumps recordings on a thread of its own.
  * <p>
  * By default, the properties are equivalent to using
  * <pre>
  * com.webotech.service.SupportSubsystem.enableSupportDataLogging=true
+ * com.webotech.service.SupportSubsystem.resolveLocalHostTimeoutIso8601=PT5S
  * com.webotech.service.SupportSubsystem.enableDeadlockDetection=true
  * com.webotech.service.SupportSubsystem.deadlockDetectionPeriodIso8601=PT60S
  * com.webotech.service.SupportSubsystem.stopDeadlockDetectionTimeoutIso8601=PT5S
+ * com.webotech.service.SupportSubsystem.enableAdaptiveDeadlockDetection=false
+ * com.webotech.service.SupportSubsystem.deadlockDetectionMinPeriodIso8601=PT1S
+ * com.webotech.service.SupportSubsystem.enableStallDetection=true
+ * com.webotech.service.SupportSubsystem.stallThresholdIso8601=PT5S
+ * com.webotech.service.SupportSubsystem.stallCheckPeriodIso8601=PT1S
+ * com.webotech.service.SupportSubsystem.stallLogIntervalIso8601=PT1M
+ * com.webotech.service.SupportSubsystem.enableStarvationDetection=false
+ * com.webotech.service.SupportSubsystem.starvationThresholdIso8601=PT30S
+ * com.webotech.service.SupportSubsystem.starvationCheckPeriodIso8601=PT5S
+ * com.webotech.service.SupportSubsystem.starvationLogIntervalIso8601=PT1M
+ * com.webotech.service.SupportSubsystem.enableThreadLeakDetection=true
+ * com.webotech.service.SupportSubsystem.threadLeakCheckPeriodIso8601=PT10S
+ * com.webotech.service.SupportSubsystem.threadLeakWindowIso8601=PT5M
+ * com.webotech.service.SupportSubsystem.threadLeakMaxGrowthPerMinute=10
+ * com.webotech.service.SupportSubsystem.threadLeakLogIntervalIso8601=PT5M
+ * com.webotech.service.SupportSubsystem.enableThreadCreationTracking=false
+ * com.webotech.service.SupportSubsystem.enableExecutorMonitoring=true
+ * com.webotech.service.SupportSubsystem.executorSamplePeriodIso8601=PT1S
+ * com.webotech.service.SupportSubsystem.executorQueueDepthThreshold=1000
+ * com.webotech.service.SupportSubsystem.executorUtilisationThresholdPercent=100
+ * com.webotech.service.SupportSubsystem.enableLiveSupportData=true
+ * com.webotech.service.SupportSubsystem.liveSupportDataPeriodIso8601=PT1S
+ * com.webotech.service.SupportSubsystem.enableLiveSupportDataLogging=false
+ * com.webotech.service.SupportSubsystem.liveSupportDataLogIntervalIso8601=PT1M
+ * com.webotech.service.SupportSubsystem.enableProcSampling=true
+ * com.webotech.service.SupportSubsystem.procSamplePeriodIso8601=PT10S
+ * com.webotech.service.SupportSubsystem.procScanPeriodIso8601=PT1M
+ * com.webotech.service.SupportSubsystem.procFdUsageThresholdPercent=80
+ * com.webotech.service.SupportSubsystem.procRssThresholdMiB=0
+ * com.webotech.service.SupportSubsystem.procInvoluntaryContextSwitchThresholdPerSecond=5000
+ * com.webotech.service.SupportSubsystem.procMajorFaultThresholdPerSecond=100
+ * com.webotech.service.SupportSubsystem.enableNativeMemoryMonitoring=true
+ * com.webotech.service.SupportSubsystem.nativeMemorySamplePeriodIso8601=PT10S
+ * com.webotech.service.SupportSubsystem.nativeMemoryWindowIso8601=PT10M
+ * com.webotech.service.SupportSubsystem.nativeMemoryUsageThresholdPercent=90
+ * com.webotech.service.SupportSubsystem.enableNmtSummary=false
+ * com.webotech.service.SupportSubsystem.enableJitMonitoring=true
+ * com.webotech.service.SupportSubsystem.jitSamplePeriodIso8601=PT10S
+ * com.webotech.service.SupportSubsystem.jitCompilationThresholdPercent=50
+ * com.webotech.service.SupportSubsystem.jitWarmupGraceIso8601=PT1M
+ * com.webotech.service.SupportSubsystem.enableContentionMonitoring=false
+ * com.webotech.service.SupportSubsystem.contentionSamplePeriodIso8601=PT1S
+ * com.webotech.service.SupportSubsystem.contentionWindowIso8601=PT1M
+ * com.webotech.service.SupportSubsystem.contentionTopN=10
+ * com.webotech.service.SupportSubsystem.enableStackSampling=false
+ * com.webotech.service.SupportSubsystem.stackSamplePeriodIso8601=PT0.1S
+ * com.webotech.service.SupportSubsystem.stackSampleFlushPeriodIso8601=PT1M
+ * com.webotech.service.SupportSubsystem.stackSampleDir=stack-samples
+ * com.webotech.service.SupportSubsystem.stackSampleMaxFiles=10
+ * com.webotech.service.SupportSubsystem.stackSampleCpuBudgetPercent=1
+ * com.webotech.service.SupportSubsystem.stackSampleMaxDepth=128
+ * com.webotech.service.SupportSubsystem.enableGcMonitoring=true
+ * com.webotech.service.SupportSubsystem.gcWindowIso8601=PT1M
+ * com.webotech.service.SupportSubsystem.gcPauseSloIso8601=PT0.5S
+ * com.webotech.service.SupportSubsystem.gcOverheadSloPercent=10
+ * com.webotech.service.SupportSubsystem.enableThreadTopMonitoring=false
+ * com.webotech.service.SupportSubsystem.threadTopPeriodIso8601=PT1M
+ * com.webotech.service.SupportSubsystem.threadTopN=5
+ * com.webotech.service.SupportSubsystem.enableJfrRecording=false
+ * com.webotech.service.SupportSubsystem.jfrMaxAgeIso8601=PT10M
+ * com.webotech.service.SupportSubsystem.jfrMaxSizeMiB=64
+ * com.webotech.service.SupportSubsystem.jfrDumpDir=jfr-dumps
+ * com.webotech.service.SupportSubsystem.jfrMinDumpIntervalIso8601=PT5M
+ * com.webotech.service.SupportSubsystem.jfrSettings=default
+ * com.webotech.service.SupportSubsystem.enableJournal=false
+ * com.webotech.service.SupportSubsystem.journalFile=support.journal
+ * com.webotech.service.SupportSubsystem.journalSizeMiB=8
+ * com.webotech.service.SupportSubsystem.journalMetricsPeriodIso8601=PT1M
  * </pre>
+ * The timeout for stopping deadlock detection is reduced to the stop budget that the {@link SupportSubsystem} claims from the
+ * {@link ShutdownCoordinator} if that is shorter.
  * When the {@link SupportSubsystem} stops it also checks if there is more than one non-daemon thread running, if there is, a warning is
  * logged. This is because multiple non-daemon threads can prevent an app from exiting since that can only happen if all the non-daemon
  * threads are stopped first. If there is a single non-daemon thread running it is the thread controlling the app's statemachine which will
  * stop when the statemachine stops.
  */
-public class SupportSubsystem<C extends AppContext<?>> implements Subsystem<C> {
+public class SupportSubsystem<C extends AppContext<?>> implements Subsystem<C>,
+    WithShutdownCoordinator {
 
   private static final Logger logger = LogManager.getLogger(SupportSubsystem.class);
+  private static final String MONITOR_EXECUTOR_NAME = "support-monitor";
 
   //Host data
   private static final Runtime RUNTIME = Runtime.getRuntime();
@@ -74,20 +348,8 @@ public class SupportSubsystem<C extends AppContext<?>> implements Subsystem<C> {
   private static final String OS_NAME = System.getProperty("os.name");
   private static final String OS_ARCH = System.getProperty("os.arch");
   private static final String OS_VERSION = System.getProperty("os.version");
-  private static String hostname;
-  private static String ipAddr;
-
-  static {
-    try {
-      InetAddress ip = InetAddress.getLocalHost();
-      hostname = ip.getHostName();
-      ipAddr = ip.getHostAddress();
-    } catch (UnknownHostException e) {
-      logger.error("Unable to determine hostname and IP address", e);
-      hostname = "";
-      ipAddr = "";
-    }
-  }
+  private static final String HOSTNAME_VALUE = HostDiscovery.hostname();
+  private static final List<InetAddress> INTERFACE_ADDRESSES = HostDiscovery.interfaceAddresses();
 
   //Process data
   private static final long MAX_MEMORY_BYTES = RUNTIME.maxMemory();
@@ -107,8 +369,10 @@ public class SupportSubsystem<C extends AppContext<?>> implements Subsystem<C> {
   private static final String JAVA_HOME = System.getProperty("java.home");
   private static final String JAVA_CLASSPATH = System.getProperty("java.class.path");
   private static final Map<String, String> hostMap = Map.of(SupportData.OS_NAME, OS_NAME,
-      OS_ARCHITECTURE, OS_ARCH, SupportData.OS_VERSION, OS_VERSION, HOSTNAME, hostname, IP_ADDRESS,
-      ipAddr, AVAILABLE_PROCESSOR_COUNT, String.valueOf(NO_OF_PROCESSORS));
+      OS_ARCHITECTURE, OS_ARCH, SupportData.OS_VERSION, OS_VERSION, HOSTNAME, HOSTNAME_VALUE,
+      IP_ADDRESS, HostDiscovery.primaryAddress(INTERFACE_ADDRESSES), IP_ADDRESSES,
+      INTERFACE_ADDRESSES.stream().map(InetAddress::getHostAddress)
+          .collect(Collectors.joining(", ")), AVAILABLE_PROCESSOR_COUNT, String.valueOf(NO_OF_PROCESSORS));
   private static final Map<String, String> processMap = Map.of(SupportData.PID, String.valueOf(PID),
       CL_ARGS, PROCESS_ARGS, USER, PROCESS_USER, MEMORY_B, String.valueOf(MAX_MEMORY_BYTES),
       MEMORY_KI_B, String.valueOf(MAX_MEMORY_MEBI_BYTES), MEMORY_GI_B,
@@ -117,14 +381,28 @@ public class SupportSubsystem<C extends AppContext<?>> implements Subsystem<C> {
       JAVA_SPEC_VERSION, SupportData.JAVA_VERSION, JAVA_VERSION, SupportData.JAVA_HOME, JAVA_HOME,
       SupportData.JAVA_CLASSPATH, JAVA_CLASSPATH);
 
+  //Container data
+  private static final CgroupLimits cgroupLimits = CgroupLimits.read();
+
   /**
    * Exposes {@link SupportData} statically so it can be accessed anywhere within an app.
    */
-  public static final SupportData supportData = new SupportData(hostMap, processMap, jvmMap);
+  public static final SupportData supportData = new SupportData(hostMap, processMap, jvmMap,
+      cgroupLimits.toMap(), new LiveSupportData(cgroupLimits.memoryUsageFile()));
+  private static final ResourceAdvisor resourceAdvisor = new ResourceAdvisor(cgroupLimits,
+      NO_OF_PROCESSORS, ((com.sun.management.OperatingSystemMXBean) ManagementFactory
+      .getOperatingSystemMXBean()).getTotalMemorySize(), MAX_MEMORY_BYTES,
+      ManagementFactory.getMemoryMXBean().getNonHeapMemoryUsage().getCommitted());
   /**
    * Property key with expected value of true|false to control if {@link SupportSubsystem#supportData} is logged. By default it is true.
    */
   public static final String PROP_KEY_ENABLE_SUPPORT_DATA_LOGGING = "com.webotech.service.SupportSubsystem.enableSupportDataLogging";
+  /**
+   * Property key with expected value of an ISO 8601 formatted timeout for resolving the local host using DNS, which is done asynchronously
+   * when {@link SupportSubsystem#supportData} is logged or when the hostname is not available from the kernel or the environment (it is
+   * then taken from the resolved local host). By default it is set to 5 seconds.
+   */
+  public static final String PROP_KEY_RESOLVE_LOCAL_HOST_TIMEOUT_ISO8601 = "com.webotech.service.SupportSubsystem.resolveLocalHostTimeoutIso8601";
   /**
    * Property key with expected value of true|false to control if deadlock detection is enabled. Note that detection will use a dedicated
    * thread to periodically check for deadlocks. By default it is true.
@@ -140,31 +418,696 @@ public class SupportSubsystem<C extends AppContext<?>> implements Subsystem<C> {
    * default it is set to 5 seconds.
    */
   public static final String PROP_KEY_STOP_DEADLOCK_DETECTION_TIMEOUT_ISO8601 = "com.webotech.service.SupportSubsystem.stopDeadlockDetectionTimeoutIso8601";
+  /**
+   * Property key with expected value of true|false to control if deadlock detection is adaptive, in which case the
+   * {@link SupportSubsystem#PROP_KEY_DEADLOCK_DETECTION_PERIOD_ISO8601} is the maximum period between checks. By default it is false.
+   */
+  public static final String PROP_KEY_ENABLE_ADAPTIVE_DEADLOCK_DETECTION = "com.webotech.service.SupportSubsystem.enableAdaptiveDeadlockDetection";
+  /**
+   * Property key with expected value of an ISO 8601 formatted time period used as the minimum period between adaptive deadlock checks. By
+   * default it is set to 1 second.
+   */
+  public static final String PROP_KEY_DEADLOCK_DETECTION_MIN_PERIOD_ISO8601 = "com.webotech.service.SupportSubsystem.deadlockDetectionMinPeriodIso8601";
+  /**
+   * Property key with expected value of true|false to control if the threads registered with the {@link StallWatchdog} are watched for
+   * stalls. By default it is true.
+   */
+  public static final String PROP_KEY_ENABLE_STALL_DETECTION = "com.webotech.service.SupportSubsystem.enableStallDetection";
+  /**
+   * Property key with expected value of an ISO 8601 formatted time period that a registered thread's heartbeat can go without advancing
+   * before it is considered stalled. By default it is set to 5 seconds.
+   */
+  public static final String PROP_KEY_STALL_THRESHOLD_ISO8601 = "com.webotech.service.SupportSubsystem.stallThresholdIso8601";
+  /**
+   * Property key with expected value of an ISO 8601 formatted time period between checks for stalled threads. By default it is set to 1
+   * second.
+   */
+  public static final String PROP_KEY_STALL_CHECK_PERIOD_ISO8601 = "com.webotech.service.SupportSubsystem.stallCheckPeriodIso8601";
+  /**
+   * Property key with expected value of an ISO 8601 formatted time period that is the minimum interval between logging the stack of the
+   * same stalled thread. By default it is set to 1 minute.
+   */
+  public static final String PROP_KEY_STALL_LOG_INTERVAL_ISO8601 = "com.webotech.service.SupportSubsystem.stallLogIntervalIso8601";
+  /**
+   * Property key with expected value of true|false to control if the {@link StarvationDetector} looks for threads that have been waiting
+   * for the same lock for a long time. By default it is false.
+   */
+  public static final String PROP_KEY_ENABLE_STARVATION_DETECTION = "com.webotech.service.SupportSubsystem.enableStarvationDetection";
+  /**
+   * Property key with expected value of an ISO 8601 formatted time period that a thread can wait for the same lock before it is
+   * considered starved. By default it is set to 30 seconds.
+   */
+  public static final String PROP_KEY_STARVATION_THRESHOLD_ISO8601 = "com.webotech.service.SupportSubsystem.starvationThresholdIso8601";
+  /**
+   * Property key with expected value of an ISO 8601 formatted time period between checks for starved threads. By default it is set to 5
+   * seconds.
+   */
+  public static final String PROP_KEY_STARVATION_CHECK_PERIOD_ISO8601 = "com.webotech.service.SupportSubsystem.starvationCheckPeriodIso8601";
+  /**
+   * Property key with expected value of an ISO 8601 formatted time period that is the minimum interval between logging the same starved
+   * thread. By default it is set to 1 minute.
+   */
+  public static final String PROP_KEY_STARVATION_LOG_INTERVAL_ISO8601 = "com.webotech.service.SupportSubsystem.starvationLogIntervalIso8601";
+  /**
+   * Property key with expected value of true|false to control if the {@link ThreadLeakDetector} tracks the trend of the live thread count.
+   * By default it is true.
+   */
+  public static final String PROP_KEY_ENABLE_THREAD_LEAK_DETECTION = "com.webotech.service.SupportSubsystem.enableThreadLeakDetection";
+  /**
+   * Property key with expected value of an ISO 8601 formatted time period between samples of the live thread count. By default it is set
+   * to 10 seconds.
+   */
+  public static final String PROP_KEY_THREAD_LEAK_CHECK_PERIOD_ISO8601 = "com.webotech.service.SupportSubsystem.threadLeakCheckPeriodIso8601";
+  /**
+   * Property key with expected value of an ISO 8601 formatted time period over which the growth of the live thread count is measured. By
+   * default it is set to 5 minutes.
+   */
+  public static final String PROP_KEY_THREAD_LEAK_WINDOW_ISO8601 = "com.webotech.service.SupportSubsystem.threadLeakWindowIso8601";
+  /**
+   * Property key with expected decimal value for the maximum acceptable growth of the live thread count in threads per minute. By default
+   * it is 10.
+   */
+  public static final String PROP_KEY_THREAD_LEAK_MAX_GROWTH_PER_MINUTE = "com.webotech.service.SupportSubsystem.threadLeakMaxGrowthPerMinute";
+  /**
+   * Property key with expected value of an ISO 8601 formatted time period that is the minimum interval between logging thread leaks. By
+   * default it is set to 5 minutes.
+   */
+  public static final String PROP_KEY_THREAD_LEAK_LOG_INTERVAL_ISO8601 = "com.webotech.service.SupportSubsystem.threadLeakLogIntervalIso8601";
+  /**
+   * Property key with expected value of true|false to control if the creation site of threads made by tracked thread factories is
+   * recorded. By default it is false.
+   */
+  public static final String PROP_KEY_ENABLE_THREAD_CREATION_TRACKING = "com.webotech.service.SupportSubsystem.enableThreadCreationTracking";
+  /**
+   * Property key with expected value of true|false to control if the executors registered with the {@link ExecutorRegistry} are sampled.
+   * By default it is true.
+   */
+  public static final String PROP_KEY_ENABLE_EXECUTOR_MONITORING = "com.webotech.service.SupportSubsystem.enableExecutorMonitoring";
+  /**
+   * Property key with expected value of an ISO 8601 formatted time period between samples of the registered executors. By default it is
+   * set to 1 second.
+   */
+  public static final String PROP_KEY_EXECUTOR_SAMPLE_PERIOD_ISO8601 = "com.webotech.service.SupportSubsystem.executorSamplePeriodIso8601";
+  /**
+   * Property key with expected integer value for the queue depth at which an executor is saturated. By default it is 1000.
+   */
+  public static final String PROP_KEY_EXECUTOR_QUEUE_DEPTH_THRESHOLD = "com.webotech.service.SupportSubsystem.executorQueueDepthThreshold";
+  /**
+   * Property key with expected decimal value for the percentage of an executor's threads that are active, while tasks are queued, at which
+   * it is saturated. By default it is 100.
+   */
+  public static final String PROP_KEY_EXECUTOR_UTILISATION_THRESHOLD_PERCENT = "com.webotech.service.SupportSubsystem.executorUtilisationThresholdPercent";
+  /**
+   * Property key with expected value of true|false to control if the live tier of {@link SupportSubsystem#supportData} is sampled. By
+   * default it is true.
+   */
+  public static final String PROP_KEY_ENABLE_LIVE_SUPPORT_DATA = "com.webotech.service.SupportSubsystem.enableLiveSupportData";
+  /**
+   * Property key with expected value of an ISO 8601 formatted time period between samples of the live support data. By default it is set
+   * to 1 second.
+   */
+  public static final String PROP_KEY_LIVE_SUPPORT_DATA_PERIOD_ISO8601 = "com.webotech.service.SupportSubsystem.liveSupportDataPeriodIso8601";
+  /**
+   * Property key with expected value of true|false to control if the live support data is logged periodically. By default it is false.
+   */
+  public static final String PROP_KEY_ENABLE_LIVE_SUPPORT_DATA_LOGGING = "com.webotech.service.SupportSubsystem.enableLiveSupportDataLogging";
+  /**
+   * Property key with expected value of an ISO 8601 formatted minimum interval between logging the live support data. By default it is set
+   * to 1 minute.
+   */
+  public static final String PROP_KEY_LIVE_SUPPORT_DATA_LOG_INTERVAL_ISO8601 = "com.webotech.service.SupportSubsystem.liveSupportDataLogIntervalIso8601";
+  /**
+   * Property key with expected value of true|false to control if the health of the process is sampled from /proc, it is only sampled on
+   * Linux. By default it is true.
+   */
+  public static final String PROP_KEY_ENABLE_PROC_SAMPLING = "com.webotech.service.SupportSubsystem.enableProcSampling";
+  /**
+   * Property key with expected value of an ISO 8601 formatted time period between samples of /proc. By default it is set to 10 seconds.
+   */
+  public static final String PROP_KEY_PROC_SAMPLE_PERIOD_ISO8601 = "com.webotech.service.SupportSubsystem.procSamplePeriodIso8601";
+  /**
+   * Property key with expected value of an ISO 8601 formatted minimum time period between scans of the file descriptors and threads of
+   * the process, which cost a few system calls for each of them. By default it is set to 1 minute.
+   */
+  public static final String PROP_KEY_PROC_SCAN_PERIOD_ISO8601 = "com.webotech.service.SupportSubsystem.procScanPeriodIso8601";
+  /**
+   * Property key with expected decimal value for the percentage of the open files limit used by file descriptors at which a warning is
+   * logged. By default it is 80.
+   */
+  public static final String PROP_KEY_PROC_FD_USAGE_THRESHOLD_PERCENT = "com.webotech.service.SupportSubsystem.procFdUsageThresholdPercent";
+  /**
+   * Property key with expected integer value for the RSS of the process in MiB at which a warning is logged. By default it is 0 (disabled).
+   */
+  public static final String PROP_KEY_PROC_RSS_THRESHOLD_MI_B = "com.webotech.service.SupportSubsystem.procRssThresholdMiB";
+  /**
+   * Property key with expected decimal value for the rate of involuntary context switches (of all threads) at which a warning is logged.
+   * By default it is 5000 per second.
+   */
+  public static final String PROP_KEY_PROC_INVOLUNTARY_CONTEXT_SWITCH_THRESHOLD_PER_SECOND = "com.webotech.service.SupportSubsystem.procInvoluntaryContextSwitchThresholdPerSecond";
+  /**
+   * Property key with expected decimal value for the rate of major page faults at which a warning is logged. By default it is 100 per
+   * second.
+   */
+  public static final String PROP_KEY_PROC_MAJOR_FAULT_THRESHOLD_PER_SECOND = "com.webotech.service.SupportSubsystem.procMajorFaultThresholdPerSecond";
+  /**
+   * Property key with expected value of true|false to control if the memory used outside the heap is monitored. By default it is true.
+   */
+  public static final String PROP_KEY_ENABLE_NATIVE_MEMORY_MONITORING = "com.webotech.service.SupportSubsystem.enableNativeMemoryMonitoring";
+  /**
+   * Property key with expected value of an ISO 8601 formatted time period between samples of the memory used outside the heap. By default
+   * it is set to 10 seconds.
+   */
+  public static final String PROP_KEY_NATIVE_MEMORY_SAMPLE_PERIOD_ISO8601 = "com.webotech.service.SupportSubsystem.nativeMemorySamplePeriodIso8601";
+  /**
+   * Property key with expected value of an ISO 8601 formatted window over which the growth of the memory used outside the heap is
+   * measured. By default it is set to 10 minutes.
+   */
+  public static final String PROP_KEY_NATIVE_MEMORY_WINDOW_ISO8601 = "com.webotech.service.SupportSubsystem.nativeMemoryWindowIso8601";
+  /**
+   * Property key with expected decimal value for the percentage of its limit that an area of memory outside the heap can use before a
+   * warning is logged. By default it is 90.
+   */
+  public static final String PROP_KEY_NATIVE_MEMORY_USAGE_THRESHOLD_PERCENT = "com.webotech.service.SupportSubsystem.nativeMemoryUsageThresholdPercent";
+  /**
+   * Property key with expected value of true|false to control if the native memory tracking summary is sampled, the JVM has to be started
+   * with -XX:NativeMemoryTracking=summary. By default it is false.
+   */
+  public static final String PROP_KEY_ENABLE_NMT_SUMMARY = "com.webotech.service.SupportSubsystem.enableNmtSummary";
+  /**
+   * Property key with expected value of true|false to control if the JIT and the code cache are monitored. By default it is true.
+   */
+  public static final String PROP_KEY_ENABLE_JIT_MONITORING = "com.webotech.service.SupportSubsystem.enableJitMonitoring";
+  /**
+   * Property key with expected value of an ISO 8601 formatted time period between samples of the JIT and the code cache. By default it is
+   * set to 10 seconds.
+   */
+  public static final String PROP_KEY_JIT_SAMPLE_PERIOD_ISO8601 = "com.webotech.service.SupportSubsystem.jitSamplePeriodIso8601";
+  /**
+   * Property key with expected decimal value for the percentage of the time between samples that the compiler threads can spend compiling
+   * before a compilation storm is logged, 0 disables it. By default it is 50.
+   */
+  public static final String PROP_KEY_JIT_COMPILATION_THRESHOLD_PERCENT = "com.webotech.service.SupportSubsystem.jitCompilationThresholdPercent";
+  /**
+   * Property key with expected value of an ISO 8601 formatted duration of the JVM's uptime before a compilation storm is logged, the JIT is
+   * expected to be busy while the JVM warms up. By default it is set to 1 minute.
+   */
+  public static final String PROP_KEY_JIT_WARMUP_GRACE_ISO8601 = "com.webotech.service.SupportSubsystem.jitWarmupGraceIso8601";
+  /**
+   * Property key with expected value of true|false to control if lock contention is monitored by the {@link ContentionMonitor}, which
+   * turns on thread contention monitoring in the JVM. By default it is false.
+   */
+  public static final String PROP_KEY_ENABLE_CONTENTION_MONITORING = "com.webotech.service.SupportSubsystem.enableContentionMonitoring";
+  /**
+   * Property key with expected value of an ISO 8601 formatted time period between samples of lock contention. By default it is set to 1
+   * second.
+   */
+  public static final String PROP_KEY_CONTENTION_SAMPLE_PERIOD_ISO8601 = "com.webotech.service.SupportSubsystem.contentionSamplePeriodIso8601";
+  /**
+   * Property key with expected value of an ISO 8601 formatted time period over which lock contention is aggregated before the most
+   * contended locks are logged. By default it is set to 1 minute.
+   */
+  public static final String PROP_KEY_CONTENTION_WINDOW_ISO8601 = "com.webotech.service.SupportSubsystem.contentionWindowIso8601";
+  /**
+   * Property key with expected integer value for the number of most contended locks that are logged at the end of each window. By
+   * default it is 10.
+   */
+  public static final String PROP_KEY_CONTENTION_TOP_N = "com.webotech.service.SupportSubsystem.contentionTopN";
+  /**
+   * Property key with expected value of true|false to control if the stacks of runnable threads are sampled by the {@link StackSampler}.
+   * By default it is false.
+   */
+  public static final String PROP_KEY_ENABLE_STACK_SAMPLING = "com.webotech.service.SupportSubsystem.enableStackSampling";
+  /**
+   * Property key with expected value of an ISO 8601 formatted time period between stack samples. By default it is set to 100 millis.
+   */
+  public static final String PROP_KEY_STACK_SAMPLE_PERIOD_ISO8601 = "com.webotech.service.SupportSubsystem.stackSamplePeriodIso8601";
+  /**
+   * Property key with expected value of an ISO 8601 formatted time period between writing the collapsed stacks to a new file. By default
+   * it is set to 1 minute.
+   */
+  public static final String PROP_KEY_STACK_SAMPLE_FLUSH_PERIOD_ISO8601 = "com.webotech.service.SupportSubsystem.stackSampleFlushPeriodIso8601";
+  /**
+   * Property key with expected value of the directory that collapsed stack files are written to. By default it is stack-samples.
+   */
+  public static final String PROP_KEY_STACK_SAMPLE_DIR = "com.webotech.service.SupportSubsystem.stackSampleDir";
+  /**
+   * Property key with expected integer value for the number of collapsed stack files that are kept, older files are deleted. By default
+   * it is 10.
+   */
+  public static final String PROP_KEY_STACK_SAMPLE_MAX_FILES = "com.webotech.service.SupportSubsystem.stackSampleMaxFiles";
+  /**
+   * Property key with expected decimal value for the percentage of a single CPU that stack sampling is allowed to use. By default it is 1.
+   */
+  public static final String PROP_KEY_STACK_SAMPLE_CPU_BUDGET_PERCENT = "com.webotech.service.SupportSubsystem.stackSampleCpuBudgetPercent";
+  /**
+   * Property key with expected integer value for the maximum number of frames sampled for each stack. By default it is 128.
+   */
+  public static final String PROP_KEY_STACK_SAMPLE_MAX_DEPTH = "com.webotech.service.SupportSubsystem.stackSampleMaxDepth";
+  /**
+   * Property key with expected value of true|false to control if GC pauses and memory pressure are monitored by the {@link GcMonitor}. By
+   * default it is true.
+   */
+  public static final String PROP_KEY_ENABLE_GC_MONITORING = "com.webotech.service.SupportSubsystem.enableGcMonitoring";
+  /**
+   * Property key with expected value of an ISO 8601 formatted time period over which the allocation rate, promotion rate and GC overhead
+   * are calculated. By default it is set to 1 minute.
+   */
+  public static final String PROP_KEY_GC_WINDOW_ISO8601 = "com.webotech.service.SupportSubsystem.gcWindowIso8601";
+  /**
+   * Property key with expected value of an ISO 8601 formatted time period for the longest acceptable GC pause, a longer pause is logged as
+   * a warning. By default it is set to 500 millis.
+   */
+  public static final String PROP_KEY_GC_PAUSE_SLO_ISO8601 = "com.webotech.service.SupportSubsystem.gcPauseSloIso8601";
+  /**
+   * Property key with expected decimal value for the highest acceptable percentage of a window spent in GC pauses, a higher overhead is
+   * logged as a warning. By default it is 10.
+   */
+  public static final String PROP_KEY_GC_OVERHEAD_SLO_PERCENT = "com.webotech.service.SupportSubsystem.gcOverheadSloPercent";
+  /**
+   * Property key with expected value of true|false to control if the {@link ThreadTopMonitor} logs the threads that use the most CPU and
+   * allocate the most bytes. By default it is false.
+   */
+  public static final String PROP_KEY_ENABLE_THREAD_TOP_MONITORING = "com.webotech.service.SupportSubsystem.enableThreadTopMonitoring";
+  /**
+   * Property key with expected value of an ISO 8601 formatted time period between samples of thread CPU time and allocated bytes. By
+   * default it is set to 1 minute.
+   */
+  public static final String PROP_KEY_THREAD_TOP_PERIOD_ISO8601 = "com.webotech.service.SupportSubsystem.threadTopPeriodIso8601";
+  /**
+   * Property key with expected integer value for the number of threads that are logged by CPU and by allocation. By default it is 5.
+   */
+  public static final String PROP_KEY_THREAD_TOP_N = "com.webotech.service.SupportSubsystem.threadTopN";
+  /**
+   * Property key with expected value of true|false to control if the {@link JfrRecorder} runs a continuous JFR recording that is dumped
+   * when an incident is reported. By default it is false.
+   */
+  public static final String PROP_KEY_ENABLE_JFR_RECORDING = "com.webotech.service.SupportSubsystem.enableJfrRecording";
+  /**
+   * Property key with expected value of an ISO 8601 formatted time period for the maximum age of the data in the continuous JFR
+   * recording. By default it is set to 10 minutes.
+   */
+  public static final String PROP_KEY_JFR_MAX_AGE_ISO8601 = "com.webotech.service.SupportSubsystem.jfrMaxAgeIso8601";
+  /**
+   * Property key with expected integer value for the maximum size in MiB of the continuous JFR recording. By default it is 64.
+   */
+  public static final String PROP_KEY_JFR_MAX_SIZE_MI_B = "com.webotech.service.SupportSubsystem.jfrMaxSizeMiB";
+  /**
+   * Property key with expected value of the directory that JFR recordings are dumped to. By default it is jfr-dumps.
+   */
+  public static final String PROP_KEY_JFR_DUMP_DIR = "com.webotech.service.SupportSubsystem.jfrDumpDir";
+  /**
+   * Property key with expected value of an ISO 8601 formatted time period that is the minimum interval between dumping the JFR recording
+   * for incidents. By default it is set to 5 minutes.
+   */
+  public static final String PROP_KEY_JFR_MIN_DUMP_INTERVAL_ISO8601 = "com.webotech.service.SupportSubsystem.jfrMinDumpIntervalIso8601";
+  /**
+   * Property key with expected value of the name of the JFR settings used for the continuous recording, e.g. default or profile. By
+   * default it is default.
+   */
+  public static final String PROP_KEY_JFR_SETTINGS = "com.webotech.service.SupportSubsystem.jfrSettings";
+  /**
+   * Property key with expected value of true|false to control if diagnostics are written to the {@link Journal}. By default it is false.
+   */
+  public static final String PROP_KEY_ENABLE_JOURNAL = "com.webotech.service.SupportSubsystem.enableJournal";
+  /**
+   * Property key with expected value of the file that the {@link Journal} is mapped to. By default it is support.journal.
+   */
+  public static final String PROP_KEY_JOURNAL_FILE = "com.webotech.service.SupportSubsystem.journalFile";
+  /**
+   * Property key with expected integer value for the size in MiB of the {@link Journal} file. By default it is 8.
+   */
+  public static final String PROP_KEY_JOURNAL_SIZE_MI_B = "com.webotech.service.SupportSubsystem.journalSizeMiB";
+  /**
+   * Property key with expected value of an ISO 8601 formatted time period between snapshots of the app's metrics that are written to the
+   * {@link Journal}. By default it is set to 1 minute.
+   */
+  public static final String PROP_KEY_JOURNAL_METRICS_PERIOD_ISO8601 = "com.webotech.service.SupportSubsystem.journalMetricsPeriodIso8601";
+  private static final StallWatchdog stallWatchdog = new StallWatchdog();
+  private static final StarvationDetector starvationDetector = new StarvationDetector();
+  private static final ThreadLeakDetector threadLeakDetector = Monitors.getThreadLeakDetector();
+  private static final ExecutorRegistry executorRegistry = Monitors.getExecutorRegistry();
+  private static final HostDiscovery hostDiscovery = new HostDiscovery();
+  private static final LiveSupportSampler liveSupportSampler = new LiveSupportSampler(
+      supportData.getLive());
+  private static final ProcSampler procSampler = new ProcSampler();
+  private static final NativeMemoryMonitor nativeMemoryMonitor = new NativeMemoryMonitor();
+  private static final JitMonitor jitMonitor = new JitMonitor();
+  private static final ContentionMonitor contentionMonitor = new ContentionMonitor();
+  private static final StackSampler stackSampler = new StackSampler();
+  private static final GcMonitor gcMonitor = new GcMonitor();
+  private static final Journal journal = new Journal();
+  private static final ThreadTopMonitor threadTopMonitor = new ThreadTopMonitor();
+  private static final JfrRecorder jfrRecorder = new JfrRecorder();
   private final DeadlockDetector deadlockDetector;
+  private ScheduledExecutorService monitorScheduler;
+  private volatile ShutdownCoordinator shutdownCoordinator;
 
   public SupportSubsystem() {
     deadlockDetector = new DeadlockDetector();
+    shutdownCoordinator = new ShutdownCoordinator();
+  }
+
+  @Override
+  public void setShutdownCoordinator(ShutdownCoordinator shutdownCoordinator) {
+    this.shutdownCoordinator = shutdownCoordinator;
+  }
+
+  @Override
+  public ShutdownCoordinator getShutdownCoordinator() {
+    return shutdownCoordinator;
+  }
+
+  /**
+   * @return the {@link StallWatchdog} that threads are registered with to be watched for stalls
+   */
+  public static StallWatchdog getStallWatchdog() {
+    return stallWatchdog;
+  }
+
+  /**
+   * @return the {@link StarvationDetector} that has the threads that are starved when it is enabled
+   */
+  public static StarvationDetector getStarvationDetector() {
+    return starvationDetector;
+  }
+
+  /**
+   * @return the {@link ThreadLeakDetector} that tracks the live thread count (the same one as {@link Monitors#getThreadLeakDetector()}),
+   * use {@link ThreadLeakDetector#track(ThreadFactory)} so that the creation site of threads is recorded when it is enabled
+   */
+  public static ThreadLeakDetector getThreadLeakDetector() {
+    return threadLeakDetector;
+  }
+
+  /**
+   * @return the {@link LiveSupportSampler} that samples the live tier of {@link SupportSubsystem#supportData}
+   */
+  public static LiveSupportSampler getLiveSupportSampler() {
+    return liveSupportSampler;
+  }
+
+  /**
+   * @return the {@link ProcSampler} that samples the OS level health of the process from /proc
+   */
+  public static ProcSampler getProcSampler() {
+    return procSampler;
+  }
+
+  /**
+   * @return the {@link NativeMemoryMonitor} that monitors the memory used outside the heap
+   */
+  public static NativeMemoryMonitor getNativeMemoryMonitor() {
+    return nativeMemoryMonitor;
+  }
+
+  /**
+   * @return the {@link JitMonitor} that monitors the JIT and the code cache
+   */
+  public static JitMonitor getJitMonitor() {
+    return jitMonitor;
+  }
+
+  /**
+   * @return the {@link HostDiscovery} that resolves the local host using DNS without blocking
+   */
+  public static HostDiscovery getHostDiscovery() {
+    return hostDiscovery;
+  }
+
+  /**
+   * @return the {@link ResourceAdvisor} that recommends pool sizes and memory budgets from the resources available to the process
+   */
+  public static ResourceAdvisor getResourceAdvisor() {
+    return resourceAdvisor;
+  }
+
+  /**
+   * @return the {@link ExecutorRegistry} that executors are registered with to be monitored for saturation (the same one as
+   * {@link Monitors#getExecutorRegistry()})
+   */
+  public static ExecutorRegistry getExecutorRegistry() {
+    return executorRegistry;
   }
 
   @Override
   public void start(C appContext) {
-    if (PropertyUtil.getPropertyAsBoolean(PROP_KEY_ENABLE_SUPPORT_DATA_LOGGING, true)) {
+    boolean isSupportDataLogging = PropertyUtil.getPropertyAsBoolean(
+        PROP_KEY_ENABLE_SUPPORT_DATA_LOGGING, true);
+    if (isSupportDataLogging) {
       logger.info("\n{}", supportData);
     }
+    if (isSupportDataLogging || HOSTNAME_VALUE.isEmpty()) {
+      resolveLocalHost(Duration.parse(
+          PropertyUtil.getProperty(PROP_KEY_RESOLVE_LOCAL_HOST_TIMEOUT_ISO8601, "PT5S")),
+          isSupportDataLogging);
+    }
+    if (PropertyUtil.getPropertyAsBoolean(PROP_KEY_ENABLE_JOURNAL, false)) {
+      openJournal(appContext);
+    }
     if (PropertyUtil.getPropertyAsBoolean(PROP_KEY_ENABLE_DEADLOCK_DETECTION, true)) {
       String iso8601Period = PropertyUtil.getProperty(PROP_KEY_DEADLOCK_DETECTION_PERIOD_ISO8601,
           "PT60S");
-      deadlockDetector.startDetecting(iso8601Period);
+      if (PropertyUtil.getPropertyAsBoolean(PROP_KEY_ENABLE_ADAPTIVE_DEADLOCK_DETECTION, false)) {
+        deadlockDetector.startAdaptiveDetecting(
+            PropertyUtil.getProperty(PROP_KEY_DEADLOCK_DETECTION_MIN_PERIOD_ISO8601, "PT1S"),
+            iso8601Period);
+      } else {
+        deadlockDetector.startDetecting(iso8601Period);
+      }
+    }
+    if (PropertyUtil.getPropertyAsBoolean(PROP_KEY_ENABLE_STALL_DETECTION, true)) {
+      stallWatchdog.configure(
+          Duration.parse(PropertyUtil.getProperty(PROP_KEY_STALL_THRESHOLD_ISO8601, "PT5S")),
+          Duration.parse(PropertyUtil.getProperty(PROP_KEY_STALL_LOG_INTERVAL_ISO8601, "PT1M")));
+      stallWatchdog.start(monitorScheduler(), Duration.parse(
+          PropertyUtil.getProperty(PROP_KEY_STALL_CHECK_PERIOD_ISO8601, "PT1S")));
+    }
+    if (PropertyUtil.getPropertyAsBoolean(PROP_KEY_ENABLE_STARVATION_DETECTION, false)) {
+      starvationDetector.configure(
+          Duration.parse(PropertyUtil.getProperty(PROP_KEY_STARVATION_THRESHOLD_ISO8601, "PT30S")),
+          Duration.parse(PropertyUtil.getProperty(PROP_KEY_STARVATION_LOG_INTERVAL_ISO8601, "PT1M")));
+      starvationDetector.start(monitorScheduler(), Duration.parse(
+          PropertyUtil.getProperty(PROP_KEY_STARVATION_CHECK_PERIOD_ISO8601, "PT5S")));
+    }
+    if (PropertyUtil.getPropertyAsBoolean(PROP_KEY_ENABLE_THREAD_LEAK_DETECTION, true)) {
+      threadLeakDetector.configure(
+          Duration.parse(PropertyUtil.getProperty(PROP_KEY_THREAD_LEAK_WINDOW_ISO8601, "PT5M")),
+          Double.parseDouble(PropertyUtil.getProperty(PROP_KEY_THREAD_LEAK_MAX_GROWTH_PER_MINUTE, "10")),
+          Duration.parse(PropertyUtil.getProperty(PROP_KEY_THREAD_LEAK_LOG_INTERVAL_ISO8601, "PT5M")),
+          PropertyUtil.getPropertyAsBoolean(PROP_KEY_ENABLE_THREAD_CREATION_TRACKING, false));
+      threadLeakDetector.start(monitorScheduler(), Duration.parse(
+          PropertyUtil.getProperty(PROP_KEY_THREAD_LEAK_CHECK_PERIOD_ISO8601, "PT10S")));
+    }
+    if (PropertyUtil.getPropertyAsBoolean(PROP_KEY_ENABLE_EXECUTOR_MONITORING, true)) {
+      executorRegistry.configure(
+          PropertyUtil.getPropertyAsInt(PROP_KEY_EXECUTOR_QUEUE_DEPTH_THRESHOLD, 1000),
+          Double.parseDouble(
+              PropertyUtil.getProperty(PROP_KEY_EXECUTOR_UTILISATION_THRESHOLD_PERCENT, "100")));
+      executorRegistry.start(monitorScheduler(), Duration.parse(
+          PropertyUtil.getProperty(PROP_KEY_EXECUTOR_SAMPLE_PERIOD_ISO8601, "PT1S")));
+    }
+    if (PropertyUtil.getPropertyAsBoolean(PROP_KEY_ENABLE_LIVE_SUPPORT_DATA, true)) {
+      liveSupportSampler.configure(
+          PropertyUtil.getPropertyAsBoolean(PROP_KEY_ENABLE_LIVE_SUPPORT_DATA_LOGGING, false),
+          Duration.parse(
+              PropertyUtil.getProperty(PROP_KEY_LIVE_SUPPORT_DATA_LOG_INTERVAL_ISO8601, "PT1M")));
+      supportData.getLive().sample();
+      liveSupportSampler.start(monitorScheduler(), Duration.parse(
+          PropertyUtil.getProperty(PROP_KEY_LIVE_SUPPORT_DATA_PERIOD_ISO8601, "PT1S")));
+    }
+    if (PropertyUtil.getPropertyAsBoolean(PROP_KEY_ENABLE_PROC_SAMPLING, true)
+        && procSampler.isSupported()) {
+      procSampler.configure(
+          Double.parseDouble(PropertyUtil.getProperty(PROP_KEY_PROC_FD_USAGE_THRESHOLD_PERCENT, "80")),
+          PropertyUtil.getPropertyAsInt(PROP_KEY_PROC_RSS_THRESHOLD_MI_B, 0) * 1024L * 1024,
+          Double.parseDouble(PropertyUtil.getProperty(
+              PROP_KEY_PROC_INVOLUNTARY_CONTEXT_SWITCH_THRESHOLD_PER_SECOND, "5000")),
+          Double.parseDouble(
+              PropertyUtil.getProperty(PROP_KEY_PROC_MAJOR_FAULT_THRESHOLD_PER_SECOND, "100")),
+          Duration.parse(PropertyUtil.getProperty(PROP_KEY_PROC_SCAN_PERIOD_ISO8601, "PT1M")));
+      procSampler.start(monitorScheduler(), Duration.parse(
+          PropertyUtil.getProperty(PROP_KEY_PROC_SAMPLE_PERIOD_ISO8601, "PT10S")));
+    }
+    if (PropertyUtil.getPropertyAsBoolean(PROP_KEY_ENABLE_NATIVE_MEMORY_MONITORING, true)) {
+      nativeMemoryMonitor.configure(
+          Duration.parse(PropertyUtil.getProperty(PROP_KEY_NATIVE_MEMORY_WINDOW_ISO8601, "PT10M")),
+          Double.parseDouble(
+              PropertyUtil.getProperty(PROP_KEY_NATIVE_MEMORY_USAGE_THRESHOLD_PERCENT, "90")),
+          PropertyUtil.getPropertyAsBoolean(PROP_KEY_ENABLE_NMT_SUMMARY, false));
+      nativeMemoryMonitor.start(monitorScheduler(), Duration.parse(
+          PropertyUtil.getProperty(PROP_KEY_NATIVE_MEMORY_SAMPLE_PERIOD_ISO8601, "PT10S")));
+    }
+    if (PropertyUtil.getPropertyAsBoolean(PROP_KEY_ENABLE_JIT_MONITORING, true)) {
+      jitMonitor.configure(Double.parseDouble(
+          PropertyUtil.getProperty(PROP_KEY_JIT_COMPILATION_THRESHOLD_PERCENT, "50")),
+          Duration.parse(PropertyUtil.getProperty(PROP_KEY_JIT_WARMUP_GRACE_ISO8601, "PT1M")));
+      jitMonitor.start(monitorScheduler(),
+          Duration.parse(PropertyUtil.getProperty(PROP_KEY_JIT_SAMPLE_PERIOD_ISO8601, "PT10S")));
+    }
+    if (PropertyUtil.getPropertyAsBoolean(PROP_KEY_ENABLE_CONTENTION_MONITORING, false)) {
+      contentionMonitor.configure(
+          Duration.parse(PropertyUtil.getProperty(PROP_KEY_CONTENTION_WINDOW_ISO8601, "PT1M")),
+          PropertyUtil.getPropertyAsInt(PROP_KEY_CONTENTION_TOP_N, 10));
+      contentionMonitor.start(monitorScheduler(), Duration.parse(
+          PropertyUtil.getProperty(PROP_KEY_CONTENTION_SAMPLE_PERIOD_ISO8601, "PT1S")));
+    }
+    if (PropertyUtil.getPropertyAsBoolean(PROP_KEY_ENABLE_STACK_SAMPLING, false)) {
+      stackSampler.configure(Path.of(PropertyUtil.getProperty(PROP_KEY_STACK_SAMPLE_DIR, "stack-samples")),
+          PropertyUtil.getPropertyAsInt(PROP_KEY_STACK_SAMPLE_MAX_FILES, 10),
+          Duration.parse(PropertyUtil.getProperty(PROP_KEY_STACK_SAMPLE_FLUSH_PERIOD_ISO8601, "PT1M")),
+          Double.parseDouble(PropertyUtil.getProperty(PROP_KEY_STACK_SAMPLE_CPU_BUDGET_PERCENT, "1")),
+          PropertyUtil.getPropertyAsInt(PROP_KEY_STACK_SAMPLE_MAX_DEPTH, 128));
+      stackSampler.start(monitorScheduler(), Duration.parse(
+          PropertyUtil.getProperty(PROP_KEY_STACK_SAMPLE_PERIOD_ISO8601, "PT0.1S")));
+    }
+    if (PropertyUtil.getPropertyAsBoolean(PROP_KEY_ENABLE_GC_MONITORING, true)) {
+      gcMonitor.configure(
+          Duration.parse(PropertyUtil.getProperty(PROP_KEY_GC_PAUSE_SLO_ISO8601, "PT0.5S")),
+          Double.parseDouble(PropertyUtil.getProperty(PROP_KEY_GC_OVERHEAD_SLO_PERCENT, "10")));
+      gcMonitor.start(monitorScheduler(),
+          Duration.parse(PropertyUtil.getProperty(PROP_KEY_GC_WINDOW_ISO8601, "PT1M")));
+    }
+    if (PropertyUtil.getPropertyAsBoolean(PROP_KEY_ENABLE_THREAD_TOP_MONITORING, false)) {
+      threadTopMonitor.configure(PropertyUtil.getPropertyAsInt(PROP_KEY_THREAD_TOP_N, 5));
+      threadTopMonitor.start(monitorScheduler(),
+          Duration.parse(PropertyUtil.getProperty(PROP_KEY_THREAD_TOP_PERIOD_ISO8601, "PT1M")));
+    }
+    if (PropertyUtil.getPropertyAsBoolean(PROP_KEY_ENABLE_JFR_RECORDING, false)) {
+      jfrRecorder.configure(Path.of(PropertyUtil.getProperty(PROP_KEY_JFR_DUMP_DIR, "jfr-dumps")),
+          Duration.parse(PropertyUtil.getProperty(PROP_KEY_JFR_MAX_AGE_ISO8601, "PT10M")),
+          PropertyUtil.getPropertyAsInt(PROP_KEY_JFR_MAX_SIZE_MI_B, 64) * 1024L * 1024L,
+          Duration.parse(PropertyUtil.getProperty(PROP_KEY_JFR_MIN_DUMP_INTERVAL_ISO8601, "PT5M")),
+          PropertyUtil.getProperty(PROP_KEY_JFR_SETTINGS, "default"));
+      jfrRecorder.start();
     }
   }
 
+  /**
+   * @return the {@link ContentionMonitor} that finds the most contended locks when it is enabled
+   */
+  public static ContentionMonitor getContentionMonitor() {
+    return contentionMonitor;
+  }
+
+  /**
+   * @return the {@link StackSampler} that samples thread stacks when it is enabled, sampling can be switched on and off at runtime using
+   * {@link StackSampler#setActive(boolean)}
+   */
+  public static StackSampler getStackSampler() {
+    return stackSampler;
+  }
+
+  /**
+   * @return the {@link GcMonitor} that has GC pause and memory pressure figures when it is enabled
+   */
+  public static GcMonitor getGcMonitor() {
+    return gcMonitor;
+  }
+
+  /**
+   * @return the {@link ThreadTopMonitor} that has the threads using the most CPU and allocating the most bytes when it is enabled
+   */
+  public static ThreadTopMonitor getThreadTopMonitor() {
+    return threadTopMonitor;
+  }
+
+  /**
+   * @return the {@link Journal} that diagnostics are written to when it is enabled, writing to it does nothing when it is not open
+   */
+  public static Journal getJournal() {
+    return journal;
+  }
+
+  /**
+   * @return the {@link JfrRecorder} that runs a continuous JFR recording when it is enabled, use {@link JfrRecorder#dump(String)} to dump
+   * it on demand
+   */
+  public static JfrRecorder getJfrRecorder() {
+    return jfrRecorder;
+  }
+
+  /**
+   * Resolves the local host asynchronously within timeout, then puts the hostname into the support data if the kernel did not provide it.
+   * The outcome is logged when isLogging.
+   */
+  private static void resolveLocalHost(Duration timeout, boolean isLogging) {
+    hostDiscovery.resolveLocalHost(timeout).whenComplete((localHost, e) -> {
+      if (e == null) {
+        if (HOSTNAME_VALUE.isEmpty()) {
+          supportData.putHost(HOSTNAME, hostDiscovery.getHostname());
+        }
+        if (isLogging) {
+          logger.info("Local host resolved to {}", localHost);
+        }
+      } else if (isLogging) {
+        Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+        if (cause instanceof TimeoutException) {
+          logger.warn("Unable to resolve the local host within {}, check the DNS configuration",
+              timeout);
+        } else {
+          logger.warn("Unable to resolve the local host", cause);
+        }
+      }
+    });
+  }
+
+  private void openJournal(C appContext) {
+    journal.configure(Path.of(PropertyUtil.getProperty(PROP_KEY_JOURNAL_FILE, "support.journal")),
+        PropertyUtil.getPropertyAsInt(PROP_KEY_JOURNAL_SIZE_MI_B, 8) * 1024L * 1024L);
+    journal.open(appContext.getAppName());
+    for (Entry<String, String> entry : PropSubsystem.getRedactedProps().entrySet()) {
+      journal.write(JournalRecordType.CONFIG, 0, entry.getKey() + "=" + entry.getValue());
+    }
+    gcMonitor.setJournal(journal);
+    if (appContext instanceof WithMetrics withMetrics) {
+      journal.startMetricsSnapshots(monitorScheduler(), Duration.parse(
+              PropertyUtil.getProperty(PROP_KEY_JOURNAL_METRICS_PERIOD_ISO8601, "PT1M")),
+          withMetrics.getMetricRegistry());
+    }
+  }
+
+  /**
+   * The monitors share one scheduler thread which is created when the first monitor starts.
+   */
+  private ScheduledExecutorService monitorScheduler() {
+    if (monitorScheduler == null) {
+      monitorScheduler = executorRegistry.register(MONITOR_EXECUTOR_NAME,
+          new ScheduledThreadPoolExecutor(1, Monitors.newThreadFactory(MONITOR_EXECUTOR_NAME)));
+    }
+    return monitorScheduler;
+  }
+
   @Override
   public void stop(C appContext) {
     if (PropertyUtil.getPropertyAsBoolean(PROP_KEY_ENABLE_DEADLOCK_DETECTION, true)) {
       String iso8601Timeout = PropertyUtil.getProperty(
           PROP_KEY_STOP_DEADLOCK_DETECTION_TIMEOUT_ISO8601, "PT5S");
+      Duration budget = shutdownCoordinator.nextStageBudget();
+      if (budget.compareTo(Duration.parse(iso8601Timeout)) < 0) {
+        iso8601Timeout = budget.toString();
+      }
       deadlockDetector.stopDetecting(iso8601Timeout);
     }
+    stallWatchdog.stop();
+    starvationDetector.stop();
+    threadLeakDetector.stop();
+    executorRegistry.stop();
+    liveSupportSampler.stop();
+    procSampler.stop();
+    nativeMemoryMonitor.stop();
+    jitMonitor.stop();
+    contentionMonitor.stop();
+    stackSampler.stop();
+    gcMonitor.stop();
+    threadTopMonitor.stop();
+    jfrRecorder.stop();
+    gcMonitor.setJournal(null);
+    journal.close();
+    if (monitorScheduler != null) {
+      executorRegistry.deregister(MONITOR_EXECUTOR_NAME);
+      monitorScheduler.shutdownNow();
+      monitorScheduler = null;
+    }
     Set<Thread> runningThreadsSnapshot = Thread.getAllStackTraces().keySet();
     List<String> nonDaemonThreads = runningThreadsSnapshot.stream().filter(t -> !t.isDaemon()).map(Thread::getName).sorted()
         .toList();
@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service;
+
+import com.webotech.statemachine.service.api.AppContext;
+import com.webotech.statemachine.service.api.Subsystem;
+import com.webotech.util.PropertyUtil;
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A {@link Subsystem} that warms up an app by repeatedly running registered warm-up routines so that the JIT compiler has compiled the
+ * hot paths before the app does any real work. It should be equipped after the functional {@link Subsystem}s since the routines typically
+ * exercise them, it blocks the app from starting until the warm-up is complete and only then does {@link #isReady()} return true.
+ * <pre>
+ *   WarmupSubsystem&lt;BasicAppContext&gt; warmup = new WarmupSubsystem&lt;BasicAppContext&gt;()
+ *       .register("pricing", c -&gt; pricer.price(SAMPLE_ORDER))
+ *       .register("codec", c -&gt; codec.decode(codec.encode(SAMPLE_MESSAGE)));
+ * </pre>
+ * The routines are run in turn, one iteration at a time, until each has run
+ * {@link WarmupSubsystem#PROP_KEY_ITERATIONS} times or {@link WarmupSubsystem#PROP_KEY_TIME_BUDGET_ISO8601} has elapsed, whichever
+ * happens first. A routine that throws an exception is logged and not run again. Warm-up routines should not have side effects that are
+ * visible outside the app.
+ * <p>
+ * When {@link WarmupSubsystem#PROP_KEY_AWAIT_COMPILATION_SETTLE} is true (and the JVM supports compilation time monitoring) it then
+ * watches the {@link CompilationMXBean} until less than {@link WarmupSubsystem#PROP_KEY_SETTLED_COMPILATION_MILLIS} of compilation time
+ * is spent in a {@link WarmupSubsystem#PROP_KEY_SETTLE_PERIOD_ISO8601}, or until
+ * {@link WarmupSubsystem#PROP_KEY_SETTLE_TIMEOUT_ISO8601} has elapsed.
+ * <p>
+ * By default, the properties are equivalent to using
+ * <pre>
+ * com.webotech.service.WarmupSubsystem.iterations=10000
+ * com.webotech.service.WarmupSubsystem.timeBudgetIso8601=PT30S
+ * com.webotech.service.WarmupSubsystem.awaitCompilationSettle=false
+ * com.webotech.service.WarmupSubsystem.settlePeriodIso8601=PT1S
+ * com.webotech.service.WarmupSubsystem.settledCompilationMillis=10
+ * com.webotech.service.WarmupSubsystem.settleTimeoutIso8601=PT30S
+ * </pre>
+ */
+public class WarmupSubsystem<C extends AppContext<?>> implements Subsystem<C> {
+
+  private static final Logger logger = LogManager.getLogger(WarmupSubsystem.class);
+  /**
+   * Property key with expected integer value for the number of times each warm-up routine is run. By default it is 10000.
+   */
+  public static final String PROP_KEY_ITERATIONS = "com.webotech.service.WarmupSubsystem.iterations";
+  /**
+   * Property key with expected value of an ISO 8601 formatted time period that limits how long the warm-up routines are run for. By
+   * default it is set to 30 seconds.
+   */
+  public static final String PROP_KEY_TIME_BUDGET_ISO8601 = "com.webotech.service.WarmupSubsystem.timeBudgetIso8601";
+  /**
+   * Property key with expected value of true|false to control if the {@link CompilationMXBean} is watched until compilation activity
+   * settles after the warm-up routines have run. By default it is false.
+   */
+  public static final String PROP_KEY_AWAIT_COMPILATION_SETTLE = "com.webotech.service.WarmupSubsystem.awaitCompilationSettle";
+  /**
+   * Property key with expected value of an ISO 8601 formatted time period between checks of compilation activity. By default it is set
+   * to 1 second.
+   */
+  public static final String PROP_KEY_SETTLE_PERIOD_ISO8601 = "com.webotech.service.WarmupSubsystem.settlePeriodIso8601";
+  /**
+   * Property key with expected integer value for the number of millis of compilation time in a settle period below which compilation
+   * activity is considered to have settled. By default it is 10.
+   */
+  public static final String PROP_KEY_SETTLED_COMPILATION_MILLIS = "com.webotech.service.WarmupSubsystem.settledCompilationMillis";
+  /**
+   * Property key with expected value of an ISO 8601 formatted time period that limits how long to wait for compilation activity to
+   * settle. By default it is set to 30 seconds.
+   */
+  public static final String PROP_KEY_SETTLE_TIMEOUT_ISO8601 = "com.webotech.service.WarmupSubsystem.settleTimeoutIso8601";
+  private final Map<String, Consumer<C>> routines;
+  private volatile Map<String, Integer> iterationCounts;
+  private volatile boolean isReady;
+  private volatile Duration warmupDuration;
+
+  public WarmupSubsystem() {
+    routines = new LinkedHashMap<>();
+    iterationCounts = Map.of();
+  }
+
+  /**
+   * Registers a warm-up routine with a name that is used when logging, the routine is passed the {@link AppContext} each time it runs.
+   */
+  public WarmupSubsystem<C> register(String name, Consumer<C> routine) {
+    if (routines.containsKey(name)) {
+      throw new IllegalArgumentException(
+          "A warm-up routine named [" + name + "] has already been registered");
+    }
+    routines.put(name, routine);
+    return this;
+  }
+
+  @Override
+  public void start(C appContext) {
+    int iterations = PropertyUtil.getPropertyAsInt(PROP_KEY_ITERATIONS, 10000);
+    Duration timeBudget = Duration.parse(
+        PropertyUtil.getProperty(PROP_KEY_TIME_BUDGET_ISO8601, "PT30S"));
+    logger.info("Warming up {} with {} routines for {} iterations or {} millis",
+        appContext.getAppName(), routines.size(), iterations, timeBudget.toMillis());
+    long startNanos = System.nanoTime();
+    long budgetDeadlineNanos = startNanos + timeBudget.toNanos();
+    runRoutines(appContext, iterations, budgetDeadlineNanos);
+    if (PropertyUtil.getPropertyAsBoolean(PROP_KEY_AWAIT_COMPILATION_SETTLE, false)) {
+      awaitCompilationSettle();
+    }
+    warmupDuration = Duration.ofNanos(System.nanoTime() - startNanos);
+    isReady = true;
+    logger.info("Warm-up complete in {} millis {}, {} is ready", warmupDuration.toMillis(),
+        iterationCounts, appContext.getAppName());
+  }
+
+  /**
+   * The counts are updated by the warm-up thread and an immutable copy is published after each iteration so that they can be read from
+   * any thread.
+   */
+  private void runRoutines(C appContext, int iterations, long budgetDeadlineNanos) {
+    Map<String, Integer> counts = new LinkedHashMap<>();
+    List<Entry<String, Consumer<C>>> remaining = new ArrayList<>(routines.entrySet());
+    remaining.forEach(e -> counts.put(e.getKey(), 0));
+    publish(counts);
+    for (int i = 0; i < iterations && !remaining.isEmpty(); i++) {
+      if (System.nanoTime() - budgetDeadlineNanos > 0) {
+        logger.info("Warm-up time budget ran out after {} iterations", i);
+        return;
+      }
+      for (Entry<String, Consumer<C>> routine : List.copyOf(remaining)) {
+        try {
+          routine.getValue().accept(appContext);
+          counts.merge(routine.getKey(), 1, Integer::sum);
+        } catch (RuntimeException e) {
+          logger.error("Warm-up routine [{}] failed, it will not be run again", routine.getKey(), e);
+          remaining.remove(routine);
+        }
+      }
+      publish(counts);
+    }
+  }
+
+  private void publish(Map<String, Integer> counts) {
+    iterationCounts = Collections.unmodifiableMap(new LinkedHashMap<>(counts));
+  }
+
+  private static void awaitCompilationSettle() {
+    CompilationMXBean compilation = ManagementFactory.getCompilationMXBean();
+    if (compilation == null || !compilation.isCompilationTimeMonitoringSupported()) {
+      logger.warn("Compilation time monitoring is not supported, will not wait for compilation to settle");
+      return;
+    }
+    Duration settlePeriod = Duration.parse(
+        PropertyUtil.getProperty(PROP_KEY_SETTLE_PERIOD_ISO8601, "PT1S"));
+    int settledMillis = PropertyUtil.getPropertyAsInt(PROP_KEY_SETTLED_COMPILATION_MILLIS, 10);
+    long timeoutNanos = System.nanoTime() + Duration.parse(
+        PropertyUtil.getProperty(PROP_KEY_SETTLE_TIMEOUT_ISO8601, "PT30S")).toNanos();
+    long compilationMillis = compilation.getTotalCompilationTime();
+    try {
+      while (System.nanoTime() - timeoutNanos < 0) {
+        TimeUnit.MILLISECONDS.sleep(settlePeriod.toMillis());
+        long previousCompilationMillis = compilationMillis;
+        compilationMillis = compilation.getTotalCompilationTime();
+        if (compilationMillis - previousCompilationMillis < settledMillis) {
+          logger.info("Compilation settled with {} millis of total compilation time", compilationMillis);
+          return;
+        }
+      }
+      logger.warn("Timed out waiting for compilation to settle, {} millis of total compilation time",
+          compilationMillis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * @return true once the warm-up is complete and until the {@link WarmupSubsystem} stops
+   */
+  public boolean isReady() {
+    return isReady;
+  }
+
+  /**
+   * @return how long the warm-up took or null if it is not complete
+   */
+  public Duration getWarmupDuration() {
+    return warmupDuration;
+  }
+
+  /**
+   * @return the number of times each warm-up routine was run during the last warm-up, or so far when it is warming up, in the order they
+   * were registered
+   */
+  public Map<String, Integer> getIterationCounts() {
+    return iterationCounts;
+  }
+
+  @Override
+  public void stop(C appContext) {
+    isReady = false;
+  }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+package com.webotech.service.data;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The resource limits of the cgroup (v1 or v2) that the process runs in, in a container these are the numbers that matter for sizing thread
+ * pools and caches rather than the resources of the host. Like the JDK, the cgroup of the process is resolved from /proc/self/cgroup (for
+ * v2 the unified path, for v1 the path of each controller) relative to the controllers mounted under /sys/fs/cgroup. When that path is
+ * not visible under the mount, as is the case in a container without a cgroup namespace where the mount is the container's own cgroup,
+ * the limits are read from the mount itself.
+ * <p>
+ * The limits do not change while the app runs, the memory used by the cgroup does so it is sampled live from {@link #memoryUsageFile()}
+ * (see {@link LiveSupportData#getCgroupMemoryUsageBytes()}).
+ *
+ * @param version          the cgroup version, v1, v2 or none if cgroups are not available
+ * @param cpuQuotaMicros   the CPU time the cgroup can use in each period, -1 if it is unlimited
+ * @param cpuPeriodMicros  the period of the CPU quota, -1 if it is unknown
+ * @param cpusetCpus       the CPUs the cgroup can run on (e.g. 0-3,6), empty if it is unknown
+ * @param memoryLimitBytes the memory limit of the cgroup, -1 if it is unlimited
+ * @param memoryUsageFile  the file that has the memory currently used by the cgroup, null if it is unknown
+ */
+public record CgroupLimits(String version, long cpuQuotaMicros, long cpuPeriodMicros,
+                           String cpusetCpus, long memoryLimitBytes, Path memoryUsageFile) {
+
+  public static final String V1 = "v1";
+  public static final String V2 = "v2";
+  public static final String NONE = "none";
+  private static final Path CGROUP_ROOT = Path.of("/sys/fs/cgroup");
+  private static final Path PROC_SELF_CGROUP = Path.of("/proc/self/cgroup");
+  private static final String MAX = "max";
+  /**
+   * cgroup v1 reports an unlimited memory limit as a huge number (Long.MAX_VALUE rounded down to a page), anything above this is unlimited.
+   */
+  private static final long V1_UNLIMITED_MEMORY_BYTES = Long.MAX_VALUE / 2;
+
+  /**
+   * @return the limits of the cgroup that the process runs in
+   */
+  public static CgroupLimits read() {
+    return read(CGROUP_ROOT, PROC_SELF_CGROUP);
+  }
+
+  /**
+   * @return the limits of the cgroup, listed in selfCgroupFile (in the format of /proc/self/cgroup), with controllers mounted under root
+   */
+  public static CgroupLimits read(Path root, Path selfCgroupFile) {
+    Map<String, String> cgroupPaths = readCgroupPaths(selfCgroupFile);
+    if (Files.exists(root.resolve("cgroup.controllers"))) {
+      return readV2(resolve(root, cgroupPaths.get("")));
+    }
+    if (Files.isDirectory(root.resolve("memory")) || Files.isDirectory(root.resolve("cpu"))) {
+      return readV1(resolve(root.resolve("cpu"), cgroupPaths.get("cpu")),
+          resolve(root.resolve("cpuset"), cgroupPaths.get("cpuset")),
+          resolve(root.resolve("memory"), cgroupPaths.get("memory")));
+    }
+    return new CgroupLimits(NONE, -1, -1, "", -1, null);
+  }
+
+  /**
+   * @return the cgroup path of each controller from selfCgroupFile, keyed by the controller name or by an empty string for v2 (e.g.
+   * 0::/app.slice)
+   */
+  private static Map<String, String> readCgroupPaths(Path selfCgroupFile) {
+    Map<String, String> cgroupPaths = new HashMap<>();
+    for (String line : readString(selfCgroupFile).lines().toList()) {
+      String[] fields = line.split(":", 3);
+      if (fields.length == 3) {
+        for (String controller : List.of(fields[1].split(","))) {
+          cgroupPaths.put(controller, fields[2]);
+        }
+      }
+    }
+    return cgroupPaths;
+  }
+
+  /**
+   * @return the directory of cgroupPath under mount, or mount if it is not visible there
+   */
+  private static Path resolve(Path mount, String cgroupPath) {
+    if (cgroupPath == null || cgroupPath.isEmpty() || "/".equals(cgroupPath)) {
+      return mount;
+    }
+    Path dir = mount.resolve(cgroupPath.substring(cgroupPath.startsWith("/") ? 1 : 0));
+    return Files.isDirectory(dir) ? dir : mount;
+  }
+
+  private static CgroupLimits readV2(Path dir) {
+    long cpuQuotaMicros = -1;
+    long cpuPeriodMicros = -1;
+    String[] cpuMax = readString(dir.resolve("cpu.max")).split(" ");
+    if (cpuMax.length == 2) {
+      cpuQuotaMicros = MAX.equals(cpuMax[0]) ? -1 : parseLong(cpuMax[0]);
+      cpuPeriodMicros = parseLong(cpuMax[1]);
+    }
+    String memoryMax = readString(dir.resolve("memory.max"));
+    return new CgroupLimits(V2, cpuQuotaMicros, cpuPeriodMicros,
+        readString(dir.resolve("cpuset.cpus.effective")),
+        MAX.equals(memoryMax) ? -1 : parseLong(memoryMax),
+        existing(dir.resolve("memory.current")));
+  }
+
+  private static CgroupLimits readV1(Path cpuDir, Path cpusetDir, Path memoryDir) {
+    long cpuQuotaMicros = parseLong(readString(cpuDir.resolve("cpu.cfs_quota_us")));
+    long memoryLimitBytes = parseLong(readString(memoryDir.resolve("memory.limit_in_bytes")));
+    return new CgroupLimits(V1, cpuQuotaMicros <= 0 ? -1 : cpuQuotaMicros,
+        parseLong(readString(cpuDir.resolve("cpu.cfs_period_us"))),
+        readString(cpusetDir.resolve("cpuset.cpus")),
+        memoryLimitBytes > V1_UNLIMITED_MEMORY_BYTES ? -1 : memoryLimitBytes,
+        existing(memoryDir.resolve("memory.usage_in_bytes")));
+  }
+
+  private static Path existing(Path file) {
+    return Files.isReadable(file) ? file : null;
+  }
+
+  /**
+   * @return the number of CPUs the CPU quota is equivalent to, -1 if it is unlimited
+   */
+  public double cpuLimit() {
+    return cpuQuotaMicros > 0 && cpuPeriodMicros > 0 ? (double) cpuQuotaMicros / cpuPeriodMicros
+        : -1;
+  }
+
+  /**
+   * @return the number of CPUs in the cpuset, -1 if it is unknown
+   */
+  public int cpusetCount() {
+    if (cpusetCpus.isEmpty()) {
+      return -1;
+    }
+    int count = 0;
+    for (String range : cpusetCpus.split(",")) {
+      int dash = range.indexOf('-');
+      try {
+        count += dash < 0 ? 1 : Integer.parseInt(range.substring(dash + 1).trim())
+            - Integer.parseInt(range.substring(0, dash).trim()) + 1;
+      } catch (NumberFormatException e) {
+        return -1;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * @return the limits as support data, see {@link SupportData#getContainer()}
+   */
+  public Map<String, String> toMap() {
+    Map<String, String> map = new TreeMap<>();
+    map.put(SupportData.CGROUP_VERSION, version);
+    if (!NONE.equals(version)) {
+      double cpuLimit = cpuLimit();
+      map.put(SupportData.CPU_LIMIT, cpuLimit < 0 ? SupportData.UNLIMITED
+          : String.valueOf(Math.round(cpuLimit * 1000) / 1000.0));
+      map.put(SupportData.CPUSET_CPUS, cpusetCpus);
+      map.put(SupportData.MEMORY_LIMIT_B,
+          memoryLimitBytes < 0 ? SupportData.UNLIMITED : String.valueOf(memoryLimitBytes));
+    }
+    return map;
+  }
+
+  private static String readString(Path file) {
+    try {
+      return Files.readString(file).trim();
+    } catch (IOException e) {
+      return "";
+    }
+  }
+
+  private static long parseLong(String value) {
+    try {
+      return Long.parseLong(value);
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+}
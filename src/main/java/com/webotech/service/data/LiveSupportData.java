@@ -0,0 +1,269 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+package com.webotech.service.data;
+
+import java.io.IOException;
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+import java.lang.management.RuntimeMXBean;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The live tier of {@link SupportData}, runtime metrics (memory, including the memory used by the cgroup, CPU load, classes, threads,
+ * uptime and safepoints) that change while the app runs. The values are updated in place each time {@link #sample()} is called, by a single
+ * scheduled task, so reading them or appending them to a reused {@link StringBuilder} (see {@link #appendTo(StringBuilder)}) does not
+ * allocate. Each value is from the most recent sample, a reader that runs while a sample is in progress may see values from two consecutive
+ * samples.
+ * <p>
+ * Safepoint counts are read from the HotSpot internal runtime MBean, which is only accessible when the JVM is started with
+ * {@code --add-exports java.management/sun.management=ALL-UNNAMED}, otherwise they are -1. Values that are not available are -1.
+ */
+public class LiveSupportData {
+
+  private final MemoryMXBean memoryMxBean;
+  private final ThreadMXBean threadMxBean;
+  private final ClassLoadingMXBean classLoadingMxBean;
+  private final RuntimeMXBean runtimeMxBean;
+  private final com.sun.management.OperatingSystemMXBean osMxBean;
+  private final Object hotspotRuntimeMBean;
+  private final Method safepointCountMethod;
+  private final Method safepointTimeMethod;
+  private final ByteBuffer cgroupMemoryUsageBuffer;
+  private FileChannel cgroupMemoryUsageChannel;
+  private volatile long sampleTimeMillis;
+  private volatile long uptimeMillis;
+  private volatile long heapUsedBytes;
+  private volatile long heapCommittedBytes;
+  private volatile long nonHeapUsedBytes;
+  private volatile long nonHeapCommittedBytes;
+  private volatile double processCpuLoad;
+  private volatile double systemCpuLoad;
+  private volatile int loadedClassCount;
+  private volatile int threadCount;
+  private volatile int daemonThreadCount;
+  private volatile int peakThreadCount;
+  private volatile long safepointCount;
+  private volatile long safepointTimeMillis;
+  private volatile long cgroupMemoryUsageBytes;
+
+  public LiveSupportData() {
+    this(null);
+  }
+
+  /**
+   * @param cgroupMemoryUsageFile the file that has the memory used by the cgroup (see {@link CgroupLimits#memoryUsageFile()}), it is kept
+   *                              open and re-read from the start on each sample, null if it is unknown
+   */
+  public LiveSupportData(Path cgroupMemoryUsageFile) {
+    memoryMxBean = ManagementFactory.getMemoryMXBean();
+    threadMxBean = ManagementFactory.getThreadMXBean();
+    classLoadingMxBean = ManagementFactory.getClassLoadingMXBean();
+    runtimeMxBean = ManagementFactory.getRuntimeMXBean();
+    osMxBean = ManagementFactory.getOperatingSystemMXBean()
+        instanceof com.sun.management.OperatingSystemMXBean os ? os : null;
+    Object runtimeMBean = null;
+    Method countMethod = null;
+    Method timeMethod = null;
+    try {
+      Class<?> helper = Class.forName("sun.management.ManagementFactoryHelper");
+      runtimeMBean = helper.getMethod("getHotspotRuntimeMBean").invoke(null);
+      Class<?> runtimeMBeanClass = Class.forName("sun.management.HotspotRuntimeMBean");
+      countMethod = runtimeMBeanClass.getMethod("getSafepointCount");
+      timeMethod = runtimeMBeanClass.getMethod("getTotalSafepointTime");
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      // The HotSpot internals are not exported, safepoints are not available
+      runtimeMBean = null;
+    }
+    hotspotRuntimeMBean = runtimeMBean;
+    safepointCountMethod = countMethod;
+    safepointTimeMethod = timeMethod;
+    safepointCount = -1;
+    safepointTimeMillis = -1;
+    processCpuLoad = -1;
+    systemCpuLoad = -1;
+    cgroupMemoryUsageBytes = -1;
+    cgroupMemoryUsageBuffer = ByteBuffer.allocate(32);
+    if (cgroupMemoryUsageFile != null) {
+      try {
+        cgroupMemoryUsageChannel = FileChannel.open(cgroupMemoryUsageFile, StandardOpenOption.READ);
+      } catch (IOException e) {
+        cgroupMemoryUsageChannel = null;
+      }
+    }
+  }
+
+  /**
+   * Updates the values from the JVM, it is intended to be called by a single thread.
+   */
+  public void sample() {
+    MemoryUsage heap = memoryMxBean.getHeapMemoryUsage();
+    MemoryUsage nonHeap = memoryMxBean.getNonHeapMemoryUsage();
+    heapUsedBytes = heap.getUsed();
+    heapCommittedBytes = heap.getCommitted();
+    nonHeapUsedBytes = nonHeap.getUsed();
+    nonHeapCommittedBytes = nonHeap.getCommitted();
+    if (osMxBean != null) {
+      processCpuLoad = osMxBean.getProcessCpuLoad();
+      systemCpuLoad = osMxBean.getCpuLoad();
+    }
+    loadedClassCount = classLoadingMxBean.getLoadedClassCount();
+    threadCount = threadMxBean.getThreadCount();
+    daemonThreadCount = threadMxBean.getDaemonThreadCount();
+    peakThreadCount = threadMxBean.getPeakThreadCount();
+    uptimeMillis = runtimeMxBean.getUptime();
+    if (hotspotRuntimeMBean != null) {
+      try {
+        safepointCount = (long) safepointCountMethod.invoke(hotspotRuntimeMBean);
+        safepointTimeMillis = (long) safepointTimeMethod.invoke(hotspotRuntimeMBean);
+      } catch (ReflectiveOperationException e) {
+        safepointCount = -1;
+        safepointTimeMillis = -1;
+      }
+    }
+    cgroupMemoryUsageBytes = readCgroupMemoryUsage();
+    sampleTimeMillis = System.currentTimeMillis();
+  }
+
+  /**
+   * Reads the cgroup memory usage into a reused buffer and parses it from the bytes, the channel is closed if it cannot be read.
+   */
+  private long readCgroupMemoryUsage() {
+    if (cgroupMemoryUsageChannel == null) {
+      return -1;
+    }
+    try {
+      cgroupMemoryUsageBuffer.clear();
+      int length = cgroupMemoryUsageChannel.read(cgroupMemoryUsageBuffer, 0);
+      long value = 0;
+      int i = 0;
+      while (i < length && cgroupMemoryUsageBuffer.get(i) >= '0'
+          && cgroupMemoryUsageBuffer.get(i) <= '9') {
+        value = value * 10 + (cgroupMemoryUsageBuffer.get(i++) - '0');
+      }
+      return i == 0 ? -1 : value;
+    } catch (IOException e) {
+      try {
+        cgroupMemoryUsageChannel.close();
+      } catch (IOException closeException) {
+        e.addSuppressed(closeException);
+      }
+      cgroupMemoryUsageChannel = null;
+      return -1;
+    }
+  }
+
+  /**
+   * @return the epoch millis of the most recent sample, 0 if it has not been sampled
+   */
+  public long getSampleTimeMillis() {
+    return sampleTimeMillis;
+  }
+
+  public long getUptimeMillis() {
+    return uptimeMillis;
+  }
+
+  public long getHeapUsedBytes() {
+    return heapUsedBytes;
+  }
+
+  public long getHeapCommittedBytes() {
+    return heapCommittedBytes;
+  }
+
+  public long getNonHeapUsedBytes() {
+    return nonHeapUsedBytes;
+  }
+
+  public long getNonHeapCommittedBytes() {
+    return nonHeapCommittedBytes;
+  }
+
+  /**
+   * @return the recent CPU load of the process in [0, 1], -1 if it is not available
+   */
+  public double getProcessCpuLoad() {
+    return processCpuLoad;
+  }
+
+  /**
+   * @return the recent CPU load of the whole system in [0, 1], -1 if it is not available
+   */
+  public double getSystemCpuLoad() {
+    return systemCpuLoad;
+  }
+
+  public int getLoadedClassCount() {
+    return loadedClassCount;
+  }
+
+  public int getThreadCount() {
+    return threadCount;
+  }
+
+  public int getDaemonThreadCount() {
+    return daemonThreadCount;
+  }
+
+  public int getPeakThreadCount() {
+    return peakThreadCount;
+  }
+
+  /**
+   * @return the memory used by the cgroup that the process runs in, -1 if it is not available
+   */
+  public long getCgroupMemoryUsageBytes() {
+    return cgroupMemoryUsageBytes;
+  }
+
+  /**
+   * @return the number of safepoints since the JVM started, -1 if it is not available
+   */
+  public long getSafepointCount() {
+    return safepointCount;
+  }
+
+  /**
+   * @return the total time spent in safepoints since the JVM started, -1 if it is not available
+   */
+  public long getSafepointTimeMillis() {
+    return safepointTimeMillis;
+  }
+
+  /**
+   * Appends the values to sb in the same format as {@link SupportData#toString()}, with a reused sb this does not allocate.
+   *
+   * @return sb
+   */
+  public StringBuilder appendTo(StringBuilder sb) {
+    sb.append("Live SupportData\n");
+    sb.append("\tUptime (ms): ").append(uptimeMillis).append('\n');
+    sb.append("\tHeap used (B): ").append(heapUsedBytes).append('\n');
+    sb.append("\tHeap committed (B): ").append(heapCommittedBytes).append('\n');
+    sb.append("\tNon-heap used (B): ").append(nonHeapUsedBytes).append('\n');
+    sb.append("\tNon-heap committed (B): ").append(nonHeapCommittedBytes).append('\n');
+    sb.append("\tcgroup memory usage (B): ").append(cgroupMemoryUsageBytes).append('\n');
+    sb.append("\tProcess CPU load: ").append(processCpuLoad).append('\n');
+    sb.append("\tSystem CPU load: ").append(systemCpuLoad).append('\n');
+    sb.append("\tLoaded class count: ").append(loadedClassCount).append('\n');
+    sb.append("\tThread count: ").append(threadCount).append('\n');
+    sb.append("\tDaemon thread count: ").append(daemonThreadCount).append('\n');
+    sb.append("\tPeak thread count: ").append(peakThreadCount).append('\n');
+    sb.append("\tSafepoint count: ").append(safepointCount).append('\n');
+    sb.append("\tSafepoint time (ms): ").append(safepointTimeMillis).append('\n');
+    return sb;
+  }
+
+  @Override
+  public String toString() {
+    return appendTo(new StringBuilder(512)).toString();
+  }
+}
@@ -1,15 +1,19 @@
 /*
- * Copyright (c) 2024 Paul Mackinlay <paul.mackinlay@gmail.com>
+ * Copyright (c) 2024-2026 Paul Mackinlay <paul.mackinlay@gmail.com>
  */
 package com.webotech.service.data;
 
 import java.util.Collections;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.stream.Collectors;
 
 /**
- * Encapsulates data that is useful for (3rd line) support purposes.
+ * Encapsulates data that is useful for (3rd line) support purposes. The host, process, JVM and container data is a snapshot of facts that
+ * do not change while the app runs, the live tier ({@link #getLive()}) holds runtime metrics that are sampled periodically. Host facts that
+ * are discovered asynchronously (like the hostname from DNS when the kernel does not provide it) are added with
+ * {@link #putHost(String, String)} once they arrive.
  */
 public class SupportData {
 
@@ -18,6 +22,7 @@ public class SupportData {
   public static final String OS_VERSION = "OS version";
   public static final String HOSTNAME = "Hostname";
   public static final String IP_ADDRESS = "IP address";
+  public static final String IP_ADDRESSES = "IP addresses";
   public static final String AVAILABLE_PROCESSOR_COUNT = "Available processor count";
   public static final String PID = "PID";
   public static final String CL_ARGS = "CL args";
@@ -29,20 +34,43 @@ public class SupportData {
   public static final String JAVA_VERSION = "Java version";
   public static final String JAVA_HOME = "Java home";
   public static final String JAVA_CLASSPATH = "Java classpath";
+  public static final String CGROUP_VERSION = "cgroup version";
+  public static final String CPU_LIMIT = "CPU limit";
+  public static final String CPUSET_CPUS = "Cpuset CPUs";
+  public static final String MEMORY_LIMIT_B = "Memory limit (B)";
+  public static final String UNLIMITED = "unlimited";
+  private final Map<String, String> hostData;
+  private final Map<String, String> allData;
   private final Map<String, String> host;
   private final Map<String, String> process;
   private final Map<String, String> jvm;
+  private final Map<String, String> container;
   private final Map<String, String> all;
+  private final LiveSupportData live;
 
   public SupportData(Map<String, String> host, Map<String, String> process,
       Map<String, String> jvm) {
-    this.host = Collections.unmodifiableMap(new TreeMap<>(host));
+    this(host, process, jvm, Map.of());
+  }
+
+  public SupportData(Map<String, String> host, Map<String, String> process,
+      Map<String, String> jvm, Map<String, String> container) {
+    this(host, process, jvm, container, new LiveSupportData());
+  }
+
+  public SupportData(Map<String, String> host, Map<String, String> process,
+      Map<String, String> jvm, Map<String, String> container, LiveSupportData live) {
+    hostData = new ConcurrentSkipListMap<>(host);
+    this.host = Collections.unmodifiableMap(hostData);
     this.process = Collections.unmodifiableMap(new TreeMap<>(process));
     this.jvm = Collections.unmodifiableMap(new TreeMap<>(jvm));
-    Map<String, String> allData = new TreeMap<>(host);
+    this.container = Collections.unmodifiableMap(new TreeMap<>(container));
+    allData = new ConcurrentSkipListMap<>(host);
     allData.putAll(process);
     allData.putAll(jvm);
+    allData.putAll(container);
     all = Collections.unmodifiableMap(allData);
+    this.live = live;
   }
 
   /**
@@ -52,6 +80,14 @@ public class SupportData {
     return host;
   }
 
+  /**
+   * Adds or replaces a host fact that has been discovered after this was constructed, it is also visible in {@link #getAll()}.
+   */
+  public void putHost(String key, String value) {
+    hostData.put(key, value);
+    allData.put(key, value);
+  }
+
   /**
    * @return process related support data as a map with sorted keys
    */
@@ -66,6 +102,13 @@ public class SupportData {
     return jvm;
   }
 
+  /**
+   * @return container (cgroup) related support data as a map with sorted keys, see {@link CgroupLimits}
+   */
+  public Map<String, String> getContainer() {
+    return container;
+  }
+
   /**
    * @return all support data as a map with sorted keys
    */
@@ -73,6 +116,13 @@ public class SupportData {
     return all;
   }
 
+  /**
+   * @return the live runtime metrics, which are not part of {@link #getAll()} or {@link #toString()} since they change
+   */
+  public LiveSupportData getLive() {
+    return live;
+  }
+
   private static String toString(Map<String, String> map) {
     return map.entrySet().stream().map(e -> "\t" + e.getKey() + ": " + e.getValue() + "\n").collect(
         Collectors.joining());
@@ -84,6 +134,7 @@ public class SupportData {
         .append(toString(host)).append("JVM ").append(SupportData.class.getSimpleName())
         .append("\n").append(toString(jvm)).append("Process ")
         .append(SupportData.class.getSimpleName()).append("\n").append(toString(process))
-        .toString();
+        .append("Container ").append(SupportData.class.getSimpleName()).append("\n")
+        .append(toString(container)).toString();
   }
 }
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service.support;
+
+import java.time.Duration;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Base class for monitors that periodically sample some aspect of the running process. Monitors share a scheduler (typically the one
+ * owned by the {@link com.webotech.service.SupportSubsystem}) so that adding a monitor does not add a thread. An exception thrown while
+ * sampling is logged and does not stop future samples.
+ */
+public abstract class AbstractMonitor {
+
+  private static final Logger logger = LogManager.getLogger(AbstractMonitor.class);
+  private ScheduledFuture<?> sampleFuture;
+
+  /**
+   * Starts sampling every period using scheduler, if the monitor is already running it is restarted.
+   */
+  public synchronized void start(ScheduledExecutorService scheduler, Duration period) {
+    stop();
+    long periodNanos = period.toNanos();
+    sampleFuture = scheduler.scheduleAtFixedRate(this::safeSample, periodNanos, periodNanos,
+        TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Stops sampling, a sample that is in progress is allowed to complete.
+   */
+  public synchronized void stop() {
+    if (sampleFuture != null) {
+      sampleFuture.cancel(false);
+      sampleFuture = null;
+    }
+  }
+
+  /**
+   * @return true if the monitor has been started and not stopped
+   */
+  public synchronized boolean isRunning() {
+    return sampleFuture != null;
+  }
+
+  private void safeSample() {
+    try {
+      sample();
+    } catch (RuntimeException e) {
+      logger.error("{} failed to sample", getClass().getSimpleName(), e);
+    }
+  }
+
+  /**
+   * Takes one sample, it is called on the scheduler's thread.
+   */
+  protected abstract void sample();
+}
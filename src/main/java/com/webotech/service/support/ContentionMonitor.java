@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service.support;
+
+import java.lang.Thread.State;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.stream.Collectors;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Samples all threads to find the most contended locks, both monitors (synchronized) and j.u.c. locks. While it is running, thread
+ * contention monitoring is enabled on the {@link ThreadMXBean} so that the time each thread spends blocked and waiting is accumulated by
+ * the JVM.
+ * <p>
+ * Each sample attributes the blocked and waited time that a thread accumulated since the previous sample to the lock that it is
+ * contending for. A thread is contending if it is blocked entering a monitor or it is waiting for a j.u.c. lock that is owned by another
+ * thread, threads that are waiting to be signalled (e.g. in {@link Object#wait()} or on a condition) are not contending. At the end of
+ * each window the top contended locks are logged (if there were any) and made available using {@link #getTopContendedLocks()}.
+ */
+public class ContentionMonitor extends AbstractMonitor {
+
+  private static final Logger logger = LogManager.getLogger(ContentionMonitor.class);
+  private static final int MAX_THREAD_NAMES = 3;
+  private final ThreadMXBean threadMxBean;
+  private final Map<Long, Long> previousContendedMillis;
+  private final Map<String, LockStats> lockStats;
+  private volatile List<ContendedLock> topContendedLocks;
+  private boolean wasContentionMonitoringEnabled;
+  private long windowNanos;
+  private int topN;
+  private long windowStartNanos;
+
+  public ContentionMonitor() {
+    this(ManagementFactory.getThreadMXBean());
+  }
+
+  ContentionMonitor(ThreadMXBean threadMxBean) {
+    this.threadMxBean = threadMxBean;
+    previousContendedMillis = new HashMap<>();
+    lockStats = new HashMap<>();
+    topContendedLocks = List.of();
+    configure(Duration.ofMinutes(1), 10);
+  }
+
+  /**
+   * Sets the window over which contention is aggregated and the number of locks that are reported at the end of each window.
+   */
+  public synchronized void configure(Duration window, int topN) {
+    windowNanos = window.toNanos();
+    this.topN = topN;
+  }
+
+  @Override
+  public synchronized void start(ScheduledExecutorService scheduler, Duration period) {
+    if (!threadMxBean.isThreadContentionMonitoringSupported()) {
+      logger.warn("Thread contention monitoring is not supported, contention will not be monitored");
+      return;
+    }
+    stop();
+    wasContentionMonitoringEnabled = threadMxBean.isThreadContentionMonitoringEnabled();
+    threadMxBean.setThreadContentionMonitoringEnabled(true);
+    resetWindow();
+    previousContendedMillis.clear();
+    super.start(scheduler, period);
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (isRunning()) {
+      super.stop();
+      threadMxBean.setThreadContentionMonitoringEnabled(wasContentionMonitoringEnabled);
+    }
+  }
+
+  /**
+   * @return the top contended locks in the last complete window, the most contended first
+   */
+  public List<ContendedLock> getTopContendedLocks() {
+    return topContendedLocks;
+  }
+
+  @Override
+  protected synchronized void sample() {
+    ThreadInfo[] threadInfos = threadMxBean.getThreadInfo(threadMxBean.getAllThreadIds());
+    Map<Long, Long> currentContendedMillis = new HashMap<>();
+    for (ThreadInfo threadInfo : threadInfos) {
+      if (threadInfo == null) {
+        continue;
+      }
+      long contendedMillis =
+          Math.max(0, threadInfo.getBlockedTime()) + Math.max(0, threadInfo.getWaitedTime());
+      currentContendedMillis.put(threadInfo.getThreadId(), contendedMillis);
+      if (isContending(threadInfo)) {
+        long deltaMillis = contendedMillis - previousContendedMillis.getOrDefault(
+            threadInfo.getThreadId(), contendedMillis);
+        lockStats.computeIfAbsent(threadInfo.getLockName(), k -> new LockStats())
+            .add(threadInfo, deltaMillis);
+      }
+    }
+    previousContendedMillis.clear();
+    previousContendedMillis.putAll(currentContendedMillis);
+    if (System.nanoTime() - windowStartNanos >= windowNanos) {
+      endWindow();
+    }
+  }
+
+  private static boolean isContending(ThreadInfo threadInfo) {
+    State state = threadInfo.getThreadState();
+    return threadInfo.getLockName() != null && (state == State.BLOCKED
+        || ((state == State.WAITING || state == State.TIMED_WAITING)
+        && threadInfo.getLockOwnerId() != -1));
+  }
+
+  private void endWindow() {
+    topContendedLocks = lockStats.entrySet().stream().map(e -> e.getValue().toContendedLock(e.getKey()))
+        .sorted(Comparator.comparingLong(ContendedLock::contendedMillis)
+            .thenComparingLong(ContendedLock::sampleCount).reversed()).limit(topN).toList();
+    if (!topContendedLocks.isEmpty() && logger.isInfoEnabled()) {
+      logger.info("Top {} contended locks in the last {} millis:{}", topContendedLocks.size(),
+          Duration.ofNanos(System.nanoTime() - windowStartNanos).toMillis(),
+          topContendedLocks.stream().map(ContendedLock::toString)
+              .collect(Collectors.joining("\n\t", "\n\t", "")));
+    }
+    resetWindow();
+  }
+
+  private void resetWindow() {
+    lockStats.clear();
+    windowStartNanos = System.nanoTime();
+  }
+
+  /**
+   * How much a lock was contended during a window.
+   *
+   * @param lockName        the class name and identity hash code of the lock
+   * @param sampleCount     the number of times a thread was sampled contending for the lock
+   * @param contendedMillis the time threads spent blocked or waiting while contending for the lock
+   * @param threadCount     the number of distinct threads that contended for the lock
+   * @param threadNames     the names of some of the threads that contended for the lock
+   * @param lastOwnerName   the name of the thread that owned the lock when it was last sampled
+   */
+  public record ContendedLock(String lockName, long sampleCount, long contendedMillis,
+                              int threadCount, List<String> threadNames, String lastOwnerName) {
+
+    @Override
+    public String toString() {
+      return lockName + " contended for " + contendedMillis + " millis in " + sampleCount
+          + " samples by " + threadCount + " threads " + threadNames + ", last owned by "
+          + lastOwnerName;
+    }
+  }
+
+  private static class LockStats {
+
+    private final Set<String> threadNames;
+    private long sampleCount;
+    private long contendedMillis;
+    private String lastOwnerName;
+
+    LockStats() {
+      threadNames = new LinkedHashSet<>();
+    }
+
+    void add(ThreadInfo threadInfo, long deltaMillis) {
+      sampleCount++;
+      contendedMillis += deltaMillis;
+      threadNames.add(threadInfo.getThreadName());
+      lastOwnerName = threadInfo.getLockOwnerName();
+    }
+
+    ContendedLock toContendedLock(String lockName) {
+      return new ContendedLock(lockName, sampleCount, contendedMillis, threadNames.size(),
+          threadNames.stream().limit(MAX_THREAD_NAMES).toList(),
+          lastOwnerName);
+    }
+  }
+}
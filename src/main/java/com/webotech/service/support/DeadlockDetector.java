@@ -1,47 +1,100 @@
 /*
- * Copyright (c) 2024 Paul Mackinlay <paul.mackinlay@gmail.com>
+ * Copyright (c) 2024-2026 Paul Mackinlay <paul.mackinlay@gmail.com>
  */
 
 package com.webotech.service.support;
 
-import com.webotech.statemachine.util.Threads;
+import java.lang.Thread.State;
 import java.lang.management.ManagementFactory;
 import java.lang.management.ThreadInfo;
 import java.lang.management.ThreadMXBean;
 import java.time.Duration;
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 /**
- * Detects deadlocks on a scheduled basis with a configurable period
+ * Detects deadlocks on a scheduled basis with a configurable period, a deadlock is logged and reported to {@link Incidents}.
+ * <p>
+ * Deadlocked threads never recover, so each deadlock is reported to {@link Incidents} once, the threads are remembered and are not
+ * reported again while they are still deadlocked. In fixed period mode (see {@link #startDetecting(String)}) the deadlock is logged
+ * after every scan that finds it, in adaptive mode it is only logged once as well.
+ * <p>
+ * With many threads a full scan for deadlocks is a noticeable pause, in adaptive mode (see {@link #startAdaptiveDetecting(String, String)})
+ * a pre-check (thread info without stack traces) runs first and the full scan only runs if some threads, other than ones that are already
+ * known to be deadlocked, have been contending for a lock owned by another thread since the previous check, which is a necessary
+ * condition for a new deadlock. The period doubles after each check that finds no new deadlock up to a maximum and it is only reset to
+ * the minimum after a full scan finds a new deadlock. The duration of pre-checks and full scans is recorded in
+ * {@link #getScanStats()}, the pre-check still visits every thread so it is measured rather than assumed to be cheap.
+ * <p>
+ * The executor that runs detection is registered with the {@link Monitors#getExecutorRegistry()} while it is detecting.
  */
 public class DeadlockDetector {
 
   private static final Logger logger = LogManager.getLogger(DeadlockDetector.class);
-  private static final DeadlockDetectTask deadlockDetectTask = new DeadlockDetectTask(
-      ManagementFactory.getThreadMXBean());
+  private static final String EXECUTOR_NAME = "deadlock-detect";
+  private static final ThreadMXBean threadMxBean = ManagementFactory.getThreadMXBean();
+  private final DeadlockDetectTask deadlockDetectTask = new DeadlockDetectTask(threadMxBean);
+  private final Supplier<ScheduledExecutorService> executorFactory;
   private ScheduledExecutorService scheduledExecutorService;
-  private ScheduledFuture<?> detectionFuture;
+  private volatile ScheduledFuture<?> detectionFuture;
+
+  public DeadlockDetector() {
+    this(DeadlockDetector::newScheduledExecutorService);
+  }
+
+  DeadlockDetector(Supplier<ScheduledExecutorService> executorFactory) {
+    this.executorFactory = executorFactory;
+  }
 
   public void startDetecting(String iso8601Period) {
-    scheduledExecutorService = Executors.newSingleThreadScheduledExecutor(
-        Threads.newNamedDaemonThreadFactory("deadlock-detect",
-            (t, e) -> logger.error("Uncaught exception in thread {}", t, e)));
+    scheduledExecutorService = executorFactory.get();
     long periodMills = Duration.parse(iso8601Period).toMillis();
     logger.info("Will schedule deadlock detection every {} millis", periodMills);
     detectionFuture = scheduledExecutorService.scheduleAtFixedRate(deadlockDetectTask, 0,
         periodMills, TimeUnit.MILLISECONDS);
   }
 
+  /**
+   * Starts detecting deadlocks in adaptive mode, the period between checks varies between the min and max periods.
+   */
+  public void startAdaptiveDetecting(String iso8601MinPeriod, String iso8601MaxPeriod) {
+    scheduledExecutorService = executorFactory.get();
+    long minPeriodMillis = Duration.parse(iso8601MinPeriod).toMillis();
+    long maxPeriodMillis = Duration.parse(iso8601MaxPeriod).toMillis();
+    logger.info("Will schedule adaptive deadlock detection every {} to {} millis", minPeriodMillis,
+        maxPeriodMillis);
+    AdaptiveDeadlockDetectTask adaptiveTask = new AdaptiveDeadlockDetectTask(minPeriodMillis,
+        maxPeriodMillis);
+    detectionFuture = scheduledExecutorService.schedule(adaptiveTask, 0, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * @return statistics about the pre-checks and full scans for deadlocks
+   */
+  public ScanStats getScanStats() {
+    return deadlockDetectTask.scanStats;
+  }
+
+  private static ScheduledExecutorService newScheduledExecutorService() {
+    return Monitors.getExecutorRegistry().register(EXECUTOR_NAME,
+        Executors.newScheduledThreadPool(1, Monitors.newThreadFactory(EXECUTOR_NAME)));
+  }
+
   public void stopDetecting(String iso8601TerminationTimeout) {
     logger.info("Shutting down deadlock detection with timeout {}", iso8601TerminationTimeout);
     detectionFuture.cancel(true);
+    Monitors.getExecutorRegistry().deregister(EXECUTOR_NAME);
     scheduledExecutorService.shutdownNow();
     try {
       boolean success = scheduledExecutorService.awaitTermination(
@@ -55,23 +108,150 @@ public class DeadlockDetector {
     }
   }
 
+  /**
+   * Statistics about deadlock detection.
+   *
+   * @param preCheckCount        the number of adaptive pre-checks
+   * @param scanCount            the number of full scans
+   * @param lastScanDuration     how long the last full scan took
+   * @param maxScanDuration      how long the longest full scan took
+   * @param lastPreCheckDuration how long the last adaptive pre-check took
+   * @param maxPreCheckDuration  how long the longest adaptive pre-check took
+   */
+  public record ScanStats(long preCheckCount, long scanCount, Duration lastScanDuration,
+                          Duration maxScanDuration, Duration lastPreCheckDuration,
+                          Duration maxPreCheckDuration) {
+
+  }
+
+  private class AdaptiveDeadlockDetectTask implements Runnable {
+
+    private final long minPeriodMillis;
+    private final long maxPeriodMillis;
+    private final Set<Long> previousCandidateIds;
+    private long periodMillis;
+
+    AdaptiveDeadlockDetectTask(long minPeriodMillis, long maxPeriodMillis) {
+      this.minPeriodMillis = minPeriodMillis;
+      this.maxPeriodMillis = maxPeriodMillis;
+      previousCandidateIds = new HashSet<>();
+      periodMillis = minPeriodMillis;
+    }
+
+    @Override
+    public void run() {
+      try {
+        if (hasCandidates() && deadlockDetectTask.scan(true)) {
+          periodMillis = minPeriodMillis;
+        } else {
+          periodMillis = Math.min(maxPeriodMillis, periodMillis * 2);
+        }
+      } finally {
+        if (!scheduledExecutorService.isShutdown()) {
+          try {
+            detectionFuture = scheduledExecutorService.schedule(this, periodMillis,
+                TimeUnit.MILLISECONDS);
+          } catch (RejectedExecutionException e) {
+            logger.debug("Deadlock detection stopped while it was being rescheduled");
+          }
+        }
+      }
+    }
+
+    /**
+     * A thread can only become deadlocked if it is waiting for a lock that is owned by another thread and it has been doing so since the
+     * previous check, threads that have already been reported as deadlocked are not candidates.
+     */
+    private boolean hasCandidates() {
+      long startNanos = System.nanoTime();
+      Set<Long> candidateIds = new HashSet<>();
+      boolean hasCandidates = false;
+      for (ThreadInfo threadInfo : threadMxBean.getThreadInfo(threadMxBean.getAllThreadIds(), 0)) {
+        if (threadInfo != null && threadInfo.getLockOwnerId() != -1
+            && !deadlockDetectTask.isReported(threadInfo.getThreadId())) {
+          State state = threadInfo.getThreadState();
+          if (state == State.BLOCKED || state == State.WAITING || state == State.TIMED_WAITING) {
+            candidateIds.add(threadInfo.getThreadId());
+            hasCandidates |= previousCandidateIds.contains(threadInfo.getThreadId());
+          }
+        }
+      }
+      previousCandidateIds.clear();
+      previousCandidateIds.addAll(candidateIds);
+      deadlockDetectTask.recordPreCheck(Duration.ofNanos(System.nanoTime() - startNanos));
+      return hasCandidates;
+    }
+  }
+
   private static class DeadlockDetectTask implements Runnable {
 
     private final ThreadMXBean threadMxBean;
+    private final Set<Long> reportedThreadIds;
+    private volatile ScanStats scanStats;
 
     DeadlockDetectTask(ThreadMXBean threadMxBean) {
       this.threadMxBean = threadMxBean;
+      reportedThreadIds = ConcurrentHashMap.newKeySet();
+      scanStats = new ScanStats(0, 0, Duration.ZERO, Duration.ZERO, Duration.ZERO, Duration.ZERO);
+    }
+
+    boolean isReported(long threadId) {
+      return reportedThreadIds.contains(threadId);
+    }
+
+    synchronized void recordPreCheck(Duration preCheckDuration) {
+      scanStats = new ScanStats(scanStats.preCheckCount() + 1, scanStats.scanCount(),
+          scanStats.lastScanDuration(), scanStats.maxScanDuration(), preCheckDuration,
+          max(preCheckDuration, scanStats.maxPreCheckDuration()));
+    }
+
+    private synchronized void recordScan(Duration scanDuration) {
+      scanStats = new ScanStats(scanStats.preCheckCount(), scanStats.scanCount() + 1, scanDuration,
+          max(scanDuration, scanStats.maxScanDuration()), scanStats.lastPreCheckDuration(),
+          scanStats.maxPreCheckDuration());
+    }
+
+    private static Duration max(Duration duration, Duration otherDuration) {
+      return duration.compareTo(otherDuration) > 0 ? duration : otherDuration;
     }
 
     @Override
     public void run() {
+      scan(false);
+    }
+
+    /**
+     * Scans for deadlocks and reports the threads that have become deadlocked since the previous scan, any deadlocked threads are logged
+     * unless isLoggingOnce and they have already been reported.
+     *
+     * @return true if threads have become deadlocked since the previous scan
+     */
+    boolean scan(boolean isLoggingOnce) {
+      long startNanos = System.nanoTime();
       long[] deadlockedThreadIds = threadMxBean.findDeadlockedThreads();
-      if (deadlockedThreadIds != null) {
+      Duration scanDuration = Duration.ofNanos(System.nanoTime() - startNanos);
+      recordScan(scanDuration);
+      logger.debug("Deadlock scan took {} micros", scanDuration.toNanos() / 1000);
+      if (deadlockedThreadIds == null) {
+        reportedThreadIds.clear();
+        return false;
+      }
+      Set<Long> deadlockedIds = Arrays.stream(deadlockedThreadIds).boxed()
+          .collect(Collectors.toSet());
+      reportedThreadIds.retainAll(deadlockedIds);
+      boolean isNewDeadlock = !reportedThreadIds.containsAll(deadlockedIds);
+      if (isNewDeadlock || !isLoggingOnce) {
         ThreadInfo[] threadInfos = threadMxBean.getThreadInfo(deadlockedThreadIds, true, true);
         if (logger.isErrorEnabled()) {
           logger.error("Deadlock detected:\n{}", threadDump(threadInfos));
         }
+        if (isNewDeadlock) {
+          Incidents.report(Incidents.DEADLOCK, "Deadlocked threads " + Arrays.stream(threadInfos)
+              .map(ThreadInfo::getThreadName).collect(Collectors.joining(", ")));
+          reportedThreadIds.addAll(deadlockedIds);
+        }
       }
+      return isNewDeadlock;
     }
 
     private String threadDump(ThreadInfo[] threadInfos) {
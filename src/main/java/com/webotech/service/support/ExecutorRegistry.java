@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A registry of executors ({@link ThreadPoolExecutor}s, including {@link ScheduledThreadPoolExecutor}s, and {@link ForkJoinPool}s) that
+ * are sampled to record their queue depth, active threads, completed task rate and rejections, so that queues building up are visible
+ * before latency explodes. Executors that wrap their pool, like the ones from
+ * {@link java.util.concurrent.Executors#newSingleThreadExecutor()}, cannot be registered since their pool cannot be inspected.
+ * <p>
+ * An executor is saturated when its queue depth reaches the queue depth threshold, when its utilisation (the percentage of its maximum
+ * pool size that is active) reaches the utilisation threshold while tasks are queued or when it rejects a task. A warning is logged when an
+ * executor becomes saturated and it is logged again when it recovers. For a {@link ScheduledThreadPoolExecutor} only the tasks that are due
+ * are counted in its queue depth. An executor that has terminated is removed from the registry.
+ */
+public class ExecutorRegistry extends AbstractMonitor {
+
+  private static final Logger logger = LogManager.getLogger(ExecutorRegistry.class);
+  private final Map<String, RegisteredExecutor> registeredExecutors;
+  private volatile List<ExecutorStats> executorStats;
+  private int queueDepthThreshold;
+  private double utilisationThresholdPercent;
+
+  public ExecutorRegistry() {
+    registeredExecutors = new ConcurrentSkipListMap<>();
+    executorStats = List.of();
+    configure(1000, 100);
+  }
+
+  /**
+   * Sets the queue depth and the utilisation percentage at which an executor is saturated.
+   */
+  public synchronized void configure(int queueDepthThreshold, double utilisationThresholdPercent) {
+    this.queueDepthThreshold = queueDepthThreshold;
+    this.utilisationThresholdPercent = utilisationThresholdPercent;
+  }
+
+  /**
+   * Registers executorService to be sampled with name, an executor that is already registered with name is replaced. An executor can
+   * only be registered once, registering it again (with any name) throws an {@link IllegalArgumentException}.
+   * <p>
+   * The rejected execution handler of a {@link ThreadPoolExecutor} is wrapped so that rejections are counted, the wrapper delegates to the
+   * handler that was set when it was registered. The handler is restored when the executor is deregistered or replaced, so handlers
+   * should not be changed while it is registered.
+   *
+   * @return executorService
+   */
+  public synchronized <E extends ExecutorService> E register(String name, E executorService) {
+    if (!(executorService instanceof ThreadPoolExecutor)
+        && !(executorService instanceof ForkJoinPool)) {
+      throw new IllegalArgumentException(
+          "Executor " + name + " is a " + executorService.getClass().getName()
+              + ", only a ThreadPoolExecutor or ForkJoinPool can be registered");
+    }
+    for (RegisteredExecutor registeredExecutor : registeredExecutors.values()) {
+      if (registeredExecutor.executorService == executorService) {
+        throw new IllegalArgumentException(
+            "Executor " + name + " is already registered as " + registeredExecutor.name);
+      }
+    }
+    RegisteredExecutor previous = registeredExecutors.put(name,
+        new RegisteredExecutor(name, executorService));
+    if (previous != null) {
+      previous.restoreRejectedExecutionHandler();
+    }
+    return executorService;
+  }
+
+  /**
+   * Stops sampling the executor registered with name and restores its rejected execution handler.
+   */
+  public synchronized void deregister(String name) {
+    RegisteredExecutor registeredExecutor = registeredExecutors.remove(name);
+    if (registeredExecutor != null) {
+      registeredExecutor.restoreRejectedExecutionHandler();
+    }
+  }
+
+  /**
+   * @return the stats of each registered executor from the last sample, ordered by name
+   */
+  public List<ExecutorStats> getExecutorStats() {
+    return executorStats;
+  }
+
+  @Override
+  protected synchronized void sample() {
+    long nowNanos = System.nanoTime();
+    List<ExecutorStats> currentStats = new ArrayList<>(registeredExecutors.size());
+    for (RegisteredExecutor registeredExecutor : registeredExecutors.values()) {
+      if (registeredExecutor.executorService.isTerminated()) {
+        registeredExecutors.remove(registeredExecutor.name, registeredExecutor);
+      } else {
+        currentStats.add(registeredExecutor.sample(nowNanos));
+      }
+    }
+    executorStats = List.copyOf(currentStats);
+  }
+
+  private static long dueTaskCount(ThreadPoolExecutor threadPoolExecutor) {
+    long dueTaskCount = 0;
+    for (Runnable task : threadPoolExecutor.getQueue()) {
+      if (!(task instanceof Delayed delayed) || delayed.getDelay(TimeUnit.NANOSECONDS) <= 0) {
+        dueTaskCount++;
+      }
+    }
+    return dueTaskCount;
+  }
+
+  /**
+   * The stats of an executor.
+   *
+   * @param name                    the name it was registered with
+   * @param queueDepth              the number of tasks waiting to be executed
+   * @param activeThreads           the approximate number of threads executing tasks
+   * @param maxPoolSize             the maximum number of threads (the parallelism of a {@link ForkJoinPool})
+   * @param completedTasksPerSecond the rate that tasks completed since the previous sample, -1 if it is not known (as is the case for a
+   *                                {@link ForkJoinPool})
+   * @param rejectedCount           the number of tasks rejected since it was registered
+   * @param isSaturated             true if it was saturated when it was sampled
+   */
+  public record ExecutorStats(String name, long queueDepth, int activeThreads, int maxPoolSize,
+                              double completedTasksPerSecond, long rejectedCount,
+                              boolean isSaturated) {
+
+    /**
+     * @return the percentage of the maximum pool size that is active
+     */
+    public double utilisationPercent() {
+      return maxPoolSize == 0 ? 0 : 100.0 * activeThreads / maxPoolSize;
+    }
+  }
+
+  private class RegisteredExecutor {
+
+    private final String name;
+    private final ExecutorService executorService;
+    private final LongAdder rejectedCount;
+    private final RejectedExecutionHandler countingHandler;
+    private final RejectedExecutionHandler handler;
+    private long previousSampleNanos;
+    private long previousCompletedCount;
+    private long previousRejectedCount;
+    private boolean isSaturated;
+
+    RegisteredExecutor(String name, ExecutorService executorService) {
+      this.name = name;
+      this.executorService = executorService;
+      rejectedCount = new LongAdder();
+      previousSampleNanos = System.nanoTime();
+      if (executorService instanceof ThreadPoolExecutor threadPoolExecutor) {
+        handler = threadPoolExecutor.getRejectedExecutionHandler();
+        countingHandler = (r, executor) -> {
+          rejectedCount.increment();
+          handler.rejectedExecution(r, executor);
+        };
+        threadPoolExecutor.setRejectedExecutionHandler(countingHandler);
+        previousCompletedCount = threadPoolExecutor.getCompletedTaskCount();
+      } else {
+        handler = null;
+        countingHandler = null;
+      }
+    }
+
+    void restoreRejectedExecutionHandler() {
+      if (executorService instanceof ThreadPoolExecutor threadPoolExecutor
+          && threadPoolExecutor.getRejectedExecutionHandler() == countingHandler) {
+        threadPoolExecutor.setRejectedExecutionHandler(handler);
+      }
+    }
+
+    ExecutorStats sample(long nowNanos) {
+      long queueDepth;
+      int activeThreads;
+      int maxPoolSize;
+      double completedTasksPerSecond = -1;
+      double intervalSeconds = Math.max(1, nowNanos - previousSampleNanos) / 1_000_000_000.0;
+      if (executorService instanceof ThreadPoolExecutor threadPoolExecutor) {
+        queueDepth = threadPoolExecutor instanceof ScheduledThreadPoolExecutor ? dueTaskCount(
+            threadPoolExecutor) : threadPoolExecutor.getQueue().size();
+        activeThreads = threadPoolExecutor.getActiveCount();
+        maxPoolSize = threadPoolExecutor instanceof ScheduledThreadPoolExecutor
+            ? threadPoolExecutor.getCorePoolSize() : threadPoolExecutor.getMaximumPoolSize();
+        long completedCount = threadPoolExecutor.getCompletedTaskCount();
+        completedTasksPerSecond = (completedCount - previousCompletedCount) / intervalSeconds;
+        previousCompletedCount = completedCount;
+      } else {
+        ForkJoinPool forkJoinPool = (ForkJoinPool) executorService;
+        queueDepth = forkJoinPool.getQueuedSubmissionCount() + forkJoinPool.getQueuedTaskCount();
+        activeThreads = forkJoinPool.getActiveThreadCount();
+        maxPoolSize = forkJoinPool.getParallelism();
+      }
+      previousSampleNanos = nowNanos;
+      long currentRejectedCount = rejectedCount.sum();
+      List<String> reasons = new ArrayList<>();
+      if (queueDepth >= queueDepthThreshold) {
+        reasons.add("queue depth " + queueDepth + " reached " + queueDepthThreshold);
+      }
+      double utilisationPercent = maxPoolSize == 0 ? 0 : 100.0 * activeThreads / maxPoolSize;
+      if (queueDepth > 0 && utilisationPercent >= utilisationThresholdPercent) {
+        reasons.add("utilisation " + Math.round(utilisationPercent) + "% reached "
+            + utilisationThresholdPercent + "% with tasks queued");
+      }
+      if (currentRejectedCount > previousRejectedCount) {
+        reasons.add((currentRejectedCount - previousRejectedCount) + " tasks rejected");
+      }
+      previousRejectedCount = currentRejectedCount;
+      if (!reasons.isEmpty() && !isSaturated) {
+        logger.warn("Executor {} is saturated, {}", name, String.join(", ", reasons));
+      } else if (reasons.isEmpty() && isSaturated) {
+        logger.info("Executor {} is no longer saturated", name);
+      }
+      isSaturated = !reasons.isEmpty();
+      return new ExecutorStats(name, queueDepth, activeThreads, maxPoolSize,
+          completedTasksPerSecond, currentRejectedCount, isSaturated);
+    }
+  }
+}
@@ -0,0 +1,301 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service.support;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.GcInfo;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.stream.Collectors;
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Monitors garbage collection and memory pressure by subscribing to the notifications that each {@link GarbageCollectorMXBean} emits at
+ * the end of a collection. For each collector the pause durations are recorded in a histogram, and across all collectors it tracks the
+ * heap occupancy after GC and the number of bytes allocated and promoted to the old generation.
+ * <p>
+ * Every window the allocation rate, promotion rate and GC overhead (the percentage of the window spent in GC pauses) are calculated. A
+ * warning is logged and an incident is reported to {@link Incidents} when a single pause exceeds the pause SLO or when the GC overhead in
+ * a window exceeds the overhead SLO. The latest
+ * figures are available from {@link #getGcStats()} so that an app can use them to make decisions, e.g. to shed load when the heap is
+ * nearly full after GC.
+ * <p>
+ * Collectors that do their work concurrently (e.g. <i>ZGC Cycles</i> or <i>Shenandoah Cycles</i>) report the duration of a whole cycle
+ * rather than a pause, their collections are used to track the heap but they are not counted as pauses.
+ * <p>
+ * If a {@link Journal} is set, each pause is written to it.
+ */
+public class GcMonitor extends AbstractMonitor {
+
+  private static final Logger logger = LogManager.getLogger(GcMonitor.class);
+  private final List<GarbageCollectorMXBean> gcMxBeans;
+  private final Set<String> heapPoolNames;
+  private final NotificationListener listener;
+  private final Map<String, PauseHistogram> pauseHistograms;
+  private volatile GcStats gcStats;
+  private volatile Journal journal;
+  private long pauseSloMillis;
+  private double overheadSloPercent;
+  private long heapAfterLastGcBytes;
+  private long heapMaxBytes;
+  private long allocatedBytes;
+  private long promotedBytes;
+  private long pauseMillis;
+  private long windowStartNanos;
+  private long windowStartAllocatedBytes;
+  private long windowStartPromotedBytes;
+  private long windowStartPauseMillis;
+
+  public GcMonitor() {
+    gcMxBeans = ManagementFactory.getGarbageCollectorMXBeans();
+    heapPoolNames = ManagementFactory.getMemoryPoolMXBeans().stream()
+        .filter(p -> p.getType() == MemoryType.HEAP).map(MemoryPoolMXBean::getName)
+        .collect(Collectors.toSet());
+    listener = this::onNotification;
+    pauseHistograms = new LinkedHashMap<>();
+    gcStats = new GcStats(0, 0, 0, 0, 0, 0, Map.of());
+    configure(Duration.ofMillis(500), 10);
+  }
+
+  /**
+   * Sets the longest acceptable GC pause and the highest acceptable percentage of a window spent in GC pauses, a warning is logged if
+   * either is exceeded.
+   */
+  public synchronized void configure(Duration pauseSlo, double overheadSloPercent) {
+    pauseSloMillis = pauseSlo.toMillis();
+    this.overheadSloPercent = overheadSloPercent;
+  }
+
+  /**
+   * Starts listening to GC notifications, the GC figures are calculated every window.
+   */
+  @Override
+  public synchronized void start(ScheduledExecutorService scheduler, Duration window) {
+    stop();
+    for (GarbageCollectorMXBean gcMxBean : gcMxBeans) {
+      if (gcMxBean instanceof NotificationEmitter emitter) {
+        emitter.addNotificationListener(listener, null, null);
+      }
+    }
+    windowStartNanos = System.nanoTime();
+    super.start(scheduler, window);
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (isRunning()) {
+      super.stop();
+      for (GarbageCollectorMXBean gcMxBean : gcMxBeans) {
+        if (gcMxBean instanceof NotificationEmitter emitter) {
+          try {
+            emitter.removeNotificationListener(listener);
+          } catch (ListenerNotFoundException e) {
+            logger.debug("GC listener was not registered with {}", gcMxBean.getName());
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Sets the {@link Journal} that each GC pause is written to, it can be null.
+   */
+  public void setJournal(Journal journal) {
+    this.journal = journal;
+  }
+
+  /**
+   * @return the GC figures, the rates and overhead are from the last complete window
+   */
+  public GcStats getGcStats() {
+    return gcStats;
+  }
+
+  @Override
+  protected synchronized void sample() {
+    long nowNanos = System.nanoTime();
+    double windowSeconds = (nowNanos - windowStartNanos) / 1_000_000_000.0;
+    if (windowSeconds <= 0) {
+      return;
+    }
+    double overheadPercent = 100.0 * (pauseMillis - windowStartPauseMillis) / (windowSeconds * 1000);
+    updateGcStats((allocatedBytes - windowStartAllocatedBytes) / windowSeconds,
+        (promotedBytes - windowStartPromotedBytes) / windowSeconds, overheadPercent);
+    if (overheadPercent > overheadSloPercent) {
+      logger.warn("GC overhead was {}% in the last {} millis, it exceeded the SLO of {}%",
+          Math.round(overheadPercent * 100) / 100.0, Math.round(windowSeconds * 1000),
+          overheadSloPercent);
+      Incidents.report(Incidents.GC_SLO_BREACH, "GC overhead was " + overheadPercent + "%");
+    }
+    windowStartNanos = nowNanos;
+    windowStartAllocatedBytes = allocatedBytes;
+    windowStartPromotedBytes = promotedBytes;
+    windowStartPauseMillis = pauseMillis;
+  }
+
+  private void onNotification(Notification notification, Object handback) {
+    if (GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(
+        notification.getType())) {
+      onGc(GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData()));
+    }
+  }
+
+  synchronized void onGc(GarbageCollectionNotificationInfo gcNotificationInfo) {
+    GcInfo gcInfo = gcNotificationInfo.getGcInfo();
+    String gcName = gcNotificationInfo.getGcName();
+    long heapBeforeBytes = heapUsed(gcInfo.getMemoryUsageBeforeGc());
+    long heapAfterBytes = heapUsed(gcInfo.getMemoryUsageAfterGc());
+    allocatedBytes += Math.max(0, heapBeforeBytes - heapAfterLastGcBytes);
+    promotedBytes += Math.max(0, oldGenUsed(gcInfo.getMemoryUsageAfterGc())
+        - oldGenUsed(gcInfo.getMemoryUsageBeforeGc()));
+    heapAfterLastGcBytes = heapAfterBytes;
+    heapMaxBytes = heapMax(gcInfo.getMemoryUsageAfterGc());
+    if (!isConcurrent(gcName, gcNotificationInfo.getGcAction())) {
+      long durationMillis = gcInfo.getDuration();
+      pauseMillis += durationMillis;
+      pauseHistograms.computeIfAbsent(gcName, k -> new PauseHistogram()).record(durationMillis);
+      Journal currentJournal = journal;
+      if (currentJournal != null) {
+        currentJournal.write(JournalRecordType.GC_PAUSE, durationMillis, gcName);
+      }
+      if (durationMillis > pauseSloMillis) {
+        logger.warn("GC pause of {} millis by {} ({}) exceeded the SLO of {} millis", durationMillis,
+            gcName, gcNotificationInfo.getGcCause(), pauseSloMillis);
+        Incidents.report(Incidents.GC_SLO_BREACH,
+            "GC pause of " + durationMillis + " millis by " + gcName);
+      }
+    }
+    GcStats previous = gcStats;
+    updateGcStats(previous.allocationRateBytesPerSecond(), previous.promotionRateBytesPerSecond(),
+        previous.overheadPercent());
+  }
+
+  private void updateGcStats(double allocationRate, double promotionRate, double overheadPercent) {
+    Map<String, PauseStats> pauseStats = new LinkedHashMap<>();
+    pauseHistograms.forEach((gcName, histogram) -> pauseStats.put(gcName, histogram.toPauseStats()));
+    gcStats = new GcStats(heapAfterLastGcBytes, heapMaxBytes, allocatedBytes, allocationRate,
+        promotionRate, overheadPercent, pauseStats);
+  }
+
+  private static boolean isConcurrent(String gcName, String gcAction) {
+    return gcName.endsWith("Cycles") || gcName.contains("Concurrent") || gcAction.contains(
+        "concurrent");
+  }
+
+  private long heapUsed(Map<String, MemoryUsage> usageByPool) {
+    long used = 0;
+    for (Map.Entry<String, MemoryUsage> entry : usageByPool.entrySet()) {
+      if (heapPoolNames.contains(entry.getKey())) {
+        used += entry.getValue().getUsed();
+      }
+    }
+    return used;
+  }
+
+  private long heapMax(Map<String, MemoryUsage> usageByPool) {
+    long max = 0;
+    for (Map.Entry<String, MemoryUsage> entry : usageByPool.entrySet()) {
+      if (heapPoolNames.contains(entry.getKey())) {
+        max += Math.max(0, entry.getValue().getMax());
+      }
+    }
+    return max;
+  }
+
+  private static long oldGenUsed(Map<String, MemoryUsage> usageByPool) {
+    long used = 0;
+    for (Map.Entry<String, MemoryUsage> entry : usageByPool.entrySet()) {
+      if (entry.getKey().contains("Old") || entry.getKey().contains("Tenured")) {
+        used += entry.getValue().getUsed();
+      }
+    }
+    return used;
+  }
+
+  /**
+   * A snapshot of GC figures.
+   *
+   * @param heapAfterGcBytes             the heap occupancy after the last GC
+   * @param heapMaxBytes                 the maximum size of the heap, it is 0 if there has not been a GC
+   * @param allocatedBytes               the total bytes allocated, as measured between GCs
+   * @param allocationRateBytesPerSecond the allocation rate in the last complete window
+   * @param promotionRateBytesPerSecond  the rate of promotion to the old generation in the last complete window
+   * @param overheadPercent              the percentage of the last complete window spent in GC pauses
+   * @param pauseStats                   the pause statistics for each collector
+   */
+  public record GcStats(long heapAfterGcBytes, long heapMaxBytes, long allocatedBytes,
+                        double allocationRateBytesPerSecond, double promotionRateBytesPerSecond,
+                        double overheadPercent, Map<String, PauseStats> pauseStats) {
+
+    /**
+     * @return the fraction of the maximum heap that is occupied after the last GC, 0 if there has not been a GC
+     */
+    public double heapAfterGcRatio() {
+      return heapMaxBytes == 0 ? 0 : (double) heapAfterGcBytes / heapMaxBytes;
+    }
+  }
+
+  /**
+   * Pause statistics for a collector, percentiles are the upper bound of the histogram bucket they fall in.
+   */
+  public record PauseStats(long count, long totalMillis, long maxMillis, long p50Millis,
+                           long p99Millis) {
+
+  }
+
+  /**
+   * A histogram of pause durations with power of 2 millisecond buckets, i.e. 0, 1, 2-3, 4-7... millis.
+   */
+  static class PauseHistogram {
+
+    private final long[] bucketCounts;
+    private long count;
+    private long totalMillis;
+    private long maxMillis;
+
+    PauseHistogram() {
+      bucketCounts = new long[Long.SIZE];
+    }
+
+    void record(long durationMillis) {
+      long millis = Math.max(0, durationMillis);
+      bucketCounts[Long.SIZE - Long.numberOfLeadingZeros(millis)]++;
+      count++;
+      totalMillis += millis;
+      maxMillis = Math.max(maxMillis, millis);
+    }
+
+    long percentile(double percentile) {
+      long rank = (long) Math.ceil(count * percentile / 100);
+      long cumulative = 0;
+      for (int i = 0; i < bucketCounts.length; i++) {
+        cumulative += bucketCounts[i];
+        if (cumulative >= rank && cumulative > 0) {
+          return Math.min(maxMillis, i == 0 ? 0 : (1L << i) - 1);
+        }
+      }
+      return maxMillis;
+    }
+
+    PauseStats toPauseStats() {
+      return new PauseStats(count, totalMillis, maxMillis, percentile(50), percentile(99));
+    }
+  }
+}
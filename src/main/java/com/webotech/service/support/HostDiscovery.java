@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service.support;
+
+import java.io.IOException;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Discovers the hostname and network addresses of the host without blocking. {@link InetAddress#getLocalHost()} does a DNS lookup, which
+ * can block for 5 to 30 seconds when DNS is misconfigured, so the hostname is read from the kernel (or the environment) and the addresses
+ * are enumerated from the local {@link NetworkInterface}s, neither of which uses DNS.
+ * <p>
+ * Resolving the local host using DNS is done lazily and asynchronously on a dedicated daemon thread (a DNS lookup cannot be interrupted)
+ * and it is bounded by a timeout, see {@link #resolveLocalHost(Duration)}. Where the hostname is not available from the kernel or the
+ * environment (e.g. on macOS or BSD), {@link #getHostname()} falls back to the name of the resolved local host once it arrives.
+ */
+public class HostDiscovery {
+
+  private static final Path KERNEL_HOSTNAME = Path.of("/proc/sys/kernel/hostname");
+  private static final ThreadFactory threadFactory = Monitors.newThreadFactory("host-discovery");
+  private final String hostname;
+  private final Callable<InetAddress> localHostLookup;
+  private CompletableFuture<InetAddress> lookup;
+  private volatile InetAddress localHost;
+
+  public HostDiscovery() {
+    this(hostname(), InetAddress::getLocalHost);
+  }
+
+  HostDiscovery(String hostname, Callable<InetAddress> localHostLookup) {
+    this.hostname = hostname;
+    this.localHostLookup = localHostLookup;
+  }
+
+  /**
+   * @return the hostname from the kernel or the environment (without using DNS), empty if it is unknown
+   */
+  public static String hostname() {
+    try {
+      String hostname = Files.readString(KERNEL_HOSTNAME).trim();
+      if (!hostname.isEmpty()) {
+        return hostname;
+      }
+    } catch (IOException | SecurityException e) {
+      // Not Linux, fall back to the environment
+    }
+    String hostname = System.getenv("HOSTNAME");
+    if (hostname == null || hostname.isEmpty()) {
+      hostname = System.getenv("COMPUTERNAME");
+    }
+    return hostname == null ? "" : hostname;
+  }
+
+  /**
+   * @return the addresses of the network interfaces that are up, excluding loopback, IPv4 addresses first
+   */
+  public static List<InetAddress> interfaceAddresses() {
+    List<InetAddress> addresses = new ArrayList<>();
+    try {
+      Enumeration<NetworkInterface> networkInterfaces = NetworkInterface.getNetworkInterfaces();
+      while (networkInterfaces != null && networkInterfaces.hasMoreElements()) {
+        NetworkInterface networkInterface = networkInterfaces.nextElement();
+        if (networkInterface.isUp() && !networkInterface.isLoopback()) {
+          Enumeration<InetAddress> inetAddresses = networkInterface.getInetAddresses();
+          while (inetAddresses.hasMoreElements()) {
+            addresses.add(inetAddresses.nextElement());
+          }
+        }
+      }
+    } catch (SocketException e) {
+      return List.of();
+    }
+    addresses.sort(Comparator.comparing(a -> a instanceof Inet4Address ? 0 : 1));
+    return addresses;
+  }
+
+  /**
+   * @return the address that most likely identifies the host, i.e. the first of addresses that is not link local, or the loopback address
+   * if there are none
+   */
+  public static String primaryAddress(List<InetAddress> addresses) {
+    return addresses.stream().filter(a -> !a.isLinkLocalAddress()).findFirst()
+        .orElse(InetAddress.getLoopbackAddress()).getHostAddress();
+  }
+
+  /**
+   * @return the hostname from the kernel or the environment, if it is not known there then the name of the local host once it has been
+   * resolved (see {@link #resolveLocalHost(Duration)}), otherwise empty
+   */
+  public String getHostname() {
+    InetAddress resolvedLocalHost = localHost;
+    return hostname.isEmpty() && resolvedLocalHost != null ? resolvedLocalHost.getHostName()
+        : hostname;
+  }
+
+  /**
+   * Resolves the local host using DNS. A lookup is started the first time this is called, or if the previous lookup failed, otherwise the
+   * lookup that is in progress (or that succeeded) is shared so at most one thread is ever blocked on DNS. Each call is bounded by its own
+   * timeout, timing out does not stop the shared lookup.
+   *
+   * @return a future that completes with the local host, or exceptionally if it cannot be resolved or it is not resolved within timeout
+   */
+  public synchronized CompletableFuture<InetAddress> resolveLocalHost(Duration timeout) {
+    if (lookup == null || lookup.isCompletedExceptionally()) {
+      Executor executor = r -> threadFactory.newThread(r).start();
+      lookup = CompletableFuture.supplyAsync(() -> {
+        try {
+          InetAddress resolvedLocalHost = localHostLookup.call();
+          localHost = resolvedLocalHost;
+          return resolvedLocalHost;
+        } catch (Exception e) {
+          throw new CompletionException(e);
+        }
+      }, executor);
+    }
+    return lookup.copy().orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service.support;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Dispatches incidents, i.e. events that need to be investigated, to the listeners that are interested in them. The support monitors
+ * report incidents (e.g. a deadlock, a stalled or starved thread or a breached GC SLO) and an app can report its own, such as a manual
+ * trigger from an operator. A listener, like the {@link JfrRecorder}, can then capture the context of the incident.
+ * <p>
+ * Listeners are called on the thread that reports the incident so they need to be quick, an exception thrown by a listener is logged and
+ * does not stop other listeners from being called.
+ */
+public final class Incidents {
+
+  public static final String DEADLOCK = "deadlock";
+  public static final String STALL = "stall";
+  public static final String STARVATION = "starvation";
+  public static final String GC_SLO_BREACH = "gc-slo-breach";
+  public static final String THREAD_LEAK = "thread-leak";
+  public static final String MANUAL = "manual";
+  private static final Logger logger = LogManager.getLogger(Incidents.class);
+  private static final List<Consumer<Incident>> listeners = new CopyOnWriteArrayList<>();
+
+  private Incidents() {
+    // Not for instanciation outside this class
+  }
+
+  /**
+   * Reports an incident of type (e.g. {@link #DEADLOCK}) to all the listeners.
+   */
+  public static void report(String type, String description) {
+    Incident incident = new Incident(type, description, Instant.now());
+    for (Consumer<Incident> listener : listeners) {
+      try {
+        listener.accept(incident);
+      } catch (RuntimeException e) {
+        logger.error("Incident listener failed for {}", incident, e);
+      }
+    }
+  }
+
+  public static void addListener(Consumer<Incident> listener) {
+    listeners.add(listener);
+  }
+
+  public static void removeListener(Consumer<Incident> listener) {
+    listeners.remove(listener);
+  }
+
+  /**
+   * Something that happened in the app that needs to be investigated.
+   *
+   * @param type        the type of incident, e.g. {@link #DEADLOCK}
+   * @param description what happened
+   * @param time        when it was reported
+   */
+  public record Incident(String type, String description, Instant time) {
+
+  }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service.support;
+
+import com.webotech.service.support.Incidents.Incident;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Runs a continuous JDK Flight Recorder (JFR) recording that is bounded by age and size, so that it only holds the most recent minutes of
+ * profiling data, and dumps it to a file when an incident is reported to {@link Incidents}. This gives the full context from before a
+ * deadlock, a stall or a GC SLO breach at very little steady state cost.
+ * <p>
+ * JFR keeps the recording in its own repository on disk (bounded by the max age and max size) rather than only in memory, so the dumped
+ * recording covers the whole max age. Dumps for incidents are done asynchronously on a dedicated thread (or using an {@link Executor}) so
+ * that a slow dump does not hold up the monitor that reported the incident, and there is at most one dump per minimum dump interval, so
+ * incidents that are reported in quick succession do not produce a dump each. {@link #dump(String)} can be used to dump the recording on
+ * demand.
+ */
+public class JfrRecorder {
+
+  private static final Logger logger = LogManager.getLogger(JfrRecorder.class);
+  private static final String DUMP_EXECUTOR_NAME = "jfr-dump";
+  private static final DateTimeFormatter fileTimestampFormatter = DateTimeFormatter.ofPattern(
+      "yyyyMMdd-HHmmss-SSS");
+  private final Consumer<Incident> incidentListener;
+  private Recording recording;
+  private Executor dumpExecutor;
+  private ExecutorService ownDumpExecutor;
+  private Path directory;
+  private Duration maxAge;
+  private long maxSizeBytes;
+  private long minDumpIntervalNanos;
+  private String settings;
+  private long lastDumpNanos;
+  private boolean hasDumped;
+
+  public JfrRecorder() {
+    incidentListener = this::onIncident;
+    configure(Path.of("jfr-dumps"), Duration.ofMinutes(10), 64L * 1024 * 1024,
+        Duration.ofMinutes(5), "default");
+  }
+
+  /**
+   * Sets where recordings are dumped, the bounds of the recording, the minimum interval between dumps for incidents and the name of the
+   * JFR settings (e.g. default or profile).
+   */
+  public synchronized void configure(Path directory, Duration maxAge, long maxSizeBytes,
+      Duration minDumpInterval, String settings) {
+    this.directory = directory;
+    this.maxAge = maxAge;
+    this.maxSizeBytes = maxSizeBytes;
+    this.minDumpIntervalNanos = minDumpInterval.toNanos();
+    this.settings = settings;
+  }
+
+  /**
+   * Starts the continuous recording, if it is already recording it is restarted. Dumps for incidents are done on a dedicated thread which
+   * is registered with the {@link Monitors#getExecutorRegistry()} while it is recording.
+   */
+  public synchronized void start() {
+    ExecutorService executor = Executors.newFixedThreadPool(1,
+        Monitors.newThreadFactory(DUMP_EXECUTOR_NAME));
+    start(executor);
+    ownDumpExecutor = Monitors.getExecutorRegistry().register(DUMP_EXECUTOR_NAME, executor);
+  }
+
+  /**
+   * Starts the continuous recording, if it is already recording it is restarted. Dumps for incidents are done using dumpExecutor.
+   */
+  public synchronized void start(Executor dumpExecutor) {
+    stop();
+    try {
+      recording = new Recording(Configuration.getConfiguration(settings));
+    } catch (IOException | ParseException e) {
+      throw new IllegalStateException("Unable to load JFR settings " + settings, e);
+    }
+    recording.setName("support-continuous");
+    recording.setToDisk(true);
+    recording.setMaxAge(maxAge);
+    recording.setMaxSize(maxSizeBytes);
+    recording.start();
+    this.dumpExecutor = dumpExecutor;
+    hasDumped = false;
+    Incidents.addListener(incidentListener);
+    logger.info("Started continuous JFR recording with max age {} and max size {} bytes", maxAge,
+        maxSizeBytes);
+  }
+
+  public synchronized void stop() {
+    if (recording != null) {
+      Incidents.removeListener(incidentListener);
+      recording.close();
+      recording = null;
+    }
+    if (ownDumpExecutor != null) {
+      Monitors.getExecutorRegistry().deregister(DUMP_EXECUTOR_NAME);
+      ownDumpExecutor.shutdown();
+      ownDumpExecutor = null;
+    }
+  }
+
+  public synchronized boolean isRecording() {
+    return recording != null;
+  }
+
+  /**
+   * Dumps the recording to a file in the configured directory.
+   *
+   * @return the file the recording was dumped to or null if it is not recording
+   */
+  public synchronized Path dump(String reason) {
+    if (recording == null) {
+      return null;
+    }
+    Path file = directory.resolve(reason.replaceAll("[^A-Za-z0-9_-]", "_") + "-"
+        + LocalDateTime.now().format(fileTimestampFormatter) + ".jfr");
+    try {
+      Files.createDirectories(directory);
+      recording.dump(file);
+    } catch (IOException e) {
+      logger.error("Failed to dump JFR recording to {}", file, e);
+      return null;
+    }
+    lastDumpNanos = System.nanoTime();
+    hasDumped = true;
+    logger.info("Dumped JFR recording for {} to {}", reason, file);
+    return file;
+  }
+
+  private void onIncident(Incident incident) {
+    if (isDumpDue()) {
+      dumpExecutor.execute(() -> {
+        if (isDumpDue()) {
+          dump(incident.type());
+        }
+      });
+    }
+  }
+
+  private synchronized boolean isDumpDue() {
+    return recording != null && (!hasDumped
+        || System.nanoTime() - lastDumpNanos >= minDumpIntervalNanos);
+  }
+}
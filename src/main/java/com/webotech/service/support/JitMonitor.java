@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service.support;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryUsage;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Monitors the health of the JIT compiler, which degrades silently after a long uptime: when the code cache fills up the JIT stops
+ * compiling and the app slows down as new hot code is interpreted. Each sample reads the total compilation time and the usage of the code
+ * cache segments, and the state of the compiler from the {@code Compiler.codecache} diagnostic command. A warning is logged when
+ * compilation is disabled, when the code cache has been full, and during a compilation storm, i.e. when the JIT spends at least the
+ * compilation threshold percentage of the wall clock time between samples compiling. The compilation time is summed across the compiler
+ * threads so it is divided by the number of compiler threads ({@code CICompilerCount}), 100% means that every compiler thread was busy.
+ * The JIT is expected to be busy while the JVM warms up, so a storm is not logged until the JVM's uptime is past a warm-up grace period.
+ * Each warning has an info log when it recovers.
+ * <p>
+ * The {@link NativeMemoryMonitor} warns when a code cache segment approaches its limit.
+ */
+public class JitMonitor extends AbstractMonitor {
+
+  private static final Logger logger = LogManager.getLogger(JitMonitor.class);
+  private static final Pattern compilationPattern = Pattern.compile(
+      "^\\s*compilation: (\\w+)", Pattern.MULTILINE);
+  private static final Pattern fullCountPattern = Pattern.compile("full_count=(\\d+)");
+  private final CompilationMXBean compilationMxBean;
+  private final Supplier<String> codeCacheSummary;
+  private final List<MemoryPoolMXBean> codeCachePools;
+  private final int compilerThreadCount;
+  private final LongSupplier uptimeMillis;
+  private volatile long totalCompilationTimeMillis;
+  private volatile double compilationTimePercent;
+  private volatile long codeCacheUsedBytes;
+  private volatile long codeCacheMaxBytes;
+  private volatile boolean isCompilationEnabled;
+  private volatile long codeCacheFullCount;
+  private double compilationThresholdPercent;
+  private long warmupGraceMillis;
+  private long previousSampleNanos;
+  private boolean isStorming;
+
+  public JitMonitor() {
+    this(ManagementFactory.getCompilationMXBean(), JitMonitor::codeCacheSummary,
+        compilerThreadCount(), ManagementFactory.getRuntimeMXBean()::getUptime);
+  }
+
+  JitMonitor(CompilationMXBean compilationMxBean, Supplier<String> codeCacheSummary,
+      int compilerThreadCount, LongSupplier uptimeMillis) {
+    this.compilationMxBean = compilationMxBean;
+    this.codeCacheSummary = codeCacheSummary;
+    this.compilerThreadCount = Math.max(1, compilerThreadCount);
+    this.uptimeMillis = uptimeMillis;
+    codeCachePools = new ArrayList<>();
+    for (MemoryPoolMXBean memoryPool : ManagementFactory.getMemoryPoolMXBeans()) {
+      String name = memoryPool.getName();
+      // A segmented code cache has a CodeHeap pool per segment, otherwise there is a CodeCache pool
+      if (name.startsWith("CodeHeap") || "CodeCache".equals(name)) {
+        codeCachePools.add(memoryPool);
+      }
+    }
+    totalCompilationTimeMillis = -1;
+    codeCacheUsedBytes = -1;
+    codeCacheMaxBytes = -1;
+    isCompilationEnabled = compilationMxBean != null;
+    codeCacheFullCount = -1;
+    configure(50, Duration.ofMinutes(1));
+  }
+
+  /**
+   * Sets the percentage of the wall clock time between samples that the compiler threads can spend compiling before a compilation storm is
+   * logged, a threshold that is not positive is disabled. A storm is not logged until the JVM has been up for the warm-up grace period.
+   */
+  public synchronized void configure(double compilationThresholdPercent, Duration warmupGrace) {
+    this.compilationThresholdPercent = compilationThresholdPercent;
+    warmupGraceMillis = warmupGrace.toMillis();
+  }
+
+  /**
+   * @return the number of compiler threads that the compilation time is divided by
+   */
+  public int getCompilerThreadCount() {
+    return compilerThreadCount;
+  }
+
+  /**
+   * @return the total time spent compiling since the JVM started, -1 if it is not known
+   */
+  public long getTotalCompilationTimeMillis() {
+    return totalCompilationTimeMillis;
+  }
+
+  /**
+   * @return the percentage of the wall clock time between the last two samples that was spent compiling, divided by the number of
+   * compiler threads
+   */
+  public double getCompilationTimePercent() {
+    return compilationTimePercent;
+  }
+
+  /**
+   * @return the bytes used by all the code cache segments, -1 if it is not known
+   */
+  public long getCodeCacheUsedBytes() {
+    return codeCacheUsedBytes;
+  }
+
+  /**
+   * @return the maximum bytes of the code cache segments that have a maximum, -1 if it is not known
+   */
+  public long getCodeCacheMaxBytes() {
+    return codeCacheMaxBytes;
+  }
+
+  /**
+   * @return false if there is no JIT or it has stopped compiling
+   */
+  public boolean isCompilationEnabled() {
+    return isCompilationEnabled;
+  }
+
+  /**
+   * @return the number of times the code cache has been full, -1 if it is not known
+   */
+  public long getCodeCacheFullCount() {
+    return codeCacheFullCount;
+  }
+
+  @Override
+  protected synchronized void sample() {
+    if (compilationMxBean == null) {
+      return;
+    }
+    long nowNanos = System.nanoTime();
+    if (compilationMxBean.isCompilationTimeMonitoringSupported()) {
+      long currentCompilationTimeMillis = compilationMxBean.getTotalCompilationTime();
+      long intervalNanos = nowNanos - previousSampleNanos;
+      compilationTimePercent = previousSampleNanos != 0 && totalCompilationTimeMillis >= 0
+          && intervalNanos > 0
+          ? (currentCompilationTimeMillis - totalCompilationTimeMillis) * 100_000_000.0
+          / intervalNanos / compilerThreadCount : 0;
+      totalCompilationTimeMillis = currentCompilationTimeMillis;
+    }
+    previousSampleNanos = nowNanos;
+    long used = 0;
+    long max = 0;
+    for (MemoryPoolMXBean codeCachePool : codeCachePools) {
+      MemoryUsage usage = codeCachePool.getUsage();
+      used += usage.getUsed();
+      // A pool without a maximum reports -1
+      if (usage.getMax() > 0) {
+        max += usage.getMax();
+      }
+    }
+    if (!codeCachePools.isEmpty()) {
+      codeCacheUsedBytes = used;
+      codeCacheMaxBytes = max > 0 ? max : -1;
+    }
+    String codeCache = codeCacheSummary.get();
+    if (codeCache != null) {
+      checkCompilation(isCompilationEnabled(codeCache), fullCount(codeCache));
+    }
+    checkStorm();
+  }
+
+  private void checkCompilation(boolean isEnabled, long fullCount) {
+    if (codeCacheFullCount >= 0 && fullCount > codeCacheFullCount) {
+      logger.warn("The code cache has been full {} times, {} of {} bytes are used", fullCount,
+          codeCacheUsedBytes, codeCacheMaxBytes);
+    }
+    codeCacheFullCount = fullCount;
+    if (!isEnabled && isCompilationEnabled) {
+      logger.warn("JIT compilation is disabled, {} of {} code cache bytes are used",
+          codeCacheUsedBytes, codeCacheMaxBytes);
+    } else if (isEnabled && !isCompilationEnabled) {
+      logger.info("JIT compilation is enabled, {} of {} code cache bytes are used",
+          codeCacheUsedBytes, codeCacheMaxBytes);
+    }
+    isCompilationEnabled = isEnabled;
+  }
+
+  private void checkStorm() {
+    boolean isAbove =
+        compilationThresholdPercent > 0 && compilationTimePercent >= compilationThresholdPercent
+            && uptimeMillis.getAsLong() >= warmupGraceMillis;
+    if (isAbove && !isStorming) {
+      logger.warn("Compilation storm, the JIT is compiling for {}% of the time, {} ms in total",
+          Math.round(compilationTimePercent), totalCompilationTimeMillis);
+    } else if (!isAbove && isStorming) {
+      logger.info("Compilation storm is over, the JIT is compiling for {}% of the time",
+          Math.round(compilationTimePercent));
+    }
+    isStorming = isAbove;
+  }
+
+  /**
+   * @return false if the output of the {@code Compiler.codecache} diagnostic command shows that compilation is not enabled
+   */
+  static boolean isCompilationEnabled(String codeCache) {
+    Matcher matcher = compilationPattern.matcher(codeCache);
+    return !matcher.find() || "enabled".equals(matcher.group(1));
+  }
+
+  /**
+   * @return the number of times the code cache has been full from the output of the {@code Compiler.codecache} diagnostic command, -1 if
+   * it is not known
+   */
+  static long fullCount(String codeCache) {
+    Matcher matcher = fullCountPattern.matcher(codeCache);
+    return matcher.find() ? Long.parseLong(matcher.group(1)) : -1;
+  }
+
+  private static int compilerThreadCount() {
+    try {
+      return Integer.parseInt(ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class)
+          .getVMOption("CICompilerCount").getValue());
+    } catch (RuntimeException e) {
+      // Not a HotSpot JVM, the compilation time is not divided
+      return 1;
+    }
+  }
+
+  private static String codeCacheSummary() {
+    try {
+      MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+      return (String) mBeanServer.invoke(
+          new ObjectName("com.sun.management:type=DiagnosticCommand"), "compilerCodecache",
+          new Object[]{new String[0]}, new String[]{String[].class.getName()});
+    } catch (JMException e) {
+      // Not a HotSpot JVM, the state of the compiler is not known
+      return null;
+    }
+  }
+}
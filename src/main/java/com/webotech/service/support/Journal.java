@@ -0,0 +1,347 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service.support;
+
+import com.webotech.metrics.HistogramSnapshot;
+import com.webotech.metrics.MetricRegistry;
+import com.webotech.metrics.MetricsSnapshot;
+import com.webotech.service.support.Incidents.Incident;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A journal of compact binary records (see {@link JournalRecordType}) in a fixed size, memory-mapped file that is used as a ring, so the
+ * diagnostics from before a process dies (even from kill -9, the OS still has the mapped pages) survive it and can be decoded with
+ * {@link JournalReader}. When the journal is open, the incidents reported to {@link Incidents} are written to it and so, optionally, are
+ * periodic snapshots of a {@link MetricRegistry}. Other components, like the {@link GcMonitor}, write their own records.
+ * <p>
+ * Writing a record copies it into the mapped file, there are no syscalls or allocation, and writers are serialized. When the ring is full
+ * the oldest records are overwritten. Text is written as ASCII (other characters become ?) and it is truncated to 4096 characters. The
+ * positions of the oldest and newest records are in the file's header and the newest is only moved once a record is complete, so a record
+ * that was being written when the process died is ignored. The positions are published with release stores so that neither the JIT nor the
+ * CPU can move the store of a position ahead of the stores of the record it covers. A journal that is opened on an existing file of the
+ * same size keeps its records, so the file has to be read before a second restart for them not to be overwritten. A journal file must only
+ * be used by one process at a time.
+ * <p>
+ * The file has a 64 byte header (magic, version, capacity, newest and oldest positions) followed by the ring. Each record is aligned to 8
+ * bytes, it is the total length (int), type (short), reserved (short), epoch millis (long), value (long), text length (short) and the
+ * text, a {@link JournalRecordType#METRICS} record is followed by its metrics.
+ */
+public class Journal {
+
+  static final int MAGIC = 0x53424A4C;
+  static final int VERSION = 1;
+  static final int HEADER_SIZE = 64;
+  static final int CAPACITY_OFFSET = 8;
+  static final int HEAD_OFFSET = 16;
+  static final int TAIL_OFFSET = 24;
+  static final int RECORD_HEADER_SIZE = 26;
+  static final short PADDING = 0;
+  static final byte COUNTER = 'C';
+  static final byte GAUGE = 'G';
+  static final byte HISTOGRAM = 'H';
+  static final int MAX_TEXT_LENGTH = 4096;
+  private static final Logger logger = LogManager.getLogger(Journal.class);
+  // The mapped buffer is big endian, like every ByteBuffer, and the positions are 8 byte aligned
+  private static final VarHandle positionHandle = MethodHandles.byteBufferViewVarHandle(
+      long[].class, ByteOrder.BIG_ENDIAN);
+  private final Consumer<Incident> incidentListener;
+  private Path file;
+  private long sizeBytes;
+  private MappedByteBuffer buffer;
+  private int capacity;
+  private long head;
+  private long tail;
+  private String appName;
+  private ScheduledFuture<?> metricsFuture;
+
+  public Journal() {
+    incidentListener = this::onIncident;
+    configure(Path.of("support.journal"), 8L * 1024 * 1024);
+  }
+
+  /**
+   * Sets the file and its size, which includes a 64 byte header, it takes effect the next time the journal is opened.
+   */
+  public synchronized void configure(Path file, long sizeBytes) {
+    if (sizeBytes < 4096 || sizeBytes > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException(
+          "The journal size has to be between 4096 and " + Integer.MAX_VALUE + " bytes");
+    }
+    this.file = file;
+    this.sizeBytes = sizeBytes;
+  }
+
+  /**
+   * Opens the journal and writes a {@link JournalRecordType#START} record, if it is already open it is closed first. The records in an
+   * existing journal file of the same size are kept.
+   */
+  public synchronized void open(String appName) {
+    close();
+    try {
+      Path parent = file.toAbsolutePath().getParent();
+      if (parent != null) {
+        Files.createDirectories(parent);
+      }
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+          StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+        boolean isExisting = channel.size() == sizeBytes;
+        if (!isExisting) {
+          channel.truncate(0);
+        }
+        buffer = channel.map(MapMode.READ_WRITE, 0, sizeBytes);
+        if (!isExisting || !isValid()) {
+          initialise();
+        }
+      }
+    } catch (IOException e) {
+      buffer = null;
+      throw new UncheckedIOException("Unable to open journal " + file, e);
+    }
+    capacity = buffer.getInt(CAPACITY_OFFSET);
+    head = buffer.getLong(HEAD_OFFSET);
+    tail = buffer.getLong(TAIL_OFFSET);
+    this.appName = appName;
+    Incidents.addListener(incidentListener);
+    logger.info("Opened journal {} with {} bytes of records from before", file, head - tail);
+    write(JournalRecordType.START, ProcessHandle.current().pid(), appName);
+  }
+
+  /**
+   * Writes a snapshot of metricRegistry every period using scheduler, until the journal is closed.
+   */
+  public synchronized void startMetricsSnapshots(ScheduledExecutorService scheduler,
+      Duration period, MetricRegistry metricRegistry) {
+    stopMetricsSnapshots();
+    long periodNanos = period.toNanos();
+    metricsFuture = scheduler.scheduleAtFixedRate(
+        () -> writeMetrics(metricRegistry.snapshot()), periodNanos, periodNanos,
+        TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Writes a {@link JournalRecordType#STOP} record and closes the journal.
+   */
+  public synchronized void close() {
+    if (buffer != null) {
+      stopMetricsSnapshots();
+      Incidents.removeListener(incidentListener);
+      write(JournalRecordType.STOP, ManagementFactory.getRuntimeMXBean().getUptime(), appName);
+      buffer.force();
+      buffer = null;
+    }
+  }
+
+  public synchronized boolean isOpen() {
+    return buffer != null;
+  }
+
+  public synchronized Path getFile() {
+    return file;
+  }
+
+  /**
+   * Writes a record, it does nothing if the journal is not open.
+   *
+   * @return true if the record was written
+   */
+  public synchronized boolean write(JournalRecordType type, long value, CharSequence text) {
+    if (buffer == null) {
+      return false;
+    }
+    int offset = writeUncommitted(type, value, text);
+    if (offset < 0) {
+      return false;
+    }
+    commit(offset);
+    return true;
+  }
+
+  /**
+   * Writes the body of a record without committing it, which is what the journal holds if the process dies before the record is complete.
+   *
+   * @return the offset of the record, -1 if it is too large
+   */
+  synchronized int writeUncommitted(JournalRecordType type, long value, CharSequence text) {
+    int textLength = text == null ? 0 : Math.min(text.length(), MAX_TEXT_LENGTH);
+    int offset = reserve(RECORD_HEADER_SIZE + textLength);
+    if (offset >= 0) {
+      writeRecordHeader(offset, type, value, textLength);
+      for (int i = 0; i < textLength; i++) {
+        char c = text.charAt(i);
+        buffer.put(offset + RECORD_HEADER_SIZE + i, c < 128 ? (byte) c : (byte) '?');
+      }
+    }
+    return offset;
+  }
+
+  /**
+   * Writes a {@link JournalRecordType#METRICS} record with the counts of the counters, the values of the gauges and the count, sum, 50th
+   * and 99th percentiles and max of the histograms in metricsSnapshot.
+   *
+   * @return true if the record was written
+   */
+  public synchronized boolean writeMetrics(MetricsSnapshot metricsSnapshot) {
+    if (buffer == null) {
+      return false;
+    }
+    int length = RECORD_HEADER_SIZE;
+    for (String name : metricsSnapshot.counters().keySet()) {
+      length += metricLength(name, 1);
+    }
+    for (String name : metricsSnapshot.gauges().keySet()) {
+      length += metricLength(name, 1);
+    }
+    for (String name : metricsSnapshot.histograms().keySet()) {
+      length += metricLength(name, 5);
+    }
+    int offset = reserve(length);
+    if (offset < 0) {
+      logger.warn("The metrics snapshot of {} bytes is too large for journal {}", length, file);
+      return false;
+    }
+    int metricCount = metricsSnapshot.counters().size() + metricsSnapshot.gauges().size()
+        + metricsSnapshot.histograms().size();
+    writeRecordHeader(offset, JournalRecordType.METRICS, metricCount, 0);
+    int position = offset + RECORD_HEADER_SIZE;
+    for (Map.Entry<String, Long> entry : metricsSnapshot.counters().entrySet()) {
+      position = writeMetricName(position, COUNTER, entry.getKey());
+      buffer.putLong(position, entry.getValue());
+      position += Long.BYTES;
+    }
+    for (Map.Entry<String, Double> entry : metricsSnapshot.gauges().entrySet()) {
+      position = writeMetricName(position, GAUGE, entry.getKey());
+      buffer.putLong(position, Double.doubleToLongBits(entry.getValue()));
+      position += Long.BYTES;
+    }
+    for (Map.Entry<String, HistogramSnapshot> entry : metricsSnapshot.histograms().entrySet()) {
+      HistogramSnapshot histogram = entry.getValue();
+      position = writeMetricName(position, HISTOGRAM, entry.getKey());
+      buffer.putLong(position, histogram.getCount());
+      buffer.putLong(position + 8, histogram.getSum());
+      buffer.putLong(position + 16, histogram.getValueAtPercentile(50));
+      buffer.putLong(position + 24, histogram.getValueAtPercentile(99));
+      buffer.putLong(position + 32, histogram.getMax());
+      position += 5 * Long.BYTES;
+    }
+    commit(offset);
+    return true;
+  }
+
+  private void stopMetricsSnapshots() {
+    if (metricsFuture != null) {
+      metricsFuture.cancel(false);
+      metricsFuture = null;
+    }
+  }
+
+  private void onIncident(Incident incident) {
+    switch (incident.type()) {
+      case Incidents.DEADLOCK -> write(JournalRecordType.DEADLOCK, 0, incident.description());
+      case Incidents.STALL -> write(JournalRecordType.STALL, 0, incident.description());
+      default -> write(JournalRecordType.INCIDENT, 0,
+          incident.type() + ": " + incident.description());
+    }
+  }
+
+  private boolean isValid() {
+    return buffer.getInt(0) == MAGIC && buffer.getInt(4) == VERSION
+        && buffer.getInt(CAPACITY_OFFSET) == ringCapacity(sizeBytes)
+        && buffer.getLong(HEAD_OFFSET) - buffer.getLong(TAIL_OFFSET) <= ringCapacity(sizeBytes);
+  }
+
+  private void initialise() {
+    buffer.putLong(HEAD_OFFSET, 0);
+    buffer.putLong(TAIL_OFFSET, 0);
+    buffer.putInt(CAPACITY_OFFSET, ringCapacity(sizeBytes));
+    buffer.putInt(4, VERSION);
+    buffer.putInt(0, MAGIC);
+  }
+
+  /**
+   * Makes room for a record of length bytes by moving the tail past the oldest records, wrapping around the ring with a padding record if
+   * the record does not fit before the end of it.
+   *
+   * @return the offset in the file to write the record at, -1 if the record is too large
+   */
+  private int reserve(int length) {
+    int alignedLength = align(length);
+    if (alignedLength > capacity / 4) {
+      return -1;
+    }
+    int remaining = capacity - (int) (head % capacity);
+    if (remaining < alignedLength) {
+      moveTail(remaining);
+      int offset = HEADER_SIZE + (int) (head % capacity);
+      buffer.putShort(offset + 4, PADDING);
+      buffer.putInt(offset, remaining);
+      head += remaining;
+      positionHandle.setRelease(buffer, HEAD_OFFSET, head);
+    }
+    moveTail(alignedLength);
+    int offset = HEADER_SIZE + (int) (head % capacity);
+    buffer.putInt(offset, alignedLength);
+    return offset;
+  }
+
+  private void moveTail(int length) {
+    while (head + length - tail > capacity) {
+      tail += buffer.getInt(HEADER_SIZE + (int) (tail % capacity));
+    }
+    positionHandle.setRelease(buffer, TAIL_OFFSET, tail);
+  }
+
+  private void writeRecordHeader(int offset, JournalRecordType type, long value, int textLength) {
+    buffer.putShort(offset + 4, type.getCode());
+    buffer.putShort(offset + 6, (short) 0);
+    buffer.putLong(offset + 8, System.currentTimeMillis());
+    buffer.putLong(offset + 16, value);
+    buffer.putShort(offset + 24, (short) textLength);
+  }
+
+  private void commit(int offset) {
+    head += buffer.getInt(offset);
+    positionHandle.setRelease(buffer, HEAD_OFFSET, head);
+  }
+
+  private int writeMetricName(int position, byte kind, String name) {
+    buffer.put(position, kind);
+    buffer.putShort(position + 1, (short) name.length());
+    for (int i = 0; i < name.length(); i++) {
+      buffer.put(position + 3 + i, (byte) name.charAt(i));
+    }
+    return position + 3 + name.length();
+  }
+
+  private static int metricLength(String name, int valueCount) {
+    return 3 + name.length() + valueCount * Long.BYTES;
+  }
+
+  private static int ringCapacity(long sizeBytes) {
+    return (int) (sizeBytes - HEADER_SIZE) & ~7;
+  }
+
+  private static int align(int length) {
+    return (length + 7) & ~7;
+  }
+}
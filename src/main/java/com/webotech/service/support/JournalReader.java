@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service.support;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decodes the records in a {@link Journal} file, from the oldest to the newest, e.g. after a process has crashed or been killed. It can
+ * be run as a tool that prints the records:
+ * <pre>
+ * java -cp service-base.jar com.webotech.service.support.JournalReader support.journal
+ * </pre>
+ */
+public final class JournalReader {
+
+  private JournalReader() {
+    // Not for instanciation outside this class
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length != 1) {
+      System.err.println("Usage: " + JournalReader.class.getName() + " <journal file>");
+      return;
+    }
+    for (JournalRecord journalRecord : read(Path.of(args[0]))) {
+      System.out.println(journalRecord);
+    }
+  }
+
+  /**
+   * @return the records in file, from the oldest to the newest
+   * @throws IOException if file cannot be read or it is not a valid journal
+   */
+  public static List<JournalRecord> read(Path file) throws IOException {
+    ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+    if (buffer.capacity() < Journal.HEADER_SIZE || buffer.getInt(0) != Journal.MAGIC) {
+      throw new IOException(file + " is not a journal");
+    }
+    if (buffer.getInt(4) != Journal.VERSION) {
+      throw new IOException(file + " has unsupported journal version " + buffer.getInt(4));
+    }
+    int capacity = buffer.getInt(Journal.CAPACITY_OFFSET);
+    long head = buffer.getLong(Journal.HEAD_OFFSET);
+    long tail = buffer.getLong(Journal.TAIL_OFFSET);
+    if (capacity <= 0 || Journal.HEADER_SIZE + capacity > buffer.capacity() || tail > head
+        || head - tail > capacity) {
+      throw new IOException(file + " has a corrupt header");
+    }
+    List<JournalRecord> journalRecords = new ArrayList<>();
+    for (long position = tail; position < head; ) {
+      int ringOffset = (int) (position % capacity);
+      int offset = Journal.HEADER_SIZE + ringOffset;
+      int length = buffer.getInt(offset);
+      if (length < 8 || length % 8 != 0 || ringOffset + length > capacity) {
+        throw new IOException(file + " has a corrupt record at position " + position);
+      }
+      short code = buffer.getShort(offset + 4);
+      if (code != Journal.PADDING) {
+        journalRecords.add(decode(buffer, offset, code));
+      }
+      position += length;
+    }
+    return journalRecords;
+  }
+
+  private static JournalRecord decode(ByteBuffer buffer, int offset, short code) {
+    JournalRecordType type = JournalRecordType.fromCode(code);
+    Instant time = Instant.ofEpochMilli(buffer.getLong(offset + 8));
+    long value = buffer.getLong(offset + 16);
+    int textLength = buffer.getShort(offset + 24);
+    String text = new String(buffer.array(), offset + Journal.RECORD_HEADER_SIZE, textLength,
+        StandardCharsets.US_ASCII);
+    if (type == JournalRecordType.METRICS) {
+      text = decodeMetrics(buffer, offset + Journal.RECORD_HEADER_SIZE + textLength, value);
+    }
+    return new JournalRecord(time, type, value, text);
+  }
+
+  private static String decodeMetrics(ByteBuffer buffer, int position, long metricCount) {
+    StringBuilder sb = new StringBuilder();
+    for (long i = 0; i < metricCount; i++) {
+      byte kind = buffer.get(position);
+      int nameLength = buffer.getShort(position + 1);
+      if (i > 0) {
+        sb.append(' ');
+      }
+      sb.append(new String(buffer.array(), position + 3, nameLength, StandardCharsets.US_ASCII));
+      position += 3 + nameLength;
+      if (kind == Journal.COUNTER) {
+        sb.append('=').append(buffer.getLong(position));
+        position += Long.BYTES;
+      } else if (kind == Journal.GAUGE) {
+        sb.append('=').append(Double.longBitsToDouble(buffer.getLong(position)));
+        position += Long.BYTES;
+      } else {
+        sb.append("{count=").append(buffer.getLong(position)).append(",sum=")
+            .append(buffer.getLong(position + 8)).append(",p50=")
+            .append(buffer.getLong(position + 16)).append(",p99=")
+            .append(buffer.getLong(position + 24)).append(",max=")
+            .append(buffer.getLong(position + 32)).append('}');
+        position += 5 * Long.BYTES;
+      }
+    }
+    return sb.toString();
+  }
+
+  /**
+   * A record from a {@link Journal}, {@link JournalRecordType} describes the value and text of each type. The text of a
+   * {@link JournalRecordType#METRICS} record is its metrics, e.g. orders_total=5 latency_nanos{count=2,sum=30,p50=10,p99=20,max=20}.
+   *
+   * @param time  when the record was written
+   * @param type  the type of record, null if it was written by a newer version
+   * @param value the value of the record
+   * @param text  the text of the record
+   */
+  public record JournalRecord(Instant time, JournalRecordType type, long value, String text) {
+
+    @Override
+    public String toString() {
+      return time + " " + type + " " + value + " " + text;
+    }
+  }
+}
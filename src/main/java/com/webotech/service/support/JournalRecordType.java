@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service.support;
+
+/**
+ * The types of record in a {@link Journal}, each record has a value and a text whose meaning depends on its type.
+ */
+public enum JournalRecordType {
+
+  /**
+   * The journal was opened, the value is the pid and the text is the app name.
+   */
+  START(1),
+  /**
+   * The journal was closed normally, the value is the uptime in millis and the text is the app name. A START that is not followed by a
+   * STOP means that the process died.
+   */
+  STOP(2),
+  /**
+   * A deadlock was detected, the text describes the deadlocked threads.
+   */
+  DEADLOCK(3),
+  /**
+   * A thread stalled, the text describes the stalled thread.
+   */
+  STALL(4),
+  /**
+   * A GC pause, the value is the pause in millis and the text is the name of the collector.
+   */
+  GC_PAUSE(5),
+  /**
+   * A property, the text is key=value with sensitive values redacted.
+   */
+  CONFIG(6),
+  /**
+   * A snapshot of the metrics in a {@link com.webotech.metrics.MetricRegistry}, the value is the number of metrics which are encoded in
+   * binary.
+   */
+  METRICS(7),
+  /**
+   * Any other incident reported to {@link Incidents}, the text is the type of incident and its description.
+   */
+  INCIDENT(8),
+  /**
+   * An event that the app defines.
+   */
+  EVENT(9);
+
+  private final short code;
+
+  JournalRecordType(int code) {
+    this.code = (short) code;
+  }
+
+  short getCode() {
+    return code;
+  }
+
+  /**
+   * @return the {@link JournalRecordType} with code or null if there is none
+   */
+  static JournalRecordType fromCode(short code) {
+    for (JournalRecordType type : values()) {
+      if (type.code == code) {
+        return type;
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service.support;
+
+import com.webotech.service.data.LiveSupportData;
+import java.time.Duration;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Samples {@link LiveSupportData} and, optionally, logs it at most once per log interval. The live data is updated in place and it is
+ * logged from a reused buffer so that periodic logging stays cheap.
+ */
+public class LiveSupportSampler extends AbstractMonitor {
+
+  private static final Logger logger = LogManager.getLogger(LiveSupportSampler.class);
+  private final LiveSupportData liveSupportData;
+  private final StringBuilder logBuffer;
+  private boolean isLogging;
+  private long logIntervalNanos;
+  private long lastLoggedNanos;
+  private boolean hasLogged;
+
+  public LiveSupportSampler(LiveSupportData liveSupportData) {
+    this.liveSupportData = liveSupportData;
+    logBuffer = new StringBuilder(512);
+    configure(false, Duration.ofMinutes(1));
+  }
+
+  /**
+   * Sets if the live data is logged and the minimum interval between logging it.
+   */
+  public synchronized void configure(boolean isLogging, Duration logInterval) {
+    this.isLogging = isLogging;
+    logIntervalNanos = logInterval.toNanos();
+    hasLogged = false;
+  }
+
+  public LiveSupportData getLiveSupportData() {
+    return liveSupportData;
+  }
+
+  @Override
+  protected synchronized void sample() {
+    liveSupportData.sample();
+    long nowNanos = System.nanoTime();
+    if (isLogging && logger.isInfoEnabled() && (!hasLogged
+        || nowNanos - lastLoggedNanos >= logIntervalNanos)) {
+      hasLogged = true;
+      lastLoggedNanos = nowNanos;
+      logBuffer.setLength(0);
+      logger.info("\n{}", liveSupportData.appendTo(logBuffer));
+    }
+  }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service.support;
+
+import com.webotech.statemachine.util.Threads;
+import java.util.concurrent.ThreadFactory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Holds the monitors that are shared throughout an app so that the rest of service-base (and the monitors themselves) can use them
+ * without depending on the {@link com.webotech.service.SupportSubsystem}, which configures, starts and stops them.
+ * <p>
+ * Threads that service-base creates should be made by {@link #newThreadFactory(String)} so that they are tracked by the
+ * {@link ThreadLeakDetector}.
+ */
+public final class Monitors {
+
+  private static final Logger logger = LogManager.getLogger(Monitors.class);
+  private static final ThreadLeakDetector threadLeakDetector = new ThreadLeakDetector();
+  private static final ExecutorRegistry executorRegistry = new ExecutorRegistry();
+
+  private Monitors() {
+    // Not for instanciation outside this class
+  }
+
+  /**
+   * @return the {@link ThreadLeakDetector} that tracks the live thread count
+   */
+  public static ThreadLeakDetector getThreadLeakDetector() {
+    return threadLeakDetector;
+  }
+
+  /**
+   * @return the {@link ExecutorRegistry} that executors are registered with to be monitored for saturation
+   */
+  public static ExecutorRegistry getExecutorRegistry() {
+    return executorRegistry;
+  }
+
+  /**
+   * @return a {@link ThreadFactory} that makes daemon threads named with threadNamePrefix, that logs uncaught exceptions and that is
+   * tracked by the {@link ThreadLeakDetector}
+   */
+  public static ThreadFactory newThreadFactory(String threadNamePrefix) {
+    return threadLeakDetector.track(Threads.newNamedDaemonThreadFactory(threadNamePrefix,
+        (t, e) -> logger.error("Uncaught exception in thread {}", t, e)));
+  }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service.support;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Monitors the memory that the JVM uses outside the heap, which no heap metric shows but which counts towards the memory limit of a
+ * container: the direct and mapped buffer pools, metaspace, compressed class space and the code cache. Each sample records the usage of
+ * each area and its growth per minute over a window, and a warning is logged when an area's usage crosses the usage threshold percentage
+ * of its limit (the limit of direct memory is MaxDirectMemorySize, which defaults to the max heap size).
+ * <p>
+ * Optionally, when the JVM is started with {@code -XX:NativeMemoryTracking=summary}, the output of the {@code VM.native_memory summary}
+ * diagnostic command is parsed to give the committed memory of each NMT category (see {@link #getNmtCommittedBytes()}).
+ */
+public class NativeMemoryMonitor extends AbstractMonitor {
+
+  private static final Logger logger = LogManager.getLogger(NativeMemoryMonitor.class);
+  private static final Pattern nmtCategoryPattern = Pattern.compile(
+      "^(?:-\\s*(.+?)\\s*\\(|(Total): )reserved=(\\d+)KB, committed=(\\d+)KB", Pattern.MULTILINE);
+  private static final String NMT_NOT_ENABLED = "Native memory tracking is not enabled";
+  private final List<Area> areas;
+  private volatile List<NativeMemoryStats> stats;
+  private volatile Map<String, Long> nmtCommittedBytes;
+  private long windowNanos;
+  private double usageThresholdPercent;
+  private boolean isNmtSummaryEnabled;
+
+  public NativeMemoryMonitor() {
+    areas = new ArrayList<>();
+    long maxDirectMemoryBytes = maxDirectMemoryBytes();
+    for (BufferPoolMXBean bufferPool : ManagementFactory.getPlatformMXBeans(
+        BufferPoolMXBean.class)) {
+      long limitBytes = "direct".equals(bufferPool.getName()) ? maxDirectMemoryBytes : -1;
+      areas.add(new Area("buffer pool " + bufferPool.getName(), bufferPool::getMemoryUsed,
+          () -> limitBytes));
+    }
+    for (MemoryPoolMXBean memoryPool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (memoryPool.getType() == MemoryType.NON_HEAP && memoryPool.isValid()) {
+        areas.add(new Area(memoryPool.getName(), () -> memoryPool.getUsage().getUsed(),
+            () -> memoryPool.getUsage().getMax()));
+      }
+    }
+    stats = List.of();
+    nmtCommittedBytes = Map.of();
+    configure(Duration.ofMinutes(10), 90, false);
+  }
+
+  /**
+   * Sets the window over which growth is measured, the percentage of an area's limit at which a warning is logged and if the NMT summary
+   * is sampled.
+   */
+  public synchronized void configure(Duration window, double usageThresholdPercent,
+      boolean isNmtSummaryEnabled) {
+    windowNanos = window.toNanos();
+    this.usageThresholdPercent = usageThresholdPercent;
+    this.isNmtSummaryEnabled = isNmtSummaryEnabled;
+  }
+
+  /**
+   * @return the stats of each area from the last sample
+   */
+  public List<NativeMemoryStats> getStats() {
+    return stats;
+  }
+
+  /**
+   * @return the committed bytes of each NMT category (including Total) from the last sample, empty if NMT is not enabled
+   */
+  public Map<String, Long> getNmtCommittedBytes() {
+    return nmtCommittedBytes;
+  }
+
+  @Override
+  protected synchronized void sample() {
+    long nowNanos = System.nanoTime();
+    List<NativeMemoryStats> currentStats = new ArrayList<>(areas.size());
+    for (Area area : areas) {
+      currentStats.add(area.sample(nowNanos));
+    }
+    stats = List.copyOf(currentStats);
+    if (isNmtSummaryEnabled) {
+      nmtCommittedBytes = parseNmtSummary(nmtSummary());
+    }
+  }
+
+  /**
+   * Parses the output of the {@code VM.native_memory summary} diagnostic command.
+   *
+   * @return the committed bytes of each category, in the order they are reported, empty if NMT is not enabled
+   */
+  public static Map<String, Long> parseNmtSummary(String summary) {
+    if (summary == null || summary.contains(NMT_NOT_ENABLED)) {
+      return Map.of();
+    }
+    Map<String, Long> committedBytes = new LinkedHashMap<>();
+    Matcher matcher = nmtCategoryPattern.matcher(summary);
+    while (matcher.find()) {
+      String category = matcher.group(1) == null ? matcher.group(2) : matcher.group(1);
+      committedBytes.putIfAbsent(category, Long.parseLong(matcher.group(4)) * 1024);
+    }
+    return committedBytes;
+  }
+
+  private static String nmtSummary() {
+    try {
+      return (String) ManagementFactory.getPlatformMBeanServer().invoke(
+          new ObjectName("com.sun.management:type=DiagnosticCommand"), "vmNativeMemory",
+          new Object[]{new String[]{"summary"}}, new String[]{String[].class.getName()});
+    } catch (JMException e) {
+      logger.warn("Unable to get the native memory tracking summary", e);
+      return null;
+    }
+  }
+
+  private static long maxDirectMemoryBytes() {
+    try {
+      long maxDirectMemoryBytes = Long.parseLong(ManagementFactory.getPlatformMXBean(
+          HotSpotDiagnosticMXBean.class).getVMOption("MaxDirectMemorySize").getValue());
+      return maxDirectMemoryBytes > 0 ? maxDirectMemoryBytes : Runtime.getRuntime().maxMemory();
+    } catch (RuntimeException e) {
+      return -1;
+    }
+  }
+
+  /**
+   * The usage of an area of memory outside the heap.
+   *
+   * @param name                 the name of the area, e.g. buffer pool direct or Metaspace
+   * @param usedBytes            the bytes used by the area
+   * @param limitBytes           the maximum bytes the area can use, -1 if it is not limited
+   * @param growthBytesPerMinute the growth of the used bytes per minute over the window
+   */
+  public record NativeMemoryStats(String name, long usedBytes, long limitBytes,
+                                  double growthBytesPerMinute) {
+
+    /**
+     * @return the percentage of the limit that is used, -1 if the area is not limited
+     */
+    public double usagePercent() {
+      return limitBytes > 0 ? 100.0 * usedBytes / limitBytes : -1;
+    }
+  }
+
+  private class Area {
+
+    private final String name;
+    private final LongSupplier usedBytes;
+    private final LongSupplier limitBytes;
+    private final Deque<long[]> samples;
+    private boolean isAboveThreshold;
+
+    Area(String name, LongSupplier usedBytes, LongSupplier limitBytes) {
+      this.name = name;
+      this.usedBytes = usedBytes;
+      this.limitBytes = limitBytes;
+      samples = new ArrayDeque<>();
+    }
+
+    NativeMemoryStats sample(long nowNanos) {
+      long used = usedBytes.getAsLong();
+      long limit = limitBytes.getAsLong();
+      samples.addLast(new long[]{nowNanos, used});
+      while (samples.size() > 1 && nowNanos - secondOldest()[0] >= windowNanos) {
+        samples.removeFirst();
+      }
+      long[] oldest = samples.peekFirst();
+      long spanNanos = nowNanos - oldest[0];
+      double growthBytesPerMinute =
+          spanNanos > 0 ? (used - oldest[1]) * 60_000_000_000.0 / spanNanos : 0;
+      NativeMemoryStats nativeMemoryStats = new NativeMemoryStats(name, used, limit,
+          growthBytesPerMinute);
+      boolean isAbove = limit > 0 && nativeMemoryStats.usagePercent() >= usageThresholdPercent;
+      if (isAbove && !isAboveThreshold) {
+        logger.warn("{} is using {} of its {} byte limit ({}%), it grew by {} bytes per minute",
+            name, used, limit, Math.round(nativeMemoryStats.usagePercent()),
+            Math.round(growthBytesPerMinute));
+      } else if (!isAbove && isAboveThreshold) {
+        logger.info("{} is using {} of its {} byte limit, it is below the threshold", name, used,
+            limit);
+      }
+      isAboveThreshold = isAbove;
+      return nativeMemoryStats;
+    }
+
+    private long[] secondOldest() {
+      Iterator<long[]> iterator = samples.iterator();
+      iterator.next();
+      return iterator.next();
+    }
+  }
+}
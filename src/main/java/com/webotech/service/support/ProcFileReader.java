@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service.support;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads small files from /proc into a reused buffer and parses numbers straight from the bytes, so that no strings are created for the
+ * values. A file that is read every sample should be kept open and read with {@link #read(FileChannel)}, which reads it from the start
+ * again (the kernel regenerates /proc files on a read at offset 0) so that it does not allocate. It is not thread safe.
+ */
+final class ProcFileReader {
+
+  private byte[] buffer;
+  private ByteBuffer byteBuffer;
+  private int length;
+
+  ProcFileReader(int capacity) {
+    buffer = new byte[capacity];
+    byteBuffer = ByteBuffer.wrap(buffer);
+  }
+
+  static byte[] key(String key) {
+    return key.getBytes(StandardCharsets.US_ASCII);
+  }
+
+  /**
+   * @return file opened for reading, null if it cannot be opened
+   */
+  static FileChannel open(Path file) {
+    try {
+      return FileChannel.open(file, StandardOpenOption.READ);
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Opens file, reads the whole of it into the buffer and closes it, see {@link #read(FileChannel)}.
+   *
+   * @return true if the file was read
+   */
+  boolean read(Path file) {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      return read(channel);
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Reads the whole of the file that channel is open on from the start into the buffer, growing it if needed.
+   *
+   * @return true if the file was read
+   */
+  boolean read(FileChannel channel) {
+    length = 0;
+    byteBuffer.clear();
+    try {
+      int n;
+      while ((n = channel.read(byteBuffer, length)) > 0) {
+        length += n;
+        if (length == buffer.length) {
+          buffer = Arrays.copyOf(buffer, buffer.length * 2);
+          byteBuffer = ByteBuffer.wrap(buffer);
+          byteBuffer.position(length);
+        }
+      }
+      return true;
+    } catch (IOException e) {
+      length = 0;
+      return false;
+    }
+  }
+
+  /**
+   * @return the number that follows key at the start of a line (e.g. VmRSS in "VmRSS:  1756 kB"), -1 if it is not found
+   */
+  long valueOf(byte[] key) {
+    for (int lineStart = 0; lineStart < length; ) {
+      if (startsWith(lineStart, key)) {
+        return parseLong(lineStart + key.length);
+      }
+      while (lineStart < length && buffer[lineStart] != '\n') {
+        lineStart++;
+      }
+      lineStart++;
+    }
+    return -1;
+  }
+
+  /**
+   * @return the number in field (1 based) of a stat file, where the second field is the command name in parentheses which can contain
+   * spaces, -1 if it is not found
+   */
+  long statField(int field) {
+    int i = length - 1;
+    while (i >= 0 && buffer[i] != ')') {
+      i--;
+    }
+    if (i < 0) {
+      return -1;
+    }
+    int currentField = 2;
+    for (i++; i < length && currentField < field; i++) {
+      if (buffer[i] == ' ') {
+        currentField++;
+      }
+    }
+    return currentField == field ? parseLong(i) : -1;
+  }
+
+  private boolean startsWith(int offset, byte[] key) {
+    if (offset + key.length > length) {
+      return false;
+    }
+    for (int i = 0; i < key.length; i++) {
+      if (buffer[offset + i] != key[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private long parseLong(int offset) {
+    int i = offset;
+    while (i < length && (buffer[i] == ' ' || buffer[i] == '\t' || buffer[i] == ':')) {
+      i++;
+    }
+    if (i == length || buffer[i] < '0' || buffer[i] > '9') {
+      return -1;
+    }
+    long value = 0;
+    while (i < length && buffer[i] >= '0' && buffer[i] <= '9') {
+      value = value * 10 + (buffer[i++] - '0');
+    }
+    return value;
+  }
+}
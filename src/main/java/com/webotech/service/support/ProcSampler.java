@@ -0,0 +1,339 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service.support;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Samples the OS level health of the process from /proc on Linux, the symptoms that the JVM's MXBeans miss: file descriptor exhaustion,
+ * RSS growth from native memory, heavy involuntary context switching and major page faults. A warning is logged when a value crosses its
+ * threshold and it is logged again when it recovers, a threshold that is not positive is disabled.
+ * <p>
+ * The status, stat and limits files of the process are kept open while sampling and are read again from the start into a reused buffer,
+ * and they are parsed without creating strings, so they cost one read each per sample. Listing the file descriptors and threads costs far
+ * more: each listing opens the directory, the JDK creates a {@link Path} for every entry and the status file of every thread is opened,
+ * read and closed, which is a few system calls and small allocations per thread and per open file descriptor. So the listings are only
+ * scanned once per scan period (1 minute by default, see {@link #configure(double, long, double, double, Duration)}) and a sample in
+ * between only reads the files that are kept open.
+ * <p>
+ * Page faults come from /proc/self/stat and RSS from /proc/self/status, both of which cover the whole process. Context switches in
+ * /proc/self/status and /proc/self/sched only cover the main thread, so they are summed from the status of each thread in
+ * /proc/self/task when it is scanned. On other operating systems, or if /proc is not mounted, nothing is sampled.
+ */
+public class ProcSampler extends AbstractMonitor {
+
+  private static final Logger logger = LogManager.getLogger(ProcSampler.class);
+  private static final String PROC_SELF = "/proc/self";
+  private static final byte[] VM_RSS = ProcFileReader.key("VmRSS:");
+  private static final byte[] VM_HWM = ProcFileReader.key("VmHWM:");
+  private static final byte[] THREADS = ProcFileReader.key("Threads:");
+  private static final byte[] VOLUNTARY_CTXT_SWITCHES = ProcFileReader.key(
+      "voluntary_ctxt_switches:");
+  private static final byte[] NONVOLUNTARY_CTXT_SWITCHES = ProcFileReader.key(
+      "nonvoluntary_ctxt_switches:");
+  private static final byte[] MAX_OPEN_FILES = ProcFileReader.key("Max open files");
+  private static final int MINOR_FAULTS_FIELD = 10;
+  private static final int MAJOR_FAULTS_FIELD = 12;
+  private static final int FD_USAGE = 0;
+  private static final int RSS = 1;
+  private static final int INVOLUNTARY_CONTEXT_SWITCHES = 2;
+  private static final int MAJOR_FAULTS = 3;
+  private static final int STATUS_FILE = 0;
+  private static final int STAT_FILE = 1;
+  private static final int LIMITS_FILE = 2;
+  private static final String STATUS = "status";
+  private final Path procDir;
+  private final Path[] files;
+  private final FileChannel[] channels;
+  private final Path fdDir;
+  private final Path taskDir;
+  private final ProcFileReader reader;
+  private final boolean[] isBreached;
+  private volatile long rssBytes;
+  private volatile long rssPeakBytes;
+  private volatile int threadCount;
+  private volatile int fdCount;
+  private volatile long fdLimit;
+  private volatile long voluntaryContextSwitches;
+  private volatile long involuntaryContextSwitches;
+  private volatile double involuntaryContextSwitchesPerSecond;
+  private volatile long minorFaults;
+  private volatile long majorFaults;
+  private volatile double majorFaultsPerSecond;
+  private double fdUsageThresholdPercent;
+  private long rssThresholdBytes;
+  private double involuntaryContextSwitchThresholdPerSecond;
+  private double majorFaultThresholdPerSecond;
+  private long scanPeriodNanos;
+  private long previousSampleNanos;
+  private long previousScanNanos;
+
+  public ProcSampler() {
+    this(PROC_SELF);
+  }
+
+  ProcSampler(String procDir) {
+    this.procDir = Path.of(procDir);
+    files = new Path[]{this.procDir.resolve(STATUS), this.procDir.resolve("stat"),
+        this.procDir.resolve("limits")};
+    channels = new FileChannel[files.length];
+    fdDir = this.procDir.resolve("fd");
+    taskDir = this.procDir.resolve("task");
+    reader = new ProcFileReader(4096);
+    isBreached = new boolean[4];
+    rssBytes = -1;
+    rssPeakBytes = -1;
+    threadCount = -1;
+    fdCount = -1;
+    fdLimit = -1;
+    voluntaryContextSwitches = -1;
+    involuntaryContextSwitches = -1;
+    minorFaults = -1;
+    majorFaults = -1;
+    configure(80, -1, 5000, 100, Duration.ofMinutes(1));
+  }
+
+  /**
+   * Sets the thresholds, a threshold that is not positive is disabled, and how often the file descriptors and threads are scanned.
+   *
+   * @param fdUsageThresholdPercent                    the percentage of the open files limit that the file descriptors can use
+   * @param rssThresholdBytes                          the resident set size of the process
+   * @param involuntaryContextSwitchThresholdPerSecond the rate of involuntary context switches of all threads
+   * @param majorFaultThresholdPerSecond               the rate of major page faults
+   * @param scanPeriod                                 the minimum time between scans of the file descriptors and threads, the first
+   *                                                   sample always scans them and {@link Duration#ZERO} scans them in every sample
+   */
+  public synchronized void configure(double fdUsageThresholdPercent, long rssThresholdBytes,
+      double involuntaryContextSwitchThresholdPerSecond, double majorFaultThresholdPerSecond,
+      Duration scanPeriod) {
+    this.fdUsageThresholdPercent = fdUsageThresholdPercent;
+    this.rssThresholdBytes = rssThresholdBytes;
+    this.involuntaryContextSwitchThresholdPerSecond = involuntaryContextSwitchThresholdPerSecond;
+    this.majorFaultThresholdPerSecond = majorFaultThresholdPerSecond;
+    this.scanPeriodNanos = scanPeriod.toNanos();
+  }
+
+  /**
+   * @return true if /proc is available for the process
+   */
+  public boolean isSupported() {
+    return Files.isDirectory(procDir);
+  }
+
+  /**
+   * @return the resident set size of the process, -1 if it is not known
+   */
+  public long getRssBytes() {
+    return rssBytes;
+  }
+
+  /**
+   * @return the peak resident set size of the process, -1 if it is not known
+   */
+  public long getRssPeakBytes() {
+    return rssPeakBytes;
+  }
+
+  public int getThreadCount() {
+    return threadCount;
+  }
+
+  /**
+   * @return the number of open file descriptors, -1 if it is not known
+   */
+  public int getFdCount() {
+    return fdCount;
+  }
+
+  /**
+   * @return the soft limit of open files, -1 if it is unlimited or not known
+   */
+  public long getFdLimit() {
+    return fdLimit;
+  }
+
+  public long getVoluntaryContextSwitches() {
+    return voluntaryContextSwitches;
+  }
+
+  public long getInvoluntaryContextSwitches() {
+    return involuntaryContextSwitches;
+  }
+
+  /**
+   * @return the rate of involuntary context switches of all threads since the previous scan
+   */
+  public double getInvoluntaryContextSwitchesPerSecond() {
+    return involuntaryContextSwitchesPerSecond;
+  }
+
+  public long getMinorFaults() {
+    return minorFaults;
+  }
+
+  public long getMajorFaults() {
+    return majorFaults;
+  }
+
+  /**
+   * @return the rate of major page faults since the previous sample
+   */
+  public double getMajorFaultsPerSecond() {
+    return majorFaultsPerSecond;
+  }
+
+  @Override
+  protected synchronized void sample() {
+    long nowNanos = System.nanoTime();
+    double intervalSeconds = (nowNanos - previousSampleNanos) / 1_000_000_000.0;
+    boolean hasPrevious = previousSampleNanos != 0 && intervalSeconds > 0;
+    previousSampleNanos = nowNanos;
+    if (read(STATUS_FILE)) {
+      rssBytes = kibToBytes(reader.valueOf(VM_RSS));
+      rssPeakBytes = kibToBytes(reader.valueOf(VM_HWM));
+      threadCount = (int) reader.valueOf(THREADS);
+    }
+    if (read(STAT_FILE)) {
+      minorFaults = reader.statField(MINOR_FAULTS_FIELD);
+      long currentMajorFaults = reader.statField(MAJOR_FAULTS_FIELD);
+      majorFaultsPerSecond = hasPrevious && majorFaults >= 0
+          ? Math.max(0, currentMajorFaults - majorFaults) / intervalSeconds : 0;
+      majorFaults = currentMajorFaults;
+    }
+    if (fdLimit < 0 && read(LIMITS_FILE)) {
+      fdLimit = reader.valueOf(MAX_OPEN_FILES);
+    }
+    if (previousScanNanos == 0 || nowNanos - previousScanNanos >= scanPeriodNanos) {
+      double scanIntervalSeconds = (nowNanos - previousScanNanos) / 1_000_000_000.0;
+      boolean hasPreviousScan = previousScanNanos != 0 && scanIntervalSeconds > 0;
+      previousScanNanos = nowNanos;
+      // Listing the file descriptors opens one for the directory
+      fdCount = Math.max(-1, countEntries(fdDir) - 1);
+      sampleContextSwitches(hasPreviousScan, scanIntervalSeconds);
+    }
+    checkThresholds();
+  }
+
+  /**
+   * Stops sampling and closes the files that are kept open between samples, they are opened again by the next sample.
+   */
+  @Override
+  public synchronized void stop() {
+    super.stop();
+    for (int i = 0; i < channels.length; i++) {
+      close(i);
+    }
+  }
+
+  /**
+   * Reads one of the files that are kept open, it is opened on first use and it is closed if it cannot be read so that the next sample
+   * opens it again.
+   */
+  private boolean read(int file) {
+    if (channels[file] == null) {
+      channels[file] = ProcFileReader.open(files[file]);
+    }
+    if (channels[file] != null && reader.read(channels[file])) {
+      return true;
+    }
+    close(file);
+    return false;
+  }
+
+  private void close(int file) {
+    if (channels[file] != null) {
+      try {
+        channels[file].close();
+      } catch (IOException e) {
+        logger.debug("Unable to close {}", files[file], e);
+      }
+      channels[file] = null;
+    }
+  }
+
+  private void sampleContextSwitches(boolean hasPrevious, double intervalSeconds) {
+    long voluntary = 0;
+    long involuntary = 0;
+    try (DirectoryStream<Path> tasks = Files.newDirectoryStream(taskDir)) {
+      for (Path task : tasks) {
+        if (reader.read(task.resolve(STATUS))) {
+          voluntary += Math.max(0, reader.valueOf(VOLUNTARY_CTXT_SWITCHES));
+          involuntary += Math.max(0, reader.valueOf(NONVOLUNTARY_CTXT_SWITCHES));
+        }
+      }
+    } catch (IOException e) {
+      return;
+    }
+    // Threads that exit take their context switches with them, so the total can go down
+    involuntaryContextSwitchesPerSecond = hasPrevious && involuntaryContextSwitches >= 0
+        ? Math.max(0, involuntary - involuntaryContextSwitches) / intervalSeconds : 0;
+    voluntaryContextSwitches = voluntary;
+    involuntaryContextSwitches = involuntary;
+  }
+
+  private void checkThresholds() {
+    double fdUsagePercent = fdLimit > 0 && fdCount >= 0 ? 100.0 * fdCount / fdLimit : 0;
+    boolean isBreaching =
+        fdUsageThresholdPercent > 0 && fdUsagePercent >= fdUsageThresholdPercent;
+    if (hasChanged(FD_USAGE, isBreaching)) {
+      logThreshold(isBreaching, "File descriptors",
+          fdCount + " of " + fdLimit + " open files are used");
+    }
+    isBreaching = rssThresholdBytes > 0 && rssBytes >= rssThresholdBytes;
+    if (hasChanged(RSS, isBreaching)) {
+      logThreshold(isBreaching, "RSS",
+          "it is " + rssBytes + " bytes, the threshold is " + rssThresholdBytes + " bytes");
+    }
+    isBreaching = involuntaryContextSwitchThresholdPerSecond > 0
+        && involuntaryContextSwitchesPerSecond >= involuntaryContextSwitchThresholdPerSecond;
+    if (hasChanged(INVOLUNTARY_CONTEXT_SWITCHES, isBreaching)) {
+      logThreshold(isBreaching, "Involuntary context switches",
+          Math.round(involuntaryContextSwitchesPerSecond) + " per second");
+    }
+    isBreaching =
+        majorFaultThresholdPerSecond > 0 && majorFaultsPerSecond >= majorFaultThresholdPerSecond;
+    if (hasChanged(MAJOR_FAULTS, isBreaching)) {
+      logThreshold(isBreaching, "Major page faults",
+          Math.round(majorFaultsPerSecond) + " per second");
+    }
+  }
+
+  private boolean hasChanged(int index, boolean isBreaching) {
+    boolean hasChanged = isBreached[index] != isBreaching;
+    isBreached[index] = isBreaching;
+    return hasChanged;
+  }
+
+  private static void logThreshold(boolean isBreaching, String name, String description) {
+    if (isBreaching) {
+      logger.warn("{} crossed the threshold, {}", name, description);
+    } else {
+      logger.info("{} recovered, {}", name, description);
+    }
+  }
+
+  private static int countEntries(Path dir) {
+    int count = 0;
+    try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+      for (Path ignored : entries) {
+        count++;
+      }
+    } catch (IOException e) {
+      return -1;
+    }
+    return count;
+  }
+
+  private static long kibToBytes(long kib) {
+    return kib < 0 ? -1 : kib * 1024;
+  }
+}
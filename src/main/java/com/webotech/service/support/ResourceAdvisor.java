@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service.support;
+
+import com.webotech.service.data.CgroupLimits;
+
+/**
+ * Recommends thread pool sizes and memory budgets from the resources that are available to the process, which in a container are the
+ * {@link CgroupLimits} rather than the resources of the host. Subsystems can use it to size their pools and caches instead of assuming
+ * they have the whole host.
+ * <p>
+ * The effective processor count is the smallest of the processors available to the JVM, the CPU quota (rounded up) and the cpuset. The
+ * memory limit is the cgroup memory limit, or the physical memory of the host if it is unlimited. Memory budgets leave a reserve for the
+ * JVM's own non-heap memory (metaspace, code cache, thread stacks etc.) that is the larger of the non-heap memory committed when the
+ * advisor was created and the reserve percentage of the memory limit.
+ */
+public class ResourceAdvisor {
+
+  private static final double HEAP_PERCENT = 75;
+  private static final double NON_HEAP_RESERVE_PERCENT = 10;
+  private final CgroupLimits cgroupLimits;
+  private final int effectiveProcessors;
+  private final long memoryLimitBytes;
+  private final long maxHeapBytes;
+  private final long nonHeapReserveBytes;
+
+  /**
+   * @param cgroupLimits          the limits of the cgroup the process runs in
+   * @param availableProcessors   the processors available to the JVM
+   * @param physicalMemoryBytes   the physical memory of the host
+   * @param maxHeapBytes          the maximum heap size of the JVM
+   * @param nonHeapCommittedBytes the non-heap memory currently committed by the JVM
+   */
+  public ResourceAdvisor(CgroupLimits cgroupLimits, int availableProcessors,
+      long physicalMemoryBytes, long maxHeapBytes, long nonHeapCommittedBytes) {
+    this.cgroupLimits = cgroupLimits;
+    int processors = availableProcessors;
+    double cpuLimit = cgroupLimits.cpuLimit();
+    if (cpuLimit > 0) {
+      processors = Math.min(processors, (int) Math.ceil(cpuLimit));
+    }
+    int cpusetCount = cgroupLimits.cpusetCount();
+    if (cpusetCount > 0) {
+      processors = Math.min(processors, cpusetCount);
+    }
+    effectiveProcessors = Math.max(1, processors);
+    memoryLimitBytes = cgroupLimits.memoryLimitBytes() > 0 ? cgroupLimits.memoryLimitBytes()
+        : physicalMemoryBytes;
+    this.maxHeapBytes = maxHeapBytes;
+    nonHeapReserveBytes = Math.max(nonHeapCommittedBytes,
+        (long) (memoryLimitBytes * NON_HEAP_RESERVE_PERCENT / 100));
+  }
+
+  public CgroupLimits getCgroupLimits() {
+    return cgroupLimits;
+  }
+
+  /**
+   * @return the number of processors the process can actually use
+   */
+  public int getEffectiveProcessors() {
+    return effectiveProcessors;
+  }
+
+  /**
+   * @return the memory the process can use, the cgroup memory limit or the physical memory of the host if it is unlimited
+   */
+  public long getMemoryLimitBytes() {
+    return memoryLimitBytes;
+  }
+
+  /**
+   * @return the recommended size of a pool for CPU bound tasks, one thread per effective processor
+   */
+  public int cpuBoundPoolSize() {
+    return effectiveProcessors;
+  }
+
+  /**
+   * @param waitToComputeRatio the ratio of the time a task spends waiting (e.g. for I/O) to the time it spends computing
+   * @return the recommended size of a pool for tasks that block, so that the effective processors are kept busy
+   */
+  public int blockingPoolSize(double waitToComputeRatio) {
+    if (waitToComputeRatio < 0) {
+      throw new IllegalArgumentException("Wait to compute ratio must not be negative");
+    }
+    return (int) Math.min(Integer.MAX_VALUE,
+        Math.ceil(effectiveProcessors * (1 + waitToComputeRatio)));
+  }
+
+  /**
+   * @return the recommended maximum heap size, a percentage of the memory limit that leaves room for non-heap memory
+   */
+  public long recommendedHeapBytes() {
+    return (long) (memoryLimitBytes * HEAP_PERCENT / 100);
+  }
+
+  /**
+   * @return the memory that is left for off-heap use (e.g. direct buffers, memory mapped files or off-heap caches) after the maximum heap
+   * and the non-heap reserve are taken from the memory limit, 0 if there is none
+   */
+  public long offHeapBudgetBytes() {
+    return Math.max(0, memoryLimitBytes - maxHeapBytes - nonHeapReserveBytes);
+  }
+
+  /**
+   * @param percent the percentage of the maximum heap that a cache can use
+   * @return the budget for an on-heap cache
+   */
+  public long heapBudgetBytes(double percent) {
+    if (percent <= 0 || percent > 100) {
+      throw new IllegalArgumentException("Percent must be in (0, 100]");
+    }
+    return (long) (maxHeapBytes * percent / 100);
+  }
+
+  @Override
+  public String toString() {
+    return "Effective processors " + effectiveProcessors + ", memory limit " + memoryLimitBytes
+        + " bytes, recommended heap " + recommendedHeapBytes() + " bytes, off-heap budget "
+        + offHeapBudgetBytes() + " bytes";
+  }
+}
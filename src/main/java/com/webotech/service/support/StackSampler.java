@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service.support;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.Thread.State;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.stream.Stream;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * An in-process sampling profiler that periodically takes a snapshot of the stacks of all runnable threads and aggregates them in the
+ * collapsed stack format that flame graph tools consume, i.e. one line per distinct stack with the frames from root to leaf separated by
+ * semicolons followed by the number of times it was sampled:
+ * <pre>
+ * java.lang.Thread.run;com.acme.Pricer.price;com.acme.Curve.interpolate 42
+ * </pre>
+ * The aggregated stacks are written to a new file in a directory every flush period, the oldest files are deleted so that there are
+ * never more than a maximum number of files.
+ * <p>
+ * The cost of sampling is bounded by a CPU budget, the percentage of a single CPU that sampling is allowed to use. After each sample,
+ * the samples that follow are skipped for long enough to keep the CPU time spent sampling within the budget. Sampling can be switched on
+ * and off at runtime using {@link #setActive(boolean)}, when it is not active nothing is sampled.
+ */
+public class StackSampler extends AbstractMonitor {
+
+  private static final Logger logger = LogManager.getLogger(StackSampler.class);
+  private static final DateTimeFormatter fileTimestampFormatter = DateTimeFormatter.ofPattern(
+      "yyyyMMdd-HHmmss-SSS");
+  static final String FILE_PREFIX = "stacks-";
+  static final String FILE_SUFFIX = ".collapsed";
+  private final ThreadMXBean threadMxBean;
+  private final Map<String, long[]> collapsedStacks;
+  private final StringBuilder stackBuilder;
+  private volatile boolean isActive;
+  private Path directory;
+  private int maxFiles;
+  private long flushPeriodNanos;
+  private double cpuBudgetPercent;
+  private int maxDepth;
+  private long lastFlushNanos;
+  private long nextSampleNanos;
+  private long sampleCount;
+  private long skippedCount;
+
+  public StackSampler() {
+    threadMxBean = ManagementFactory.getThreadMXBean();
+    collapsedStacks = new HashMap<>();
+    stackBuilder = new StringBuilder(1024);
+    isActive = true;
+    configure(Path.of("stack-samples"), 10, Duration.ofMinutes(1), 1.0, 128);
+  }
+
+  /**
+   * Sets where and how often the collapsed stacks are written, the CPU budget as a percentage of a single CPU and the maximum number of
+   * frames sampled for each stack.
+   */
+  public synchronized void configure(Path directory, int maxFiles, Duration flushPeriod,
+      double cpuBudgetPercent, int maxDepth) {
+    if (cpuBudgetPercent <= 0 || cpuBudgetPercent > 100) {
+      throw new IllegalArgumentException(
+          "CPU budget must be more than 0 and at most 100 percent, it is " + cpuBudgetPercent);
+    }
+    this.directory = directory;
+    this.maxFiles = maxFiles;
+    this.flushPeriodNanos = flushPeriod.toNanos();
+    this.cpuBudgetPercent = cpuBudgetPercent;
+    this.maxDepth = maxDepth;
+  }
+
+  @Override
+  public synchronized void start(ScheduledExecutorService scheduler, Duration period) {
+    lastFlushNanos = System.nanoTime();
+    nextSampleNanos = lastFlushNanos;
+    super.start(scheduler, period);
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (isRunning()) {
+      super.stop();
+      flush();
+    }
+  }
+
+  /**
+   * Switches sampling on or off at runtime.
+   */
+  public void setActive(boolean isActive) {
+    this.isActive = isActive;
+  }
+
+  public boolean isActive() {
+    return isActive;
+  }
+
+  /**
+   * @return the number of samples that have been taken and the number that were skipped to stay within the CPU budget
+   */
+  public synchronized long[] getSampleCounts() {
+    return new long[]{sampleCount, skippedCount};
+  }
+
+  /**
+   * @return a copy of the collapsed stacks that have been aggregated since they were last written
+   */
+  public synchronized Map<String, Long> getCollapsedStacks() {
+    Map<String, Long> copy = new HashMap<>();
+    collapsedStacks.forEach((stack, count) -> copy.put(stack, count[0]));
+    return copy;
+  }
+
+  @Override
+  protected synchronized void sample() {
+    long nowNanos = System.nanoTime();
+    if (isActive) {
+      if (nowNanos - nextSampleNanos >= 0) {
+        long cpuStartNanos = threadMxBean.getCurrentThreadCpuTime();
+        takeSample();
+        long costNanos = Math.max(0, threadMxBean.getCurrentThreadCpuTime() - cpuStartNanos);
+        nextSampleNanos = nowNanos + (long) (costNanos * 100 / cpuBudgetPercent);
+        sampleCount++;
+      } else {
+        skippedCount++;
+      }
+    }
+    if (nowNanos - lastFlushNanos >= flushPeriodNanos) {
+      flush();
+      lastFlushNanos = nowNanos;
+    }
+  }
+
+  private void takeSample() {
+    long samplerThreadId = Thread.currentThread().getId();
+    for (ThreadInfo threadInfo : threadMxBean.dumpAllThreads(false, false, maxDepth)) {
+      StackTraceElement[] stackTrace = threadInfo.getStackTrace();
+      if (threadInfo.getThreadState() != State.RUNNABLE || stackTrace.length == 0
+          || threadInfo.getThreadId() == samplerThreadId) {
+        continue;
+      }
+      stackBuilder.setLength(0);
+      for (int i = stackTrace.length - 1; i >= 0; i--) {
+        stackBuilder.append(stackTrace[i].getClassName()).append('.')
+            .append(stackTrace[i].getMethodName());
+        if (i > 0) {
+          stackBuilder.append(';');
+        }
+      }
+      String stack = stackBuilder.toString();
+      long[] count = collapsedStacks.get(stack);
+      if (count == null) {
+        collapsedStacks.put(stack, new long[]{1});
+      } else {
+        count[0]++;
+      }
+    }
+  }
+
+  private void flush() {
+    if (collapsedStacks.isEmpty()) {
+      return;
+    }
+    Path file = directory.resolve(
+        FILE_PREFIX + LocalDateTime.now().format(fileTimestampFormatter) + FILE_SUFFIX);
+    try {
+      Files.createDirectories(directory);
+      try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+        for (Entry<String, long[]> entry : collapsedStacks.entrySet()) {
+          writer.append(entry.getKey()).append(' ').append(String.valueOf(entry.getValue()[0]));
+          writer.newLine();
+        }
+      }
+      deleteOldestFiles();
+    } catch (IOException e) {
+      logger.error("Failed to write collapsed stacks to {}", file, e);
+    }
+    collapsedStacks.clear();
+  }
+
+  private void deleteOldestFiles() throws IOException {
+    List<Path> files;
+    try (Stream<Path> paths = Files.list(directory)) {
+      files = paths.filter(p -> {
+        String fileName = p.getFileName().toString();
+        return fileName.startsWith(FILE_PREFIX) && fileName.endsWith(FILE_SUFFIX);
+      }).sorted().toList();
+    }
+    for (int i = 0; i < files.size() - maxFiles; i++) {
+      Files.deleteIfExists(files.get(i));
+    }
+  }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service.support;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Watches the threads that an app registers (such as the state machine thread or event loop threads) for stalls. A deadlock is not the
+ * only way a thread gets stuck, it can be stuck in a long GC, a slow I/O call or a spin loop, none of which are reported as a deadlock.
+ * <p>
+ * A registered thread calls {@link Heartbeat#beat()} each time it makes progress (e.g. once per event it processes). If a
+ * {@link Heartbeat} has not advanced within the stall threshold the thread's stack is captured and logged, at most once per log interval
+ * for each {@link Heartbeat}, the stall count is incremented and the stall is reported to {@link Incidents}. A thread that is legitimately
+ * waiting for work calls {@link Heartbeat#idle()} before it waits so that it is not reported as stalled.
+ * <pre>
+ *   Heartbeat heartbeat = SupportSubsystem.getStallWatchdog().register(Thread.currentThread());
+ *   while (isRunning) {
+ *     heartbeat.idle();
+ *     Event event = queue.take();
+ *     heartbeat.beat();
+ *     process(event);
+ *   }
+ * </pre>
+ */
+public class StallWatchdog extends AbstractMonitor {
+
+  private static final Logger logger = LogManager.getLogger(StallWatchdog.class);
+  private final List<Heartbeat> heartbeats;
+  private final ThreadMXBean threadMxBean;
+  private final LongAdder stallCount;
+  private volatile long thresholdNanos;
+  private volatile long logIntervalNanos;
+
+  public StallWatchdog() {
+    heartbeats = new CopyOnWriteArrayList<>();
+    threadMxBean = ManagementFactory.getThreadMXBean();
+    stallCount = new LongAdder();
+    configure(Duration.ofSeconds(5), Duration.ofMinutes(1));
+  }
+
+  /**
+   * Sets how long a {@link Heartbeat} can go without advancing before its thread is considered stalled and the minimum interval between
+   * logging stalls of the same thread.
+   */
+  public void configure(Duration threshold, Duration logInterval) {
+    thresholdNanos = threshold.toNanos();
+    logIntervalNanos = logInterval.toNanos();
+  }
+
+  /**
+   * Registers thread to be watched.
+   *
+   * @return the {@link Heartbeat} that thread needs to use to report progress
+   */
+  public Heartbeat register(Thread thread) {
+    Heartbeat heartbeat = new Heartbeat(thread, System.nanoTime());
+    heartbeats.add(heartbeat);
+    return heartbeat;
+  }
+
+  /**
+   * Stops watching the thread that uses heartbeat.
+   */
+  public void deregister(Heartbeat heartbeat) {
+    heartbeats.remove(heartbeat);
+  }
+
+  /**
+   * @return the {@link Heartbeat}s that are being watched
+   */
+  public List<Heartbeat> getHeartbeats() {
+    return List.copyOf(heartbeats);
+  }
+
+  /**
+   * @return the number of stalls that have been detected across all threads
+   */
+  public long getStallCount() {
+    return stallCount.sum();
+  }
+
+  /**
+   * @return the number of threads that are currently stalled
+   */
+  public int getStalledThreadCount() {
+    return (int) heartbeats.stream().filter(Heartbeat::isStalled).count();
+  }
+
+  @Override
+  protected void sample() {
+    long nowNanos = System.nanoTime();
+    for (Heartbeat heartbeat : heartbeats) {
+      if (!heartbeat.thread.isAlive()) {
+        heartbeats.remove(heartbeat);
+      } else if (heartbeat.isStalled(nowNanos, thresholdNanos)) {
+        onStall(heartbeat, nowNanos);
+      }
+    }
+  }
+
+  private void onStall(Heartbeat heartbeat, long nowNanos) {
+    if (!heartbeat.isStalled) {
+      heartbeat.isStalled = true;
+      stallCount.increment();
+      Incidents.report(Incidents.STALL, "Thread " + heartbeat.getName() + " has stalled");
+    }
+    if (!heartbeat.isStallLogged || nowNanos - heartbeat.lastLoggedNanos >= logIntervalNanos) {
+      heartbeat.isStallLogged = true;
+      heartbeat.lastLoggedNanos = nowNanos;
+      ThreadInfo threadInfo = threadMxBean.getThreadInfo(heartbeat.thread.getId(), Integer.MAX_VALUE);
+      if (threadInfo != null && logger.isWarnEnabled()) {
+        logger.warn("Thread {} has stalled, its heartbeat has not advanced for {} millis:\n{}",
+            heartbeat.getName(), Duration.ofNanos(nowNanos - heartbeat.advancedNanos).toMillis(),
+            stackTrace(threadInfo));
+      }
+    }
+  }
+
+  private static String stackTrace(ThreadInfo threadInfo) {
+    StringBuilder sb = new StringBuilder().append('"').append(threadInfo.getThreadName())
+        .append("\" ").append(threadInfo.getThreadState());
+    if (threadInfo.getLockName() != null) {
+      sb.append(" on ").append(threadInfo.getLockName());
+    }
+    if (threadInfo.getLockOwnerName() != null) {
+      sb.append(" owned by \"").append(threadInfo.getLockOwnerName()).append('"');
+    }
+    sb.append('\n');
+    for (StackTraceElement element : threadInfo.getStackTrace()) {
+      sb.append("\tat ").append(element).append('\n');
+    }
+    return sb.toString();
+  }
+
+  /**
+   * The progress counter for a thread that is watched by a {@link StallWatchdog}. It is designed to be cheap enough to be used on a hot
+   * path, only the registered thread should call {@link #beat()} and {@link #idle()}.
+   */
+  public static class Heartbeat {
+
+    private final Thread thread;
+    private final AtomicLong count;
+    private volatile boolean isIdle;
+    private volatile boolean isStalled;
+    private long lastSeenCount;
+    private long advancedNanos;
+    private long lastLoggedNanos;
+    private boolean isStallLogged;
+
+    Heartbeat(Thread thread, long nowNanos) {
+      this.thread = thread;
+      count = new AtomicLong();
+      advancedNanos = nowNanos;
+    }
+
+    /**
+     * Reports that the thread has made progress.
+     */
+    public void beat() {
+      count.lazySet(count.get() + 1);
+      if (isIdle) {
+        isIdle = false;
+      }
+    }
+
+    /**
+     * Reports that the thread is about to wait for work, it is not considered stalled until after the next {@link #beat()}.
+     */
+    public void idle() {
+      isIdle = true;
+    }
+
+    public String getName() {
+      return thread.getName();
+    }
+
+    /**
+     * @return the number of times the thread has reported progress
+     */
+    public long getCount() {
+      return count.get();
+    }
+
+    /**
+     * @return true if the thread was stalled the last time it was checked
+     */
+    public boolean isStalled() {
+      return isStalled;
+    }
+
+    private boolean isStalled(long nowNanos, long thresholdNanos) {
+      long currentCount = count.get();
+      if (isIdle || currentCount != lastSeenCount) {
+        lastSeenCount = currentCount;
+        advancedNanos = nowNanos;
+        isStalled = false;
+        isStallLogged = false;
+        return false;
+      }
+      return nowNanos - advancedNanos > thresholdNanos;
+    }
+  }
+}
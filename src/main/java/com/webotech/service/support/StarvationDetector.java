@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service.support;
+
+import java.lang.Thread.State;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Detects threads that have been waiting for a lock for a long time, e.g. because of a lock convoy or starvation. These threads are not
+ * deadlocked, so the {@link DeadlockDetector} ignores them, but they are an early warning that throughput is about to collapse.
+ * <p>
+ * Each sample finds the threads that are blocked entering a monitor or waiting for a j.u.c. lock that is owned by another thread and tracks
+ * how long each has been waiting for the same lock across samples. When a thread has been waiting for longer than the threshold, it is
+ * logged along with the stack of the thread that owns the lock (at most once per log interval for each thread) and it is reported to
+ * {@link Incidents}. The threads that are currently starved are available using {@link #getStarvedThreads()}.
+ */
+public class StarvationDetector extends AbstractMonitor {
+
+  private static final Logger logger = LogManager.getLogger(StarvationDetector.class);
+  private final ThreadMXBean threadMxBean;
+  private final Map<Long, Waiter> waiters;
+  private volatile List<StarvedThread> starvedThreads;
+  private long thresholdNanos;
+  private long logIntervalNanos;
+
+  public StarvationDetector() {
+    threadMxBean = ManagementFactory.getThreadMXBean();
+    waiters = new HashMap<>();
+    starvedThreads = List.of();
+    configure(Duration.ofSeconds(30), Duration.ofMinutes(1));
+  }
+
+  /**
+   * Sets how long a thread can wait for the same lock before it is considered starved and the minimum interval between logging the same
+   * starved thread.
+   */
+  public synchronized void configure(Duration threshold, Duration logInterval) {
+    thresholdNanos = threshold.toNanos();
+    logIntervalNanos = logInterval.toNanos();
+  }
+
+  /**
+   * @return the threads that were starved in the last sample, the longest waiting first
+   */
+  public List<StarvedThread> getStarvedThreads() {
+    return starvedThreads;
+  }
+
+  @Override
+  protected synchronized void sample() {
+    long nowNanos = System.nanoTime();
+    Map<Long, Waiter> currentWaiters = new HashMap<>();
+    List<StarvedThread> currentStarvedThreads = new ArrayList<>();
+    for (ThreadInfo threadInfo : threadMxBean.getThreadInfo(threadMxBean.getAllThreadIds(), 0)) {
+      if (threadInfo == null || !isWaitingForOwnedLock(threadInfo)) {
+        continue;
+      }
+      Waiter waiter = waiters.get(threadInfo.getThreadId());
+      if (waiter == null || !waiter.lockName.equals(threadInfo.getLockName())) {
+        waiter = new Waiter(threadInfo.getLockName(), nowNanos);
+      }
+      currentWaiters.put(threadInfo.getThreadId(), waiter);
+      long waitedNanos = nowNanos - waiter.sinceNanos;
+      if (waitedNanos > thresholdNanos) {
+        StarvedThread starvedThread = new StarvedThread(threadInfo.getThreadName(),
+            threadInfo.getLockName(), threadInfo.getLockOwnerName(),
+            Duration.ofNanos(waitedNanos).toMillis());
+        currentStarvedThreads.add(starvedThread);
+        if (!waiter.isReported || nowNanos - waiter.lastLoggedNanos >= logIntervalNanos) {
+          onStarved(waiter, starvedThread, threadInfo.getLockOwnerId(), nowNanos);
+        }
+      }
+    }
+    waiters.clear();
+    waiters.putAll(currentWaiters);
+    currentStarvedThreads.sort((t1, t2) -> Long.compare(t2.waitedMillis(), t1.waitedMillis()));
+    starvedThreads = List.copyOf(currentStarvedThreads);
+  }
+
+  private void onStarved(Waiter waiter, StarvedThread starvedThread, long ownerId, long nowNanos) {
+    if (!waiter.isReported) {
+      waiter.isReported = true;
+      Incidents.report(Incidents.STARVATION, starvedThread.toString());
+    }
+    waiter.lastLoggedNanos = nowNanos;
+    ThreadInfo ownerInfo = threadMxBean.getThreadInfo(ownerId, Integer.MAX_VALUE);
+    if (logger.isWarnEnabled()) {
+      logger.warn("{}, the owner's stack is:\n{}", starvedThread,
+          ownerInfo == null ? "unavailable\n" : stackTrace(ownerInfo));
+    }
+  }
+
+  private static boolean isWaitingForOwnedLock(ThreadInfo threadInfo) {
+    State state = threadInfo.getThreadState();
+    return threadInfo.getLockName() != null && threadInfo.getLockOwnerId() != -1 && (
+        state == State.BLOCKED || state == State.WAITING || state == State.TIMED_WAITING);
+  }
+
+  private static String stackTrace(ThreadInfo threadInfo) {
+    StringBuilder sb = new StringBuilder().append('"').append(threadInfo.getThreadName())
+        .append("\" ").append(threadInfo.getThreadState()).append('\n');
+    for (StackTraceElement element : threadInfo.getStackTrace()) {
+      sb.append("\tat ").append(element).append('\n');
+    }
+    return sb.toString();
+  }
+
+  /**
+   * A thread that has been waiting for a lock for longer than the threshold.
+   *
+   * @param threadName   the name of the waiting thread
+   * @param lockName     the class name and identity hash code of the lock
+   * @param ownerName    the name of the thread that owns the lock
+   * @param waitedMillis how long the thread has been waiting for the lock
+   */
+  public record StarvedThread(String threadName, String lockName, String ownerName,
+                              long waitedMillis) {
+
+    @Override
+    public String toString() {
+      return "Thread " + threadName + " has been waiting for " + lockName + " for " + waitedMillis
+          + " millis, it is owned by " + ownerName;
+    }
+  }
+
+  private static class Waiter {
+
+    private final String lockName;
+    private final long sinceNanos;
+    private long lastLoggedNanos;
+    private boolean isReported;
+
+    Waiter(String lockName, long sinceNanos) {
+      this.lockName = lockName;
+      this.sinceNanos = sinceNanos;
+    }
+  }
+}
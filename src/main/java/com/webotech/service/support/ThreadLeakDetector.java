@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service.support;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.WeakHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.stream.Collectors;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Detects thread leaks by tracking the trend of the live thread count, when the count grows faster than the maximum growth rate over a
+ * window a warning is logged (at most once per log interval) and it is reported to {@link Incidents}.
+ * <p>
+ * Optionally, the site where each thread is created is recorded for threads made by a thread factory that is tracked (see
+ * {@link #track(ThreadFactory)}), such as the ones used by the {@link com.webotech.service.ExecutorSubsystem}. The warning then includes
+ * the live threads grouped by where they were created, which usually points straight at the leak. Recording the creation site captures a
+ * stack trace each time a thread is created so it is off by default.
+ */
+public class ThreadLeakDetector extends AbstractMonitor {
+
+  private static final Logger logger = LogManager.getLogger(ThreadLeakDetector.class);
+  private static final int MAX_CREATION_SITE_FRAMES = 8;
+  private static final int MAX_REPORTED_CREATION_SITES = 10;
+  private final ThreadMXBean threadMxBean;
+  private final Deque<long[]> threadCounts;
+  private final Map<Thread, String> creationSites;
+  private volatile boolean isTrackingCreationSites;
+  private volatile double growthPerMinute;
+  private long windowNanos;
+  private double maxGrowthPerMinute;
+  private long logIntervalNanos;
+  private long lastLoggedNanos;
+  private boolean hasLogged;
+
+  public ThreadLeakDetector() {
+    threadMxBean = ManagementFactory.getThreadMXBean();
+    threadCounts = new ArrayDeque<>();
+    creationSites = Collections.synchronizedMap(new WeakHashMap<>());
+    configure(Duration.ofMinutes(5), 10, Duration.ofMinutes(5), false);
+  }
+
+  /**
+   * Sets the window over which the thread count trend is measured, the maximum acceptable growth in threads per minute, the minimum
+   * interval between logging leaks and if the creation sites of threads made by tracked thread factories are recorded.
+   */
+  public synchronized void configure(Duration window, double maxGrowthPerMinute,
+      Duration logInterval, boolean isTrackingCreationSites) {
+    windowNanos = window.toNanos();
+    this.maxGrowthPerMinute = maxGrowthPerMinute;
+    logIntervalNanos = logInterval.toNanos();
+    this.isTrackingCreationSites = isTrackingCreationSites;
+  }
+
+  /**
+   * @return a {@link ThreadFactory} that records where each thread made by threadFactory was created, when creation sites are tracked
+   */
+  public ThreadFactory track(ThreadFactory threadFactory) {
+    return r -> {
+      Thread thread = threadFactory.newThread(r);
+      recordCreationSite(thread);
+      return thread;
+    };
+  }
+
+  /**
+   * Records where thread was created, if creation sites are tracked. This is for threads that are not made by a {@link ThreadFactory}.
+   * Frames from j.u.c. are skipped so that a thread created by an executor is attributed to the code that submitted the task.
+   */
+  public void recordCreationSite(Thread thread) {
+    if (isTrackingCreationSites && thread != null) {
+      StackTraceElement[] stackTrace = new Throwable().getStackTrace();
+      List<String> frames = new ArrayList<>(MAX_CREATION_SITE_FRAMES);
+      for (StackTraceElement element : stackTrace) {
+        if (frames.size() == MAX_CREATION_SITE_FRAMES) {
+          break;
+        }
+        String className = element.getClassName();
+        if (!className.equals(ThreadLeakDetector.class.getName())
+            && !className.startsWith("java.util.concurrent.")) {
+          frames.add(element.toString());
+        }
+      }
+      creationSites.put(thread, String.join("\n\t\tat ", frames));
+    }
+  }
+
+  /**
+   * @return the growth of the live thread count in threads per minute over the last window
+   */
+  public double getGrowthPerMinute() {
+    return growthPerMinute;
+  }
+
+  /**
+   * @return the number of live threads made by tracked thread factories grouped by where they were created, the most first
+   */
+  public Map<String, Integer> getLiveThreadsByCreationSite() {
+    Map<String, Integer> counts = new HashMap<>();
+    synchronized (creationSites) {
+      creationSites.forEach((thread, creationSite) -> {
+        if (thread.isAlive()) {
+          counts.merge(creationSite, 1, Integer::sum);
+        }
+      });
+    }
+    return counts.entrySet().stream().sorted(Entry.<String, Integer>comparingByValue().reversed())
+        .collect(Collectors.toMap(Entry::getKey, Entry::getValue, (c1, c2) -> c1,
+            LinkedHashMap::new));
+  }
+
+  @Override
+  protected synchronized void sample() {
+    long nowNanos = System.nanoTime();
+    int threadCount = threadMxBean.getThreadCount();
+    threadCounts.addLast(new long[]{nowNanos, threadCount});
+    while (threadCounts.size() > 1 && isOutsideWindow(threadCounts.iterator(), nowNanos)) {
+      threadCounts.removeFirst();
+    }
+    long[] oldest = threadCounts.peekFirst();
+    long spanNanos = nowNanos - oldest[0];
+    if (spanNanos <= 0) {
+      return;
+    }
+    growthPerMinute = (threadCount - oldest[1]) * 60_000_000_000.0 / spanNanos;
+    if (spanNanos >= windowNanos && growthPerMinute > maxGrowthPerMinute && (!hasLogged
+        || nowNanos - lastLoggedNanos >= logIntervalNanos)) {
+      hasLogged = true;
+      lastLoggedNanos = nowNanos;
+      onLeak(oldest[1], threadCount, spanNanos);
+    }
+  }
+
+  /**
+   * The oldest thread count is outside the window if the next oldest covers the whole window.
+   */
+  private boolean isOutsideWindow(Iterator<long[]> oldestFirst, long nowNanos) {
+    oldestFirst.next();
+    return nowNanos - oldestFirst.next()[0] >= windowNanos;
+  }
+
+  private void onLeak(long fromThreadCount, int toThreadCount, long spanNanos) {
+    Incidents.report(Incidents.THREAD_LEAK,
+        "Thread count grew from " + fromThreadCount + " to " + toThreadCount);
+    if (logger.isWarnEnabled()) {
+      logger.warn("Thread count grew from {} to {} in the last {} millis, it exceeded {} threads per minute{}",
+          fromThreadCount, toThreadCount, Duration.ofNanos(spanNanos).toMillis(), maxGrowthPerMinute,
+          creationSiteReport());
+    }
+  }
+
+  private String creationSiteReport() {
+    Map<String, Integer> liveThreadsByCreationSite = getLiveThreadsByCreationSite();
+    if (liveThreadsByCreationSite.isEmpty()) {
+      return "";
+    }
+    return liveThreadsByCreationSite.entrySet().stream().limit(MAX_REPORTED_CREATION_SITES)
+        .map(e -> e.getValue() + " live threads created at\n\t\tat " + e.getKey())
+        .collect(Collectors.joining("\n\t", ", live threads by creation site:\n\t", ""));
+  }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service.support;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.stream.Collectors;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A "top" for threads, each sample measures how much CPU time each thread used and how many bytes it allocated since the previous sample
+ * and the threads that used the most are logged and made available using {@link #getTopByCpu()} and {@link #getTopByAllocation()}.
+ * <p>
+ * The CPU time and allocated bytes of all threads are read using the bulk array methods of {@link com.sun.management.ThreadMXBean} and the
+ * names are only looked up for the top threads, so a sample stays cheap with thousands of threads. While it is running, thread CPU time and
+ * thread allocated memory measurement are enabled in the JVM.
+ */
+public class ThreadTopMonitor extends AbstractMonitor {
+
+  private static final Logger logger = LogManager.getLogger(ThreadTopMonitor.class);
+  private static final int CPU = 0;
+  private static final int ALLOCATED = 1;
+  private final com.sun.management.ThreadMXBean threadMxBean;
+  private final Map<Long, long[]> previousUsage;
+  private volatile List<ThreadUsage> topByCpu;
+  private volatile List<ThreadUsage> topByAllocation;
+  private boolean wasCpuTimeEnabled;
+  private boolean wasAllocatedMemoryEnabled;
+  private int topN;
+  private long previousSampleNanos;
+
+  public ThreadTopMonitor() {
+    threadMxBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    previousUsage = new HashMap<>();
+    topByCpu = List.of();
+    topByAllocation = List.of();
+    configure(5);
+  }
+
+  /**
+   * Sets the number of threads reported in each sample.
+   */
+  public synchronized void configure(int topN) {
+    this.topN = topN;
+  }
+
+  @Override
+  public synchronized void start(ScheduledExecutorService scheduler, Duration period) {
+    if (!threadMxBean.isThreadCpuTimeSupported()
+        || !threadMxBean.isThreadAllocatedMemorySupported()) {
+      logger.warn("Thread CPU time or allocated memory is not supported, threads will not be monitored");
+      return;
+    }
+    stop();
+    wasCpuTimeEnabled = threadMxBean.isThreadCpuTimeEnabled();
+    wasAllocatedMemoryEnabled = threadMxBean.isThreadAllocatedMemoryEnabled();
+    threadMxBean.setThreadCpuTimeEnabled(true);
+    threadMxBean.setThreadAllocatedMemoryEnabled(true);
+    previousUsage.clear();
+    previousSampleNanos = System.nanoTime();
+    super.start(scheduler, period);
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (isRunning()) {
+      super.stop();
+      threadMxBean.setThreadCpuTimeEnabled(wasCpuTimeEnabled);
+      threadMxBean.setThreadAllocatedMemoryEnabled(wasAllocatedMemoryEnabled);
+    }
+  }
+
+  /**
+   * @return the threads that used the most CPU between the last two samples, the highest first
+   */
+  public List<ThreadUsage> getTopByCpu() {
+    return topByCpu;
+  }
+
+  /**
+   * @return the threads that allocated the most bytes between the last two samples, the highest first
+   */
+  public List<ThreadUsage> getTopByAllocation() {
+    return topByAllocation;
+  }
+
+  @Override
+  protected synchronized void sample() {
+    long nowNanos = System.nanoTime();
+    long[] threadIds = threadMxBean.getAllThreadIds();
+    long[] cpuNanos = threadMxBean.getThreadCpuTime(threadIds);
+    long[] allocatedBytes = threadMxBean.getThreadAllocatedBytes(threadIds);
+    long[] cpuDeltas = new long[threadIds.length];
+    long[] allocatedDeltas = new long[threadIds.length];
+    Map<Long, long[]> currentUsage = new HashMap<>(threadIds.length * 2);
+    for (int i = 0; i < threadIds.length; i++) {
+      if (cpuNanos[i] < 0 || allocatedBytes[i] < 0) {
+        continue;
+      }
+      long[] previous = previousUsage.get(threadIds[i]);
+      if (previous != null) {
+        cpuDeltas[i] = cpuNanos[i] - previous[CPU];
+        allocatedDeltas[i] = allocatedBytes[i] - previous[ALLOCATED];
+      }
+      currentUsage.put(threadIds[i], new long[]{cpuNanos[i], allocatedBytes[i]});
+    }
+    boolean isFirstSample = previousUsage.isEmpty();
+    previousUsage.clear();
+    previousUsage.putAll(currentUsage);
+    double intervalSeconds = (nowNanos - previousSampleNanos) / 1_000_000_000.0;
+    previousSampleNanos = nowNanos;
+    if (isFirstSample || intervalSeconds <= 0) {
+      return;
+    }
+    topByCpu = top(threadIds, cpuDeltas, cpuDeltas, allocatedDeltas, intervalSeconds);
+    topByAllocation = top(threadIds, allocatedDeltas, cpuDeltas, allocatedDeltas, intervalSeconds);
+    if (logger.isInfoEnabled()) {
+      logger.info("Top threads by CPU in the last {} millis:{}\nTop threads by allocation:{}",
+          Math.round(intervalSeconds * 1000), format(topByCpu), format(topByAllocation));
+    }
+  }
+
+  private List<ThreadUsage> top(long[] threadIds, long[] rankBy, long[] cpuDeltas,
+      long[] allocatedDeltas, double intervalSeconds) {
+    int[] topIndexes = topIndexes(rankBy);
+    long[] topIds = new long[topIndexes.length];
+    for (int i = 0; i < topIndexes.length; i++) {
+      topIds[i] = threadIds[topIndexes[i]];
+    }
+    ThreadInfo[] threadInfos = threadMxBean.getThreadInfo(topIds, 0);
+    List<ThreadUsage> threadUsages = new ArrayList<>(topIndexes.length);
+    for (int i = 0; i < topIndexes.length; i++) {
+      if (threadInfos[i] != null) {
+        int index = topIndexes[i];
+        threadUsages.add(new ThreadUsage(threadInfos[i].getThreadName(), topIds[i],
+            100.0 * cpuDeltas[index] / (intervalSeconds * 1_000_000_000.0),
+            allocatedDeltas[index] / intervalSeconds));
+      }
+    }
+    return List.copyOf(threadUsages);
+  }
+
+  /**
+   * Selects the indexes of the topN largest positive values, the largest first. It avoids sorting all the threads since topN is small.
+   */
+  private int[] topIndexes(long[] values) {
+    int[] topIndexes = new int[Math.max(0, Math.min(topN, values.length))];
+    if (topIndexes.length == 0) {
+      return topIndexes;
+    }
+    int size = 0;
+    for (int i = 0; i < values.length; i++) {
+      if (values[i] <= 0 || (size == topIndexes.length && values[i] <= values[topIndexes[size - 1]])) {
+        continue;
+      }
+      int position = size == topIndexes.length ? size - 1 : size++;
+      while (position > 0 && values[topIndexes[position - 1]] < values[i]) {
+        topIndexes[position] = topIndexes[position - 1];
+        position--;
+      }
+      topIndexes[position] = i;
+    }
+    int[] result = new int[size];
+    System.arraycopy(topIndexes, 0, result, 0, size);
+    return result;
+  }
+
+  private static String format(List<ThreadUsage> threadUsages) {
+    return threadUsages.stream().map(ThreadUsage::toString)
+        .collect(Collectors.joining("\n\t", "\n\t", ""));
+  }
+
+  /**
+   * The resources a thread used between two samples.
+   *
+   * @param threadName              the name of the thread
+   * @param threadId                the id of the thread
+   * @param cpuPercent              the percentage of a single CPU the thread used
+   * @param allocatedBytesPerSecond the rate that the thread allocated bytes
+   */
+  public record ThreadUsage(String threadName, long threadId, double cpuPercent,
+                            double allocatedBytesPerSecond) {
+
+    @Override
+    public String toString() {
+      return threadName + " (" + threadId + ") cpu " + Math.round(cpuPercent * 100) / 100.0
+          + "%, allocated " + Math.round(allocatedBytesPerSecond / 1024) + " KiB/s";
+    }
+  }
+}
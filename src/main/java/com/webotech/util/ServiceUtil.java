@@ -1,16 +1,37 @@
 /*
- * Copyright (c) 2024-2025 Paul Mackinlay <paul.mackinlay@gmail.com>
+ * Copyright (c) 2024-2026 Paul Mackinlay <paul.mackinlay@gmail.com>
  */
 
 package com.webotech.util;
 
+import com.webotech.metrics.MetricRegistry;
+import com.webotech.service.AdminSubsystem;
+import com.webotech.service.CdsTrainingSubsystem;
+import com.webotech.service.ExecutorSubsystem;
+import com.webotech.service.ExecutorSubsystem.ManagedExecutor;
 import com.webotech.service.PropSubsystem;
+import com.webotech.service.SubsystemGraph;
 import com.webotech.service.SupportSubsystem;
 import com.webotech.statemachine.service.AbstractAppContext;
 import com.webotech.statemachine.service.api.AppContext;
 import com.webotech.statemachine.service.api.AppService;
 import com.webotech.statemachine.service.api.Subsystem;
+import com.webotech.statemachine.util.Threads;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
@@ -20,6 +41,12 @@ import org.apache.logging.log4j.Logger;
 public class ServiceUtil {
 
   private static final Logger logger = LogManager.getLogger(ServiceUtil.class);
+  /**
+   * Property key with expected value of an ISO 8601 formatted time period used to define the global deadline for stopping an app, see
+   * {@link ShutdownCoordinator}. By default it is set to 25 seconds which leaves some headroom for orchestrators that kill a process 30
+   * seconds after asking it to stop.
+   */
+  public static final String PROP_KEY_SHUTDOWN_DEADLINE_ISO8601 = "com.webotech.util.ServiceUtil.shutdownDeadlineIso8601";
   private static final Equip equip = new Equip();
 
   private ServiceUtil() {
@@ -40,6 +67,22 @@ public class ServiceUtil {
     return equip.equipBasicContext(appName, initArgs, subsystems);
   }
 
+  /**
+   * @see Equip#equipConcurrentContext(AbstractAppContext, SubsystemGraph)
+   */
+  public static <C extends AbstractAppContext<C>> C equipConcurrentContext(C appContext,
+      SubsystemGraph<C> subsystemGraph) {
+    return equip.equipConcurrentContext(appContext, subsystemGraph);
+  }
+
+  /**
+   * @see Equip#equipConcurrentBasicContext(String, String[], SubsystemGraph)
+   */
+  public static BasicAppContext equipConcurrentBasicContext(String appName, String[] initArgs,
+      SubsystemGraph<BasicAppContext> subsystemGraph) {
+    return equip.equipConcurrentBasicContext(appName, initArgs, subsystemGraph);
+  }
+
   /**
    * Will pre-emptively execute logic before providing access to the instrumented {@link AppContext} functionality in {@link Equip}.
    * <p>
@@ -75,16 +118,109 @@ public class ServiceUtil {
 
   /**
    * This will consume the {@link AppService} in preStartLogic before starting, allowing custom manipulation. The {@link AppService} is then
-   * started while handling exceptions. Typically, this will block until the {@link AppService} stops.
+   * started while handling exceptions. Typically, this will block until the {@link AppService} stops, after which the outcome of the
+   * {@link ShutdownCoordinator} is logged when its {@link AppContext} was equipped using {@link Equip}.
    */
   public static <C extends AppContext<?>> void startService(AppService<C> appService,
       Consumer<AppService<C>> preStartLogic) {
+    ShutdownCoordinator shutdownCoordinator = findShutdownCoordinator(appService.getAppContext());
+    if (shutdownCoordinator != null) {
+      shutdownCoordinator.reset();
+    }
     try {
       preStartLogic.accept(appService);
       appService.start();
     } catch (Exception e) {
       appService.stop();
     }
+    if (shutdownCoordinator != null) {
+      shutdownCoordinator.logOutcome();
+    }
+  }
+
+  /**
+   * @return the {@link ShutdownCoordinator} that bounds how long it takes to stop the app with appContext, which has to have been
+   * equipped using {@link Equip}
+   */
+  public static ShutdownCoordinator getShutdownCoordinator(AppContext<?> appContext) {
+    ShutdownCoordinator shutdownCoordinator = findShutdownCoordinator(appContext);
+    if (shutdownCoordinator == null) {
+      throw new IllegalArgumentException(
+          appContext.getAppName() + " has not been equipped with a " + ShutdownCoordinator.class.getSimpleName());
+    }
+    return shutdownCoordinator;
+  }
+
+  private static ShutdownCoordinator findShutdownCoordinator(AppContext<?> appContext) {
+    if (appContext != null && appContext.getSubsystems() != null) {
+      for (Subsystem<?> subsystem : appContext.getSubsystems()) {
+        if (subsystem instanceof WithShutdownCoordinator withShutdownCoordinator) {
+          return withShutdownCoordinator.getShutdownCoordinator();
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Wraps subsystem in a {@link LazySubsystem} so that it is only started the first time it is accessed.
+   */
+  public static <C extends AppContext<?>, S extends Subsystem<C>> LazySubsystem<C, S> lazy(
+      S subsystem) {
+    return new LazySubsystem<>(subsystem);
+  }
+
+  /**
+   * Finds the {@link LazySubsystem} in appContext (or in any of its {@link SubsystemGraph}s) that wraps a {@link Subsystem} of
+   * subsystemType, then it returns the wrapped {@link Subsystem} after making sure that it has started.
+   */
+  public static <S extends Subsystem<?>> S getLazySubsystem(AppContext<?> appContext,
+      Class<S> subsystemType) {
+    S subsystem = findLazySubsystem(appContext.getSubsystems(), subsystemType);
+    if (subsystem == null) {
+      throw new IllegalArgumentException(
+          "There is no lazy " + subsystemType.getName() + " in " + appContext.getAppName());
+    }
+    return subsystem;
+  }
+
+  /**
+   * @return the {@link LazySubsystem}s in appContext (including those in any of its {@link SubsystemGraph}s), they are not started
+   */
+  public static List<LazySubsystem<?, ?>> getLazySubsystems(AppContext<?> appContext) {
+    List<LazySubsystem<?, ?>> lazySubsystems = new ArrayList<>();
+    if (appContext.getSubsystems() != null) {
+      addLazySubsystems(appContext.getSubsystems(), lazySubsystems);
+    }
+    return lazySubsystems;
+  }
+
+  private static void addLazySubsystems(Iterable<? extends Subsystem<?>> subsystems,
+      List<LazySubsystem<?, ?>> lazySubsystems) {
+    for (Subsystem<?> subsystem : subsystems) {
+      if (subsystem instanceof LazySubsystem<?, ?> lazySubsystem) {
+        lazySubsystems.add(lazySubsystem);
+      } else if (subsystem instanceof SubsystemGraph<?> subsystemGraph) {
+        addLazySubsystems(subsystemGraph.getSubsystems(), lazySubsystems);
+      }
+    }
+  }
+
+  private static <S extends Subsystem<?>> S findLazySubsystem(Iterable<? extends Subsystem<?>> subsystems,
+      Class<S> subsystemType) {
+    for (Subsystem<?> subsystem : subsystems) {
+      if (subsystem instanceof LazySubsystem<?, ?> lazySubsystem && subsystemType.isInstance(
+          lazySubsystem.subsystem)) {
+        return subsystemType.cast(lazySubsystem.get());
+      }
+      if (subsystem instanceof SubsystemGraph<?> subsystemGraph) {
+        S graphSubsystem = findLazySubsystem(subsystemGraph.getSubsystems(), subsystemType);
+        if (graphSubsystem != null) {
+          return graphSubsystem;
+        }
+      }
+    }
+    return null;
   }
 
   private static BasicAppContext basicContext(String appName, String[] initArgs) {
@@ -92,16 +228,31 @@ public class ServiceUtil {
   }
 
   /**
-   * A basic {@link AbstractAppContext} implementation which also provides access to the running {@link AppService}.
+   * A basic {@link AbstractAppContext} implementation which also provides access to the running {@link AppService}, to the executors
+   * created by the {@link ExecutorSubsystem} and to a {@link MetricRegistry}.
    */
   public static class BasicAppContext extends AbstractAppContext<BasicAppContext> implements
-      WithAppService<BasicAppContext> {
+      WithAppService<BasicAppContext>, WithExecutors, WithMetrics {
 
     private final AtomicReference<AppService<BasicAppContext>> appServiceRef;
+    private final AtomicReference<Map<String, ManagedExecutor>> managedExecutorsRef;
+    private final MetricRegistry metricRegistry;
 
     public BasicAppContext(String appName, String[] initArgs) {
       super(appName, initArgs);
       appServiceRef = new AtomicReference<>();
+      managedExecutorsRef = new AtomicReference<>(Map.of());
+      metricRegistry = new MetricRegistry();
+    }
+
+    @Override
+    public void setManagedExecutors(Map<String, ManagedExecutor> managedExecutors) {
+      managedExecutorsRef.set(managedExecutors);
+    }
+
+    @Override
+    public Map<String, ManagedExecutor> getManagedExecutors() {
+      return managedExecutorsRef.get();
     }
 
     @Override
@@ -113,6 +264,136 @@ public class ServiceUtil {
     public void setAppService(AppService<BasicAppContext> appService) {
       appServiceRef.set(appService);
     }
+
+    @Override
+    public MetricRegistry getMetricRegistry() {
+      return metricRegistry;
+    }
+  }
+
+  /**
+   * A {@link Subsystem} wrapper that defers starting the wrapped {@link Subsystem} until the first time it is accessed using
+   * {@link #get()}, typically via {@link ServiceUtil#getLazySubsystem(AppContext, Class)}. This is useful for heavy {@link Subsystem}s that
+   * are only needed by some of the work an app does, they no longer hold up the app from starting.
+   * <p>
+   * When the app starts, the {@link LazySubsystem} is registered with the {@link AppContext} but the wrapped {@link Subsystem} is not
+   * started. The first access starts it exactly once in a thread safe manner, other threads that access it at the same time wait until it
+   * has started. The wrapped {@link Subsystem} is only stopped if it was started. If it fails to start it is stopped straight away so that
+   * nothing it started is left running, then the first and every later access throws an {@link IllegalStateException} caused by the
+   * failure, it is not started again until the app is restarted.
+   * <p>
+   * When it was first accessed and how long it took to start are published by the {@link AdminSubsystem} as the lazy_subsystem_* metrics.
+   */
+  public static class LazySubsystem<C extends AppContext<?>, S extends Subsystem<C>> implements
+      Subsystem<C> {
+
+    private final S subsystem;
+    private final AtomicReference<C> appContextRef;
+    private volatile boolean isStarted;
+    private volatile Instant startedAt;
+    private volatile Duration startDuration;
+    private volatile RuntimeException startFailure;
+
+    LazySubsystem(S subsystem) {
+      this.subsystem = subsystem;
+      appContextRef = new AtomicReference<>();
+    }
+
+    @Override
+    public void start(C appContext) {
+      appContextRef.set(appContext);
+      startFailure = null;
+      logger.info("{} registered, it will start the first time it is accessed", getName());
+    }
+
+    /**
+     * @return the wrapped {@link Subsystem}, it is started first if this is the first time it has been accessed
+     * @throws IllegalStateException if the wrapped {@link Subsystem} failed to start
+     */
+    public S get() {
+      if (!isStarted) {
+        synchronized (this) {
+          if (!isStarted) {
+            C appContext = appContextRef.get();
+            if (appContext == null) {
+              throw new IllegalStateException(getName()
+                  + " can only be accessed after it has been started and before it has been stopped");
+            }
+            if (startFailure == null) {
+              startOnFirstAccess(appContext);
+            }
+            if (startFailure != null) {
+              throw new IllegalStateException(getName() + " failed to start on first access",
+                  startFailure);
+            }
+          }
+        }
+      }
+      return subsystem;
+    }
+
+    private void startOnFirstAccess(C appContext) {
+      startedAt = Instant.now();
+      long startNanos = System.nanoTime();
+      try {
+        subsystem.start(appContext);
+      } catch (RuntimeException e) {
+        startFailure = e;
+        logger.error("{} failed to start on first access by thread {}, it will be stopped", getName(),
+            Thread.currentThread().getName(), e);
+        try {
+          subsystem.stop(appContext);
+        } catch (RuntimeException stopException) {
+          e.addSuppressed(stopException);
+        }
+        return;
+      }
+      startDuration = Duration.ofNanos(System.nanoTime() - startNanos);
+      isStarted = true;
+      logger.info("{} started on first access by thread {} in {} millis", getName(),
+          Thread.currentThread().getName(), startDuration.toMillis());
+    }
+
+    /**
+     * @return the class name of the wrapped {@link Subsystem}
+     */
+    public String getName() {
+      return subsystem.getClass().getName();
+    }
+
+    /**
+     * @return true if the wrapped {@link Subsystem} has been started
+     */
+    public boolean isStarted() {
+      return isStarted;
+    }
+
+    /**
+     * @return when the wrapped {@link Subsystem} was first accessed, which is when it began to start, or null if it has not been accessed
+     */
+    public Instant getStartedAt() {
+      return startedAt;
+    }
+
+    /**
+     * @return how long it took to start the wrapped {@link Subsystem} or null if it has not been started
+     */
+    public Duration getStartDuration() {
+      return startDuration;
+    }
+
+    @Override
+    public void stop(C appContext) {
+      synchronized (this) {
+        appContextRef.set(null);
+        if (isStarted) {
+          isStarted = false;
+          subsystem.stop(appContext);
+        } else {
+          logger.info("{} was never started so it does not need to be stopped", getName());
+        }
+      }
+    }
   }
 
   /**
@@ -127,6 +408,230 @@ public class ServiceUtil {
     AppService<C> getAppService();
   }
 
+  /**
+   * When this API layer is applied to an {@link AppContext} it provides access to the executors that are created by the
+   * {@link ExecutorSubsystem}, which takes care of setting them when it starts.
+   */
+  public interface WithExecutors {
+
+    void setManagedExecutors(Map<String, ManagedExecutor> managedExecutors);
+
+    Map<String, ManagedExecutor> getManagedExecutors();
+
+    /**
+     * @return the {@link ExecutorService} with name
+     */
+    default ExecutorService getExecutor(String name) {
+      ManagedExecutor managedExecutor = getManagedExecutors().get(name);
+      if (managedExecutor == null) {
+        throw new IllegalArgumentException("There is no executor named [" + name + "]");
+      }
+      return managedExecutor.getExecutorService();
+    }
+  }
+
+  /**
+   * When this API layer is applied to an {@link AppContext} it provides access to the {@link MetricRegistry} of the app, whose metrics are
+   * rendered by the {@link AdminSubsystem}.
+   */
+  public interface WithMetrics {
+
+    MetricRegistry getMetricRegistry();
+  }
+
+  /**
+   * Implemented by a {@link Subsystem} that bounds how long it takes to stop itself by claiming stop budgets from a
+   * {@link ShutdownCoordinator}. When an {@link AppContext} is equipped using {@link Equip} the {@link ShutdownCoordinator} of the app is
+   * set, otherwise the {@link Subsystem} uses one of its own.
+   */
+  public interface WithShutdownCoordinator {
+
+    void setShutdownCoordinator(ShutdownCoordinator shutdownCoordinator);
+
+    ShutdownCoordinator getShutdownCoordinator();
+
+    /**
+     * @return the number of stop budgets that are claimed when the {@link Subsystem} stops
+     */
+    default int getStopStageCount() {
+      return 1;
+    }
+  }
+
+  /**
+   * Coordinates stopping an app so that it completes within one global deadline (see
+   * {@link ServiceUtil#PROP_KEY_SHUTDOWN_DEADLINE_ISO8601}). Each {@link AppContext} that is equipped using {@link Equip} has its own
+   * {@link ShutdownCoordinator} (see {@link ServiceUtil#getShutdownCoordinator(AppContext)}) which is set on each of its {@link Subsystem}s
+   * that implements {@link WithShutdownCoordinator}. The deadline starts when the first budget is claimed, or when {@link #begin()} is
+   * called.
+   * <p>
+   * The deadline is applied where stopping is driven, the time remaining is split between the stages of stopping that have not happened
+   * yet. A {@link SubsystemGraph} has a stage for each wave of independent {@link Subsystem}s, which are stopped in parallel using
+   * {@link #stopInParallel(Map, Duration)}, the {@link ExecutorSubsystem} bounds how long it waits for its executors to terminate and the
+   * {@link SupportSubsystem} bounds how long it waits for deadlock detection to stop. Only stages that claim a budget are counted, and a
+   * stage that finishes early leaves the rest of its budget to the stages after it. Any other {@link Subsystem} is stopped on the calling
+   * thread as usual, it is not bounded but the time it takes counts against the deadline once the deadline has started.
+   * <p>
+   * Stop logic that is still running when its budget runs out is reported as having overrun, the rest of the app continues to stop
+   * without waiting for it, so it may find that the {@link Subsystem}s it depends on have been stopped. Overruns are logged as they
+   * happen and are available using {@link #getOverruns()}.
+   */
+  public static class ShutdownCoordinator {
+
+    private final List<String> overruns;
+    private int stageCount;
+    private int stagesLeft;
+    private long beginNanos;
+    private long deadlineNanos;
+    private boolean isBegun;
+    private ExecutorService stopExecutor;
+
+    public ShutdownCoordinator() {
+      overruns = new CopyOnWriteArrayList<>();
+      stageCount = 1;
+      stagesLeft = 1;
+    }
+
+    synchronized void expectStages(int stageCount) {
+      this.stageCount = Math.max(1, stageCount);
+      stagesLeft = this.stageCount;
+    }
+
+    /**
+     * Resets the coordinator so that the deadline starts again the next time the app stops and any overruns are forgotten.
+     */
+    public synchronized void reset() {
+      isBegun = false;
+      stagesLeft = stageCount;
+      overruns.clear();
+    }
+
+    /**
+     * @return true if the deadline has been started, i.e. the app is stopping
+     */
+    public synchronized boolean isBegun() {
+      return isBegun;
+    }
+
+    /**
+     * Starts the deadline if it hasn't already been started.
+     */
+    public synchronized void begin() {
+      if (!isBegun) {
+        Duration deadline = Duration.parse(
+            PropertyUtil.getProperty(PROP_KEY_SHUTDOWN_DEADLINE_ISO8601, "PT25S"));
+        beginNanos = System.nanoTime();
+        deadlineNanos = beginNanos + deadline.toNanos();
+        isBegun = true;
+      }
+    }
+
+    /**
+     * @return the time remaining until the deadline, the deadline is started if it hasn't already been
+     */
+    public synchronized Duration remaining() {
+      begin();
+      return Duration.ofNanos(Math.max(0, deadlineNanos - System.nanoTime()));
+    }
+
+    /**
+     * Claims the budget for the next stage of stopping, which is an equal share of the time remaining until the deadline between all the
+     * stages that have not yet happened.
+     */
+    public synchronized Duration nextStageBudget() {
+      return nextStageBudget(1);
+    }
+
+    /**
+     * Like {@link #nextStageBudget()} but for a claimant that knows there are at least minStagesLeft stages left to happen, including the
+     * stage the budget is being claimed for.
+     */
+    public synchronized Duration nextStageBudget(int minStagesLeft) {
+      stagesLeft = Math.max(stagesLeft, minStagesLeft);
+      Duration budget = remaining().dividedBy(Math.max(1, stagesLeft));
+      stagesLeft = Math.max(1, stagesLeft - 1);
+      return budget;
+    }
+
+    /**
+     * Executes each of stopLogic in parallel and waits until they have all completed or budget has elapsed, whichever happens first.
+     * Anything that has not completed is reported as having overrun, it is left to complete in the background. If the calling thread is
+     * interrupted then anything that has not completed by then is reported as having overrun and the interrupt status is restored. The
+     * threads that execute stopLogic are pooled for the lifetime of the coordinator.
+     *
+     * @return the names of anything that overran
+     */
+    public List<String> stopInParallel(Map<String, Runnable> stopLogic, Duration budget) {
+      ExecutorService executor = stopExecutor();
+      Map<String, Future<?>> futures = new LinkedHashMap<>();
+      stopLogic.forEach((name, logic) -> futures.put(name, executor.submit(logic)));
+      long budgetDeadlineNanos = System.nanoTime() + budget.toNanos();
+      List<String> overran = new ArrayList<>();
+      boolean isInterrupted = false;
+      for (Entry<String, Future<?>> entry : futures.entrySet()) {
+        long timeoutNanos = isInterrupted ? 0 : Math.max(0, budgetDeadlineNanos - System.nanoTime());
+        try {
+          entry.getValue().get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+          overran.add(entry.getKey());
+          recordOverrun(entry.getKey(), budget);
+        } catch (ExecutionException e) {
+          logger.error("Failed to stop [{}]", entry.getKey(), e.getCause());
+        } catch (InterruptedException e) {
+          isInterrupted = true;
+          overran.add(entry.getKey());
+          recordOverrun(entry.getKey(), budget);
+        }
+      }
+      if (isInterrupted) {
+        Thread.currentThread().interrupt();
+      }
+      return overran;
+    }
+
+    private synchronized ExecutorService stopExecutor() {
+      if (stopExecutor == null) {
+        stopExecutor = Executors.newCachedThreadPool(
+            Threads.newNamedDaemonThreadFactory("shutdown",
+                (t, e) -> logger.error("Uncaught exception in thread {}", t, e)));
+      }
+      return stopExecutor;
+    }
+
+    /**
+     * Records that name did not stop within its budget.
+     */
+    public void recordOverrun(String name, Duration budget) {
+      overruns.add(name);
+      logger.warn("[{}] overran its shutdown budget of {} millis", name, budget.toMillis());
+    }
+
+    /**
+     * @return the names of everything that did not stop within its budget
+     */
+    public List<String> getOverruns() {
+      return List.copyOf(overruns);
+    }
+
+    synchronized void logOutcome() {
+      if (stopExecutor != null) {
+        stopExecutor.shutdown();
+        stopExecutor = null;
+      }
+      if (isBegun) {
+        long tookMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - beginNanos);
+        long deadlineMillis = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - beginNanos);
+        if (overruns.isEmpty()) {
+          logger.info("Stopped in {} millis with a deadline of {} millis", tookMillis,
+              deadlineMillis);
+        } else {
+          logger.warn("Stopped in {} millis with a deadline of {} millis, these overran {}",
+              tookMillis, deadlineMillis, overruns);
+        }
+      }
+    }
+  }
+
   /**
    * Provides access to instrumented {@link AppContext} functionality.
    */
@@ -141,29 +646,70 @@ public class ServiceUtil {
      * <ol>
      *   <li>{@link PropSubsystem}</li>
      *   <li>{@link SupportSubsystem}</li>
+     *   <li>{@link ExecutorSubsystem}</li>
      * </ol>
+     * When it is a training run (see {@link CdsTrainingSubsystem#isTrainingRun(String[])}) a {@link CdsTrainingSubsystem} is added at the
+     * end of the list. Stopping the app is bounded by a
+     * {@link ShutdownCoordinator} which belongs to the {@link AbstractAppContext}, it is set on each {@link Subsystem} that implements
+     * {@link WithShutdownCoordinator}.
      */
     public <C extends AbstractAppContext<C>> C equipContext(C appContext, Subsystem<C>... subsystems) {
-      Subsystem<C>[] standardSubsystems = new Subsystem[]{new PropSubsystem<C>(appContext.getInitArgs()),
-          new SupportSubsystem<C>()};
-      Subsystem<C>[] allSubsystems = Arrays.copyOf(standardSubsystems,
-          standardSubsystems.length + subsystems.length);
-      System.arraycopy(subsystems, 0, allSubsystems, 2, subsystems.length);
-      if (logger.isInfoEnabled()) {
-        logger.info("{} instrumented with the following Subsystems:{}",
-            appContext.getClass().getSimpleName(),
-            Arrays.stream(allSubsystems).map(s -> s.getClass().getName())
-                .collect(Collectors.joining("\n\t", "\n\t", "")));
-      }
-      return appContext.withSubsystems(Arrays.asList(allSubsystems));
+      return equip(appContext, Arrays.asList(subsystems));
     }
 
     /**
-     * @return {@link BasicAppContext} that has been equipped in order with a {@link PropSubsystem} and a {@link SupportSubsystem} followed
-     * by any supplied {@link Subsystem}s.
+     * @return {@link BasicAppContext} that has been equipped in order with a {@link PropSubsystem}, a {@link SupportSubsystem} and an
+     * {@link ExecutorSubsystem} followed by any supplied {@link Subsystem}s.
      */
     public BasicAppContext equipBasicContext(String appName, String[] initArgs, Subsystem<BasicAppContext>... subsystems) {
       return equipContext(basicContext(appName, initArgs), subsystems);
     }
+
+    /**
+     * Instruments an {@link AbstractAppContext} in the same way as {@link #equipContext(AbstractAppContext, Subsystem[])} except that the
+     * app's {@link Subsystem}s are supplied as a {@link SubsystemGraph}. The {@link PropSubsystem}, {@link SupportSubsystem} and
+     * {@link ExecutorSubsystem} start first, then the {@link Subsystem}s in the graph are started concurrently, respecting their declared
+     * dependencies.
+     */
+    public <C extends AbstractAppContext<C>> C equipConcurrentContext(C appContext,
+        SubsystemGraph<C> subsystemGraph) {
+      return equip(appContext, List.of(subsystemGraph));
+    }
+
+    /**
+     * @return {@link BasicAppContext} that has been equipped in order with a {@link PropSubsystem}, a {@link SupportSubsystem} and an
+     * {@link ExecutorSubsystem} followed by the supplied {@link SubsystemGraph}.
+     */
+    public BasicAppContext equipConcurrentBasicContext(String appName, String[] initArgs,
+        SubsystemGraph<BasicAppContext> subsystemGraph) {
+      return equipConcurrentContext(basicContext(appName, initArgs), subsystemGraph);
+    }
+
+    private <C extends AbstractAppContext<C>> C equip(C appContext, List<Subsystem<C>> subsystems) {
+      List<Subsystem<C>> allSubsystems = new ArrayList<>();
+      allSubsystems.add(new PropSubsystem<>(appContext.getInitArgs()));
+      allSubsystems.add(new SupportSubsystem<>());
+      allSubsystems.add(new ExecutorSubsystem<>());
+      allSubsystems.addAll(subsystems);
+      if (CdsTrainingSubsystem.isTrainingRun(appContext.getInitArgs())) {
+        allSubsystems.add(new CdsTrainingSubsystem<>());
+      }
+      if (logger.isInfoEnabled()) {
+        logger.info("{} instrumented with the following Subsystems:{}",
+            appContext.getClass().getSimpleName(),
+            allSubsystems.stream().map(s -> s.getClass().getName())
+                .collect(Collectors.joining("\n\t", "\n\t", "")));
+      }
+      ShutdownCoordinator shutdownCoordinator = new ShutdownCoordinator();
+      int stageCount = 0;
+      for (Subsystem<C> subsystem : allSubsystems) {
+        if (subsystem instanceof WithShutdownCoordinator withShutdownCoordinator) {
+          withShutdownCoordinator.setShutdownCoordinator(shutdownCoordinator);
+          stageCount += withShutdownCoordinator.getStopStageCount();
+        }
+      }
+      shutdownCoordinator.expectStages(stageCount);
+      return appContext.withSubsystems(allSubsystems);
+    }
   }
 }
\ No newline at end of file
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import org.junit.jupiter.api.Test;
+
+class HistogramTest {
+
+  @Test
+  void shouldMapValuesToBuckets() {
+    for (long value = 0; value < 64; value++) {
+      assertEquals(value, Histogram.bucketIndex(value));
+      assertEquals(value, Histogram.lowestValue((int) value));
+      assertEquals(value, Histogram.highestValue((int) value));
+    }
+    assertEquals(0, Histogram.bucketIndex(-5));
+    assertEquals(Histogram.BUCKET_COUNT - 1, Histogram.bucketIndex(Long.MAX_VALUE));
+    assertEquals(Long.MAX_VALUE, Histogram.highestValue(Histogram.BUCKET_COUNT - 1));
+    for (int i = 0; i < 10_000; i++) {
+      long value = ThreadLocalRandom.current().nextLong(Long.MAX_VALUE);
+      int bucket = Histogram.bucketIndex(value);
+      assertTrue(Histogram.lowestValue(bucket) <= value && value <= Histogram.highestValue(bucket));
+      // Buckets are within 1/32 of their values
+      assertTrue(Histogram.highestValue(bucket) - Histogram.lowestValue(bucket) <= value / 32);
+    }
+  }
+
+  @Test
+  void shouldReportPercentiles() {
+    Histogram histogram = new Histogram("latency", "");
+    for (long value = 1; value <= 1000; value++) {
+      histogram.record(value);
+    }
+    HistogramSnapshot snapshot = histogram.snapshot();
+    assertEquals(1000, snapshot.getCount());
+    assertEquals(500_500, snapshot.getSum());
+    assertEquals(500.5, snapshot.getMean());
+    assertEquals(1, snapshot.getMin());
+    assertEquals(503, snapshot.getValueAtPercentile(50));
+    assertEquals(991, snapshot.getValueAtPercentile(99));
+    assertEquals(1007, snapshot.getMax());
+    assertEquals(0, new Histogram("empty", "").snapshot().getValueAtPercentile(50));
+    assertEquals(31, snapshot.getCountAtOrBelow(31));
+    assertEquals(511, snapshot.getCountAtOrBelow(511));
+    assertEquals(1000, snapshot.getCountAtOrBelow(1023));
+    assertEquals(1000, snapshot.getCountAtOrBelow(Long.MAX_VALUE));
+  }
+
+  @Test
+  void shouldSnapshotIntervals() {
+    Histogram histogram = new Histogram("latency", "");
+    histogram.record(10);
+    histogram.record(20);
+    HistogramSnapshot first = histogram.snapshot();
+    histogram.record(1_000_000);
+    HistogramSnapshot interval = histogram.snapshot().minus(first);
+    assertEquals(1, interval.getCount());
+    assertEquals(1_000_000, interval.getSum());
+    assertTrue(interval.getMin() > 20);
+    assertEquals(3, histogram.snapshot().getCount());
+  }
+
+  @Test
+  void shouldRecordConcurrently() throws InterruptedException {
+    Histogram histogram = new Histogram("latency", "");
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      Thread thread = new Thread(() -> {
+        for (int n = 0; n < 100_000; n++) {
+          histogram.record(n % 100);
+        }
+      });
+      thread.start();
+      threads.add(thread);
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    HistogramSnapshot snapshot = histogram.snapshot();
+    assertEquals(800_000, snapshot.getCount());
+    assertEquals(8 * 1000 * 4950, snapshot.getSum());
+  }
+
+  @Test
+  void shouldNotLetTheSumLeadTheCountsWhileRecording() throws InterruptedException {
+    Histogram histogram = new Histogram("latency", "");
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      Thread thread = new Thread(() -> {
+        for (int n = 0; n < 200_000; n++) {
+          histogram.record(7);
+        }
+      });
+      thread.start();
+      threads.add(thread);
+    }
+    HistogramSnapshot previous = histogram.snapshot();
+    while (threads.stream().anyMatch(Thread::isAlive)) {
+      HistogramSnapshot snapshot = histogram.snapshot();
+      assertTrue(snapshot.getSum() <= snapshot.getCount() * 7);
+      HistogramSnapshot interval = snapshot.minus(previous);
+      assertTrue(interval.getCount() >= 0);
+      assertTrue(interval.getSum() >= 0);
+      previous = snapshot;
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    HistogramSnapshot snapshot = histogram.snapshot();
+    assertEquals(800_000, snapshot.getCount());
+    assertEquals(800_000 * 7, snapshot.getSum());
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class MetricRegistryTest {
+
+  @Test
+  void shouldGetOrCreateMetrics() {
+    MetricRegistry metricRegistry = new MetricRegistry();
+    Counter counter = metricRegistry.counter("orders_total", "The number of orders");
+    assertSame(counter, metricRegistry.counter("orders_total", "The number of orders"));
+    Histogram histogram = metricRegistry.histogram("order_latency_nanos", "Order latency");
+    assertSame(histogram, metricRegistry.histogram("order_latency_nanos", "Order latency"));
+    metricRegistry.gauge("orders_open", "The number of open orders", () -> 42);
+    assertEquals(List.of("order_latency_nanos", "orders_open", "orders_total"),
+        metricRegistry.getMetrics().stream().map(Metric::getName).toList());
+    assertSame(counter, metricRegistry.getMetric("orders_total"));
+    assertNull(metricRegistry.getMetric("orders"));
+  }
+
+  @Test
+  void shouldRejectInvalidMetrics() {
+    MetricRegistry metricRegistry = new MetricRegistry();
+    metricRegistry.counter("orders_total", "");
+    assertThrows(IllegalArgumentException.class, () -> metricRegistry.counter("orders total", ""));
+    assertThrows(IllegalArgumentException.class,
+        () -> metricRegistry.histogram("orders_total", ""));
+    assertThrows(IllegalArgumentException.class,
+        () -> metricRegistry.gauge("orders_total", "", () -> 1));
+    Counter counter = metricRegistry.counter("orders_total", "");
+    assertThrows(IllegalArgumentException.class, () -> counter.add(-1));
+  }
+
+  @Test
+  void shouldSnapshotIntervals() {
+    MetricRegistry metricRegistry = new MetricRegistry();
+    Counter counter = metricRegistry.counter("orders_total", "");
+    Histogram histogram = metricRegistry.histogram("order_latency_nanos", "");
+    metricRegistry.gauge("orders_open", "", () -> 42);
+    counter.add(5);
+    histogram.record(100);
+    MetricsSnapshot first = metricRegistry.snapshot();
+    counter.increment();
+    histogram.record(200);
+    histogram.record(300);
+    Histogram late = metricRegistry.histogram("late_nanos", "");
+    late.record(7);
+    MetricsSnapshot second = metricRegistry.snapshot();
+    assertEquals(Map.of("orders_total", 5L), first.counters());
+    assertEquals(Map.of("orders_open", 42.0), first.gauges());
+    MetricsSnapshot interval = second.intervalSince(first);
+    assertEquals(Map.of("orders_total", 1L), interval.counters());
+    assertEquals(Map.of("orders_open", 42.0), interval.gauges());
+    assertEquals(2, interval.histograms().get("order_latency_nanos").getCount());
+    assertEquals(500, interval.histograms().get("order_latency_nanos").getSum());
+    assertEquals(1, interval.histograms().get("late_nanos").getCount());
+    assertEquals(second.nanoTime(), interval.nanoTime());
+  }
+}
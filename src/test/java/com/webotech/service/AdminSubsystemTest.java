@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.webotech.metrics.Gauge;
+import com.webotech.metrics.Histogram;
+import com.webotech.metrics.MetricRegistry;
+import com.webotech.statemachine.service.api.Subsystem;
+import com.webotech.util.PropertyUtil;
+import com.webotech.util.ServiceUtil;
+import com.webotech.util.ServiceUtil.BasicAppContext;
+import com.webotech.util.ServiceUtil.LazySubsystem;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AdminSubsystemTest {
+
+  private BasicAppContext appContext;
+  private AdminSubsystem<BasicAppContext> adminSubsystem;
+
+  @BeforeEach
+  void setup() {
+    PropertyUtil.setProperty(AdminSubsystem.PROP_KEY_PORT, "0");
+    PropertyUtil.setProperty("db.password", "letmein");
+    appContext = new BasicAppContext("test", new String[0]);
+    adminSubsystem = new AdminSubsystem<BasicAppContext>().registerGauge("orders_open",
+        "The number of open orders", () -> 42);
+    adminSubsystem.start(appContext);
+  }
+
+  @AfterEach
+  void tearDown() {
+    adminSubsystem.stop(appContext);
+    PropertyUtil.getPropertiesAsMap().keySet().forEach(PropertyUtil::removeProperty);
+  }
+
+  @Test
+  void shouldServeMetricsInPrometheusFormat() throws IOException {
+    String metrics = get("/metrics");
+    assertTrue(metrics.contains("# HELP orders_open The number of open orders\n"
+        + "# TYPE orders_open gauge\n"
+        + "orders_open 42.0\n"));
+    assertTrue(metrics.contains("# TYPE jvm_memory_used_bytes gauge\n"
+        + "jvm_memory_used_bytes{area=\"heap\"} "));
+    assertTrue(metrics.contains("\njvm_threads_live "));
+    assertEquals(headers(metrics), headers(get("/metrics")));
+  }
+
+  @Test
+  void shouldBindToLoopbackByDefault() {
+    assertTrue(adminSubsystem.getAddress().getAddress().isLoopbackAddress());
+  }
+
+  @Test
+  void shouldRenderNonFiniteValuesAndEscapeHelp() throws IOException {
+    adminSubsystem.registerGauge("ratio_nan", "A\\B\nC", () -> Double.NaN)
+        .registerGauge("ratio_pos_inf", "Positive", () -> Double.POSITIVE_INFINITY)
+        .registerGauge("ratio_neg_inf", "Negative", () -> Double.NEGATIVE_INFINITY);
+    String metrics = get("/metrics");
+    assertTrue(metrics.contains("# HELP ratio_nan A\\\\B\\nC\n"
+        + "# TYPE ratio_nan gauge\n"
+        + "ratio_nan NaN\n"));
+    assertTrue(metrics.contains("\nratio_pos_inf +Inf\n"));
+    assertTrue(metrics.contains("\nratio_neg_inf -Inf\n"));
+  }
+
+  @Test
+  void shouldEncodeMetricsAsUtf8() throws IOException {
+    String help = "Latency in \u00b5s \u2264 9000 \ud83d\udd52";
+    adminSubsystem.registerGauge("latency_micros", help, () -> 1);
+    String metrics = get("/metrics");
+    assertTrue(metrics.contains("# HELP latency_micros " + help + "\n"
+        + "# TYPE latency_micros gauge\n"
+        + "latency_micros 1.0\n"), metrics);
+  }
+
+  @Test
+  void shouldServeMetricRegistry() throws IOException {
+    MetricRegistry metricRegistry = appContext.getMetricRegistry();
+    metricRegistry.counter("orders_total", "The number of orders").add(3);
+    Histogram histogram = metricRegistry.histogram("order_latency_nanos", "Order latency");
+    histogram.record(10);
+    histogram.record(20);
+    String metrics = get("/metrics");
+    assertTrue(metrics.contains("# HELP orders_total The number of orders\n"
+        + "# TYPE orders_total counter\n"
+        + "orders_total 3\n"));
+    assertTrue(metrics.contains("# TYPE order_latency_nanos histogram\n"
+        + "order_latency_nanos_bucket{le=\"31\"} 2\n"
+        + "order_latency_nanos_bucket{le=\"+Inf\"} 2\n"
+        + "order_latency_nanos_sum 30\n"
+        + "order_latency_nanos_count 2\n"), metrics);
+    histogram.record(100);
+    histogram.record(1000);
+    assertTrue(get("/metrics").contains("# TYPE order_latency_nanos histogram\n"
+        + "order_latency_nanos_bucket{le=\"31\"} 2\n"
+        + "order_latency_nanos_bucket{le=\"63\"} 2\n"
+        + "order_latency_nanos_bucket{le=\"127\"} 3\n"
+        + "order_latency_nanos_bucket{le=\"255\"} 3\n"
+        + "order_latency_nanos_bucket{le=\"511\"} 3\n"
+        + "order_latency_nanos_bucket{le=\"1023\"} 4\n"
+        + "order_latency_nanos_bucket{le=\"+Inf\"} 4\n"
+        + "order_latency_nanos_sum 1130\n"
+        + "order_latency_nanos_count 4\n"));
+  }
+
+  @Test
+  void shouldHoldRegisteredGaugesInTheMetricRegistry() throws IOException {
+    MetricRegistry metricRegistry = appContext.getMetricRegistry();
+    assertTrue(metricRegistry.getMetric("orders_open") instanceof Gauge);
+    adminSubsystem.registerGauge("orders_filled", "The number of filled orders", () -> 7);
+    assertEquals(7, ((Gauge) metricRegistry.getMetric("orders_filled")).get());
+    assertThrows(IllegalArgumentException.class,
+        () -> metricRegistry.counter("orders_filled", "A clash"));
+    String metrics = get("/metrics");
+    assertEquals(1, metrics.lines().filter(l -> l.equals("# TYPE orders_open gauge")).count());
+
+    BasicAppContext clashingAppContext = new BasicAppContext("clash", new String[0]);
+    clashingAppContext.getMetricRegistry().counter("orders_open", "A clash");
+    AdminSubsystem<BasicAppContext> clashingAdminSubsystem = new AdminSubsystem<BasicAppContext>()
+        .registerGauge("orders_open", "The number of open orders", () -> 1);
+    assertThrows(IllegalArgumentException.class,
+        () -> clashingAdminSubsystem.start(clashingAppContext));
+  }
+
+  @Test
+  void shouldServeLazySubsystemMetrics() throws IOException {
+    LazySubsystem<BasicAppContext, Subsystem<BasicAppContext>> lazySubsystem = ServiceUtil.lazy(
+        new Subsystem<>() {
+          @Override
+          public void start(BasicAppContext appContext) {
+            // Nothing to start
+          }
+
+          @Override
+          public void stop(BasicAppContext appContext) {
+            // Nothing to stop
+          }
+        });
+    appContext.withSubsystems(List.of(lazySubsystem));
+    lazySubsystem.start(appContext);
+    String name = lazySubsystem.getName();
+    assertTrue(get("/metrics").contains("lazy_subsystem_started{subsystem=\"" + name + "\"} 0\n"));
+    lazySubsystem.get();
+    String metrics = get("/metrics");
+    assertTrue(metrics.contains("lazy_subsystem_started{subsystem=\"" + name + "\"} 1\n"));
+    assertTrue(metrics.contains("lazy_subsystem_first_access_timestamp_seconds{subsystem=\""
+        + name + "\"} "));
+    assertTrue(metrics.contains("lazy_subsystem_start_seconds{subsystem=\"" + name + "\"} "));
+    lazySubsystem.stop(appContext);
+  }
+
+  @Test
+  void shouldServeRedactedConfigAndSupportData() throws IOException {
+    String config = get("/config");
+    assertTrue(config.contains("db.password=***\n"));
+    assertTrue(config.contains("com.webotech.service.AdminSubsystem.port=0\n"));
+    assertEquals(SupportSubsystem.supportData.toString(), get("/support"));
+  }
+
+  @Test
+  void shouldRejectInvalidGaugesAndMethods() throws IOException {
+    assertThrows(IllegalArgumentException.class,
+        () -> adminSubsystem.registerGauge("orders open", "", () -> 1));
+    assertThrows(IllegalArgumentException.class,
+        () -> adminSubsystem.registerGauge("orders_open", "", () -> 1));
+    HttpURLConnection connection = connect("/metrics");
+    connection.setRequestMethod("DELETE");
+    assertEquals(405, connection.getResponseCode());
+  }
+
+  private static List<String> headers(String metrics) {
+    return metrics.lines().filter(l -> l.startsWith("#")).toList();
+  }
+
+  private String get(String path) throws IOException {
+    HttpURLConnection connection = connect(path);
+    assertEquals(200, connection.getResponseCode());
+    try (InputStream inputStream = connection.getInputStream()) {
+      return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+    }
+  }
+
+  private HttpURLConnection connect(String path) throws IOException {
+    return (HttpURLConnection) new URL(
+        "http://127.0.0.1:" + adminSubsystem.getPort() + path).openConnection();
+  }
+}
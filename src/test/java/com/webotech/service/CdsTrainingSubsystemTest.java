@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import com.webotech.TestingUtil;
+import com.webotech.statemachine.service.api.AppService;
+import com.webotech.util.PropertyUtil;
+import com.webotech.util.ServiceUtil.BasicAppContext;
+import java.io.IOException;
+import java.io.OutputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class CdsTrainingSubsystemTest {
+
+  @AfterEach
+  void tearDown() {
+    PropertyUtil.removeProperty(CdsTrainingSubsystem.PROP_KEY_ENABLE);
+  }
+
+  @Test
+  void shouldSwitchOnTrainingWithArgOrProperty() {
+    assertFalse(CdsTrainingSubsystem.isTrainingRun(new String[0]));
+    assertFalse(CdsTrainingSubsystem.isTrainingRun(new String[]{"cdsTraining=false"}));
+    assertTrue(CdsTrainingSubsystem.isTrainingRun(new String[]{"config=a.properties", "cdsTraining=true"}));
+    PropertyUtil.setProperty(CdsTrainingSubsystem.PROP_KEY_ENABLE, "true");
+    assertTrue(CdsTrainingSubsystem.isTrainingRun(new String[0]));
+  }
+
+  @Test
+  void shouldStopAppAfterTraining() throws IOException {
+    try (OutputStream logStream = TestingUtil.initLogCaptureStream()) {
+      BasicAppContext appContext = new BasicAppContext("test", new String[]{"cdsTraining=true"});
+      AppService<BasicAppContext> appService = mock(AppService.class);
+      appContext.setAppService(appService);
+      CdsTrainingSubsystem<BasicAppContext> cdsTrainingSubsystem = new CdsTrainingSubsystem<>();
+      cdsTrainingSubsystem.start(appContext);
+      verify(appService, timeout(2000)).stop();
+      cdsTrainingSubsystem.stop(appContext);
+      String log = TestingUtil.asNormalisedTxt(logStream);
+      assertTrue(log.startsWith("test is a CDS training run, it will stop in 0 millis\n"));
+      assertTrue(log.contains("No CDS archive will be produced, start the training run with "
+          + "-XX:ArchiveClassesAtExit=<file> or -XX:+RecordDynamicDumpInfo\n"));
+      assertTrue(log.endsWith("CDS training run complete, stopping test\n"));
+    }
+  }
+}
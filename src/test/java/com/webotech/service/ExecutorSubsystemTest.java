@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.webotech.service.ExecutorSubsystem.ExecutorType;
+import com.webotech.service.ExecutorSubsystem.ManagedExecutor;
+import com.webotech.util.PropertyUtil;
+import com.webotech.util.ServiceUtil.BasicAppContext;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ExecutorSubsystemTest {
+
+  private static final String PREFIX = "com.webotech.service.ExecutorSubsystem.";
+  private BasicAppContext appContext;
+  private ExecutorSubsystem<BasicAppContext> executorSubsystem;
+
+  @BeforeEach
+  void setup() {
+    PropertyUtil.setProperty(ExecutorSubsystem.PROP_KEY_EXECUTORS, "io,compute,ingest,requests");
+    PropertyUtil.setProperty(PREFIX + "io.type", "virtual");
+    PropertyUtil.setProperty(PREFIX + "compute.type", "forkjoin");
+    PropertyUtil.setProperty(PREFIX + "ingest.type", "bounded");
+    PropertyUtil.setProperty(PREFIX + "ingest.threadCount", "1");
+    PropertyUtil.setProperty(PREFIX + "ingest.queueCapacity", "1");
+    PropertyUtil.setProperty(PREFIX + "requests.threadCount", "2");
+    appContext = new BasicAppContext("test", new String[0]);
+    executorSubsystem = new ExecutorSubsystem<>();
+  }
+
+  @AfterEach
+  void tearDown() {
+    PropertyUtil.getPropertiesAsMap().keySet().forEach(PropertyUtil::removeProperty);
+  }
+
+  @Test
+  void shouldCreateExecutorsAndExposeThemInContext() throws Exception {
+    executorSubsystem.start(appContext);
+    Map<String, ManagedExecutor> managedExecutors = appContext.getManagedExecutors();
+    assertEquals(List.of("io", "compute", "ingest", "requests"),
+        List.copyOf(managedExecutors.keySet()));
+    assertEquals(ExecutorType.VIRTUAL, managedExecutors.get("io").getType());
+    assertEquals(ExecutorType.FORKJOIN, managedExecutors.get("compute").getType());
+    assertEquals(ExecutorType.BOUNDED, managedExecutors.get("ingest").getType());
+    assertEquals(ExecutorType.PLATFORM, managedExecutors.get("requests").getType());
+    for (String name : managedExecutors.keySet()) {
+      assertEquals(name, appContext.getExecutor(name).submit(() -> name).get(2, TimeUnit.SECONDS));
+    }
+    assertThrows(IllegalArgumentException.class, () -> appContext.getExecutor("unknown"));
+    executorSubsystem.stop(appContext);
+    assertTrue(managedExecutors.values().stream().allMatch(e -> e.getExecutorService().isShutdown()));
+    assertTrue(appContext.getManagedExecutors().isEmpty());
+  }
+
+  @Test
+  void shouldPublishQueueDepthActiveCountAndRejections() throws InterruptedException {
+    executorSubsystem.start(appContext);
+    ManagedExecutor ingest = appContext.getManagedExecutors().get("ingest");
+    ExecutorService executor = ingest.getExecutorService();
+    CountDownLatch running = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    executor.execute(() -> {
+      running.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    running.await(2, TimeUnit.SECONDS);
+    executor.execute(() -> {
+    });
+    assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> {
+    }));
+    assertEquals(1, ingest.getActiveCount());
+    assertEquals(1, ingest.getQueueDepth());
+    assertEquals(1, ingest.getRejectedCount());
+    assertEquals("ingest [type=bounded, queueDepth=1, activeCount=1, rejectedCount=1]",
+        ingest.toString());
+    release.countDown();
+    executorSubsystem.stop(appContext);
+    assertTrue(executor.isTerminated());
+  }
+
+  @Test
+  void shouldCreateNoExecutorsByDefault() {
+    PropertyUtil.removeProperty(ExecutorSubsystem.PROP_KEY_EXECUTORS);
+    executorSubsystem.start(appContext);
+    assertTrue(executorSubsystem.getManagedExecutors().isEmpty());
+    executorSubsystem.stop(appContext);
+  }
+}
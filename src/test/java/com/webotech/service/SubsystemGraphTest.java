@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.webotech.statemachine.service.api.Subsystem;
+import com.webotech.util.PropertyUtil;
+import com.webotech.util.ServiceUtil;
+import com.webotech.util.ServiceUtil.ShutdownCoordinator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SubsystemGraphTest {
+
+  private static final TestAppContext testAppContext = new TestAppContext("test", new String[0]);
+  private List<String> events;
+
+  @BeforeEach
+  void setup() {
+    events = new CopyOnWriteArrayList<>();
+  }
+
+  @Test
+  void shouldStartIndependentSubsystemsConcurrently() {
+    CountDownLatch bothStarting = new CountDownLatch(2);
+    Subsystem<TestAppContext> a = new RecordingSubsystem("a", () -> awaitOther(bothStarting));
+    Subsystem<TestAppContext> b = new RecordingSubsystem("b", () -> awaitOther(bothStarting));
+    Subsystem<TestAppContext> c = new RecordingSubsystem("c", () -> {
+    });
+    SubsystemGraph<TestAppContext> graph = new SubsystemGraph<TestAppContext>().add(a).add(b)
+        .add(c, a, b);
+    graph.start(testAppContext);
+    assertEquals(3, events.size());
+    assertEquals("start c", events.get(2));
+    assertTrue(events.containsAll(List.of("start a", "start b")));
+  }
+
+  @Test
+  void shouldStopInReverseTopologicalOrder() {
+    Subsystem<TestAppContext> a = new RecordingSubsystem("a", () -> {
+    });
+    Subsystem<TestAppContext> b = new RecordingSubsystem("b", () -> {
+    });
+    Subsystem<TestAppContext> c = new RecordingSubsystem("c", () -> {
+    });
+    SubsystemGraph<TestAppContext> graph = new SubsystemGraph<TestAppContext>().add(a).add(b, a)
+        .add(c, b);
+    graph.start(testAppContext);
+    graph.stop(testAppContext);
+    assertEquals(List.of("start a", "start b", "start c", "stop c", "stop b", "stop a"), events);
+  }
+
+  @Test
+  void shouldStopIndependentSubsystemsInParallelAndReportOverruns() {
+    PropertyUtil.setProperty(ServiceUtil.PROP_KEY_SHUTDOWN_DEADLINE_ISO8601, "PT1S");
+    try {
+      CountDownLatch release = new CountDownLatch(1);
+      Subsystem<TestAppContext> a = new RecordingSubsystem("a", () -> {
+      });
+      Subsystem<TestAppContext> b = new StuckSubsystem(release);
+      Subsystem<TestAppContext> c = new RecordingSubsystem("c", () -> {
+      });
+      SubsystemGraph<TestAppContext> graph = new SubsystemGraph<TestAppContext>().add(a).add(b, a)
+          .add(c, a);
+      ShutdownCoordinator shutdownCoordinator = new ShutdownCoordinator();
+      graph.setShutdownCoordinator(shutdownCoordinator);
+      assertEquals(2, graph.getStopWaveCount());
+      graph.start(testAppContext);
+      graph.stop(testAppContext);
+      release.countDown();
+      assertEquals(List.of(StuckSubsystem.class.getName()), shutdownCoordinator.getOverruns());
+      assertEquals(List.of("start a", "start c", "stop c", "stop a"), events);
+    } finally {
+      PropertyUtil.removeProperty(ServiceUtil.PROP_KEY_SHUTDOWN_DEADLINE_ISO8601);
+    }
+  }
+
+  @Test
+  void shouldNotStartDependentsOfFailedSubsystem() {
+    Subsystem<TestAppContext> a = new RecordingSubsystem("a", () -> {
+      throw new IllegalStateException("test induced");
+    });
+    Subsystem<TestAppContext> b = new RecordingSubsystem("b", () -> {
+    });
+    Subsystem<TestAppContext> c = new RecordingSubsystem("c", () -> {
+    });
+    SubsystemGraph<TestAppContext> graph = new SubsystemGraph<TestAppContext>().add(a).add(b)
+        .add(c, a);
+    IllegalStateException exception = assertThrows(IllegalStateException.class,
+        () -> graph.start(testAppContext));
+    assertEquals(1, exception.getSuppressed().length);
+    assertEquals("test induced", exception.getSuppressed()[0].getMessage());
+    assertEquals(3, events.size());
+    assertTrue(events.containsAll(List.of("start a", "start b")));
+    assertEquals("stop b", events.get(2));
+    graph.stop(testAppContext);
+    assertEquals(3, events.size());
+  }
+
+  @Test
+  void shouldStopStartedSubsystemsInReverseOrderWhenStartFails() {
+    Subsystem<TestAppContext> a = new RecordingSubsystem("a", () -> {
+    });
+    Subsystem<TestAppContext> b = new RecordingSubsystem("b", () -> {
+    });
+    Subsystem<TestAppContext> c = new RecordingSubsystem("c", () -> {
+      throw new IllegalStateException("test induced");
+    });
+    SubsystemGraph<TestAppContext> graph = new SubsystemGraph<TestAppContext>().add(a).add(b, a)
+        .add(c, b);
+    assertThrows(IllegalStateException.class, () -> graph.start(testAppContext));
+    assertEquals(List.of("start a", "start b", "start c", "stop b", "stop a"), events);
+  }
+
+  @Test
+  void shouldStopSubsystemThatFinishesStartingAfterTimeout() throws InterruptedException {
+    PropertyUtil.setProperty(SubsystemGraph.PROP_KEY_START_TIMEOUT_ISO8601, "PT0.1S");
+    try {
+      CountDownLatch release = new CountDownLatch(1);
+      Subsystem<TestAppContext> a = new RecordingSubsystem("a", () -> {
+      });
+      Subsystem<TestAppContext> b = new RecordingSubsystem("b",
+          () -> awaitUninterruptibly(release));
+      SubsystemGraph<TestAppContext> graph = new SubsystemGraph<TestAppContext>().add(a).add(b);
+      assertThrows(IllegalStateException.class, () -> graph.start(testAppContext));
+      assertTrue(events.contains("stop a"));
+      release.countDown();
+      for (int i = 0; i < 100 && !events.contains("stop b"); i++) {
+        TimeUnit.MILLISECONDS.sleep(20);
+      }
+      assertTrue(events.containsAll(List.of("start a", "start b", "stop a", "stop b")));
+      graph.stop(testAppContext);
+      assertEquals(4, events.size());
+    } finally {
+      PropertyUtil.removeProperty(SubsystemGraph.PROP_KEY_START_TIMEOUT_ISO8601);
+    }
+  }
+
+  @Test
+  void shouldRejectDependencyThatHasNotBeenAdded() {
+    Subsystem<TestAppContext> a = new RecordingSubsystem("a", () -> {
+    });
+    Subsystem<TestAppContext> b = new RecordingSubsystem("b", () -> {
+    });
+    SubsystemGraph<TestAppContext> graph = new SubsystemGraph<>();
+    assertThrows(IllegalArgumentException.class, () -> graph.add(b, a));
+    graph.add(a);
+    assertThrows(IllegalArgumentException.class, () -> graph.add(a));
+    graph.add(b, a);
+    assertEquals(List.of(a, b), graph.getSubsystems());
+    assertEquals(List.of(a), graph.getDependencies(b));
+  }
+
+  private static void awaitOther(CountDownLatch latch) {
+    latch.countDown();
+    try {
+      if (!latch.await(2, TimeUnit.SECONDS)) {
+        throw new IllegalStateException("Subsystems were not started concurrently");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static void awaitUninterruptibly(CountDownLatch latch) {
+    boolean isInterrupted = false;
+    while (true) {
+      try {
+        latch.await();
+        break;
+      } catch (InterruptedException e) {
+        isInterrupted = true;
+      }
+    }
+    if (isInterrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static class StuckSubsystem implements Subsystem<TestAppContext> {
+
+    private final CountDownLatch release;
+
+    StuckSubsystem(CountDownLatch release) {
+      this.release = release;
+    }
+
+    @Override
+    public void start(TestAppContext appContext) {
+      // Nothing to start
+    }
+
+    @Override
+    public void stop(TestAppContext appContext) {
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private class RecordingSubsystem implements Subsystem<TestAppContext> {
+
+    private final String name;
+    private final Runnable startLogic;
+
+    RecordingSubsystem(String name, Runnable startLogic) {
+      this.name = name;
+      this.startLogic = startLogic;
+    }
+
+    @Override
+    public void start(TestAppContext appContext) {
+      events.add("start " + name);
+      startLogic.run();
+    }
+
+    @Override
+    public void stop(TestAppContext appContext) {
+      events.add("stop " + name);
+    }
+  }
+}
@@ -1,26 +1,35 @@
 /*
- * Copyright (c) 2024-2025 Paul Mackinlay <paul.mackinlay@gmail.com>
+ * Copyright (c) 2024-2026 Paul Mackinlay <paul.mackinlay@gmail.com>
  */
 
 package com.webotech.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.webotech.TestingUtil;
 import com.webotech.service.data.SupportData;
+import com.webotech.service.support.JournalReader;
+import com.webotech.service.support.JournalReader.JournalRecord;
+import com.webotech.service.support.JournalRecordType;
 import com.webotech.util.PropertyUtil;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 class SupportSubsystemTest {
 
@@ -39,7 +48,9 @@ class SupportSubsystemTest {
     data.putAll(supportData.getHost());
     data.putAll(supportData.getProcess());
     data.putAll(supportData.getJvm());
+    data.putAll(supportData.getContainer());
     assertEquals(data, supportData.getAll());
+    assertNotNull(supportData.getLive());
   }
 
   @Test
@@ -47,7 +58,8 @@ class SupportSubsystemTest {
     SupportData supportData = SupportSubsystem.supportData;
     assertEquals(
         Set.of(SupportData.AVAILABLE_PROCESSOR_COUNT, SupportData.HOSTNAME, SupportData.IP_ADDRESS,
-            SupportData.OS_ARCHITECTURE, SupportData.OS_NAME, SupportData.OS_VERSION),
+            SupportData.IP_ADDRESSES, SupportData.OS_ARCHITECTURE, SupportData.OS_NAME,
+            SupportData.OS_VERSION),
         supportData.getHost().keySet());
     assertEquals(
         Set.of(SupportData.JAVA_CLASSPATH, SupportData.JAVA_HOME, SupportData.JAVA_SPEC_VERSION,
@@ -55,9 +67,13 @@ class SupportSubsystemTest {
     assertEquals(Set.of(SupportData.CL_ARGS, SupportData.MEMORY_B, SupportData.MEMORY_KI_B,
             SupportData.MEMORY_GI_B, SupportData.PID, SupportData.USER),
         supportData.getProcess().keySet());
+    assertTrue(supportData.getContainer().containsKey(SupportData.CGROUP_VERSION));
     try (OutputStream logStream = TestingUtil.initLogCaptureStream()) {
+      awaitLocalHost();
       supportSubsystem.start(testAppContext);
       String log = TestingUtil.asNormalisedTxt(logStream);
+      assertTrue(log.contains("Local host resolved to ") || log.contains(
+          "Unable to resolve the local host"));
       List<String> keys = Arrays.asList(SupportData.AVAILABLE_PROCESSOR_COUNT, SupportData.HOSTNAME,
           SupportData.IP_ADDRESS, SupportData.OS_ARCHITECTURE, SupportData.OS_NAME,
           SupportData.OS_VERSION, SupportData.JAVA_CLASSPATH, SupportData.JAVA_HOME,
@@ -70,6 +86,8 @@ class SupportSubsystemTest {
       assertTrue(log.contains("Host SupportData"));
       assertTrue(log.contains("JVM SupportData"));
       assertTrue(log.contains("Process SupportData"));
+      assertTrue(log.contains("Container SupportData"));
+      assertTrue(log.contains(SupportData.CGROUP_VERSION));
     }
   }
 
@@ -98,6 +116,30 @@ class SupportSubsystemTest {
     }
   }
 
+  @Test
+  void shouldWriteToJournal(@TempDir Path dir) throws IOException {
+    Path journalFile = dir.resolve("support.journal");
+    PropertyUtil.setProperty(SupportSubsystem.PROP_KEY_ENABLE_SUPPORT_DATA_LOGGING, "false");
+    PropertyUtil.setProperty(SupportSubsystem.PROP_KEY_ENABLE_JOURNAL, "true");
+    PropertyUtil.setProperty(SupportSubsystem.PROP_KEY_JOURNAL_FILE, journalFile.toString());
+    try {
+      supportSubsystem.start(testAppContext);
+      assertTrue(SupportSubsystem.getJournal().isOpen());
+      supportSubsystem.stop(testAppContext);
+      assertFalse(SupportSubsystem.getJournal().isOpen());
+      List<JournalRecord> records = JournalReader.read(journalFile);
+      assertEquals(JournalRecordType.START, records.get(0).type());
+      assertEquals("test", records.get(0).text());
+      assertTrue(records.stream().anyMatch(r -> r.type() == JournalRecordType.CONFIG
+          && r.text().equals(SupportSubsystem.PROP_KEY_ENABLE_JOURNAL + "=true")));
+      assertEquals(JournalRecordType.STOP, records.get(records.size() - 1).type());
+    } finally {
+      PropertyUtil.removeProperty(SupportSubsystem.PROP_KEY_ENABLE_SUPPORT_DATA_LOGGING);
+      PropertyUtil.removeProperty(SupportSubsystem.PROP_KEY_ENABLE_JOURNAL);
+      PropertyUtil.removeProperty(SupportSubsystem.PROP_KEY_JOURNAL_FILE);
+    }
+  }
+
   @Test
   void shouldWarnAboutMultipleNonDaemonThreads() throws IOException {
     CountDownLatch latch = new CountDownLatch(1);
@@ -110,6 +152,7 @@ class SupportSubsystemTest {
     }, "i_am_bad");
     nonDaemonThread.setDaemon(false);
     nonDaemonThread.start();
+    awaitLocalHost();
     supportSubsystem.start(testAppContext);
     try (OutputStream logStream = TestingUtil.initLogCaptureStream()) {
       supportSubsystem.stop(testAppContext);
@@ -124,4 +167,15 @@ class SupportSubsystemTest {
       PropertyUtil.removeProperty(SupportSubsystem.PROP_KEY_ENABLE_SUPPORT_DATA_LOGGING);
     }
   }
-}
\ No newline at end of file
+
+  /**
+   * Resolves the local host up front so that the SupportSubsystem logs the result synchronously when it starts.
+   */
+  private static void awaitLocalHost() {
+    try {
+      SupportSubsystem.getHostDiscovery().resolveLocalHost(Duration.ofSeconds(5)).join();
+    } catch (CompletionException e) {
+      // Logged by the SupportSubsystem
+    }
+  }
+}
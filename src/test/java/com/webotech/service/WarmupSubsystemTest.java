@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.webotech.util.PropertyUtil;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class WarmupSubsystemTest {
+
+  private static final TestAppContext testAppContext = new TestAppContext("test", new String[0]);
+  private WarmupSubsystem<TestAppContext> warmupSubsystem;
+
+  @BeforeEach
+  void setup() {
+    warmupSubsystem = new WarmupSubsystem<>();
+  }
+
+  @AfterEach
+  void tearDown() {
+    PropertyUtil.getPropertiesAsMap().keySet().forEach(PropertyUtil::removeProperty);
+  }
+
+  @Test
+  void shouldRunRoutinesForIterationsThenBeReady() {
+    PropertyUtil.setProperty(WarmupSubsystem.PROP_KEY_ITERATIONS, "50");
+    AtomicInteger count = new AtomicInteger();
+    warmupSubsystem.register("count", c -> count.incrementAndGet()).register("fail", c -> {
+      throw new IllegalStateException("test induced");
+    });
+    assertThrows(IllegalArgumentException.class,
+        () -> warmupSubsystem.register("count", c -> count.incrementAndGet()));
+    assertFalse(warmupSubsystem.isReady());
+    warmupSubsystem.start(testAppContext);
+    assertTrue(warmupSubsystem.isReady());
+    assertNotNull(warmupSubsystem.getWarmupDuration());
+    assertEquals(50, count.get());
+    assertEquals(Map.of("count", 50, "fail", 0), warmupSubsystem.getIterationCounts());
+    warmupSubsystem.stop(testAppContext);
+    assertFalse(warmupSubsystem.isReady());
+  }
+
+  @Test
+  void shouldStopRunningRoutinesWhenTimeBudgetRunsOut() {
+    PropertyUtil.setProperty(WarmupSubsystem.PROP_KEY_ITERATIONS, "1000000");
+    PropertyUtil.setProperty(WarmupSubsystem.PROP_KEY_TIME_BUDGET_ISO8601, "PT0.1S");
+    warmupSubsystem.register("sleep", c -> {
+      try {
+        Thread.sleep(10);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    warmupSubsystem.start(testAppContext);
+    assertTrue(warmupSubsystem.isReady());
+    assertTrue(warmupSubsystem.getIterationCounts().get("sleep") < 100);
+  }
+
+  @Test
+  void shouldPublishIterationCountsInOrderWhileWarmingUp() {
+    PropertyUtil.setProperty(WarmupSubsystem.PROP_KEY_ITERATIONS, "20");
+    List<List<String>> observedKeys = new ArrayList<>();
+    warmupSubsystem.register("b", c -> observedKeys.add(
+            List.copyOf(warmupSubsystem.getIterationCounts().keySet())))
+        .register("a", c -> {
+        });
+    warmupSubsystem.start(testAppContext);
+    assertTrue(observedKeys.stream().allMatch(keys -> keys.equals(List.of("b", "a"))));
+    assertEquals(List.of(20, 20), List.copyOf(warmupSubsystem.getIterationCounts().values()));
+    assertThrows(UnsupportedOperationException.class,
+        () -> warmupSubsystem.getIterationCounts().put("c", 1));
+  }
+
+  @Test
+  void shouldAwaitCompilationSettle() {
+    PropertyUtil.setProperty(WarmupSubsystem.PROP_KEY_ITERATIONS, "1000");
+    PropertyUtil.setProperty(WarmupSubsystem.PROP_KEY_AWAIT_COMPILATION_SETTLE, "true");
+    PropertyUtil.setProperty(WarmupSubsystem.PROP_KEY_SETTLE_PERIOD_ISO8601, "PT0.05S");
+    PropertyUtil.setProperty(WarmupSubsystem.PROP_KEY_SETTLE_TIMEOUT_ISO8601, "PT2S");
+    StringBuilder sb = new StringBuilder();
+    warmupSubsystem.register("append", c -> sb.append(c.getAppName()).setLength(0));
+    warmupSubsystem.start(testAppContext);
+    assertTrue(warmupSubsystem.isReady());
+    assertTrue(warmupSubsystem.getWarmupDuration().toMillis() < 5000);
+  }
+}
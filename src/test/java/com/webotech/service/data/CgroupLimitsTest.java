@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CgroupLimitsTest {
+
+  @TempDir
+  private Path root;
+
+  @Test
+  void shouldReadV2Limits() throws IOException {
+    write("cgroup.controllers", "cpuset cpu io memory pids\n");
+    write("cpu.max", "150000 100000\n");
+    write("cpuset.cpus.effective", "0-3,6\n");
+    write("memory.max", "2147483648\n");
+    write("memory.current", "1073741824\n");
+    write("self-cgroup", "0::/\n");
+    CgroupLimits cgroupLimits = CgroupLimits.read(root, root.resolve("self-cgroup"));
+    assertEquals(new CgroupLimits(CgroupLimits.V2, 150000, 100000, "0-3,6", 2147483648L,
+        root.resolve("memory.current")), cgroupLimits);
+    assertEquals(1.5, cgroupLimits.cpuLimit());
+    assertEquals(5, cgroupLimits.cpusetCount());
+    assertEquals(Map.of(SupportData.CGROUP_VERSION, "v2", SupportData.CPU_LIMIT, "1.5",
+        SupportData.CPUSET_CPUS, "0-3,6", SupportData.MEMORY_LIMIT_B, "2147483648"),
+        cgroupLimits.toMap());
+    LiveSupportData liveSupportData = new LiveSupportData(cgroupLimits.memoryUsageFile());
+    liveSupportData.sample();
+    assertEquals(1073741824L, liveSupportData.getCgroupMemoryUsageBytes());
+  }
+
+  @Test
+  void shouldReadV2LimitsOfOwnCgroup() throws IOException {
+    write("cgroup.controllers", "cpu memory\n");
+    write("memory.max", "max\n");
+    write("app.slice/app.scope/memory.max", "536870912\n");
+    write("app.slice/app.scope/memory.current", "4096\n");
+    write("self-cgroup", "0::/app.slice/app.scope\n");
+    CgroupLimits cgroupLimits = CgroupLimits.read(root, root.resolve("self-cgroup"));
+    assertEquals(536870912L, cgroupLimits.memoryLimitBytes());
+    Path memoryUsageFile = root.resolve("app.slice/app.scope/memory.current");
+    assertEquals(memoryUsageFile, cgroupLimits.memoryUsageFile());
+    LiveSupportData liveSupportData = new LiveSupportData(memoryUsageFile);
+    liveSupportData.sample();
+    assertEquals(4096, liveSupportData.getCgroupMemoryUsageBytes());
+    Files.writeString(memoryUsageFile, "8192\n");
+    liveSupportData.sample();
+    assertEquals(8192, liveSupportData.getCgroupMemoryUsageBytes());
+  }
+
+  @Test
+  void shouldReadUnlimitedV2Limits() throws IOException {
+    write("cgroup.controllers", "cpu memory\n");
+    write("cpu.max", "max 100000\n");
+    write("memory.max", "max\n");
+    write("memory.current", "1024\n");
+    write("self-cgroup", "0::/not/visible/in/this/namespace\n");
+    CgroupLimits cgroupLimits = CgroupLimits.read(root, root.resolve("self-cgroup"));
+    assertEquals(new CgroupLimits(CgroupLimits.V2, -1, 100000, "", -1,
+        root.resolve("memory.current")), cgroupLimits);
+    assertEquals(-1, cgroupLimits.cpuLimit());
+    assertEquals(-1, cgroupLimits.cpusetCount());
+    assertEquals(SupportData.UNLIMITED, cgroupLimits.toMap().get(SupportData.CPU_LIMIT));
+    assertEquals(SupportData.UNLIMITED, cgroupLimits.toMap().get(SupportData.MEMORY_LIMIT_B));
+  }
+
+  @Test
+  void shouldReadV1Limits() throws IOException {
+    write("cpu/cpu.cfs_quota_us", "-1\n");
+    write("cpu/cpu.cfs_period_us", "100000\n");
+    write("cpuset/cpuset.cpus", "0\n");
+    write("memory/memory.limit_in_bytes", "9223372036854771712\n");
+    write("memory/memory.usage_in_bytes", "4096\n");
+    CgroupLimits cgroupLimits = CgroupLimits.read(root, root.resolve("self-cgroup"));
+    assertEquals(new CgroupLimits(CgroupLimits.V1, -1, 100000, "0", -1,
+        root.resolve("memory/memory.usage_in_bytes")), cgroupLimits);
+    assertEquals(1, cgroupLimits.cpusetCount());
+  }
+
+  @Test
+  void shouldReadV1LimitsOfOwnCgroup() throws IOException {
+    write("cpu/cpu.cfs_quota_us", "-1\n");
+    write("cpu/app/cpu.cfs_quota_us", "50000\n");
+    write("cpu/app/cpu.cfs_period_us", "100000\n");
+    write("cpuset/cpuset.cpus", "0-7\n");
+    write("memory/memory.limit_in_bytes", "9223372036854771712\n");
+    write("memory/app/memory.limit_in_bytes", "1073741824\n");
+    write("memory/app/memory.usage_in_bytes", "4096\n");
+    write("self-cgroup", "12:memory:/app\n5:cpuset:/app\n4:cpu,cpuacct:/app\n");
+    CgroupLimits cgroupLimits = CgroupLimits.read(root, root.resolve("self-cgroup"));
+    assertEquals(new CgroupLimits(CgroupLimits.V1, 50000, 100000, "0-7", 1073741824L,
+        root.resolve("memory/app/memory.usage_in_bytes")), cgroupLimits);
+  }
+
+  @Test
+  void shouldHandleNoCgroups() {
+    CgroupLimits cgroupLimits = CgroupLimits.read(root, root.resolve("self-cgroup"));
+    assertEquals(CgroupLimits.NONE, cgroupLimits.version());
+    assertEquals(Map.of(SupportData.CGROUP_VERSION, "none"), cgroupLimits.toMap());
+  }
+
+  private void write(String file, String content) throws IOException {
+    Path path = root.resolve(file);
+    Files.createDirectories(path.getParent());
+    Files.writeString(path, content);
+  }
+}
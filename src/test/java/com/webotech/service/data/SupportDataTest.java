@@ -0,0 +1,26 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class SupportDataTest {
+
+  @Test
+  void shouldPutHostDataThatArrivesLater() {
+    SupportData supportData = new SupportData(Map.of(SupportData.HOSTNAME, ""),
+        Map.of(SupportData.PID, "1"), Map.of(), Map.of(), null);
+    assertEquals("", supportData.getHost().get(SupportData.HOSTNAME));
+    supportData.putHost(SupportData.HOSTNAME, "resolved-host");
+    assertEquals("resolved-host", supportData.getHost().get(SupportData.HOSTNAME));
+    assertEquals("resolved-host", supportData.getAll().get(SupportData.HOSTNAME));
+    assertEquals("1", supportData.getAll().get(SupportData.PID));
+    assertTrue(supportData.toString().contains("\tHostname: resolved-host\n"));
+  }
+}
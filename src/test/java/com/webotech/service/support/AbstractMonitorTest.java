@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service.support;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.webotech.statemachine.util.Threads;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class AbstractMonitorTest {
+
+  @Test
+  void shouldSampleUntilStoppedWhenSamplingFails() throws InterruptedException {
+    ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+        Threads.newNamedDaemonThreadFactory("monitor"));
+    CountDownLatch samples = new CountDownLatch(3);
+    AbstractMonitor monitor = new AbstractMonitor() {
+      @Override
+      protected void sample() {
+        samples.countDown();
+        throw new IllegalStateException("Sample failed");
+      }
+    };
+    try {
+      assertFalse(monitor.isRunning());
+      monitor.start(scheduler, Duration.ofMillis(5));
+      assertTrue(monitor.isRunning());
+      assertTrue(samples.await(5, TimeUnit.SECONDS));
+      monitor.stop();
+      assertFalse(monitor.isRunning());
+      monitor.stop();
+      assertFalse(monitor.isRunning());
+    } finally {
+      scheduler.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.webotech.TestingUtil;
+import com.webotech.service.support.ContentionMonitor.ContendedLock;
+import com.webotech.statemachine.util.Threads;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.Thread.State;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class ContentionMonitorTest {
+
+  @Test
+  void shouldReportMostContendedLock() throws InterruptedException, IOException {
+    Object lock = new Object();
+    CountDownLatch locked = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Threads.newNamedDaemonThreadFactory("holder").newThread(() -> {
+      synchronized (lock) {
+        locked.countDown();
+        await(release);
+      }
+    }).start();
+    locked.await(2, TimeUnit.SECONDS);
+    Thread contender = Threads.newNamedDaemonThreadFactory("contender").newThread(() -> {
+      synchronized (lock) {
+        lock.notifyAll();
+      }
+    });
+    contender.start();
+    while (contender.getState() != State.BLOCKED) {
+      TimeUnit.MILLISECONDS.sleep(1);
+    }
+    ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+        Threads.newNamedDaemonThreadFactory("monitor"));
+    ContentionMonitor contentionMonitor = new ContentionMonitor();
+    contentionMonitor.configure(Duration.ofHours(1), 5);
+    boolean wasEnabled = ManagementFactory.getThreadMXBean().isThreadContentionMonitoringEnabled();
+    try (OutputStream logStream = TestingUtil.initLogCaptureStream()) {
+      contentionMonitor.start(scheduler, Duration.ofHours(1));
+      assertTrue(ManagementFactory.getThreadMXBean().isThreadContentionMonitoringEnabled());
+      contentionMonitor.sample();
+      contentionMonitor.sample();
+      assertTrue(contentionMonitor.getTopContendedLocks().isEmpty());
+      contentionMonitor.configure(Duration.ZERO, 5);
+      contentionMonitor.sample();
+      List<ContendedLock> topContendedLocks = contentionMonitor.getTopContendedLocks();
+      assertEquals(1, topContendedLocks.size());
+      ContendedLock contendedLock = topContendedLocks.get(0);
+      assertTrue(contendedLock.lockName().startsWith("java.lang.Object@"));
+      assertEquals(List.of("contender-0"), contendedLock.threadNames());
+      assertEquals("holder-0", contendedLock.lastOwnerName());
+      assertEquals(3, contendedLock.sampleCount());
+      String log = TestingUtil.asNormalisedTxt(logStream);
+      assertTrue(log.startsWith("Top 1 contended locks in the last "));
+      assertTrue(log.contains("\tjava.lang.Object@"));
+    } finally {
+      release.countDown();
+      contentionMonitor.stop();
+      scheduler.shutdownNow();
+    }
+    assertFalse(contentionMonitor.isRunning());
+    assertEquals(wasEnabled, ManagementFactory.getThreadMXBean().isThreadContentionMonitoringEnabled());
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -1,10 +1,11 @@
 /*
- * Copyright (c) 2024-2025 Paul Mackinlay <paul.mackinlay@gmail.com>
+ * Copyright (c) 2024-2026 Paul Mackinlay <paul.mackinlay@gmail.com>
  */
 
 package com.webotech.service.support;
 
 import com.webotech.TestingUtil;
+import com.webotech.service.support.DeadlockDetector.ScanStats;
 import com.webotech.statemachine.util.Threads;
 import java.io.IOException;
 import java.io.OutputStream;
@@ -13,16 +14,14 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
-import org.mockito.MockedStatic;
-import org.mockito.Mockito;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -44,16 +43,13 @@ class DeadlockDetectorTest {
 
     when(scheduledExecutorService.scheduleAtFixedRate(any(Runnable.class), eq(0L), eq(10000L),
         eq(TimeUnit.MILLISECONDS))).thenReturn(detectionFuture);
-    try (MockedStatic<Executors> mockExecutors = Mockito.mockStatic(Executors.class)) {
-      mockExecutors.when(() -> Executors.newSingleThreadScheduledExecutor(any(ThreadFactory.class)))
-          .thenReturn(scheduledExecutorService);
-      deadlockDetector.startDetecting("PT10S");
-      verify(scheduledExecutorService, times(1)).scheduleAtFixedRate(any(Runnable.class), eq(0L),
-          eq(10000L), eq(TimeUnit.MILLISECONDS));
-      deadlockDetector.stopDetecting("PT0.2S");
-      verify(scheduledExecutorService, times(1)).shutdownNow();
-      verify(scheduledExecutorService, times(1)).awaitTermination(200L, TimeUnit.MILLISECONDS);
-    }
+    deadlockDetector = new DeadlockDetector(() -> scheduledExecutorService);
+    deadlockDetector.startDetecting("PT10S");
+    verify(scheduledExecutorService, times(1)).scheduleAtFixedRate(any(Runnable.class), eq(0L),
+        eq(10000L), eq(TimeUnit.MILLISECONDS));
+    deadlockDetector.stopDetecting("PT0.2S");
+    verify(scheduledExecutorService, times(1)).shutdownNow();
+    verify(scheduledExecutorService, times(1)).awaitTermination(200L, TimeUnit.MILLISECONDS);
   }
 
   @Test
@@ -82,6 +78,44 @@ class DeadlockDetectorTest {
     }
   }
 
+  @Test
+  void shouldOnlyScanWhenThereAreCandidates() throws InterruptedException, IOException {
+    try (OutputStream logStream = TestingUtil.initLogCaptureStream()) {
+      deadlockDetector.startAdaptiveDetecting("PT0.05S", "PT0.2S");
+      TimeUnit.MILLISECONDS.sleep(400);
+      ScanStats scanStats = deadlockDetector.getScanStats();
+      assertTrue(scanStats.preCheckCount() >= 2);
+      assertTrue(scanStats.lastPreCheckDuration().toNanos() > 0);
+      assertTrue(scanStats.maxPreCheckDuration().compareTo(scanStats.lastPreCheckDuration()) >= 0);
+
+      Object lock1 = new Object();
+      Object lock2 = new Object();
+      CountDownLatch latch1 = new CountDownLatch(1);
+      CountDownLatch latch2 = new CountDownLatch(1);
+      ExecutorService executor = Executors.newFixedThreadPool(2,
+          Threads.newNamedDaemonThreadFactory("adaptive-deadlock-task"));
+      executor.execute(new DeadlockTask(lock1, lock2, latch1, latch2));
+      latch1.await(2, TimeUnit.SECONDS);
+      executor.execute(new DeadlockTask(lock2, lock1, latch2, latch1));
+      latch2.await(2, TimeUnit.SECONDS);
+      TimeUnit.MILLISECONDS.sleep(500);
+      scanStats = deadlockDetector.getScanStats();
+      assertTrue(scanStats.scanCount() > 0);
+      assertTrue(scanStats.maxScanDuration().compareTo(scanStats.lastScanDuration()) >= 0);
+      String log = TestingUtil.asNormalisedTxt(logStream);
+      assertTrue(log.contains("Will schedule adaptive deadlock detection every 50 to 200 millis\n"));
+      assertTrue(log.contains("Deadlock detected:"));
+      assertTrue(log.contains("\"adaptive-deadlock-task-0\""));
+
+      long scanCount = scanStats.scanCount();
+      TimeUnit.MILLISECONDS.sleep(500);
+      assertEquals(scanCount, deadlockDetector.getScanStats().scanCount());
+      assertEquals(log, TestingUtil.asNormalisedTxt(logStream));
+    } finally {
+      deadlockDetector.stopDetecting("PT1S");
+    }
+  }
+
   private static class DeadlockTask implements Runnable {
 
     private final Object lock1;
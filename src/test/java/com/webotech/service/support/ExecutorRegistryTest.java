@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.webotech.TestingUtil;
+import com.webotech.service.support.ExecutorRegistry.ExecutorStats;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class ExecutorRegistryTest {
+
+  @Test
+  void shouldLogSaturation() throws InterruptedException, IOException {
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(2));
+    ExecutorRegistry executorRegistry = new ExecutorRegistry();
+    executorRegistry.configure(2, 100);
+    assertEquals(executor, executorRegistry.register("bounded", executor));
+    CountDownLatch release = new CountDownLatch(1);
+    try (OutputStream logStream = TestingUtil.initLogCaptureStream()) {
+      CountDownLatch started = new CountDownLatch(1);
+      executor.execute(() -> {
+        started.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      });
+      started.await();
+      executor.execute(() -> {
+      });
+      executor.execute(() -> {
+      });
+      assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> {
+      }));
+      executorRegistry.sample();
+      List<ExecutorStats> executorStats = executorRegistry.getExecutorStats();
+      assertEquals(1, executorStats.size());
+      ExecutorStats stats = executorStats.get(0);
+      assertEquals("bounded", stats.name());
+      assertEquals(2, stats.queueDepth());
+      assertEquals(1, stats.activeThreads());
+      assertEquals(100, stats.utilisationPercent());
+      assertEquals(1, stats.rejectedCount());
+      assertTrue(stats.isSaturated());
+      executorRegistry.sample();
+      assertEquals(
+          "Executor bounded is saturated, queue depth 2 reached 2, utilisation 100% reached 100.0% with tasks queued, 1 tasks rejected\n",
+          TestingUtil.asNormalisedTxt(logStream));
+    } finally {
+      release.countDown();
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void shouldLogRecovery() throws Exception {
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(10));
+    ExecutorRegistry executorRegistry = new ExecutorRegistry();
+    executorRegistry.configure(1, 100);
+    executorRegistry.register("recovering", executor);
+    CountDownLatch release = new CountDownLatch(1);
+    try (OutputStream logStream = TestingUtil.initLogCaptureStream()) {
+      executor.execute(() -> {
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      });
+      executor.execute(() -> {
+      });
+      executorRegistry.sample();
+      release.countDown();
+      executor.submit(() -> {
+      }).get(1, TimeUnit.SECONDS);
+      executorRegistry.sample();
+      ExecutorStats stats = executorRegistry.getExecutorStats().get(0);
+      assertFalse(stats.isSaturated());
+      assertEquals(0, stats.queueDepth());
+      assertTrue(stats.completedTasksPerSecond() > 0);
+      String log = TestingUtil.asNormalisedTxt(logStream);
+      assertTrue(log.startsWith("Executor recovering is saturated, queue depth 1 reached 1"));
+      assertTrue(log.endsWith("Executor recovering is no longer saturated\n"));
+    } finally {
+      release.countDown();
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void shouldRemoveTerminatedExecutors() throws InterruptedException {
+    ExecutorRegistry executorRegistry = new ExecutorRegistry();
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(1));
+    executorRegistry.register("terminated", executor);
+    executorRegistry.register("fjp", Executors.newWorkStealingPool(2));
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+    executorRegistry.sample();
+    List<ExecutorStats> executorStats = executorRegistry.getExecutorStats();
+    assertEquals(1, executorStats.size());
+    assertEquals("fjp", executorStats.get(0).name());
+    assertEquals(-1, executorStats.get(0).completedTasksPerSecond());
+  }
+
+  @Test
+  void shouldRestoreRejectedExecutionHandlerAndNotRegisterTwice() {
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(1));
+    RejectedExecutionHandler handler = executor.getRejectedExecutionHandler();
+    ExecutorService forkJoinPool = Executors.newWorkStealingPool(1);
+    ExecutorRegistry executorRegistry = new ExecutorRegistry();
+    try {
+      executorRegistry.register("once", executor);
+      assertNotSame(handler, executor.getRejectedExecutionHandler());
+      assertThrows(IllegalArgumentException.class,
+          () -> executorRegistry.register("twice", executor));
+      executorRegistry.deregister("once");
+      assertSame(handler, executor.getRejectedExecutionHandler());
+      executorRegistry.register("again", executor);
+      executorRegistry.register("again", forkJoinPool);
+      assertSame(handler, executor.getRejectedExecutionHandler());
+    } finally {
+      executor.shutdownNow();
+      forkJoinPool.shutdownNow();
+    }
+  }
+
+  @Test
+  void shouldNotRegisterWrappedExecutors() {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      assertThrows(IllegalArgumentException.class,
+          () -> new ExecutorRegistry().register("wrapped", executor));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.webotech.service.support.GcMonitor.GcStats;
+import com.webotech.service.support.GcMonitor.PauseHistogram;
+import com.webotech.service.support.GcMonitor.PauseStats;
+import com.webotech.statemachine.util.Threads;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class GcMonitorTest {
+
+  @Test
+  void shouldRecordGcPausesAndHeap() throws InterruptedException {
+    ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+        Threads.newNamedDaemonThreadFactory("monitor"));
+    GcMonitor gcMonitor = new GcMonitor();
+    try {
+      gcMonitor.start(scheduler, Duration.ofHours(1));
+      byte[][] garbage = new byte[64][];
+      for (int i = 0; i < garbage.length; i++) {
+        garbage[i] = new byte[64 * 1024];
+      }
+      System.gc();
+      // GC notifications are delivered asynchronously
+      long deadlineNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (gcMonitor.getGcStats().pauseStats().isEmpty() && System.nanoTime() < deadlineNanos) {
+        TimeUnit.MILLISECONDS.sleep(10);
+      }
+      gcMonitor.sample();
+      GcStats gcStats = gcMonitor.getGcStats();
+      assertTrue(gcStats.heapAfterGcBytes() > 0);
+      assertTrue(gcStats.heapMaxBytes() >= gcStats.heapAfterGcBytes());
+      assertTrue(gcStats.allocatedBytes() > 0);
+      assertTrue(gcStats.allocationRateBytesPerSecond() > 0);
+      assertTrue(gcStats.overheadPercent() >= 0);
+      assertFalse(gcStats.pauseStats().isEmpty());
+      assertTrue(gcStats.heapAfterGcRatio() > 0 && gcStats.heapAfterGcRatio() < 1);
+    } finally {
+      gcMonitor.stop();
+      scheduler.shutdownNow();
+    }
+    assertFalse(gcMonitor.isRunning());
+  }
+
+  @Test
+  void shouldCalculatePausePercentiles() {
+    PauseHistogram pauseHistogram = new PauseHistogram();
+    for (int i = 0; i < 98; i++) {
+      pauseHistogram.record(3);
+    }
+    pauseHistogram.record(40);
+    pauseHistogram.record(700);
+    PauseStats pauseStats = pauseHistogram.toPauseStats();
+    assertEquals(100, pauseStats.count());
+    assertEquals(98 * 3 + 40 + 700, pauseStats.totalMillis());
+    assertEquals(700, pauseStats.maxMillis());
+    assertEquals(3, pauseStats.p50Millis());
+    assertEquals(63, pauseStats.p99Millis());
+  }
+}
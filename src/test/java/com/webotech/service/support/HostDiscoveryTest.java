@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class HostDiscoveryTest {
+
+  @Test
+  void shouldDiscoverHostWithoutDns() throws UnknownHostException {
+    String hostname = HostDiscovery.hostname();
+    assertNotNull(hostname);
+    assertEquals(hostname.trim(), hostname);
+    List<InetAddress> addresses = HostDiscovery.interfaceAddresses();
+    for (InetAddress address : addresses) {
+      assertFalse(address.isLoopbackAddress());
+    }
+    assertEquals("127.0.0.1", HostDiscovery.primaryAddress(List.of()));
+    assertEquals("10.0.0.1", HostDiscovery.primaryAddress(
+        List.of(InetAddress.getByName("fe80::1"), InetAddress.getByName("10.0.0.1"))));
+  }
+
+  @Test
+  void shouldFallBackToResolvedHostname() throws UnknownHostException {
+    InetAddress resolved = InetAddress.getByAddress("resolved-host", new byte[]{10, 0, 0, 1});
+    HostDiscovery hostDiscovery = new HostDiscovery("", () -> resolved);
+    assertEquals("", hostDiscovery.getHostname());
+    assertEquals(resolved, hostDiscovery.resolveLocalHost(Duration.ofSeconds(5)).join());
+    assertEquals("resolved-host", hostDiscovery.getHostname());
+
+    HostDiscovery kernelHostDiscovery = new HostDiscovery("kernel-host", () -> resolved);
+    kernelHostDiscovery.resolveLocalHost(Duration.ofSeconds(5)).join();
+    assertEquals("kernel-host", kernelHostDiscovery.getHostname());
+  }
+
+  @Test
+  void shouldApplyTheTimeoutOfEachCallToOneLookup() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger lookupCount = new AtomicInteger();
+    InetAddress resolved = InetAddress.getByAddress("slow-host", new byte[]{10, 0, 0, 2});
+    HostDiscovery hostDiscovery = new HostDiscovery("", () -> {
+      lookupCount.incrementAndGet();
+      release.await();
+      return resolved;
+    });
+    CompletableFuture<InetAddress> shortTimeout = hostDiscovery.resolveLocalHost(
+        Duration.ofMillis(50));
+    CompletableFuture<InetAddress> longTimeout = hostDiscovery.resolveLocalHost(
+        Duration.ofSeconds(5));
+    CompletionException e = assertThrows(CompletionException.class, shortTimeout::join);
+    assertInstanceOf(TimeoutException.class, e.getCause());
+    assertFalse(longTimeout.isDone());
+    CompletableFuture<InetAddress> afterTimeout = hostDiscovery.resolveLocalHost(
+        Duration.ofSeconds(5));
+    release.countDown();
+    assertEquals(resolved, longTimeout.get(5, TimeUnit.SECONDS));
+    assertEquals(resolved, afterTimeout.get(5, TimeUnit.SECONDS));
+    assertEquals(1, lookupCount.get());
+  }
+
+  @Test
+  void shouldRetryAFailedLookup() throws UnknownHostException {
+    AtomicInteger lookupCount = new AtomicInteger();
+    InetAddress resolved = InetAddress.getByAddress("retried-host", new byte[]{10, 0, 0, 3});
+    HostDiscovery hostDiscovery = new HostDiscovery("", () -> {
+      if (lookupCount.incrementAndGet() == 1) {
+        throw new UnknownHostException("No DNS");
+      }
+      return resolved;
+    });
+    CompletionException e = assertThrows(CompletionException.class,
+        () -> hostDiscovery.resolveLocalHost(Duration.ofSeconds(5)).join());
+    assertInstanceOf(UnknownHostException.class, e.getCause());
+    assertEquals(resolved, hostDiscovery.resolveLocalHost(Duration.ofSeconds(5)).join());
+    assertEquals(resolved, hostDiscovery.resolveLocalHost(Duration.ofSeconds(5)).join());
+    assertEquals(2, lookupCount.get());
+    assertTrue(hostDiscovery.getHostname().startsWith("retried"));
+  }
+}
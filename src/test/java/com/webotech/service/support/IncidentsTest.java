@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.webotech.TestingUtil;
+import com.webotech.service.support.Incidents.Incident;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.Test;
+
+class IncidentsTest {
+
+  @Test
+  void shouldDispatchToListenersDespiteFailures() throws IOException {
+    List<Incident> incidents = new ArrayList<>();
+    Consumer<Incident> failingListener = i -> {
+      throw new IllegalStateException("test");
+    };
+    Consumer<Incident> listener = incidents::add;
+    Incidents.addListener(failingListener);
+    Incidents.addListener(listener);
+    try (OutputStream logStream = TestingUtil.initLogCaptureStream()) {
+      Incidents.report(Incidents.MANUAL, "Operator requested a dump");
+      assertTrue(TestingUtil.asNormalisedTxt(logStream)
+          .startsWith("Incident listener failed for Incident[type=manual"));
+    } finally {
+      Incidents.removeListener(failingListener);
+      Incidents.removeListener(listener);
+    }
+    Incidents.report(Incidents.MANUAL, "Ignored");
+    assertEquals(1, incidents.size());
+    assertEquals(Incidents.MANUAL, incidents.get(0).type());
+    assertEquals("Operator requested a dump", incidents.get(0).description());
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class JfrRecorderTest {
+
+  @TempDir
+  private Path directory;
+
+  @Test
+  void shouldDumpOnIncidentAtMostOncePerInterval() throws IOException {
+    JfrRecorder jfrRecorder = new JfrRecorder();
+    jfrRecorder.configure(directory, Duration.ofMinutes(1), 16L * 1024 * 1024,
+        Duration.ofMinutes(1), "default");
+    assertNull(jfrRecorder.dump("before-start"));
+    try {
+      jfrRecorder.start(Runnable::run);
+      assertTrue(jfrRecorder.isRecording());
+      Incidents.report(Incidents.DEADLOCK, "Deadlocked threads a, b");
+      Incidents.report(Incidents.STALL, "Thread a has stalled");
+      List<Path> files = dumpFiles();
+      assertEquals(1, files.size());
+      assertTrue(files.get(0).getFileName().toString().startsWith("deadlock-"));
+      assertTrue(Files.size(files.get(0)) > 0);
+      Path file = jfrRecorder.dump("manual dump");
+      assertTrue(file.getFileName().toString().startsWith("manual_dump-"));
+      assertEquals(2, dumpFiles().size());
+    } finally {
+      jfrRecorder.stop();
+    }
+    assertFalse(jfrRecorder.isRecording());
+    Incidents.report(Incidents.DEADLOCK, "Deadlocked threads a, b");
+    assertEquals(2, dumpFiles().size());
+  }
+
+  @Test
+  void shouldDumpOnIncidentUsingItsOwnThread() throws IOException, InterruptedException {
+    JfrRecorder jfrRecorder = new JfrRecorder();
+    jfrRecorder.configure(directory, Duration.ofMinutes(1), 16L * 1024 * 1024,
+        Duration.ofMinutes(1), "default");
+    try {
+      jfrRecorder.start();
+      Incidents.report(Incidents.STALL, "Thread a has stalled");
+      for (int i = 0; i < 250 && dumpFiles().isEmpty(); i++) {
+        TimeUnit.MILLISECONDS.sleep(20);
+      }
+      assertEquals(1, dumpFiles().size());
+      Monitors.getExecutorRegistry().sample();
+      assertTrue(Monitors.getExecutorRegistry().getExecutorStats().stream()
+          .anyMatch(s -> s.name().equals("jfr-dump")));
+    } finally {
+      jfrRecorder.stop();
+    }
+    Monitors.getExecutorRegistry().sample();
+    assertTrue(Monitors.getExecutorRegistry().getExecutorStats().stream()
+        .noneMatch(s -> s.name().equals("jfr-dump")));
+  }
+
+  private List<Path> dumpFiles() throws IOException {
+    try (Stream<Path> paths = Files.list(directory)) {
+      return paths.sorted().toList();
+    }
+  }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.webotech.TestingUtil;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.management.ObjectName;
+import org.junit.jupiter.api.Test;
+
+class JitMonitorTest {
+
+  private static final String CODE_CACHE_ENABLED = """
+      CodeHeap 'non-nmethods': size=5692Kb used=1150Kb max_used=1150Kb free=4541Kb
+       bounds [0x00007f605c938000, 0x00007f605cba8000, 0x00007f605cec7000]
+       total_blobs=1822 nmethods=1387 adapters=350
+       compilation: enabled
+                    stopped_count=0, restarted_count=0
+       full_count=0
+      """;
+  private static final String CODE_CACHE_DISABLED = """
+      CodeHeap 'non-nmethods': size=5692Kb used=5692Kb max_used=5692Kb free=0Kb
+       bounds [0x00007f605c938000, 0x00007f605cba8000, 0x00007f605cec7000]
+       total_blobs=1822 nmethods=1387 adapters=350
+       compilation: disabled (not enough contiguous free space left)
+                    stopped_count=1, restarted_count=0
+       full_count=2
+      """;
+
+  @Test
+  void shouldSampleThisJvm() {
+    JitMonitor jitMonitor = new JitMonitor();
+    jitMonitor.sample();
+    assertTrue(jitMonitor.isCompilationEnabled());
+    assertTrue(jitMonitor.getTotalCompilationTimeMillis() >= 0);
+    assertTrue(jitMonitor.getCodeCacheUsedBytes() > 0);
+    assertTrue(jitMonitor.getCodeCacheMaxBytes() >= jitMonitor.getCodeCacheUsedBytes());
+    assertEquals(0, jitMonitor.getCodeCacheFullCount());
+    assertTrue(jitMonitor.getCompilerThreadCount() >= 1);
+  }
+
+  @Test
+  void shouldWarnWhenCompilationIsDisabled() throws IOException {
+    AtomicReference<String> codeCache = new AtomicReference<>(CODE_CACHE_ENABLED);
+    JitMonitor jitMonitor = new JitMonitor(new TestCompilationMxBean(new AtomicLong()),
+        codeCache::get, 1, () -> 0);
+    jitMonitor.sample();
+    try (OutputStream logStream = TestingUtil.initLogCaptureStream()) {
+      codeCache.set(CODE_CACHE_DISABLED);
+      jitMonitor.sample();
+      assertFalse(jitMonitor.isCompilationEnabled());
+      assertEquals(2, jitMonitor.getCodeCacheFullCount());
+      codeCache.set(CODE_CACHE_ENABLED.replace("full_count=0", "full_count=2"));
+      jitMonitor.sample();
+      assertTrue(jitMonitor.isCompilationEnabled());
+      String log = TestingUtil.asNormalisedTxt(logStream);
+      assertTrue(log.startsWith("The code cache has been full 2 times, "), log);
+      assertTrue(log.contains("\nJIT compilation is disabled, "), log);
+      assertTrue(log.contains("\nJIT compilation is enabled, "), log);
+    }
+  }
+
+  @Test
+  void shouldWarnDuringCompilationStorm() throws IOException, InterruptedException {
+    AtomicLong compilationTimeMillis = new AtomicLong();
+    JitMonitor jitMonitor = new JitMonitor(new TestCompilationMxBean(compilationTimeMillis),
+        () -> null, 2, () -> 120_000);
+    jitMonitor.configure(50, Duration.ofMinutes(1));
+    jitMonitor.sample();
+    try (OutputStream logStream = TestingUtil.initLogCaptureStream()) {
+      Thread.sleep(10);
+      // Far more compilation time than wall clock time
+      compilationTimeMillis.set(60_000);
+      jitMonitor.sample();
+      assertTrue(jitMonitor.getCompilationTimePercent() >= 50);
+      Thread.sleep(10);
+      jitMonitor.sample();
+      assertEquals(0, jitMonitor.getCompilationTimePercent());
+      String log = TestingUtil.asNormalisedTxt(logStream);
+      assertTrue(log.startsWith("Compilation storm, the JIT is compiling for "), log);
+      assertTrue(log.endsWith(
+          "Compilation storm is over, the JIT is compiling for 0% of the time\n"), log);
+    }
+  }
+
+  @Test
+  void shouldNotWarnDuringWarmupAndDivideByCompilerThreads()
+      throws IOException, InterruptedException {
+    AtomicLong compilationTimeMillis = new AtomicLong();
+    AtomicLong uptimeMillis = new AtomicLong(1_000);
+    JitMonitor jitMonitor = new JitMonitor(new TestCompilationMxBean(compilationTimeMillis),
+        () -> null, 4, uptimeMillis::get);
+    jitMonitor.configure(50, Duration.ofMinutes(1));
+    jitMonitor.sample();
+    try (OutputStream logStream = TestingUtil.initLogCaptureStream()) {
+      Thread.sleep(100);
+      // At most every compiler thread busy for the whole interval
+      compilationTimeMillis.addAndGet(4 * 100);
+      jitMonitor.sample();
+      double compilationTimePercent = jitMonitor.getCompilationTimePercent();
+      assertTrue(compilationTimePercent > 0 && compilationTimePercent <= 100,
+          String.valueOf(compilationTimePercent));
+      assertEquals("", TestingUtil.asNormalisedTxt(logStream));
+      uptimeMillis.set(60_000);
+      compilationTimeMillis.addAndGet(4 * 100_000);
+      jitMonitor.sample();
+      assertTrue(TestingUtil.asNormalisedTxt(logStream)
+          .startsWith("Compilation storm, the JIT is compiling for "));
+    }
+  }
+
+  @Test
+  void shouldParseCodeCache() {
+    assertTrue(JitMonitor.isCompilationEnabled(CODE_CACHE_ENABLED));
+    assertFalse(JitMonitor.isCompilationEnabled(CODE_CACHE_DISABLED));
+    assertTrue(JitMonitor.isCompilationEnabled("unexpected"));
+    assertEquals(0, JitMonitor.fullCount(CODE_CACHE_ENABLED));
+    assertEquals(2, JitMonitor.fullCount(CODE_CACHE_DISABLED));
+    assertEquals(-1, JitMonitor.fullCount("unexpected"));
+  }
+
+  private record TestCompilationMxBean(AtomicLong compilationTimeMillis) implements
+      CompilationMXBean {
+
+    @Override
+    public String getName() {
+      return "test";
+    }
+
+    @Override
+    public boolean isCompilationTimeMonitoringSupported() {
+      return true;
+    }
+
+    @Override
+    public long getTotalCompilationTime() {
+      return compilationTimeMillis.get();
+    }
+
+    @Override
+    public ObjectName getObjectName() {
+      return ManagementFactory.getCompilationMXBean().getObjectName();
+    }
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.webotech.metrics.Histogram;
+import com.webotech.metrics.MetricRegistry;
+import com.webotech.service.support.JournalReader.JournalRecord;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class JournalTest {
+
+  @TempDir
+  private Path dir;
+  private final Journal journal = new Journal();
+
+  @AfterEach
+  void tearDown() {
+    journal.close();
+  }
+
+  @Test
+  void shouldWriteAndReadRecords() throws IOException {
+    Path file = dir.resolve("support.journal");
+    journal.configure(file, 64 * 1024);
+    assertFalse(journal.write(JournalRecordType.EVENT, 1, "not open"));
+    journal.open("test-app");
+    assertTrue(journal.write(JournalRecordType.GC_PAUSE, 12, "G1 Young Generation"));
+    assertTrue(journal.write(JournalRecordType.CONFIG, 0, "db.password=***"));
+    assertTrue(journal.write(JournalRecordType.EVENT, 3, "caf\u00e9"));
+    Incidents.report(Incidents.DEADLOCK, "Deadlocked threads [a, b]");
+    Incidents.report(Incidents.MANUAL, "Operator trigger");
+    journal.close();
+    Incidents.report(Incidents.STALL, "Not journaled");
+    List<JournalRecord> records = JournalReader.read(file);
+    assertEquals(List.of(JournalRecordType.START, JournalRecordType.GC_PAUSE,
+            JournalRecordType.CONFIG, JournalRecordType.EVENT, JournalRecordType.DEADLOCK,
+            JournalRecordType.INCIDENT, JournalRecordType.STOP),
+        records.stream().map(JournalRecord::type).toList());
+    assertEquals(ProcessHandle.current().pid(), records.get(0).value());
+    assertEquals("test-app", records.get(0).text());
+    assertEquals(12, records.get(1).value());
+    assertEquals("G1 Young Generation", records.get(1).text());
+    assertEquals("caf?", records.get(3).text());
+    assertEquals("Deadlocked threads [a, b]", records.get(4).text());
+    assertEquals("manual: Operator trigger", records.get(5).text());
+    assertEquals("test-app", records.get(6).text());
+    assertTrue(records.get(1).toString().endsWith(" GC_PAUSE 12 G1 Young Generation"));
+  }
+
+  @Test
+  void shouldOverwriteOldestRecordsWhenFull() throws IOException {
+    Path file = dir.resolve("support.journal");
+    journal.configure(file, 4096);
+    journal.open("test-app");
+    for (int i = 0; i < 1000; i++) {
+      journal.write(JournalRecordType.EVENT, i, "event " + i);
+    }
+    List<JournalRecord> records = JournalReader.read(file);
+    assertTrue(records.size() > 50 && records.size() < 1000, records.size() + " records");
+    JournalRecord last = records.get(records.size() - 1);
+    assertEquals(999, last.value());
+    for (int i = 1; i < records.size(); i++) {
+      assertEquals(records.get(i - 1).value() + 1, records.get(i).value());
+      assertEquals("event " + records.get(i).value(), records.get(i).text());
+    }
+    assertFalse(journal.write(JournalRecordType.EVENT, 0, "x".repeat(2000)));
+  }
+
+  @Test
+  void shouldKeepRecordsWhenTheProcessDies() throws IOException {
+    Path file = dir.resolve("support.journal");
+    journal.configure(file, 64 * 1024);
+    journal.open("test-app");
+    journal.write(JournalRecordType.STALL, 0, "Thread worker has stalled");
+    // The journal is not closed, like when a process is killed
+    List<JournalRecord> records = JournalReader.read(file);
+    assertEquals(List.of(JournalRecordType.START, JournalRecordType.STALL),
+        records.stream().map(JournalRecord::type).toList());
+    Journal restartedJournal = new Journal();
+    restartedJournal.configure(file, 64 * 1024);
+    restartedJournal.open("test-app");
+    restartedJournal.close();
+    assertEquals(List.of(JournalRecordType.START, JournalRecordType.STALL, JournalRecordType.START,
+            JournalRecordType.STOP),
+        JournalReader.read(file).stream().map(JournalRecord::type).toList());
+  }
+
+  @Test
+  void shouldIgnoreATornRecord() throws IOException {
+    Path file = dir.resolve("support.journal");
+    journal.configure(file, 64 * 1024);
+    journal.open("test-app");
+    journal.write(JournalRecordType.EVENT, 1, "committed");
+    // The process dies after writing the body of a record but before committing it
+    assertTrue(journal.writeUncommitted(JournalRecordType.EVENT, 2, "torn") > 0);
+    List<JournalRecord> records = JournalReader.read(file);
+    assertEquals(List.of(JournalRecordType.START, JournalRecordType.EVENT),
+        records.stream().map(JournalRecord::type).toList());
+    assertEquals("committed", records.get(1).text());
+    Journal restartedJournal = new Journal();
+    restartedJournal.configure(file, 64 * 1024);
+    restartedJournal.open("test-app");
+    restartedJournal.write(JournalRecordType.EVENT, 3, "after restart");
+    restartedJournal.close();
+    records = JournalReader.read(file);
+    assertEquals(List.of(1L, 3L), records.stream()
+        .filter(journalRecord -> journalRecord.type() == JournalRecordType.EVENT)
+        .map(JournalRecord::value).toList());
+    assertTrue(records.stream().noneMatch(journalRecord -> "torn".equals(journalRecord.text())));
+  }
+
+  @Test
+  void shouldWriteMetrics() throws IOException {
+    Path file = dir.resolve("support.journal");
+    MetricRegistry metricRegistry = new MetricRegistry();
+    metricRegistry.counter("orders_total", "").add(5);
+    metricRegistry.gauge("orders_open", "", () -> 2.5);
+    Histogram histogram = metricRegistry.histogram("latency_nanos", "");
+    histogram.record(10);
+    histogram.record(20);
+    journal.configure(file, 64 * 1024);
+    journal.open("test-app");
+    assertTrue(journal.writeMetrics(metricRegistry.snapshot()));
+    JournalRecord metrics = JournalReader.read(file).get(1);
+    assertEquals(JournalRecordType.METRICS, metrics.type());
+    assertEquals(3, metrics.value());
+    assertEquals(
+        "orders_total=5 orders_open=2.5 latency_nanos{count=2,sum=30,p50=10,p99=20,max=20}",
+        metrics.text());
+  }
+
+  @Test
+  void shouldRejectFilesThatAreNotJournals() throws IOException {
+    Path file = Files.writeString(dir.resolve("not.journal"), "not a journal");
+    assertThrows(IOException.class, () -> JournalReader.read(file));
+    assertThrows(IllegalArgumentException.class, () -> journal.configure(file, 1024));
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.webotech.TestingUtil;
+import com.webotech.service.data.LiveSupportData;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class LiveSupportSamplerTest {
+
+  @Test
+  void shouldSampleAndLogOncePerInterval() throws IOException {
+    LiveSupportData liveSupportData = new LiveSupportData();
+    assertEquals(0, liveSupportData.getSampleTimeMillis());
+    LiveSupportSampler liveSupportSampler = new LiveSupportSampler(liveSupportData);
+    liveSupportSampler.configure(true, Duration.ofMinutes(1));
+    try (OutputStream logStream = TestingUtil.initLogCaptureStream()) {
+      liveSupportSampler.sample();
+      liveSupportSampler.sample();
+      String log = TestingUtil.asNormalisedTxt(logStream);
+      assertTrue(log.startsWith("\nLive SupportData\n\tUptime (ms): "));
+      assertEquals(1, log.split("Live SupportData").length - 1);
+      assertTrue(log.contains("\tSafepoint count: "));
+    }
+    assertTrue(liveSupportData.getSampleTimeMillis() > 0);
+    assertTrue(liveSupportData.getUptimeMillis() > 0);
+    assertTrue(liveSupportData.getHeapUsedBytes() > 0);
+    assertTrue(liveSupportData.getHeapCommittedBytes() >= liveSupportData.getHeapUsedBytes());
+    assertTrue(liveSupportData.getNonHeapUsedBytes() > 0);
+    assertTrue(liveSupportData.getLoadedClassCount() > 0);
+    assertTrue(liveSupportData.getThreadCount() > 0);
+    assertTrue(liveSupportData.getPeakThreadCount() >= liveSupportData.getThreadCount());
+    assertTrue(liveSupportData.getProcessCpuLoad() <= 1);
+  }
+
+  @Test
+  void shouldReadWithoutAllocating() {
+    com.sun.management.ThreadMXBean threadMxBean =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    LiveSupportData liveSupportData = new LiveSupportData();
+    liveSupportData.sample();
+    long sum = read(liveSupportData);
+    long allocatedBytes = threadMxBean.getCurrentThreadAllocatedBytes();
+    sum += read(liveSupportData);
+    assertEquals(0, threadMxBean.getCurrentThreadAllocatedBytes() - allocatedBytes);
+    assertTrue(sum > 0);
+  }
+
+  private static long read(LiveSupportData liveSupportData) {
+    return liveSupportData.getHeapUsedBytes() + liveSupportData.getNonHeapUsedBytes()
+        + liveSupportData.getThreadCount() + liveSupportData.getLoadedClassCount()
+        + liveSupportData.getUptimeMillis() + (long) liveSupportData.getProcessCpuLoad();
+  }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.Test;
+
+class MonitorsTest {
+
+  @Test
+  void shouldMakeDaemonThreadsThatAreTracked() throws InterruptedException {
+    ThreadLeakDetector threadLeakDetector = Monitors.getThreadLeakDetector();
+    threadLeakDetector.configure(Duration.ofMinutes(5), 10, Duration.ofMinutes(5), true);
+    CountDownLatch release = new CountDownLatch(1);
+    Thread thread = Monitors.newThreadFactory("tracked").newThread(() -> {
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    try {
+      thread.start();
+      assertTrue(thread.isDaemon());
+      assertTrue(thread.getName().startsWith("tracked"));
+      Map<String, Integer> liveThreadsByCreationSite = threadLeakDetector.getLiveThreadsByCreationSite();
+      assertEquals(1, liveThreadsByCreationSite.entrySet().stream()
+          .filter(e -> e.getKey().contains(MonitorsTest.class.getName())).count());
+    } finally {
+      release.countDown();
+      thread.join(1000);
+      threadLeakDetector.configure(Duration.ofMinutes(5), 10, Duration.ofMinutes(5), false);
+    }
+  }
+}
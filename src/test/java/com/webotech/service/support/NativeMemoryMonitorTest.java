@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.webotech.TestingUtil;
+import com.webotech.service.support.NativeMemoryMonitor.NativeMemoryStats;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class NativeMemoryMonitorTest {
+
+  @Test
+  void shouldSampleDirectBufferPool() {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(1024 * 1024);
+    NativeMemoryMonitor nativeMemoryMonitor = new NativeMemoryMonitor();
+    nativeMemoryMonitor.sample();
+    NativeMemoryStats direct = stats(nativeMemoryMonitor, "buffer pool direct");
+    assertTrue(direct.usedBytes() >= buffer.capacity());
+    assertTrue(direct.limitBytes() > 0);
+    assertTrue(direct.usagePercent() > 0);
+    assertTrue(stats(nativeMemoryMonitor, "Metaspace").usedBytes() > 0);
+    assertEquals(Map.of(), nativeMemoryMonitor.getNmtCommittedBytes());
+  }
+
+  @Test
+  void shouldWarnWhenUsageCrossesThreshold() throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(1024);
+    NativeMemoryMonitor nativeMemoryMonitor = new NativeMemoryMonitor();
+    try (OutputStream logStream = TestingUtil.initLogCaptureStream()) {
+      nativeMemoryMonitor.configure(Duration.ofMinutes(1), 0, false);
+      nativeMemoryMonitor.sample();
+      nativeMemoryMonitor.configure(Duration.ofMinutes(1), 101, false);
+      nativeMemoryMonitor.sample();
+      String log = TestingUtil.asNormalisedTxt(logStream);
+      assertTrue(log.contains("buffer pool direct is using "), log);
+      assertTrue(log.contains("byte limit, it is below the threshold"), log);
+    }
+    assertTrue(buffer.isDirect());
+  }
+
+  @Test
+  void shouldParseNmtSummary() {
+    String summary = """
+        12345:
+
+        Native Memory Tracking:
+
+        Total: reserved=2954534KB, committed=148758KB
+               malloc: 21830KB #47210
+               mmap:   reserved=2932704KB, committed=126928KB
+
+        -                 Java Heap (reserved=1538048KB, committed=96256KB)
+                                    (mmap: reserved=1538048KB, committed=96256KB)
+
+        -                     Class (reserved=1048839KB, committed=263KB)
+                                    (classes #1024)
+        """;
+    assertEquals(Map.of("Total", 148758L * 1024, "Java Heap", 96256L * 1024, "Class", 263L * 1024),
+        NativeMemoryMonitor.parseNmtSummary(summary));
+    assertEquals(List.of("Total", "Java Heap", "Class"),
+        List.copyOf(NativeMemoryMonitor.parseNmtSummary(summary).keySet()));
+  }
+
+  @Test
+  void shouldParseNmtSummaryWhenNotEnabled() {
+    assertEquals(Map.of(), NativeMemoryMonitor.parseNmtSummary(
+        "12345:\nNative memory tracking is not enabled\n"));
+    assertEquals(Map.of(), NativeMemoryMonitor.parseNmtSummary(null));
+  }
+
+  private static NativeMemoryStats stats(NativeMemoryMonitor nativeMemoryMonitor, String name) {
+    return nativeMemoryMonitor.getStats().stream().filter(s -> name.equals(s.name())).findFirst()
+        .orElseThrow();
+  }
+}
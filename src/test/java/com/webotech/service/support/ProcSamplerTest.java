@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.webotech.TestingUtil;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ProcSamplerTest {
+
+  @TempDir
+  private Path procDir;
+
+  @Test
+  void shouldSampleThisProcess() {
+    ProcSampler procSampler = new ProcSampler();
+    assumeTrue(procSampler.isSupported());
+    procSampler.sample();
+    procSampler.sample();
+    assertTrue(procSampler.getRssBytes() > 0);
+    assertTrue(procSampler.getRssPeakBytes() >= procSampler.getRssBytes());
+    assertTrue(procSampler.getThreadCount() > 0);
+    assertTrue(procSampler.getFdCount() > 0);
+    assertTrue(procSampler.getMinorFaults() > 0);
+    assertTrue(procSampler.getMajorFaults() >= 0);
+    assertTrue(procSampler.getVoluntaryContextSwitches() > 0);
+    assertTrue(procSampler.getInvoluntaryContextSwitches() >= 0);
+  }
+
+  @Test
+  void shouldWarnWhenThresholdsAreCrossed() throws IOException {
+    Files.writeString(procDir.resolve("status"),
+        "Name:\tjava\nVmHWM:\t  204800 kB\nVmRSS:\t  102400 kB\nThreads:\t2\n");
+    Files.writeString(procDir.resolve("stat"),
+        "42 (java (main) x) S 1 42 42 0 -1 4194560 1500 0 7 0 10 5 0 0 20 0 2 0\n");
+    Files.writeString(procDir.resolve("limits"),
+        "Limit                     Soft Limit           Hard Limit           Units\n"
+            + "Max open files            4                    1024                 files\n");
+    // One of the file descriptors is for listing the fd directory itself
+    Path fdDir = Files.createDirectories(procDir.resolve("fd"));
+    for (int i = 0; i < 5; i++) {
+      Files.createFile(fdDir.resolve(String.valueOf(i)));
+    }
+    writeTaskStatus("42", 10, 3);
+    writeTaskStatus("43", 20, 4);
+    ProcSampler procSampler = new ProcSampler(procDir.toString());
+    procSampler.configure(80, 50 * 1024 * 1024, 0, 0, Duration.ZERO);
+    try (OutputStream logStream = TestingUtil.initLogCaptureStream()) {
+      procSampler.sample();
+      assertEquals(100L * 1024 * 1024, procSampler.getRssBytes());
+      assertEquals(200L * 1024 * 1024, procSampler.getRssPeakBytes());
+      assertEquals(2, procSampler.getThreadCount());
+      assertEquals(1500, procSampler.getMinorFaults());
+      assertEquals(7, procSampler.getMajorFaults());
+      assertEquals(4, procSampler.getFdCount());
+      assertEquals(4, procSampler.getFdLimit());
+      assertEquals(30, procSampler.getVoluntaryContextSwitches());
+      assertEquals(7, procSampler.getInvoluntaryContextSwitches());
+      Files.delete(fdDir.resolve("0"));
+      Files.delete(fdDir.resolve("1"));
+      procSampler.sample();
+      assertEquals(
+          "File descriptors crossed the threshold, 4 of 4 open files are used\n"
+              + "RSS crossed the threshold, it is 104857600 bytes, the threshold is 52428800 bytes\n"
+              + "File descriptors recovered, 2 of 4 open files are used\n",
+          TestingUtil.asNormalisedTxt(logStream));
+    }
+  }
+
+  @Test
+  void shouldReadKeptOpenFilesAgainFromTheStart() throws IOException {
+    Path statusFile = procDir.resolve("status");
+    Files.writeString(statusFile, "Name:\tjava\nVmRSS:\t  1024 kB\nThreads:\t2\n");
+    ProcSampler procSampler = new ProcSampler(procDir.toString());
+    procSampler.configure(0, 0, 0, 0, Duration.ZERO);
+    procSampler.sample();
+    assertEquals(1024L * 1024, procSampler.getRssBytes());
+    // Larger than the initial buffer
+    Files.writeString(statusFile, "Name:\tjava\n" + "Padding:\t0\n".repeat(500)
+        + "VmRSS:\t  2048 kB\nThreads:\t3\n");
+    procSampler.sample();
+    assertEquals(2048L * 1024, procSampler.getRssBytes());
+    assertEquals(3, procSampler.getThreadCount());
+    procSampler.stop();
+    Files.writeString(statusFile, "Name:\tjava\nVmRSS:\t  512 kB\nThreads:\t1\n");
+    procSampler.sample();
+    assertEquals(512L * 1024, procSampler.getRssBytes());
+    assertEquals(1, procSampler.getThreadCount());
+    procSampler.stop();
+  }
+
+  @Test
+  void shouldOnlyScanFileDescriptorsAndThreadsOncePerScanPeriod() throws IOException {
+    Files.writeString(procDir.resolve("status"), "Name:\tjava\nVmRSS:\t  1024 kB\nThreads:\t2\n");
+    Path fdDir = Files.createDirectories(procDir.resolve("fd"));
+    for (int i = 0; i < 3; i++) {
+      Files.createFile(fdDir.resolve(String.valueOf(i)));
+    }
+    writeTaskStatus("42", 10, 3);
+    ProcSampler procSampler = new ProcSampler(procDir.toString());
+    procSampler.configure(0, 0, 0, 0, Duration.ofHours(1));
+    procSampler.sample();
+    assertEquals(2, procSampler.getFdCount());
+    assertEquals(10, procSampler.getVoluntaryContextSwitches());
+    Files.createFile(fdDir.resolve("3"));
+    writeTaskStatus("43", 20, 4);
+    Files.writeString(procDir.resolve("status"), "Name:\tjava\nVmRSS:\t  2048 kB\nThreads:\t3\n");
+    procSampler.sample();
+    assertEquals(2048L * 1024, procSampler.getRssBytes());
+    assertEquals(2, procSampler.getFdCount());
+    assertEquals(10, procSampler.getVoluntaryContextSwitches());
+    procSampler.configure(0, 0, 0, 0, Duration.ZERO);
+    procSampler.sample();
+    assertEquals(3, procSampler.getFdCount());
+    assertEquals(30, procSampler.getVoluntaryContextSwitches());
+    procSampler.stop();
+  }
+
+  @Test
+  void shouldNotBeSupportedWithoutProc() {
+    assertFalse(new ProcSampler(procDir.resolve("missing").toString()).isSupported());
+  }
+
+  private void writeTaskStatus(String tid, long voluntary, long involuntary) throws IOException {
+    Path taskDir = Files.createDirectories(procDir.resolve("task").resolve(tid));
+    Files.writeString(taskDir.resolve("status"),
+        "Name:\tjava\nvoluntary_ctxt_switches:\t" + voluntary + "\nnonvoluntary_ctxt_switches:\t"
+            + involuntary + "\n");
+  }
+}
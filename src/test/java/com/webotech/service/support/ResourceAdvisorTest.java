@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.webotech.service.data.CgroupLimits;
+import org.junit.jupiter.api.Test;
+
+class ResourceAdvisorTest {
+
+  private static final long GI_B = 1024L * 1024 * 1024;
+
+  @Test
+  void shouldAdviseFromCgroupLimits() {
+    ResourceAdvisor resourceAdvisor = new ResourceAdvisor(
+        new CgroupLimits(CgroupLimits.V2, 250000, 100000, "0-7", 4 * GI_B, null), 16, 64 * GI_B,
+        2 * GI_B, 100 * 1024 * 1024);
+    assertEquals(3, resourceAdvisor.getEffectiveProcessors());
+    assertEquals(3, resourceAdvisor.cpuBoundPoolSize());
+    assertEquals(30, resourceAdvisor.blockingPoolSize(9));
+    assertEquals(4 * GI_B, resourceAdvisor.getMemoryLimitBytes());
+    assertEquals(3 * GI_B, resourceAdvisor.recommendedHeapBytes());
+    assertEquals(4 * GI_B - 2 * GI_B - (long) (4 * GI_B * 0.1),
+        resourceAdvisor.offHeapBudgetBytes());
+    assertEquals(GI_B / 2, resourceAdvisor.heapBudgetBytes(25));
+  }
+
+  @Test
+  void shouldAdviseFromHostWhenUnlimited() {
+    ResourceAdvisor resourceAdvisor = new ResourceAdvisor(
+        new CgroupLimits(CgroupLimits.NONE, -1, -1, "", -1, null), 4, 8 * GI_B, 8 * GI_B, GI_B);
+    assertEquals(4, resourceAdvisor.getEffectiveProcessors());
+    assertEquals(8 * GI_B, resourceAdvisor.getMemoryLimitBytes());
+    assertEquals(0, resourceAdvisor.offHeapBudgetBytes());
+    assertThrows(IllegalArgumentException.class, () -> resourceAdvisor.blockingPoolSize(-1));
+    assertThrows(IllegalArgumentException.class, () -> resourceAdvisor.heapBudgetBytes(0));
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.webotech.statemachine.util.Threads;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class StackSamplerTest {
+
+  @TempDir
+  private Path directory;
+
+  @Test
+  void shouldWriteCollapsedStacksToRollingFiles() throws InterruptedException, IOException {
+    CountDownLatch spinning = new CountDownLatch(1);
+    Thread spinner = Threads.newNamedDaemonThreadFactory("spinner")
+        .newThread(() -> spin(spinning));
+    spinner.start();
+    spinning.await(2, TimeUnit.SECONDS);
+    ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+        Threads.newNamedDaemonThreadFactory("monitor"));
+    StackSampler stackSampler = new StackSampler();
+    stackSampler.configure(directory, 2, Duration.ZERO, 100, 64);
+    try {
+      stackSampler.start(scheduler, Duration.ofHours(1));
+      for (int i = 1; i <= 3; i++) {
+        // Files are named by the millisecond they are written in
+        TimeUnit.MILLISECONDS.sleep(2);
+        while (stackSampler.getSampleCounts()[0] < i) {
+          stackSampler.sample();
+        }
+      }
+    } finally {
+      stackSampler.stop();
+      spinner.interrupt();
+      scheduler.shutdownNow();
+    }
+    assertFalse(stackSampler.isRunning());
+    List<Path> files = collapsedFiles();
+    assertEquals(2, files.size());
+    String collapsed = Files.readString(files.get(1));
+    assertTrue(collapsed.contains("java.lang.Thread.run;"));
+    assertTrue(collapsed.contains(StackSamplerTest.class.getName() + ".spin"));
+    assertTrue(collapsed.lines().allMatch(l -> l.matches("\\S+ \\d+")));
+    assertEquals(3, stackSampler.getSampleCounts()[0]);
+  }
+
+  @Test
+  void shouldNotSampleWhenInactive() {
+    ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+        Threads.newNamedDaemonThreadFactory("monitor"));
+    StackSampler stackSampler = new StackSampler();
+    stackSampler.configure(directory, 2, Duration.ofMinutes(1), 100, 64);
+    stackSampler.setActive(false);
+    try {
+      stackSampler.start(scheduler, Duration.ofHours(1));
+      for (int i = 0; i < 3; i++) {
+        stackSampler.sample();
+      }
+      assertEquals(0, stackSampler.getSampleCounts()[0]);
+      assertEquals(0, stackSampler.getSampleCounts()[1]);
+      assertTrue(stackSampler.getCollapsedStacks().isEmpty());
+    } finally {
+      stackSampler.stop();
+      scheduler.shutdownNow();
+    }
+    assertThrows(IllegalArgumentException.class,
+        () -> stackSampler.configure(directory, 2, Duration.ofMinutes(1), 0, 64));
+  }
+
+  private List<Path> collapsedFiles() throws IOException {
+    try (Stream<Path> paths = Files.list(directory)) {
+      return paths.sorted().toList();
+    }
+  }
+
+  private static void spin(CountDownLatch spinning) {
+    spinning.countDown();
+    while (!Thread.currentThread().isInterrupted()) {
+      Thread.onSpinWait();
+    }
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.webotech.TestingUtil;
+import com.webotech.service.support.StallWatchdog.Heartbeat;
+import com.webotech.statemachine.util.Threads;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.Thread.State;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class StallWatchdogTest {
+
+  private StallWatchdog stallWatchdog;
+  private CountDownLatch release;
+
+  @BeforeEach
+  void setup() {
+    stallWatchdog = new StallWatchdog();
+    stallWatchdog.configure(Duration.ofMillis(10), Duration.ofMinutes(1));
+    release = new CountDownLatch(1);
+  }
+
+  @AfterEach
+  void tearDown() {
+    release.countDown();
+  }
+
+  @Test
+  void shouldLogStackOfStalledThreadOnce() throws InterruptedException, IOException {
+    CountDownLatch registered = new CountDownLatch(1);
+    Thread thread = Threads.newNamedDaemonThreadFactory("stuck").newThread(() -> {
+      Heartbeat heartbeat = stallWatchdog.register(Thread.currentThread());
+      heartbeat.beat();
+      registered.countDown();
+      awaitRelease();
+    });
+    try (OutputStream logStream = TestingUtil.initLogCaptureStream()) {
+      thread.start();
+      registered.await(2, TimeUnit.SECONDS);
+      while (thread.getState() != State.WAITING) {
+        TimeUnit.MILLISECONDS.sleep(1);
+      }
+      stallWatchdog.sample();
+      assertEquals(0, stallWatchdog.getStallCount());
+      TimeUnit.MILLISECONDS.sleep(20);
+      stallWatchdog.sample();
+      stallWatchdog.sample();
+      String log = TestingUtil.asNormalisedTxt(logStream);
+      assertTrue(log.startsWith("Thread stuck-0 has stalled, its heartbeat has not advanced for "));
+      assertTrue(log.contains("\"stuck-0\" WAITING on java.util.concurrent.CountDownLatch$Sync@"));
+      assertTrue(log.contains("java.util.concurrent.CountDownLatch.await("));
+      assertEquals(log.indexOf("has stalled"), log.lastIndexOf("has stalled"));
+      assertEquals(1, stallWatchdog.getStallCount());
+      assertEquals(1, stallWatchdog.getStalledThreadCount());
+    }
+  }
+
+  @Test
+  void shouldNotReportIdleOrProgressingThreads() throws InterruptedException {
+    Heartbeat idle = stallWatchdog.register(Thread.currentThread());
+    idle.idle();
+    Heartbeat progressing = stallWatchdog.register(Thread.currentThread());
+    for (int i = 0; i < 3; i++) {
+      progressing.beat();
+      stallWatchdog.sample();
+      TimeUnit.MILLISECONDS.sleep(20);
+    }
+    progressing.beat();
+    stallWatchdog.sample();
+    assertFalse(idle.isStalled());
+    assertFalse(progressing.isStalled());
+    assertEquals(4, progressing.getCount());
+    assertEquals(0, stallWatchdog.getStallCount());
+  }
+
+  private void awaitRelease() {
+    try {
+      release.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.webotech.TestingUtil;
+import com.webotech.service.support.StarvationDetector.StarvedThread;
+import com.webotech.statemachine.util.Threads;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.Thread.State;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import org.junit.jupiter.api.Test;
+
+class StarvationDetectorTest {
+
+  @Test
+  void shouldReportLongWaitingThreadWithOwnerStack() throws InterruptedException, IOException {
+    ReentrantLock lock = new ReentrantLock();
+    CountDownLatch locked = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Thread hog = Threads.newNamedDaemonThreadFactory("hog").newThread(() -> {
+      lock.lock();
+      try {
+        locked.countDown();
+        await(release);
+      } finally {
+        lock.unlock();
+      }
+    });
+    hog.start();
+    locked.await(2, TimeUnit.SECONDS);
+    Thread starved = Threads.newNamedDaemonThreadFactory("starved").newThread(() -> {
+      lock.lock();
+      lock.unlock();
+    });
+    starved.start();
+    while (hog.getState() != State.WAITING || starved.getState() != State.WAITING) {
+      TimeUnit.MILLISECONDS.sleep(1);
+    }
+    StarvationDetector starvationDetector = new StarvationDetector();
+    starvationDetector.configure(Duration.ofMillis(10), Duration.ofMinutes(1));
+    try (OutputStream logStream = TestingUtil.initLogCaptureStream()) {
+      starvationDetector.sample();
+      assertTrue(starvationDetector.getStarvedThreads().isEmpty());
+      TimeUnit.MILLISECONDS.sleep(20);
+      starvationDetector.sample();
+      starvationDetector.sample();
+      List<StarvedThread> starvedThreads = starvationDetector.getStarvedThreads();
+      assertEquals(1, starvedThreads.size());
+      assertEquals("starved-0", starvedThreads.get(0).threadName());
+      assertEquals("hog-0", starvedThreads.get(0).ownerName());
+      assertTrue(starvedThreads.get(0).waitedMillis() >= 20);
+      String log = TestingUtil.asNormalisedTxt(logStream);
+      assertTrue(log.startsWith("Thread starved-0 has been waiting for "
+          + "java.util.concurrent.locks.ReentrantLock$NonfairSync@"));
+      assertTrue(log.contains("it is owned by hog-0, the owner's stack is:\n\"hog-0\" WAITING\n"));
+      assertTrue(log.contains("java.util.concurrent.CountDownLatch.await("));
+      assertEquals(1, log.lines().filter(l -> l.startsWith("Thread starved-0")).count());
+    } finally {
+      release.countDown();
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.webotech.TestingUtil;
+import com.webotech.statemachine.util.Threads;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class ThreadLeakDetectorTest {
+
+  @Test
+  void shouldReportLeakGroupedByCreationSite() throws InterruptedException, IOException {
+    ThreadLeakDetector threadLeakDetector = new ThreadLeakDetector();
+    threadLeakDetector.configure(Duration.ofMillis(20), 60, Duration.ofMinutes(1), true);
+    ThreadFactory threadFactory = threadLeakDetector.track(
+        Threads.newNamedDaemonThreadFactory("leaky"));
+    CountDownLatch release = new CountDownLatch(1);
+    List<Thread> threads = new ArrayList<>();
+    try (OutputStream logStream = TestingUtil.initLogCaptureStream()) {
+      threadLeakDetector.sample();
+      for (int i = 0; i < 20; i++) {
+        threads.add(leak(threadFactory, release));
+      }
+      TimeUnit.MILLISECONDS.sleep(20);
+      threadLeakDetector.sample();
+      assertTrue(threadLeakDetector.getGrowthPerMinute() > 60);
+      Map<String, Integer> liveThreadsByCreationSite = threadLeakDetector.getLiveThreadsByCreationSite();
+      assertEquals(1, liveThreadsByCreationSite.size());
+      String creationSite = liveThreadsByCreationSite.keySet().iterator().next();
+      assertTrue(creationSite.contains(ThreadLeakDetectorTest.class.getName() + ".leak("));
+      assertEquals(20, liveThreadsByCreationSite.get(creationSite));
+      String log = TestingUtil.asNormalisedTxt(logStream);
+      assertTrue(log.startsWith("Thread count grew from "));
+      assertTrue(log.contains(", live threads by creation site:\n\t20 live threads created at\n\t\tat "
+          + ThreadLeakDetectorTest.class.getName() + ".leak("));
+      for (int i = 0; i < 5; i++) {
+        threads.add(leak(threadFactory, release));
+      }
+      TimeUnit.MILLISECONDS.sleep(20);
+      threadLeakDetector.sample();
+      assertTrue(threadLeakDetector.getGrowthPerMinute() > 60);
+      log = TestingUtil.asNormalisedTxt(logStream);
+      assertEquals(1, log.lines().filter(l -> l.startsWith("Thread count grew")).count());
+    } finally {
+      release.countDown();
+    }
+    for (Thread thread : threads) {
+      thread.join(1000);
+    }
+    assertTrue(threadLeakDetector.getLiveThreadsByCreationSite().isEmpty());
+  }
+
+  private static Thread leak(ThreadFactory threadFactory, CountDownLatch release) {
+    Thread thread = threadFactory.newThread(() -> {
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    thread.start();
+    return thread;
+  }
+}
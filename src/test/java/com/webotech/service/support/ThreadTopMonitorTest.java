@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2026 Paul Mackinlay <paul.mackinlay@gmail.com>
+ */
+
+package com.webotech.service.support;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.webotech.TestingUtil;
+import com.webotech.service.support.ThreadTopMonitor.ThreadUsage;
+import com.webotech.statemachine.util.Threads;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class ThreadTopMonitorTest {
+
+  private static volatile Object sink;
+
+  @Test
+  void shouldReportTopAllocatingThread() throws InterruptedException, IOException {
+    AtomicLong allocationCount = new AtomicLong();
+    Thread allocator = Threads.newNamedDaemonThreadFactory("allocator").newThread(() -> {
+      while (!Thread.currentThread().isInterrupted()) {
+        sink = new byte[1024];
+        allocationCount.incrementAndGet();
+      }
+    });
+    allocator.start();
+    ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+        Threads.newNamedDaemonThreadFactory("monitor"));
+    ThreadTopMonitor threadTopMonitor = new ThreadTopMonitor();
+    threadTopMonitor.configure(3);
+    try (OutputStream logStream = TestingUtil.initLogCaptureStream()) {
+      threadTopMonitor.start(scheduler, Duration.ofHours(1));
+      threadTopMonitor.sample();
+      assertTrue(threadTopMonitor.getTopByAllocation().isEmpty());
+      long targetCount = allocationCount.get() + 10_000;
+      while (allocationCount.get() < targetCount) {
+        TimeUnit.MILLISECONDS.sleep(1);
+      }
+      threadTopMonitor.sample();
+      List<ThreadUsage> topByAllocation = threadTopMonitor.getTopByAllocation();
+      assertTrue(topByAllocation.size() <= 3);
+      assertEquals("allocator-0", topByAllocation.get(0).threadName());
+      assertTrue(topByAllocation.get(0).allocatedBytesPerSecond() > 0);
+      List<ThreadUsage> topByCpu = threadTopMonitor.getTopByCpu();
+      assertFalse(topByCpu.isEmpty());
+      for (int i = 1; i < topByCpu.size(); i++) {
+        assertTrue(topByCpu.get(i - 1).cpuPercent() >= topByCpu.get(i).cpuPercent());
+      }
+      String log = TestingUtil.asNormalisedTxt(logStream);
+      assertTrue(log.startsWith("Top threads by CPU in the last "));
+      assertTrue(log.contains("Top threads by allocation:\n\tallocator-0 ("));
+    } finally {
+      allocator.interrupt();
+      threadTopMonitor.stop();
+      scheduler.shutdownNow();
+    }
+    assertFalse(threadTopMonitor.isRunning());
+  }
+}
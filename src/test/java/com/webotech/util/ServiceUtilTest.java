@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2024-2025 Paul Mackinlay <paul.mackinlay@gmail.com>
+ * Copyright (c) 2024-2026 Paul Mackinlay <paul.mackinlay@gmail.com>
  */
 
 package com.webotech.util;
@@ -8,25 +8,43 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.webotech.TestingUtil;
+import com.webotech.service.CdsTrainingSubsystem;
+import com.webotech.service.ExecutorSubsystem;
 import com.webotech.service.PropSubsystem;
+import com.webotech.service.SubsystemGraph;
 import com.webotech.service.SupportSubsystem;
 import com.webotech.service.TestAppContext;
 import com.webotech.statemachine.service.api.AppService;
 import com.webotech.statemachine.service.api.Subsystem;
 import com.webotech.util.ServiceUtil.BasicAppContext;
 import com.webotech.util.ServiceUtil.Equip;
+import com.webotech.util.ServiceUtil.LazySubsystem;
+import com.webotech.util.ServiceUtil.ShutdownCoordinator;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import org.junit.jupiter.api.BeforeEach;
@@ -88,16 +106,18 @@ class ServiceUtilTest {
     try (OutputStream logSteam = TestingUtil.initLogCaptureStream()) {
       appContext = ServiceUtil.preemptAppProps(new String[0]).equipContext(appContext);
       List<Subsystem<TestAppContext>> subsystems = appContext.getSubsystems();
-      assertEquals(2, subsystems.size());
+      assertEquals(3, subsystems.size());
       assertInstanceOf(PropSubsystem.class, subsystems.get(0));
       assertInstanceOf(SupportSubsystem.class, subsystems.get(1));
+      assertInstanceOf(ExecutorSubsystem.class, subsystems.get(2));
       assertEquals("Loading properties\n"
           + "Loading properties from resource [config.properties]\n"
           + "1 properties loaded\n"
           + "key=ok\n"
           + "TestAppContext instrumented with the following Subsystems:\n"
           + "\tcom.webotech.service.PropSubsystem\n"
-          + "\tcom.webotech.service.SupportSubsystem\n", TestingUtil.asNormalisedTxt(logSteam));
+          + "\tcom.webotech.service.SupportSubsystem\n"
+          + "\tcom.webotech.service.ExecutorSubsystem\n", TestingUtil.asNormalisedTxt(logSteam));
     }
   }
 
@@ -107,10 +127,11 @@ class ServiceUtilTest {
     Subsystem subsystem = mock(Subsystem.class);
     appContext = ServiceUtil.equipContext(appContext, subsystem);
     List<Subsystem<TestAppContext>> subsystems = appContext.getSubsystems();
-    assertEquals(3, subsystems.size());
+    assertEquals(4, subsystems.size());
     assertInstanceOf(PropSubsystem.class, subsystems.get(0));
     assertInstanceOf(SupportSubsystem.class, subsystems.get(1));
-    assertSame(subsystem, subsystems.get(2));
+    assertInstanceOf(ExecutorSubsystem.class, subsystems.get(2));
+    assertSame(subsystem, subsystems.get(3));
   }
 
   @Test
@@ -123,7 +144,7 @@ class ServiceUtilTest {
     List<? extends Class<? extends Subsystem>> subsystemClasses = appContext.getSubsystems()
         .stream().map(s -> s.getClass()).toList();
     List<? extends Class<? extends Subsystem>> expectedClasses = List.of(PropSubsystem.class,
-        SupportSubsystem.class);
+        SupportSubsystem.class, ExecutorSubsystem.class);
     assertEquals(expectedClasses, subsystemClasses);
   }
 
@@ -141,8 +162,205 @@ class ServiceUtilTest {
         .stream().map(s -> s.getClass()).toList();
     assertEquals(PropSubsystem.class, subsystemClasses.get(0));
     assertEquals(SupportSubsystem.class, subsystemClasses.get(1));
-    assertSame(subsystem1, subsystems.get(2));
-    assertSame(subsystem2, subsystems.get(3));
+    assertEquals(ExecutorSubsystem.class, subsystemClasses.get(2));
+    assertSame(subsystem1, subsystems.get(3));
+    assertSame(subsystem2, subsystems.get(4));
+  }
+
+  @Test
+  void shouldEquipCdsTrainingSubsystemLastForTrainingRun() {
+    BasicAppContext appContext = ServiceUtil.equipBasicContext("AnApp",
+        new String[]{"cdsTraining=true"}, mock(Subsystem.class));
+    List<Subsystem<BasicAppContext>> subsystems = appContext.getSubsystems();
+    assertEquals(5, subsystems.size());
+    assertInstanceOf(CdsTrainingSubsystem.class, subsystems.get(4));
+  }
+
+  @Test
+  void shouldGetConcurrentlyEquippedBasicContext() {
+    Subsystem<BasicAppContext> subsystem1 = mock(Subsystem.class);
+    Subsystem<BasicAppContext> subsystem2 = mock(Subsystem.class);
+    SubsystemGraph<BasicAppContext> graph = new SubsystemGraph<BasicAppContext>().add(subsystem1)
+        .add(subsystem2, subsystem1);
+    BasicAppContext appContext = ServiceUtil.equipConcurrentBasicContext("AnApp", new String[0],
+        graph);
+    List<Subsystem<BasicAppContext>> subsystems = appContext.getSubsystems();
+    assertEquals(4, subsystems.size());
+    assertInstanceOf(PropSubsystem.class, subsystems.get(0));
+    assertInstanceOf(SupportSubsystem.class, subsystems.get(1));
+    assertInstanceOf(ExecutorSubsystem.class, subsystems.get(2));
+    assertSame(graph, subsystems.get(3));
+  }
+
+  @Test
+  void shouldSplitShutdownDeadlineBetweenStages() {
+    PropertyUtil.setProperty(ServiceUtil.PROP_KEY_SHUTDOWN_DEADLINE_ISO8601, "PT10S");
+    try {
+      Subsystem<BasicAppContext> subsystem1 = mock(Subsystem.class);
+      Subsystem<BasicAppContext> subsystem2 = mock(Subsystem.class);
+      BasicAppContext appContext = ServiceUtil.equipConcurrentBasicContext("AnApp",
+          new String[0],
+          new SubsystemGraph<BasicAppContext>().add(subsystem1).add(subsystem2, subsystem1));
+      ShutdownCoordinator shutdownCoordinator = ServiceUtil.getShutdownCoordinator(appContext);
+      assertFalse(shutdownCoordinator.isBegun());
+      Duration budget = shutdownCoordinator.nextStageBudget();
+      assertTrue(shutdownCoordinator.isBegun());
+      assertTrue(budget.compareTo(Duration.ofMillis(2500)) <= 0);
+      assertTrue(budget.compareTo(Duration.ofMillis(2400)) > 0);
+      assertThrows(IllegalArgumentException.class, () -> ServiceUtil.getShutdownCoordinator(
+          new BasicAppContext("AnApp", new String[0])));
+    } finally {
+      PropertyUtil.removeProperty(ServiceUtil.PROP_KEY_SHUTDOWN_DEADLINE_ISO8601);
+    }
+  }
+
+  @Test
+  void shouldBoundStoppingAppSubsystemsFromWhenTheAppStops() throws InterruptedException {
+    PropertyUtil.setProperty(ServiceUtil.PROP_KEY_SHUTDOWN_DEADLINE_ISO8601, "PT1S");
+    CountDownLatch release = new CountDownLatch(1);
+    try {
+      Subsystem<TestAppContext> stuckSubsystem = mock(Subsystem.class);
+      doAnswer(invocation -> {
+        release.await();
+        return null;
+      }).when(stuckSubsystem).stop(any());
+      Subsystem<TestAppContext> subsystem = mock(Subsystem.class);
+      TestAppContext appContext = ServiceUtil.equipConcurrentContext(
+          new TestAppContext("test", new String[0]),
+          new SubsystemGraph<TestAppContext>().add(subsystem).add(stuckSubsystem, subsystem));
+      ShutdownCoordinator shutdownCoordinator = ServiceUtil.getShutdownCoordinator(appContext);
+      appContext.getSubsystems().forEach(s -> s.start(appContext));
+      Thread.sleep(200);
+      assertFalse(shutdownCoordinator.isBegun());
+      List<Subsystem<TestAppContext>> subsystems = new ArrayList<>(appContext.getSubsystems());
+      Collections.reverse(subsystems);
+      long startNanos = System.nanoTime();
+      subsystems.forEach(s -> s.stop(appContext));
+      assertTrue(System.nanoTime() - startNanos < TimeUnit.MILLISECONDS.toNanos(1000));
+      assertEquals(List.of(stuckSubsystem.getClass().getName()),
+          shutdownCoordinator.getOverruns());
+      verify(subsystem, times(1)).stop(appContext);
+    } finally {
+      release.countDown();
+      PropertyUtil.removeProperty(ServiceUtil.PROP_KEY_SHUTDOWN_DEADLINE_ISO8601);
+    }
+  }
+
+  @Test
+  void shouldStopPlainSubsystemOnCallingThread() {
+    Subsystem<TestAppContext> subsystem = mock(Subsystem.class);
+    AtomicReference<Thread> stopThread = new AtomicReference<>();
+    doAnswer(invocation -> {
+      stopThread.set(Thread.currentThread());
+      return null;
+    }).when(subsystem).stop(any());
+    TestAppContext appContext = ServiceUtil.equipContext(new TestAppContext("test", new String[0]),
+        subsystem);
+    appContext.getSubsystems().forEach(s -> s.start(appContext));
+    List<Subsystem<TestAppContext>> subsystems = new ArrayList<>(appContext.getSubsystems());
+    Collections.reverse(subsystems);
+    subsystems.forEach(s -> s.stop(appContext));
+    assertSame(Thread.currentThread(), stopThread.get());
+    assertTrue(ServiceUtil.getShutdownCoordinator(appContext).isBegun());
+  }
+
+  @Test
+  void shouldReportStopLogicThatOverrunsItsBudget() {
+    ShutdownCoordinator shutdownCoordinator = new ShutdownCoordinator();
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicBoolean isFastStopped = new AtomicBoolean(false);
+    Map<String, Runnable> stopLogic = new LinkedHashMap<>();
+    stopLogic.put("slow", () -> {
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    stopLogic.put("fast", () -> isFastStopped.set(true));
+    List<String> overran = shutdownCoordinator.stopInParallel(stopLogic, Duration.ofMillis(100));
+    release.countDown();
+    assertEquals(List.of("slow"), overran);
+    assertEquals(List.of("slow"), shutdownCoordinator.getOverruns());
+    assertTrue(isFastStopped.get());
+    shutdownCoordinator.reset();
+    assertTrue(shutdownCoordinator.getOverruns().isEmpty());
+  }
+
+  @Test
+  void shouldReportStopLogicAsOverrunWhenInterrupted() {
+    ShutdownCoordinator shutdownCoordinator = new ShutdownCoordinator();
+    CountDownLatch release = new CountDownLatch(1);
+    Thread.currentThread().interrupt();
+    List<String> overran = shutdownCoordinator.stopInParallel(Map.of("slow", () -> {
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }), Duration.ofSeconds(10));
+    assertTrue(Thread.interrupted());
+    release.countDown();
+    assertEquals(List.of("slow"), overran);
+    assertEquals(List.of("slow"), shutdownCoordinator.getOverruns());
+  }
+
+  @Test
+  void shouldStartLazySubsystemOnFirstAccessOnly() {
+    TestAppContext appContext = new TestAppContext("test", new String[0]);
+    Subsystem<TestAppContext> subsystem = mock(Subsystem.class);
+    LazySubsystem<TestAppContext, Subsystem<TestAppContext>> lazySubsystem = ServiceUtil.lazy(
+        subsystem);
+    appContext = ServiceUtil.equipContext(appContext, lazySubsystem);
+    assertThrows(IllegalStateException.class, lazySubsystem::get);
+    lazySubsystem.start(appContext);
+    verify(subsystem, never()).start(appContext);
+    assertFalse(lazySubsystem.isStarted());
+    assertNull(lazySubsystem.getStartedAt());
+    assertSame(subsystem, ServiceUtil.getLazySubsystem(appContext, Subsystem.class));
+    assertSame(subsystem, lazySubsystem.get());
+    verify(subsystem, times(1)).start(appContext);
+    assertTrue(lazySubsystem.isStarted());
+    assertNotNull(lazySubsystem.getStartedAt());
+    assertNotNull(lazySubsystem.getStartDuration());
+    lazySubsystem.stop(appContext);
+    verify(subsystem, times(1)).stop(appContext);
+    assertThrows(IllegalStateException.class, lazySubsystem::get);
+  }
+
+  @Test
+  void shouldStopLazySubsystemThatFailsToStartAndNotStartItAgain() {
+    TestAppContext appContext = new TestAppContext("test", new String[0]);
+    Subsystem<TestAppContext> subsystem = mock(Subsystem.class);
+    IllegalStateException failure = new IllegalStateException("test induced");
+    doThrow(failure).when(subsystem).start(appContext);
+    LazySubsystem<TestAppContext, Subsystem<TestAppContext>> lazySubsystem = ServiceUtil.lazy(
+        subsystem);
+    lazySubsystem.start(appContext);
+    Instant beforeAccess = Instant.now();
+    IllegalStateException exception = assertThrows(IllegalStateException.class,
+        lazySubsystem::get);
+    assertSame(failure, exception.getCause());
+    verify(subsystem, times(1)).stop(appContext);
+    assertFalse(lazySubsystem.isStarted());
+    assertFalse(lazySubsystem.getStartedAt().isBefore(beforeAccess));
+    assertNull(lazySubsystem.getStartDuration());
+    assertSame(failure, assertThrows(IllegalStateException.class, lazySubsystem::get).getCause());
+    verify(subsystem, times(1)).start(appContext);
+    lazySubsystem.stop(appContext);
+    verify(subsystem, times(1)).stop(appContext);
+  }
+
+  @Test
+  void shouldNotStopLazySubsystemThatWasNeverAccessed() {
+    TestAppContext appContext = new TestAppContext("test", new String[0]);
+    Subsystem<TestAppContext> subsystem = mock(Subsystem.class);
+    LazySubsystem<TestAppContext, Subsystem<TestAppContext>> lazySubsystem = ServiceUtil.lazy(
+        subsystem);
+    lazySubsystem.start(appContext);
+    lazySubsystem.stop(appContext);
+    verify(subsystem, never()).start(appContext);
+    verify(subsystem, never()).stop(appContext);
   }
 
   @Test
@@ -167,4 +385,4 @@ class ServiceUtilTest {
           + "key=ok\n", log);
     }
   }
-}
\ No newline at end of file
+}